@@ -0,0 +1,64 @@
+package org.folio.rest.impl;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.lang.StringUtils;
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.rest.support.IdRowWriter;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Streams the ids of the records matching a CQL query, optionally with one more field.
+ *
+ * <p>Only the id column and the requested field are selected, the jsonb is not
+ * loaded unless the CQL query or the field needs it, and the values are written
+ * to the response without creating an object per row.
+ */
+public abstract class AbstractBulkIdsAPI extends AbstractInstanceRecordsAPI {
+
+  /**
+   * @param table       the table to select from
+   * @param query       CQL query, all records if blank
+   * @param field       name of the field to return besides the id, null for none
+   * @param expression  SQL expression of the field, for example {@code jsonb->>'hrid'}
+   * @param respond400  creates the response of an invalid query
+   */
+  protected void streamIds(String table, String query, String field, String expression,
+                           Function<String, Response> respond400, RoutingContext routingContext,
+                           Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
+                           Context vertxContext) {
+
+    StringBuilder sql = new StringBuilder("SELECT id");
+    if (field != null) {
+      sql.append(", ").append(expression).append(" AS \"").append(field).append('"');
+    }
+    sql.append(" FROM ").append(table);
+    if (StringUtils.isNotBlank(query)) {
+      try {
+        sql.append(" WHERE ").append(new CQL2PgJSON(table + ".jsonb").toSql(query).getWhere());
+      } catch (QueryValidationException e) {
+        log.error(e.getMessage(), e);
+        asyncResultHandler.handle(succeededFuture(respond400.apply(e.getMessage())));
+        return;
+      }
+    }
+
+    IdRowWriter.Format format = IdRowWriter.Format.negotiate(
+      routingContext.request().getHeader(HttpHeaders.ACCEPT));
+    streamRows(sql.toString(), Tuple::tuple, () -> new IdRowWriter(format), format.getContentType(),
+      (response, row) -> {}, routingContext, okapiHeaders, asyncResultHandler, vertxContext,
+      "Streaming " + table + " ids completed successfully");
+  }
+}
@@ -3,13 +3,19 @@ package org.folio.rest.impl;
 import static io.vertx.core.Future.succeededFuture;
 import static org.folio.rest.jaxrs.resource.OaiPmhView.GetOaiPmhViewInstancesResponse.respond400WithTextPlain;
 import static org.folio.rest.jaxrs.resource.OaiPmhView.GetOaiPmhViewInstancesResponse.respond500WithTextPlain;
+import static org.folio.rest.support.AdmissionControl.WorkClass.BULK;
 
 import java.lang.invoke.MethodHandles;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import javax.ws.rs.core.Response;
@@ -17,7 +23,19 @@ import javax.ws.rs.core.Response;
 import org.apache.commons.lang.StringUtils;
 import org.folio.rest.persist.PgUtil;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.SQLConnection;
+import org.folio.rest.support.AdmissionControl;
+import org.folio.rest.support.GzipWriteStream;
+import org.folio.rest.support.JsonStreamFormat;
+import org.folio.rest.support.Metrics;
+import org.folio.rest.support.ResponseCleanup;
+import org.folio.rest.support.ResumptionToken;
+import org.folio.rest.support.RowJsonWriter;
 import org.folio.rest.support.RowStreamToBufferAdapter;
+import org.folio.rest.support.RowWriter;
+import org.folio.rest.support.SlowQueryLog;
+import org.folio.rest.support.StreamOptions;
+import org.folio.rest.tools.utils.TenantTool;
 
 import com.google.common.collect.Iterables;
 
@@ -25,11 +43,15 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.core.streams.Pipe;
+import io.vertx.core.streams.WriteStream;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.Tuple;
 import io.vertx.sqlclient.impl.ArrayTuple;
 
@@ -37,49 +59,222 @@ public abstract class AbstractInstanceRecordsAPI {
 
   protected static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-  private HttpServerResponse getResponse(RoutingContext routingContext) {
+  private static final String GZIP = "gzip";
+  private static final String TRAILER = "Trailer";
+  static final String RESUMPTION_TOKEN_TRAILER = "X-Resumption-Token";
+
+  private HttpServerResponse getResponse(RoutingContext routingContext, String contentType, boolean gzip) {
     final HttpServerResponse response = routingContext.response();
     response.setChunked(true);
-    response.putHeader("Content-Type", "application/json");
+    response.putHeader(HttpHeaders.CONTENT_TYPE, contentType);
+    response.putHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.putHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+    }
     return response;
   }
 
+  /**
+   * Newline delimited JSON if the client accepts it, otherwise the historical
+   * concatenated JSON objects.
+   */
+  static JsonStreamFormat negotiateFormat(HttpServerRequest request) {
+    if (accepts(request.getHeader(HttpHeaders.ACCEPT), JsonStreamFormat.NDJSON.getContentType())) {
+      return JsonStreamFormat.NDJSON;
+    }
+    return JsonStreamFormat.CONCATENATED;
+  }
+
+  /**
+   * @return true if the Accept-Encoding request header allows gzip
+   */
+  static boolean acceptsGzip(HttpServerRequest request) {
+    return accepts(request.getHeader(HttpHeaders.ACCEPT_ENCODING), GZIP);
+  }
+
+  /**
+   * Whether the Accept or Accept-Encoding header lists the media type or content coding with
+   * a q-value above 0, for example {@code application/x-ndjson} or {@code gzip;q=0.5}, but not
+   * {@code gzip;q=0}. Wildcards are not matched.
+   *
+   * @param header  value of the header, may be null
+   */
+  static boolean accepts(String header, String value) {
+    if (header == null) {
+      return false;
+    }
+    for (String element : header.split(",")) {
+      String[] parts = element.split(";");
+      if (! value.equalsIgnoreCase(parts[0].trim())) {
+        continue;
+      }
+      for (int i = 1; i < parts.length; i++) {
+        String[] parameter = parts[i].split("=", 2);
+        if (parameter.length == 2 && "q".equalsIgnoreCase(parameter[0].trim())) {
+          return qValue(parameter[1].trim()) > 0;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private static double qValue(String q) {
+    try {
+      return Double.parseDouble(q);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
   private void respondWithError(Throwable t, Handler<AsyncResult<Response>> asyncResultHandler) {
     log.error(t);
     asyncResultHandler.handle(succeededFuture(respond500WithTextPlain(t.getMessage())));
   }
 
+  /**
+   * Respond with 500 to a request whose stream has failed. The headers of the stream are
+   * removed if they have not been sent yet, so that the plain text error is not labelled
+   * as gzip or JSON; otherwise the response is cut off.
+   */
+  private void respondWithStreamError(Throwable t, HttpServerResponse response,
+    Handler<AsyncResult<Response>> asyncResultHandler) {
+
+    if (response.headWritten()) {
+      log.error(t);
+      if (! response.ended()) {
+        response.close();
+      }
+      return;
+    }
+    response.headers()
+      .remove(HttpHeaders.CONTENT_ENCODING)
+      .remove(HttpHeaders.CONTENT_TYPE);
+    response.setChunked(false);
+    respondWithError(t, asyncResultHandler);
+  }
+
+  private void rollback(PostgresClient postgresClient, AsyncResult<SQLConnection> tx) {
+    if (tx.succeeded()) {
+      postgresClient.rollbackTx(tx, rollback -> {
+        if (rollback.failed()) {
+          log.error(rollback.cause());
+        }
+      });
+    }
+  }
+
   protected void fetchRecordsByQuery(String sql, Supplier<Tuple> paramsSupplier, RoutingContext routingContext, Map<String, String> okapiHeaders,
                                      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext, String logMessage) {
 
+    fetchRecordsByQuery(sql, Collections.emptySet(), paramsSupplier, routingContext, okapiHeaders,
+      asyncResultHandler, vertxContext, logMessage);
+  }
+
+  /**
+   * Stream the rows of the query to the response.
+   *
+   * <p>Fetch size and the pause and duration limits are taken from the
+   * {@link StreamOptions} of the request path. If a limit is exceeded or the
+   * client goes away the transaction is rolled back, releasing the connection,
+   * and the HTTP connection is closed.
+   *
+   * @param rawJsonColumns  columns the query returns as JSON text (jsonb cast to text);
+   *                        they are copied to the response without being parsed
+   */
+  protected void fetchRecordsByQuery(String sql, Set<String> rawJsonColumns, Supplier<Tuple> paramsSupplier,
+                                     RoutingContext routingContext, Map<String, String> okapiHeaders,
+                                     Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext, String logMessage) {
+
+    fetchRecordsByQuery(sql, rawJsonColumns, paramsSupplier, (response, row) -> {}, routingContext, okapiHeaders,
+      asyncResultHandler, vertxContext, logMessage);
+  }
+
+  /**
+   * Stream the rows of the query to the response.
+   *
+   * @param rowObserver  called with the response and each row before the row is
+   *                     written, for example to set trailers
+   */
+  protected void fetchRecordsByQuery(String sql, Set<String> rawJsonColumns, Supplier<Tuple> paramsSupplier,
+                                     BiConsumer<HttpServerResponse, Row> rowObserver,
+                                     RoutingContext routingContext, Map<String, String> okapiHeaders,
+                                     Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext, String logMessage) {
+
+    final JsonStreamFormat format = negotiateFormat(routingContext.request());
+    streamRows(sql, paramsSupplier, () -> new RowJsonWriter(format, rawJsonColumns), format.getContentType(),
+      rowObserver, routingContext, okapiHeaders, asyncResultHandler, vertxContext, logMessage);
+  }
+
+  /**
+   * Stream the rows of the query to the response, encoded by a writer of
+   * {@code writerSupplier}; the core of the fetchRecordsByQuery methods.
+   *
+   * @param writerSupplier  creates the writer once the query has started
+   * @param contentType     Content-Type of the response
+   */
+  protected void streamRows(String sql, Supplier<Tuple> paramsSupplier, Supplier<RowWriter> writerSupplier,
+                            String contentType, BiConsumer<HttpServerResponse, Row> rowObserver,
+                            RoutingContext routingContext, Map<String, String> okapiHeaders,
+                            Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext, String logMessage) {
+
     try {
       log.debug("request params: {}", Iterables.toString(routingContext.request().params()));
       Tuple params = paramsSupplier.get();
       log.debug("postgres params: {}", params);
 
       PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
-      final HttpServerResponse response = getResponse(routingContext);
+      final boolean gzip = acceptsGzip(routingContext.request());
 
-      postgresClient.startTx(tx -> postgresClient.selectStream(tx, sql, params, ar -> {
-        if (ar.failed()) {
-          respondWithError(ar.cause(), asyncResultHandler);
-          return;
-        }
+      final HttpServerRequest request = routingContext.request();
+      final StreamOptions options = StreamOptions.forPath(request.path());
+      final String endpoint = request.method() + " " + request.path();
+      final Metrics.Request metrics = Metrics.request(endpoint, okapiHeaders);
+      metrics.end(routingContext);
+      final SlowQueryLog.Query slowQuery =
+        SlowQueryLog.start(TenantTool.tenantId(okapiHeaders), endpoint, null, () -> sql, params);
 
-        Pipe<Buffer> pipe = new RowStreamToBufferAdapter(ar.result()).pipe();
-        pipe.to(response, completed -> {
-          if (completed.failed()) {
-            respondWithError(completed.cause(), asyncResultHandler);
+      AdmissionControl.admit(BULK, okapiHeaders, routingContext, () ->
+        postgresClient.startTx(metrics.poolWait(tx -> postgresClient.selectStream(tx, sql, params, options.getFetchSize(),
+          metrics.db("stream", ar -> {
+          if (ar.failed()) {
+            slowQuery.finished(null, ar.cause().getMessage());
+            rollback(postgresClient, tx);
+            respondWithError(ar.cause(), asyncResultHandler);
             return;
           }
-          log.debug(logMessage);
-          postgresClient.endTx(tx, h -> {
-            if (h.failed()) {
-              respondWithError(h.cause(), asyncResultHandler);
+
+          final HttpServerResponse response = getResponse(routingContext, contentType, gzip);
+          final WriteStream<Buffer> target = gzip ? new GzipWriteStream(response) : response;
+          final RowStreamToBufferAdapter rows = new RowStreamToBufferAdapter(ar.result(), writerSupplier.get(),
+            vertxContext.owner(), options);
+          rows.rowObserver(row -> rowObserver.accept(response, row));
+          // a closed connection may never drain, do not wait for the end of the stream to clean up
+          ResponseCleanup.add(routingContext, () ->
+            rows.fail(new IllegalStateException("Connection closed before the end of the stream")));
+          Pipe<Buffer> pipe = rows.pipe();
+          // a failed stream must not look like a complete response to the client
+          pipe.endOnFailure(false);
+          pipe.to(target, completed -> {
+            if (completed.failed()) {
+              rows.close();
+              slowQuery.finished(rows.getStatistics().getRows(), completed.cause().getMessage());
+              rollback(postgresClient, tx);
+              log.warn("Streaming " + request.path() + " aborted, " + rows.getStatistics()
+                + ": " + completed.cause().getMessage());
+              respondWithStreamError(completed.cause(), response, asyncResultHandler);
+              return;
             }
+            log.debug(logMessage + ", " + rows.getStatistics());
+            Metrics.rowsStreamed(endpoint, TenantTool.tenantId(okapiHeaders), rows.getStatistics().getRows());
+            slowQuery.finished(rows.getStatistics().getRows(), null);
+            postgresClient.endTx(tx, h -> {
+              if (h.failed()) {
+                respondWithStreamError(h.cause(), response, asyncResultHandler);
+              }
+            });
           });
-        });
-      }));
+        })))));
     } catch (IllegalArgumentException e) {
       log.error(e);
       asyncResultHandler.handle(succeededFuture(respond400WithTextPlain(e.getMessage())));
@@ -88,6 +283,73 @@ public abstract class AbstractInstanceRecordsAPI {
     }
   }
 
+  /**
+   * Stream the updated instance ids returned by {@code sql}.
+   *
+   * <p>Without resumption token and limit the rows are streamed unordered as
+   * before. Otherwise {@code pagedSql} returns them ordered by (updatedDate, instanceId),
+   * starting after the keyset position of the token and stopping after {@code limit} rows;
+   * if the limit is reached the token of the last row is sent in the
+   * {@value #RESUMPTION_TOKEN_TRAILER} trailer.
+   *
+   * @param sql               query with the parameters created by paramsSupplier, without semicolon
+   * @param pagedSql          query with the parameters created by paramsSupplier followed by the
+   *                          date and the id of the token position and the limit, without semicolon
+   * @param updatedDateColumn name of the updated date column of the query
+   * @param instanceIdColumn  name of the instance id column of the query
+   * @param startDate         startDate request parameter
+   * @param resumptionToken   token of the last row received, may be null
+   * @param limit             maximum number of rows, 0 for no limit
+   * @param paramsSupplier    creates the parameters of sql from the start date to use, the later
+   *                          of startDate and the token date
+   */
+  protected void fetchUpdatedInstanceIds(String sql, String pagedSql, String updatedDateColumn, String instanceIdColumn,
+                                         String startDate, String resumptionToken, int limit,
+                                         Function<String, Tuple> paramsSupplier, RoutingContext routingContext,
+                                         Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
+                                         Context vertxContext, String logMessage) {
+
+    final ResumptionToken token;
+    final OffsetDateTime start;
+    try {
+      token = StringUtils.isEmpty(resumptionToken) ? null : ResumptionToken.decode(resumptionToken);
+      start = StringUtils.isEmpty(startDate) ? null : OffsetDateTime.parse(startDate);
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      asyncResultHandler.handle(succeededFuture(respond400WithTextPlain(e.getMessage())));
+      return;
+    }
+
+    if (token == null && limit <= 0) {
+      fetchRecordsByQuery(sql + ";", () -> paramsSupplier.apply(startDate), routingContext, okapiHeaders,
+        asyncResultHandler, vertxContext, logMessage);
+      return;
+    }
+
+    Supplier<Tuple> pagedParams = () -> {
+      String effectiveStart = startDate;
+      if (token != null && (start == null || token.getUpdatedDate().isAfter(start))) {
+        effectiveStart = token.getUpdatedDate().toString();
+      }
+      Tuple tuple = paramsSupplier.apply(effectiveStart);
+      tuple.addValue(token == null ? null : token.getUpdatedDate());
+      tuple.addValue(token == null ? null : token.getInstanceId());
+      tuple.addValue(limit > 0 ? limit : null);
+      return tuple;
+    };
+
+    int[] count = {0};
+    BiConsumer<HttpServerResponse, Row> trailer = (response, row) -> {
+      if (++count[0] == limit) {
+        response.putTrailer(RESUMPTION_TOKEN_TRAILER, new ResumptionToken(
+          row.getOffsetDateTime(updatedDateColumn), row.getUUID(instanceIdColumn)).encode());
+      }
+    };
+
+    routingContext.response().putHeader(TRAILER, RESUMPTION_TOKEN_TRAILER);
+    fetchRecordsByQuery(pagedSql + ";", Collections.emptySet(), pagedParams, trailer, routingContext, okapiHeaders,
+      asyncResultHandler, vertxContext, logMessage);
+  }
+
   protected Tuple createPostgresParams(String startDate, String endDate, boolean deletedRecordSupport,
       boolean skipSuppressedFromDiscoveryRecords) {
 
@@ -116,6 +378,8 @@ public abstract class AbstractInstanceRecordsAPI {
       // Apply extra parameters
       applyExtraParams.accept(tuple);
 
+    } catch (IllegalArgumentException e) {
+      throw e;
     } catch (Exception e) {
       throw new IllegalArgumentException(e);
     }
@@ -123,6 +387,20 @@ public abstract class AbstractInstanceRecordsAPI {
     return tuple;
   }
 
+  /**
+   * Add the shards and shard parameters of a harvest split into {@code shards} parts
+   * by instance id, see the instance_shard database function.
+   *
+   * @throws IllegalArgumentException if shard is not between 0 and shards - 1
+   */
+  protected static void addShardParams(Tuple tuple, int shards, int shard) {
+    if (shards < 1 || shard < 0 || shard >= shards) {
+      throw new IllegalArgumentException("shard must be between 0 and shards - 1, shards=" + shards + ", shard=" + shard);
+    }
+    tuple.addInteger(shards);
+    tuple.addInteger(shard);
+  }
+
   protected Tuple createPostgresParams(UUID[] instancesIds, boolean skipSuppressedFromDiscoveryRecords) {
 
     Tuple tuple = new ArrayTuple(2);
@@ -1,6 +1,7 @@
 package org.folio.rest.impl;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.folio.rest.support.AdmissionControl.WorkClass.BULK;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.CompositeFuture;
@@ -14,6 +15,7 @@ import org.folio.rest.jaxrs.model.HoldingsRecord;
 import org.folio.rest.jaxrs.model.HoldingsrecordsPost;
 import org.folio.rest.jaxrs.resource.HoldingsStorageBatchSynchronous;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.support.AdmissionControl;
 import org.folio.rest.support.HridManager;
 import org.folio.rest.tools.utils.TenantTool;
 
@@ -28,28 +30,30 @@ public class HoldingsBatchSyncAPI implements HoldingsStorageBatchSynchronous {
   @Override
   public void postHoldingsStorageBatchSynchronous(boolean upsert, HoldingsrecordsPost entity, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    final List<HoldingsRecord> holdingsRecords = entity.getHoldingsRecords();
-    final PostgresClient postgresClient = PostgresClient.getInstance(
-          vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
-    // Currently, there is no method on CompositeFuture to accept List<Future<String>>
-    @SuppressWarnings("rawtypes")
-    final List<Future> futures = new ArrayList<>();
-    final HridManager hridManager = new HridManager(Vertx.currentContext(), postgresClient);
+    AdmissionControl.admit(BULK, okapiHeaders, asyncResultHandler, responseHandler -> {
+      final List<HoldingsRecord> holdingsRecords = entity.getHoldingsRecords();
+      final PostgresClient postgresClient = PostgresClient.getInstance(
+            vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
+      // Currently, there is no method on CompositeFuture to accept List<Future<String>>
+      @SuppressWarnings("rawtypes")
+      final List<Future> futures = new ArrayList<>();
+      final HridManager hridManager = new HridManager(Vertx.currentContext(), postgresClient);
 
-    for (HoldingsRecord holdingsRecord : holdingsRecords) {
-      futures.add(setHrid(holdingsRecord, hridManager));
-    }
-
-    CompositeFuture.all(futures).setHandler(ar -> {
-      if (ar.succeeded()) {
-        StorageHelper.postSync(HoldingsStorageAPI.HOLDINGS_RECORD_TABLE, holdingsRecords,
-            okapiHeaders, upsert, asyncResultHandler, vertxContext,
-            HoldingsStorageBatchSynchronous.PostHoldingsStorageBatchSynchronousResponse::respond201);
-      } else {
-        asyncResultHandler.handle(
-            Future.succeededFuture(PostHoldingsStorageBatchSynchronousResponse
-                .respond500WithTextPlain(ar.cause().getMessage())));
+      for (HoldingsRecord holdingsRecord : holdingsRecords) {
+        futures.add(setHrid(holdingsRecord, hridManager));
       }
+
+      CompositeFuture.all(futures).setHandler(ar -> {
+        if (ar.succeeded()) {
+          StorageHelper.postSync(HoldingsStorageAPI.HOLDINGS_RECORD_TABLE, holdingsRecords,
+              okapiHeaders, upsert, responseHandler, vertxContext,
+              HoldingsStorageBatchSynchronous.PostHoldingsStorageBatchSynchronousResponse::respond201);
+        } else {
+          responseHandler.handle(
+              Future.succeededFuture(PostHoldingsStorageBatchSynchronousResponse
+                  .respond500WithTextPlain(ar.cause().getMessage())));
+        }
+      });
     });
   }
 
@@ -0,0 +1,43 @@
+package org.folio.rest.impl;
+
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+
+import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.HoldingsBulkIdsGetField;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+public class HoldingsBulkAPI extends AbstractBulkIdsAPI implements org.folio.rest.jaxrs.resource.HoldingsBulk {
+  public static final String HOLDINGS_RECORD_TABLE = "holdings_record";
+
+  @Validate
+  @Override
+  public void getHoldingsBulkIds(HoldingsBulkIdsGetField field,
+      String query, String lang, RoutingContext routingContext,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+
+    String name = null;
+    String expression = null;
+    switch (String.valueOf(field)) {
+      case "hrid":
+        name = "hrid";
+        expression = "jsonb->>'hrid'";
+        break;
+      case "instanceId":
+        // foreign key column, no need to read the jsonb
+        name = "instanceId";
+        expression = "instanceId";
+        break;
+      default:
+    }
+    streamIds(HOLDINGS_RECORD_TABLE, query, name, expression, GetHoldingsBulkIdsResponse::respond400WithTextPlain,
+      routingContext, okapiHeaders, asyncResultHandler, vertxContext);
+  }
+}
@@ -1,8 +1,10 @@
 package org.folio.rest.impl;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.folio.rest.support.AdmissionControl.WorkClass.INTERACTIVE;
 import static org.folio.rest.support.EffectiveCallNumberComponentsUtil.buildComponents;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -16,7 +18,10 @@ import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
 import org.folio.cql2pgjson.CQL2PgJSON;
 import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.BulkDeleteRequest;
+import org.folio.rest.jaxrs.model.BulkUpdateRequest;
 import org.folio.rest.jaxrs.model.HoldingsRecord;
+import org.folio.rest.jaxrs.model.HoldingsStorageHoldingsDeleteMode;
 import org.folio.rest.jaxrs.model.Item;
 import org.folio.rest.jaxrs.resource.HoldingsStorage;
 import org.folio.rest.persist.PgExceptionUtil;
@@ -28,7 +33,11 @@ import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.SQLConnection;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.support.AdmissionControl;
 import org.folio.rest.support.HridManager;
+import org.folio.rest.support.Metrics;
+import org.folio.rest.support.PgUtilSql;
+import org.folio.rest.support.SlowQueryLog;
 import org.folio.rest.tools.utils.TenantTool;
 import org.folio.rest.tools.utils.ValidationHelper;
 
@@ -58,33 +67,41 @@ public class HoldingsStorageAPI implements HoldingsStorage {
 
   @Validate
   @Override
-  public void deleteHoldingsStorageHoldings(String lang,
+  public void deleteHoldingsStorageHoldings(HoldingsStorageHoldingsDeleteMode mode, String lang,
     RoutingContext routingContext, Map<String, String> okapiHeaders,
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    String tenantId = okapiHeaders.get(TENANT_HEADER);
-
-    vertxContext.runOnContext(v -> {
-      try {
-        PostgresClient postgresClient = PostgresClient.getInstance(
-          vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
+    StorageHelper.deleteAll(String.valueOf(mode), "/holdings-storage/holdings",
+      Collections.singletonList(HOLDINGS_RECORD_TABLE), okapiHeaders, asyncResultHandler, vertxContext,
+      DeleteHoldingsStorageHoldingsResponse::respond204,
+      DeleteHoldingsStorageHoldingsResponse::respond202WithApplicationJson,
+      DeleteHoldingsStorageHoldingsResponse::respond400WithTextPlain,
+      DeleteHoldingsStorageHoldingsResponse::respond500WithTextPlain);
+  }
 
-        postgresClient.execute(String.format("DELETE FROM %s_%s."+HOLDINGS_RECORD_TABLE,
-          tenantId, "mod_inventory_storage"),
-          reply -> {
-            asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-              DeleteHoldingsStorageHoldingsResponse
-                .noContent().build()));
-          });
-      }
-      catch(Exception e) {
-        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-          DeleteHoldingsStorageHoldingsResponse
-            .respond500WithTextPlain(e.getMessage())));
-      }
-    });
+  @Validate
+  @Override
+  public void postHoldingsStorageHoldingsBulkDelete(BulkDeleteRequest entity,
+    Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    StorageHelper.bulkDelete(HOLDINGS_RECORD_TABLE, "/holdings-storage/holdings", entity.getQuery(),
+      okapiHeaders, asyncResultHandler, vertxContext,
+      PostHoldingsStorageHoldingsBulkDeleteResponse::respond202WithApplicationJson,
+      PostHoldingsStorageHoldingsBulkDeleteResponse::respond400WithTextPlain,
+      PostHoldingsStorageHoldingsBulkDeleteResponse::respond500WithTextPlain);
+  }
 
+  @Validate
+  @Override
+  public void postHoldingsStorageHoldingsBulkUpdate(BulkUpdateRequest entity,
+    Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    StorageHelper.bulkUpdate(HOLDINGS_RECORD_TABLE, "/holdings-storage/holdings", "bulk_update_holdings_records",
+      HoldingsRecord.class, entity.getQuery(), entity.getPatch(), okapiHeaders, asyncResultHandler, vertxContext,
+      PostHoldingsStorageHoldingsBulkUpdateResponse::respond202WithApplicationJson,
+      PostHoldingsStorageHoldingsBulkUpdateResponse::respond400WithTextPlain,
+      PostHoldingsStorageHoldingsBulkUpdateResponse::respond500WithTextPlain);
   }
 
   @Validate
@@ -95,8 +112,12 @@ public class HoldingsStorageAPI implements HoldingsStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    PgUtil.streamGet(HOLDINGS_RECORD_TABLE, HoldingsRecord.class, query, offset,
-      limit, null, "holdingsRecords", routingContext, okapiHeaders, vertxContext);
+    Metrics.request("GET /holdings-storage/holdings", okapiHeaders).end(routingContext);
+    SlowQueryLog.streamGet("GET /holdings-storage/holdings", HOLDINGS_RECORD_TABLE, query, offset, limit, okapiHeaders, routingContext);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, routingContext, () ->
+      PgUtil.streamGet(HOLDINGS_RECORD_TABLE, HoldingsRecord.class, query, offset,
+        limit, null, "holdingsRecords", routingContext, okapiHeaders, vertxContext));
   }
 
   @Validate
@@ -107,82 +128,87 @@ public class HoldingsStorageAPI implements HoldingsStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-        String tenantId = okapiHeaders.get(TENANT_HEADER);
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("POST /holdings-storage/holdings", okapiHeaders).wrap(asyncResultHandler);
 
-    try {
-      PostgresClient postgresClient =
-        PostgresClient.getInstance(
-          vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      String tenantId = okapiHeaders.get(TENANT_HEADER);
 
-      vertxContext.runOnContext(v -> {
-        try {
+      try {
+        PostgresClient postgresClient =
+          PostgresClient.getInstance(
+            vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
 
-          if(entity.getId() == null) {
-            entity.setId(UUID.randomUUID().toString());
-          }
-          else {
-            if (! isUUID(entity.getId())) {
-              asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-                PostHoldingsStorageHoldingsResponse
-                  .respond400WithTextPlain("ID must be a UUID")));
-              return;
-            }
-          }
+        vertxContext.runOnContext(v -> {
+          try {
 
-          final Future<String> hridFuture =
-              setHoldingsHrid(entity, vertxContext, postgresClient);
+            if(entity.getId() == null) {
+              entity.setId(UUID.randomUUID().toString());
+            }
+            else {
+              if (! isUUID(entity.getId())) {
+                responseHandler.handle(io.vertx.core.Future.succeededFuture(
+                  PostHoldingsStorageHoldingsResponse
+                    .respond400WithTextPlain("ID must be a UUID")));
+                return;
+              }
+            }
 
-          hridFuture.map(hrid -> {
-            entity.setHrid(hrid);
-            postgresClient.save(HOLDINGS_RECORD_TABLE, entity.getId(), entity,
-              reply -> {
-                try {
-                  if(reply.succeeded()) {
-                    String ret = reply.result();
-                    asyncResultHandler.handle(
-                      io.vertx.core.Future.succeededFuture(
-                        PostHoldingsStorageHoldingsResponse
-                          .respond201WithApplicationJson(entity, PostHoldingsStorageHoldingsResponse.headersFor201().withLocation(ret))));
-                  }
-                  else {
-                    if (PgExceptionUtil.isUniqueViolation(reply.cause())) {
-                      ValidationHelper.handleError(reply.cause(), asyncResultHandler);
-                    } else {
-                      asyncResultHandler.handle(
+            final Future<String> hridFuture =
+                setHoldingsHrid(entity, vertxContext, postgresClient);
+
+            hridFuture.map(hrid -> {
+              entity.setHrid(hrid);
+              postgresClient.save(HOLDINGS_RECORD_TABLE, entity.getId(), entity,
+                reply -> {
+                  try {
+                    if(reply.succeeded()) {
+                      String ret = reply.result();
+                      responseHandler.handle(
                         io.vertx.core.Future.succeededFuture(
                           PostHoldingsStorageHoldingsResponse
-                            .respond400WithTextPlain(reply.cause().getMessage())));
+                            .respond201WithApplicationJson(entity, PostHoldingsStorageHoldingsResponse.headersFor201().withLocation(ret))));
+                    }
+                    else {
+                      if (PgExceptionUtil.isUniqueViolation(reply.cause())) {
+                        ValidationHelper.handleError(reply.cause(), responseHandler);
+                      } else {
+                        responseHandler.handle(
+                          io.vertx.core.Future.succeededFuture(
+                            PostHoldingsStorageHoldingsResponse
+                              .respond400WithTextPlain(reply.cause().getMessage())));
+                      }
                     }
+                  } catch (Exception e) {
+                    log.error(e.getMessage());
+                    responseHandler.handle(
+                      io.vertx.core.Future.succeededFuture(
+                        PostHoldingsStorageHoldingsResponse
+                          .respond500WithTextPlain(e.getMessage())));
                   }
-                } catch (Exception e) {
-                  log.error(e.getMessage());
-                  asyncResultHandler.handle(
-                    io.vertx.core.Future.succeededFuture(
-                      PostHoldingsStorageHoldingsResponse
-                        .respond500WithTextPlain(e.getMessage())));
-                }
-              });
-            return null;
-          })
-          .otherwise(error -> {
-            log.error(error.getMessage(), error);
-            asyncResultHandler.handle(
-              io.vertx.core.Future.succeededFuture(
-                PostHoldingsStorageHoldingsResponse
-                  .respond500WithTextPlain(error.getMessage())));
-            return null;
-          });
-        } catch (Exception e) {
-          log.error(e.getMessage());
-          asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-            PostHoldingsStorageHoldingsResponse.respond500WithTextPlain(e.getMessage())));
-        }
-      });
-    } catch (Exception e) {
-      log.error(e.getMessage());
-      asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-        PostHoldingsStorageHoldingsResponse.respond500WithTextPlain(e.getMessage())));
-    }
+                });
+              return null;
+            })
+            .otherwise(error -> {
+              log.error(error.getMessage(), error);
+              responseHandler.handle(
+                io.vertx.core.Future.succeededFuture(
+                  PostHoldingsStorageHoldingsResponse
+                    .respond500WithTextPlain(error.getMessage())));
+              return null;
+            });
+          } catch (Exception e) {
+            log.error(e.getMessage());
+            responseHandler.handle(io.vertx.core.Future.succeededFuture(
+              PostHoldingsStorageHoldingsResponse.respond500WithTextPlain(e.getMessage())));
+          }
+        });
+      } catch (Exception e) {
+        log.error(e.getMessage());
+        responseHandler.handle(io.vertx.core.Future.succeededFuture(
+          PostHoldingsStorageHoldingsResponse.respond500WithTextPlain(e.getMessage())));
+      }
+    });
   }
 
   @Validate
@@ -193,69 +219,74 @@ public class HoldingsStorageAPI implements HoldingsStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    String tenantId = okapiHeaders.get(TENANT_HEADER);
-    try {
-      PostgresClient postgresClient = PostgresClient.getInstance(
-        vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("GET /holdings-storage/holdings/{id}", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      String tenantId = okapiHeaders.get(TENANT_HEADER);
+      try {
+        PostgresClient postgresClient = PostgresClient.getInstance(
+          vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
 
-      vertxContext.runOnContext(v -> {
-        try {
-          String[] fieldList = {"*"};
+        vertxContext.runOnContext(v -> {
+          try {
+            String[] fieldList = {"*"};
 
-          CQL2PgJSON cql2pgJson = new CQL2PgJSON(HOLDINGS_RECORD_TABLE+".jsonb");
-          CQLWrapper cql = new CQLWrapper(cql2pgJson, String.format("id==%s", holdingsRecordId))
-            .setLimit(new Limit(1))
-            .setOffset(new Offset(0));
+            CQL2PgJSON cql2pgJson = new CQL2PgJSON(HOLDINGS_RECORD_TABLE+".jsonb");
+            CQLWrapper cql = new CQLWrapper(cql2pgJson, String.format("id==%s", holdingsRecordId))
+              .setLimit(new Limit(1))
+              .setOffset(new Offset(0));
 
-          log.info(String.format("SQL generated from CQL: %s", cql.toString()));
+            SlowQueryLog.Query slowQuery = SlowQueryLog.start(TenantTool.tenantId(okapiHeaders),
+              "GET /holdings-storage/holdings/{id}", null, () -> PgUtilSql.get(TenantTool.tenantId(okapiHeaders), HOLDINGS_RECORD_TABLE, cql), null);
 
-          postgresClient.get(HOLDINGS_RECORD_TABLE, HoldingsRecord.class, fieldList, cql, true, false,
-            reply -> {
-              try {
-                if (reply.succeeded()) {
-                  List<HoldingsRecord> holdingsList = reply.result().getResults();
-                  if (holdingsList.size() == 1) {
-                    HoldingsRecord holdingsRecord = holdingsList.get(0);
+            postgresClient.get(HOLDINGS_RECORD_TABLE, HoldingsRecord.class, fieldList, cql, true, false,
+              slowQuery.handler(results -> results.getResults().size(), reply -> {
+                try {
+                  if (reply.succeeded()) {
+                    List<HoldingsRecord> holdingsList = reply.result().getResults();
+                    if (holdingsList.size() == 1) {
+                      HoldingsRecord holdingsRecord = holdingsList.get(0);
 
-                    asyncResultHandler.handle(
-                      io.vertx.core.Future.succeededFuture(
+                      responseHandler.handle(
+                        io.vertx.core.Future.succeededFuture(
+                          GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
+                            respond200WithApplicationJson(holdingsRecord)));
+                    }
+                    else {
+                    responseHandler.handle(
+                      Future.succeededFuture(
                         GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
-                          respond200WithApplicationJson(holdingsRecord)));
-                  }
-                  else {
-                  asyncResultHandler.handle(
-                    Future.succeededFuture(
-                      GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
-                        respond404WithTextPlain("Not Found")));
-                  }
-                } else {
-                  asyncResultHandler.handle(
-                    Future.succeededFuture(
-                      GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
-                        respond500WithTextPlain(reply.cause().getMessage())));
+                          respond404WithTextPlain("Not Found")));
+                    }
+                  } else {
+                    responseHandler.handle(
+                      Future.succeededFuture(
+                        GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
+                          respond500WithTextPlain(reply.cause().getMessage())));
 
+                  }
+                } catch (Exception e) {
+                    log.error(e.getMessage());
+                  responseHandler.handle(io.vertx.core.Future.succeededFuture(
+                    GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
+                      respond500WithTextPlain(e.getMessage())));
                 }
-              } catch (Exception e) {
-                  log.error(e.getMessage());
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-                  GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
-                    respond500WithTextPlain(e.getMessage())));
-              }
-            });
-        } catch (Exception e) {
-          log.error(e.getMessage());
-          asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-            GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
-              respond500WithTextPlain(e.getMessage())));
-        }
-      });
-    } catch (Exception e) {
-      log.error(e.getMessage());
-      asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-        GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
-          respond500WithTextPlain(e.getMessage())));
-    }
-
+              }));
+          } catch (Exception e) {
+            log.error(e.getMessage());
+            responseHandler.handle(io.vertx.core.Future.succeededFuture(
+              GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
+                respond500WithTextPlain(e.getMessage())));
+          }
+        });
+      } catch (Exception e) {
+        log.error(e.getMessage());
+        responseHandler.handle(io.vertx.core.Future.succeededFuture(
+          GetHoldingsStorageHoldingsByHoldingsRecordIdResponse.
+            respond500WithTextPlain(e.getMessage())));
+      }
+    });
   }
 
   @Validate
@@ -266,8 +297,13 @@ public class HoldingsStorageAPI implements HoldingsStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    PgUtil.deleteById(HOLDINGS_RECORD_TABLE, holdingsRecordId,
-        okapiHeaders, vertxContext, DeleteHoldingsStorageHoldingsByHoldingsRecordIdResponse.class, asyncResultHandler);
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("DELETE /holdings-storage/holdings/{id}", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      PgUtil.deleteById(HOLDINGS_RECORD_TABLE, holdingsRecordId,
+          okapiHeaders, vertxContext, DeleteHoldingsStorageHoldingsByHoldingsRecordIdResponse.class, responseHandler);
+    });
   }
 
   @Validate
@@ -279,157 +315,167 @@ public class HoldingsStorageAPI implements HoldingsStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    String tenantId = okapiHeaders.get(TENANT_HEADER);
+    Metrics.Request metrics = Metrics.request("PUT /holdings-storage/holdings/{id}", okapiHeaders);
+    Handler<AsyncResult<Response>> measuredHandler = metrics.wrap(asyncResultHandler);
 
-    try {
-      PostgresClient postgresClient =
-        PostgresClient.getInstance(
-          vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      String tenantId = okapiHeaders.get(TENANT_HEADER);
 
-      vertxContext.runOnContext(v -> {
-        try {
-          String[] fieldList = {"*"};
-
-          CQL2PgJSON cql2pgJson = new CQL2PgJSON(HOLDINGS_RECORD_TABLE+".jsonb");
-          CQLWrapper cql = new CQLWrapper(cql2pgJson, String.format("id==%s", holdingsRecordId))
-            .setLimit(new Limit(1))
-            .setOffset(new Offset(0));
-
-          log.info(String.format("SQL generated from CQL: %s", cql.toString()));
-
-          postgresClient.get(HOLDINGS_RECORD_TABLE, HoldingsRecord.class, fieldList, cql, true, false,
-            reply -> {
-              if(reply.succeeded()) {
-                List<HoldingsRecord> holdingsList = reply.result().getResults();
-
-                if (holdingsList.size() == 1) {
-                  final HoldingsRecord existingHoldings = holdingsList.get(0);
-                  if (Objects.equals(entity.getHrid(), existingHoldings.getHrid())) {
-                    try {
-                      postgresClient.startTx(connection -> {
-                        updateItemEffectiveCallNumbersByHoldings(connection, postgresClient, entity).onComplete(updateResult -> {
-                          if (updateResult.succeeded()) {
-                            postgresClient.update(connection, HOLDINGS_RECORD_TABLE, entity,
-                              "jsonb", String.format(WHERE_CLAUSE, holdingsRecordId), false,
-                              update -> {
-                                try {
-                                  if (update.succeeded()) {
-                                    postgresClient.endTx(connection, done -> {
-                                      asyncResultHandler.handle(
-                                        Future.succeededFuture(
-                                          PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                                            .respond204()));
-                                    });
-                                  }
-                                  else {
+      try {
+        PostgresClient postgresClient =
+          PostgresClient.getInstance(
+            vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
+
+        vertxContext.runOnContext(v -> {
+          try {
+            String[] fieldList = {"*"};
+
+            CQL2PgJSON cql2pgJson = new CQL2PgJSON(HOLDINGS_RECORD_TABLE+".jsonb");
+            CQLWrapper cql = new CQLWrapper(cql2pgJson, String.format("id==%s", holdingsRecordId))
+              .setLimit(new Limit(1))
+              .setOffset(new Offset(0));
+
+            SlowQueryLog.Query slowQuery = SlowQueryLog.start(TenantTool.tenantId(okapiHeaders),
+              "PUT /holdings-storage/holdings/{id}", null, () -> PgUtilSql.get(TenantTool.tenantId(okapiHeaders), HOLDINGS_RECORD_TABLE, cql), null);
+
+            postgresClient.get(HOLDINGS_RECORD_TABLE, HoldingsRecord.class, fieldList, cql, true, false,
+              slowQuery.handler(results -> results.getResults().size(), metrics.db("select", reply -> {
+                if(reply.succeeded()) {
+                  List<HoldingsRecord> holdingsList = reply.result().getResults();
+
+                  if (holdingsList.size() == 1) {
+                    final HoldingsRecord existingHoldings = holdingsList.get(0);
+                    if (Objects.equals(entity.getHrid(), existingHoldings.getHrid())) {
+                      try {
+                        postgresClient.startTx(metrics.poolWait(connection -> {
+                          updateItemEffectiveCallNumbersByHoldings(connection, postgresClient, entity).onComplete(updateResult -> {
+                            if (updateResult.succeeded()) {
+                              postgresClient.update(connection, HOLDINGS_RECORD_TABLE, entity,
+                                "jsonb", String.format(WHERE_CLAUSE, holdingsRecordId), false,
+                                metrics.db("update", update -> {
+                                  try {
+                                    if (update.succeeded()) {
+                                      postgresClient.endTx(connection, done -> {
+                                        responseHandler.handle(
+                                          Future.succeededFuture(
+                                            PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                                              .respond204()));
+                                      });
+                                    }
+                                    else {
+                                      postgresClient.rollbackTx(connection, rollback -> {
+                                        responseHandler.handle(
+                                          Future.succeededFuture(
+                                            PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                                              .respond500WithTextPlain(
+                                                update.cause().getMessage())));
+                                      });
+                                    }
+                                  } catch (Exception e) {
                                     postgresClient.rollbackTx(connection, rollback -> {
-                                      asyncResultHandler.handle(
+                                      responseHandler.handle(
                                         Future.succeededFuture(
                                           PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                                            .respond500WithTextPlain(
-                                              update.cause().getMessage())));
+                                            .respond500WithTextPlain(e.getMessage())));
                                     });
                                   }
-                                } catch (Exception e) {
-                                  postgresClient.rollbackTx(connection, rollback -> {
-                                    asyncResultHandler.handle(
-                                      Future.succeededFuture(
-                                        PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                                          .respond500WithTextPlain(e.getMessage())));
-                                  });
-                                }
-                              });
-                            } else {
-                              postgresClient.rollbackTx(connection, rollback ->
-                                asyncResultHandler.handle(
+                                }));
+                              } else {
+                                postgresClient.rollbackTx(connection, rollback ->
+                                  responseHandler.handle(
+                                    Future.succeededFuture(
+                                      PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                                        .respond500WithTextPlain(
+                                          updateResult.cause().getMessage()))));
+                              }
+                            });
+                        }));
+                      } catch (Exception e) {
+                        responseHandler.handle(Future.succeededFuture(
+                          PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                            .respond500WithTextPlain(e.getMessage())));
+                      }
+                    } else {
+                      responseHandler.handle(
+                        Future.succeededFuture(
+                          PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                            .respond400WithTextPlain(
+                                "The hrid field cannot be changed: new="
+                                  + entity.getHrid()
+                                  + ", old="
+                                  + existingHoldings.getHrid())));
+                    }
+                }
+                else {
+                  try {
+                    final Future<String> hridFuture =
+                        setHoldingsHrid(entity, vertxContext, postgresClient);
+
+                    hridFuture.map(hrid -> {
+                      entity.setHrid(hrid);
+                      postgresClient.save(HOLDINGS_RECORD_TABLE, entity.getId(), entity,
+                        metrics.db("save", save -> {
+                          try {
+                            if(save.succeeded()) {
+                              responseHandler.handle(
+                                Future.succeededFuture(
+                                  PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                                    .respond204()));
+                            }
+                            else {
+                              if (PgExceptionUtil.isUniqueViolation(save.cause())) {
+                                responseHandler.handle(
+                                  Future.succeededFuture(
+                                    PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                                      .respond400WithTextPlain(PgExceptionUtil.badRequestMessage(save.cause()))));
+                              } else {
+                                responseHandler.handle(
                                   Future.succeededFuture(
                                     PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
                                       .respond500WithTextPlain(
-                                        updateResult.cause().getMessage()))));
+                                        save.cause().getMessage())));
+                              }
                             }
-                          });
-                      });
-                    } catch (Exception e) {
-                      asyncResultHandler.handle(Future.succeededFuture(
-                        PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                          .respond500WithTextPlain(e.getMessage())));
-                    }
-                  } else {
-                    asyncResultHandler.handle(
-                      Future.succeededFuture(
-                        PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                          .respond400WithTextPlain(
-                              "The hrid field cannot be changed: new="
-                                + entity.getHrid()
-                                + ", old="
-                                + existingHoldings.getHrid())));
-                  }
-              }
-              else {
-                try {
-                  final Future<String> hridFuture =
-                      setHoldingsHrid(entity, vertxContext, postgresClient);
-
-                  hridFuture.map(hrid -> {
-                    entity.setHrid(hrid);
-                    postgresClient.save(HOLDINGS_RECORD_TABLE, entity.getId(), entity,
-                      save -> {
-                        try {
-                          if(save.succeeded()) {
-                            asyncResultHandler.handle(
+                          } catch (Exception e) {
+                            responseHandler.handle(
                               Future.succeededFuture(
                                 PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                                  .respond204()));
+                                  .respond500WithTextPlain(e.getMessage())));
                           }
-                          else {
-                            if (PgExceptionUtil.isUniqueViolation(save.cause())) {
-                              asyncResultHandler.handle(
-                                Future.succeededFuture(
-                                  PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                                    .respond400WithTextPlain(PgExceptionUtil.badRequestMessage(save.cause()))));
-                            } else {
-                              asyncResultHandler.handle(
-                                Future.succeededFuture(
-                                  PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                                    .respond500WithTextPlain(
-                                      save.cause().getMessage())));
-                            }
-                          }
-                        } catch (Exception e) {
-                          asyncResultHandler.handle(
-                            Future.succeededFuture(
-                              PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                                .respond500WithTextPlain(e.getMessage())));
-                        }
-                      });
-                    return null;
-                  })
-                  .otherwise(error -> {
-                    return null;
-                  });
-                } catch (Exception e) {
-                  asyncResultHandler.handle(Future.succeededFuture(
-                    PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                      .respond500WithTextPlain(e.getMessage())));
+                        }));
+                      return null;
+                    })
+                    .otherwise(error -> {
+                      log.error(error.getMessage(), error);
+                      responseHandler.handle(Future.succeededFuture(
+                        PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                          .respond500WithTextPlain(error.getMessage())));
+                      return null;
+                    });
+                  } catch (Exception e) {
+                    responseHandler.handle(Future.succeededFuture(
+                      PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                        .respond500WithTextPlain(e.getMessage())));
+                  }
                 }
+              } else {
+                  responseHandler.handle(Future.succeededFuture(
+                    PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                      .respond500WithTextPlain(reply.cause().getMessage())));
               }
-            } else {
-                asyncResultHandler.handle(Future.succeededFuture(
-                  PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-                    .respond500WithTextPlain(reply.cause().getMessage())));
-            }
-          });
-        } catch (Exception e) {
-          asyncResultHandler.handle(Future.succeededFuture(
-            PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-              .respond500WithTextPlain(e.getMessage())));
-        }
-      });
-    } catch (Exception e) {
-      asyncResultHandler.handle(Future.succeededFuture(
-        PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
-          .respond500WithTextPlain(e.getMessage())));
-    }
+            })));
+          } catch (Exception e) {
+            responseHandler.handle(Future.succeededFuture(
+              PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+                .respond500WithTextPlain(e.getMessage())));
+          }
+        });
+      } catch (Exception e) {
+        responseHandler.handle(Future.succeededFuture(
+          PutHoldingsStorageHoldingsByHoldingsRecordIdResponse
+            .respond500WithTextPlain(e.getMessage())));
+      }
+    });
   }
 
   private Future<String> setHoldingsHrid(HoldingsRecord entity, Context vertxContext,
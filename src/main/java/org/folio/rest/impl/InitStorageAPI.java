@@ -0,0 +1,60 @@
+package org.folio.rest.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.resource.interfaces.InitAPI;
+import org.folio.services.AuditPartitionMaintenance;
+import org.folio.services.MigrationService;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Restarts the background work of the tenants of this module when the module starts. The tenant
+ * API starts this work for a tenant; after a restart or redeployment of the module it would not
+ * run until the next {@code POST /_/tenant} of each tenant.
+ */
+public class InitStorageAPI implements InitAPI {
+  private static final Logger log = LoggerFactory.getLogger(InitStorageAPI.class);
+  // the schema of a tenant is <tenant>_<module>
+  private static final String SQL_TENANTS =
+    "SELECT left(nspname, -length($1)) FROM pg_namespace WHERE right(nspname, length($1)) = $1";
+
+  @Override
+  public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> handler) {
+    tenants(vertx).onComplete(result -> {
+      if (result.failed()) {
+        // the tenants are restarted by their next POST /_/tenant
+        log.error("Cannot list the tenants to restart their background work", result.cause());
+      } else {
+        result.result().forEach(tenantId -> {
+          AuditPartitionMaintenance.start(vertx, tenantId);
+          MigrationService.resumeInterrupted(vertx, tenantId);
+        });
+      }
+      handler.handle(Future.succeededFuture(true));
+    });
+  }
+
+  private static Future<List<String>> tenants(Vertx vertx) {
+    Promise<RowSet<Row>> rows = Promise.promise();
+    PostgresClient.getInstance(vertx)
+      .select(SQL_TENANTS, Tuple.of("_" + PostgresClient.getModuleName()), rows);
+    return rows.future().map(rowSet -> {
+      List<String> tenants = new ArrayList<>();
+      rowSet.forEach(row -> tenants.add(row.getString(0)));
+      return tenants;
+    });
+  }
+}
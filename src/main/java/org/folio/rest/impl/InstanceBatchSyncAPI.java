@@ -1,6 +1,7 @@
 package org.folio.rest.impl;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.folio.rest.support.AdmissionControl.WorkClass.BULK;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.CompositeFuture;
@@ -14,6 +15,7 @@ import org.folio.rest.jaxrs.model.Instance;
 import org.folio.rest.jaxrs.model.InstancesPost;
 import org.folio.rest.jaxrs.resource.InstanceStorageBatchSynchronous;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.support.AdmissionControl;
 import org.folio.rest.support.HridManager;
 import org.folio.rest.tools.utils.TenantTool;
 
@@ -22,37 +24,56 @@ import javax.ws.rs.core.Response;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 public class InstanceBatchSyncAPI implements InstanceStorageBatchSynchronous {
   @Validate
   @Override
-  public void postInstanceStorageBatchSynchronous(boolean upsert, InstancesPost entity, Map<String, String> okapiHeaders,
+  public void postInstanceStorageBatchSynchronous(boolean upsert, boolean bulkLoad, InstancesPost entity, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    final List<Instance> instances = entity.getInstances();
-    final PostgresClient postgresClient = PostgresClient.getInstance(
-          vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
-    // Currently, there is no method on CompositeFuture to accept List<Future<String>>
-    @SuppressWarnings("rawtypes")
-    final List<Future> futures = new ArrayList<>();
-    final HridManager hridManager = new HridManager(Vertx.currentContext(), postgresClient);
+    AdmissionControl.admit(BULK, okapiHeaders, asyncResultHandler, responseHandler -> {
+      final List<Instance> instances = entity.getInstances();
+      final PostgresClient postgresClient = PostgresClient.getInstance(
+            vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
+      // Currently, there is no method on CompositeFuture to accept List<Future<String>>
+      @SuppressWarnings("rawtypes")
+      final List<Future> futures = new ArrayList<>();
+      final HridManager hridManager = new HridManager(Vertx.currentContext(), postgresClient);
 
-    for (Instance instance : instances) {
-      futures.add(setHrid(instance, hridManager));
-    }
-
-    CompositeFuture.all(futures).setHandler(ar -> {
-      if (ar.succeeded()) {
-        StorageHelper.postSync(InstanceStorageAPI.INSTANCE_TABLE, entity.getInstances(),
-            okapiHeaders, upsert, asyncResultHandler, vertxContext,
-            InstanceStorageBatchSynchronous.PostInstanceStorageBatchSynchronousResponse::respond201);
-      } else {
-        asyncResultHandler.handle(
-            Future.succeededFuture(PostInstanceStorageBatchSynchronousResponse
-                .respond500WithTextPlain(ar.cause().getMessage())));
+      for (Instance instance : instances) {
+        futures.add(setHrid(instance, hridManager));
       }
+
+      CompositeFuture.all(futures).setHandler(ar -> {
+        if (ar.succeeded() && bulkLoad) {
+          StorageHelper.postSyncBulkLoad(InstanceStorageAPI.INSTANCE_TABLE, withIds(instances),
+              okapiHeaders, upsert, responseHandler, vertxContext,
+              InstanceStorageBatchSynchronous.PostInstanceStorageBatchSynchronousResponse::respond201);
+        } else if (ar.succeeded()) {
+          StorageHelper.postSync(InstanceStorageAPI.INSTANCE_TABLE, entity.getInstances(),
+              okapiHeaders, upsert, responseHandler, vertxContext,
+              InstanceStorageBatchSynchronous.PostInstanceStorageBatchSynchronousResponse::respond201);
+        } else {
+          responseHandler.handle(
+              Future.succeededFuture(PostInstanceStorageBatchSynchronousResponse
+                  .respond500WithTextPlain(ar.cause().getMessage())));
+        }
+      });
     });
   }
 
+  /**
+   * Set a random id where it is missing, bulk_load needs the ids in the records.
+   */
+  private static List<Instance> withIds(List<Instance> instances) {
+    for (Instance instance : instances) {
+      if (instance.getId() == null) {
+        instance.setId(UUID.randomUUID().toString());
+      }
+    }
+    return instances;
+  }
+
   private Future<Void> setHrid(Instance instance, HridManager hridManager) {
     final Future<String> hridFuture;
 
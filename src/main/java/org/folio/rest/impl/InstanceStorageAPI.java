@@ -1,12 +1,18 @@
 package org.folio.rest.impl;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.folio.rest.support.AdmissionControl.WorkClass.BULK;
+import static org.folio.rest.support.AdmissionControl.WorkClass.INTERACTIVE;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -15,10 +21,13 @@ import javax.ws.rs.DefaultValue;
 import javax.ws.rs.core.Response;
 
 import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.CascadeDeleteRequest;
 import org.folio.rest.jaxrs.model.Instance;
 import org.folio.rest.jaxrs.model.InstanceRelationship;
 import org.folio.rest.jaxrs.model.InstanceRelationships;
 import org.folio.rest.jaxrs.model.Instances;
+import org.folio.rest.jaxrs.model.InstanceStorageInstancesDeleteMode;
 import org.folio.rest.jaxrs.model.MarcJson;
 import org.folio.rest.jaxrs.resource.InstanceStorage;
 import org.folio.rest.persist.PgExceptionUtil;
@@ -27,7 +36,11 @@ import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.support.AdmissionControl;
 import org.folio.rest.support.HridManager;
+import org.folio.rest.support.Metrics;
+import org.folio.rest.support.PgUtilSql;
+import org.folio.rest.support.SlowQueryLog;
 import org.folio.rest.tools.messages.MessageConsts;
 import org.folio.rest.tools.messages.Messages;
 import org.folio.rest.tools.utils.TenantTool;
@@ -39,6 +52,7 @@ import io.vertx.core.Handler;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Tuple;
 
 public class InstanceStorageAPI implements InstanceStorage {
 
@@ -51,6 +65,7 @@ public class InstanceStorageAPI implements InstanceStorage {
   public static final String INSTANCE_TABLE =  "instance";
   private static final String INSTANCE_SOURCE_MARC_TABLE = "instance_source_marc";
   private static final String INSTANCE_RELATIONSHIP_TABLE = "instance_relationship";
+  private static final String SQL_DELETE_INSTANCES = "SELECT delete_instances($1, $2)";
   private final Messages messages = Messages.getInstance();
 
   PreparedCQL handleCQL(String query, int limit, int offset) throws FieldException {
@@ -80,22 +95,29 @@ public class InstanceStorageAPI implements InstanceStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
+    Metrics.Request metrics = Metrics.request("GET /instance-storage/instances", okapiHeaders);
     if (PgUtil.checkOptimizedCQL(query, "title") != null) { // Until RMB-573 is fixed
-      try {
-        PreparedCQL preparedCql = handleCQL(query, limit, offset);
-        PgUtil.getWithOptimizedSql(preparedCql.getTableName(), Instance.class, Instances.class,
-          "title", query, offset, limit,
-          okapiHeaders, vertxContext, GetInstanceStorageInstancesResponse.class, asyncResultHandler);
-      } catch (Exception e) {
-        log.error(e.getMessage(), e);
-        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-          GetInstanceStorageInstancesResponse.
-            respond500WithTextPlain(e.getMessage())));
-      }
+      AdmissionControl.admit(INTERACTIVE, okapiHeaders, metrics.wrap(asyncResultHandler), responseHandler -> {
+        try {
+          PreparedCQL preparedCql = handleCQL(query, limit, offset);
+          PgUtil.getWithOptimizedSql(preparedCql.getTableName(), Instance.class, Instances.class,
+            "title", query, offset, limit,
+            okapiHeaders, vertxContext, GetInstanceStorageInstancesResponse.class, responseHandler);
+        } catch (Exception e) {
+          log.error(e.getMessage(), e);
+          responseHandler.handle(io.vertx.core.Future.succeededFuture(
+            GetInstanceStorageInstancesResponse.
+              respond500WithTextPlain(e.getMessage())));
+        }
+      });
       return;
     }
-    PgUtil.streamGet(INSTANCE_TABLE, Instance.class, query, offset, limit, null,
-      "instances", routingContext, okapiHeaders, vertxContext);
+    metrics.end(routingContext);
+    SlowQueryLog.streamGet("GET /instance-storage/instances", INSTANCE_TABLE, query, offset, limit,
+      okapiHeaders, routingContext);
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, routingContext, () ->
+      PgUtil.streamGet(INSTANCE_TABLE, Instance.class, query, offset, limit, null,
+        "instances", routingContext, okapiHeaders, vertxContext));
   }
 
   @Override
@@ -106,149 +128,117 @@ public class InstanceStorageAPI implements InstanceStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    String tenantId = okapiHeaders.get(TENANT_HEADER);
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("POST /instance-storage/instances", okapiHeaders).wrap(asyncResultHandler);
 
-    try {
-      PostgresClient postgresClient =
-        PostgresClient.getInstance(
-          vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      String tenantId = okapiHeaders.get(TENANT_HEADER);
 
-      vertxContext.runOnContext(v -> {
-        try {
+      try {
+        PostgresClient postgresClient =
+          PostgresClient.getInstance(
+            vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
 
-          if(entity.getId() == null) {
-            entity.setId(UUID.randomUUID().toString());
-          }
-          else {
-            if (! isUUID(entity.getId())) {
-              asyncResultHandler.handle(Future.succeededFuture(
-                PostInstanceStorageInstancesResponse
-                  .respond400WithTextPlain("ID must be a UUID")));
-              return;
+        vertxContext.runOnContext(v -> {
+          try {
+
+            if(entity.getId() == null) {
+              entity.setId(UUID.randomUUID().toString());
+            }
+            else {
+              if (! isUUID(entity.getId())) {
+                responseHandler.handle(Future.succeededFuture(
+                  PostInstanceStorageInstancesResponse
+                    .respond400WithTextPlain("ID must be a UUID")));
+                return;
+              }
             }
-          }
 
-          final Future<String> hridFuture;
-          if (isBlank(entity.getHrid())) {
-            final HridManager hridManager = new HridManager(vertxContext, postgresClient);
-            hridFuture = hridManager.getNextInstanceHrid();
-          } else {
-            hridFuture = StorageHelper.completeFuture(entity.getHrid());
-          }
+            final Future<String> hridFuture;
+            if (isBlank(entity.getHrid())) {
+              final HridManager hridManager = new HridManager(vertxContext, postgresClient);
+              hridFuture = hridManager.getNextInstanceHrid();
+            } else {
+              hridFuture = StorageHelper.completeFuture(entity.getHrid());
+            }
 
-          hridFuture.map(hrid -> {
-            entity.setHrid(hrid);
-            postgresClient.save(INSTANCE_TABLE, entity.getId(), entity,
-              reply -> {
-                try {
-                  if(reply.succeeded()) {
-                    asyncResultHandler.handle(
-                      io.vertx.core.Future.succeededFuture(
-                        PostInstanceStorageInstancesResponse
-                          .respond201WithApplicationJson(entity,
-                              PostInstanceStorageInstancesResponse.headersFor201().withLocation(reply.result()))));
-                  }
-                  else {
-                    if (PgExceptionUtil.isUniqueViolation(reply.cause())) {
-                      asyncResultHandler.handle(
-                          io.vertx.core.Future.succeededFuture(
-                            PostInstanceStorageInstancesResponse
-                              .respond400WithTextPlain(PgExceptionUtil.badRequestMessage(reply.cause()))));
-                    } else {
-                      asyncResultHandler.handle(
+            hridFuture.map(hrid -> {
+              entity.setHrid(hrid);
+              postgresClient.save(INSTANCE_TABLE, entity.getId(), entity,
+                reply -> {
+                  try {
+                    if(reply.succeeded()) {
+                      responseHandler.handle(
                         io.vertx.core.Future.succeededFuture(
                           PostInstanceStorageInstancesResponse
-                            .respond400WithTextPlain(reply.cause().getMessage())));
+                            .respond201WithApplicationJson(entity,
+                                PostInstanceStorageInstancesResponse.headersFor201().withLocation(reply.result()))));
                     }
+                    else {
+                      if (PgExceptionUtil.isUniqueViolation(reply.cause())) {
+                        responseHandler.handle(
+                            io.vertx.core.Future.succeededFuture(
+                              PostInstanceStorageInstancesResponse
+                                .respond400WithTextPlain(PgExceptionUtil.badRequestMessage(reply.cause()))));
+                      } else {
+                        responseHandler.handle(
+                          io.vertx.core.Future.succeededFuture(
+                            PostInstanceStorageInstancesResponse
+                              .respond400WithTextPlain(reply.cause().getMessage())));
+                      }
+                    }
+                  } catch (Exception e) {
+                    log.error(e.getMessage(), e);
+                    responseHandler.handle(
+                      io.vertx.core.Future.succeededFuture(
+                        PostInstanceStorageInstancesResponse
+                          .respond500WithTextPlain(e.getMessage())));
                   }
-                } catch (Exception e) {
-                  log.error(e.getMessage(), e);
-                  asyncResultHandler.handle(
-                    io.vertx.core.Future.succeededFuture(
-                      PostInstanceStorageInstancesResponse
-                        .respond500WithTextPlain(e.getMessage())));
-                }
-              });
-            return null;
-          }).otherwise(error -> {
-            log.error(error.getMessage(), error);
-            asyncResultHandler.handle(
-              io.vertx.core.Future.succeededFuture(
-                PostInstanceStorageInstancesResponse
-                  .respond500WithTextPlain(error.getMessage())));
-            return null;
-          });
-        } catch (Exception e) {
-          log.error(e.getMessage(), e);
-          asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-            PostInstanceStorageInstancesResponse
-              .respond500WithTextPlain(e.getMessage())));
-        }
-      });
-    } catch (Exception e) {
-      log.error(e.getMessage(), e);
-      asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-        PostInstanceStorageInstancesResponse
-          .respond500WithTextPlain(e.getMessage())));
-    }
+                });
+              return null;
+            }).otherwise(error -> {
+              log.error(error.getMessage(), error);
+              responseHandler.handle(
+                io.vertx.core.Future.succeededFuture(
+                  PostInstanceStorageInstancesResponse
+                    .respond500WithTextPlain(error.getMessage())));
+              return null;
+            });
+          } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            responseHandler.handle(io.vertx.core.Future.succeededFuture(
+              PostInstanceStorageInstancesResponse
+                .respond500WithTextPlain(e.getMessage())));
+          }
+        });
+      } catch (Exception e) {
+        log.error(e.getMessage(), e);
+        responseHandler.handle(io.vertx.core.Future.succeededFuture(
+          PostInstanceStorageInstancesResponse
+            .respond500WithTextPlain(e.getMessage())));
+      }
+    });
   }
 
   @Override
   public void deleteInstanceStorageInstances(
+    InstanceStorageInstancesDeleteMode mode,
     @DefaultValue("en") @Pattern(regexp = "[a-zA-Z]{2}") String lang,
     RoutingContext routingContext, Map<String, String> okapiHeaders,
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    String tenantId = okapiHeaders.get(TENANT_HEADER);
-
-    vertxContext.runOnContext(v -> {
-      try {
-        PostgresClient postgresClient = PostgresClient.getInstance(
-          vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
-
-        postgresClient.execute(String.format("DELETE FROM "
-              + tenantId + "_" + MODULE + "." + INSTANCE_SOURCE_MARC_TABLE ),
-            reply1 -> {
-              if (! reply1.succeeded()) {
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-                    DeleteInstanceStorageInstancesResponse
-                    .respond500WithTextPlain(reply1.cause().getMessage())));
-                return;
-              }
-              postgresClient.execute(String.format("DELETE FROM "
-               + tenantId + "_" + MODULE + "." + INSTANCE_RELATIONSHIP_TABLE),
-              reply2 -> {
-                if (! reply2.succeeded()) {
-                  asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-                      DeleteInstanceStorageInstancesResponse
-                      .respond500WithTextPlain(reply1.cause().getMessage())));
-                  return;
-                }
-                postgresClient.execute("DELETE FROM "
-                  + tenantId + "_" + MODULE + "." + INSTANCE_TABLE, reply3 -> {
-                  if (! reply3.succeeded()) {
-                    asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-                      DeleteInstanceStorageInstancesResponse
-                      .respond500WithTextPlain(reply3.cause().getMessage())));
-                    return;
-                  }
-
-                  asyncResultHandler.handle(Future.succeededFuture(
-                    DeleteInstanceStorageInstancesResponse.respond204()
-                  ));
-                });
-              });
-            });
-      }
-      catch(Exception e) {
-        asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-          DeleteInstanceStorageInstancesResponse
-            .respond500WithTextPlain(e.getMessage())));
-      }
-    });
+    // the source marc records and relationships refer to the instances (foreign key!)
+    StorageHelper.deleteAll(String.valueOf(mode), "/instance-storage/instances",
+      Arrays.asList(INSTANCE_SOURCE_MARC_TABLE, INSTANCE_RELATIONSHIP_TABLE, INSTANCE_TABLE),
+      okapiHeaders, asyncResultHandler, vertxContext,
+      DeleteInstanceStorageInstancesResponse::respond204,
+      DeleteInstanceStorageInstancesResponse::respond202WithApplicationJson,
+      DeleteInstanceStorageInstancesResponse::respond400WithTextPlain,
+      DeleteInstanceStorageInstancesResponse::respond500WithTextPlain);
   }
 
+
   @Override
   public void getInstanceStorageInstancesByInstanceId(
     @NotNull String instanceId,
@@ -257,101 +247,146 @@ public class InstanceStorageAPI implements InstanceStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    String tenantId = okapiHeaders.get(TENANT_HEADER);
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("GET /instance-storage/instances/{id}", okapiHeaders).wrap(asyncResultHandler);
 
-    try {
-      PostgresClient postgresClient = PostgresClient.getInstance(
-        vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      String tenantId = okapiHeaders.get(TENANT_HEADER);
 
-      String[] fieldList = {"*"};
+      try {
+        PostgresClient postgresClient = PostgresClient.getInstance(
+          vertxContext.owner(), TenantTool.calculateTenantId(tenantId));
 
-      PreparedCQL preparedCql = handleCQL(String.format("id==%s", instanceId), 1, 0);
-      CQLWrapper cql = preparedCql.getCqlWrapper();
+        String[] fieldList = {"*"};
 
-      log.info(String.format("SQL generated from CQL: %s", cql.toString()));
+        PreparedCQL preparedCql = handleCQL(String.format("id==%s", instanceId), 1, 0);
+        CQLWrapper cql = preparedCql.getCqlWrapper();
 
-      vertxContext.runOnContext(v -> {
-        try {
-          postgresClient.get(preparedCql.getTableName(), Instance.class, fieldList, cql, true, false,
-            reply -> {
-              try {
-                if (reply.succeeded()) {
-                  List<Instance> instanceList = reply.result().getResults();
-                  if (instanceList.size() == 1) {
-                    Instance instance = instanceList.get(0);
+        SlowQueryLog.Query slowQuery = SlowQueryLog.start(TenantTool.tenantId(okapiHeaders),
+          "GET /instance-storage/instances/{id}", null,
+          () -> PgUtilSql.get(TenantTool.tenantId(okapiHeaders), preparedCql.getTableName(), cql), null);
 
-                    asyncResultHandler.handle(
-                      io.vertx.core.Future.succeededFuture(
+        vertxContext.runOnContext(v -> {
+          try {
+            postgresClient.get(preparedCql.getTableName(), Instance.class, fieldList, cql, true, false,
+              slowQuery.handler(results -> results.getResults().size(), reply -> {
+                try {
+                  if (reply.succeeded()) {
+                    List<Instance> instanceList = reply.result().getResults();
+                    if (instanceList.size() == 1) {
+                      Instance instance = instanceList.get(0);
+
+                      responseHandler.handle(
+                        io.vertx.core.Future.succeededFuture(
+                          GetInstanceStorageInstancesByInstanceIdResponse.
+                            respond200WithApplicationJson(instance)));
+                    }
+                    else {
+                    responseHandler.handle(
+                      Future.succeededFuture(
                         GetInstanceStorageInstancesByInstanceIdResponse.
-                          respond200WithApplicationJson(instance)));
-                  }
-                  else {
-                  asyncResultHandler.handle(
-                    Future.succeededFuture(
-                      GetInstanceStorageInstancesByInstanceIdResponse.
-                        respond404WithTextPlain("Not Found")));
-                  }
-                } else {
-                  asyncResultHandler.handle(
-                    Future.succeededFuture(
-                      GetInstanceStorageInstancesByInstanceIdResponse.
-                        respond500WithTextPlain(reply.cause().getMessage())));
+                          respond404WithTextPlain("Not Found")));
+                    }
+                  } else {
+                    responseHandler.handle(
+                      Future.succeededFuture(
+                        GetInstanceStorageInstancesByInstanceIdResponse.
+                          respond500WithTextPlain(reply.cause().getMessage())));
 
+                  }
+                } catch (Exception e) {
+                  log.error(e.getMessage(), e);
+                  responseHandler.handle(io.vertx.core.Future.succeededFuture(
+                    GetInstanceStorageInstancesByInstanceIdResponse.
+                      respond500WithTextPlain(e.getMessage())));
                 }
-              } catch (Exception e) {
-                log.error(e.getMessage(), e);
-                asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-                  GetInstanceStorageInstancesByInstanceIdResponse.
-                    respond500WithTextPlain(e.getMessage())));
-              }
-            });
-        } catch (Exception e) {
-          log.error(e.getMessage(), e);
-          asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-            GetInstanceStorageInstancesByInstanceIdResponse.
-              respond500WithTextPlain(e.getMessage())));
-        }
-      });
-    } catch (Exception e) {
-      log.error(e.getMessage(), e);
-      asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
-        GetInstanceStorageInstancesByInstanceIdResponse.
-          respond500WithTextPlain(e.getMessage())));
-    }
+              }));
+          } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            responseHandler.handle(io.vertx.core.Future.succeededFuture(
+              GetInstanceStorageInstancesByInstanceIdResponse.
+                respond500WithTextPlain(e.getMessage())));
+          }
+        });
+      } catch (Exception e) {
+        log.error(e.getMessage(), e);
+        responseHandler.handle(io.vertx.core.Future.succeededFuture(
+          GetInstanceStorageInstancesByInstanceIdResponse.
+            respond500WithTextPlain(e.getMessage())));
+      }
+    });
   }
 
   @Override
   public void deleteInstanceStorageInstancesByInstanceId(
     @NotNull String instanceId,
+    @DefaultValue("false") boolean cascade,
     @DefaultValue("en") @Pattern(regexp = "[a-zA-Z]{2}") String lang,
     Map<String, String> okapiHeaders,
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    // before deleting the instance record delete its source marc record (foreign key!)
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("DELETE /instance-storage/instances/{id}", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      deleteInstances(Collections.singletonList(instanceId), cascade, okapiHeaders, responseHandler,
+        vertxContext, DeleteInstanceStorageInstancesByInstanceIdResponse::respond204,
+        DeleteInstanceStorageInstancesByInstanceIdResponse::respond400WithTextPlain,
+        DeleteInstanceStorageInstancesByInstanceIdResponse::respond500WithTextPlain);
+    });
+  }
+
+  @Validate
+  @Override
+  public void postInstanceStorageInstancesCascadeDelete(
+    CascadeDeleteRequest entity,
+    Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler,
+    Context vertxContext) {
+
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("POST /instance-storage/instances/cascade-delete", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(BULK, okapiHeaders, measuredHandler, responseHandler -> {
+      deleteInstances(entity.getIds(), true, okapiHeaders, responseHandler,
+        vertxContext, PostInstanceStorageInstancesCascadeDeleteResponse::respond204,
+        PostInstanceStorageInstancesCascadeDeleteResponse::respond400WithTextPlain,
+        PostInstanceStorageInstancesCascadeDeleteResponse::respond500WithTextPlain);
+    });
+  }
+
+  /**
+   * Delete the instances and their source records, with cascade also the records referring to
+   * them, in one statement, see deleteInstances.sql.
+   */
+  private void deleteInstances(List<String> instanceIds, boolean cascade,
+    Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext,
+    Supplier<Response> respond204, Function<String, Response> respond400, Function<String, Response> respond500) {
+
+    UUID[] ids;
+    try {
+      ids = instanceIds.stream().map(UUID::fromString).toArray(UUID[]::new);
+    } catch (IllegalArgumentException e) {
+      asyncResultHandler.handle(Future.succeededFuture(respond400.apply(e.getMessage())));
+      return;
+    }
 
     PostgresClient postgresClient =
         PostgresClient.getInstance(vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
 
-    postgresClient.delete(INSTANCE_SOURCE_MARC_TABLE, instanceId, reply1 -> {
-      if (! reply1.succeeded()) {
-        asyncResultHandler.handle(Future.succeededFuture(
-            DeleteInstanceStorageInstancesByInstanceIdResponse
-            .respond500WithTextPlain(reply1.cause().getMessage())));
+    postgresClient.selectSingle(SQL_DELETE_INSTANCES, Tuple.of(ids, cascade), reply -> {
+      if (reply.succeeded()) {
+        asyncResultHandler.handle(Future.succeededFuture(respond204.get()));
         return;
       }
-
-      postgresClient.delete(INSTANCE_TABLE, instanceId, reply2 -> {
-        if (! reply2.succeeded()) {
-          asyncResultHandler.handle(Future.succeededFuture(
-              DeleteInstanceStorageInstancesByInstanceIdResponse
-              .respond500WithTextPlain(reply2.cause().getMessage())));
-          return;
-        }
-
-        asyncResultHandler.handle(Future.succeededFuture(
-            DeleteInstanceStorageInstancesByInstanceIdResponse.respond204()));
-      });
+      String badRequestMessage = PgExceptionUtil.badRequestMessage(reply.cause());
+      if (badRequestMessage != null) {
+        asyncResultHandler.handle(Future.succeededFuture(respond400.apply(badRequestMessage)));
+        return;
+      }
+      log.error(reply.cause().getMessage(), reply.cause());
+      asyncResultHandler.handle(Future.succeededFuture(respond500.apply(reply.cause().getMessage())));
     });
   }
 
@@ -364,38 +399,43 @@ public class InstanceStorageAPI implements InstanceStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    PgUtil.getById(INSTANCE_TABLE, Instance.class, instanceId, okapiHeaders, vertxContext,
-        GetInstanceStorageInstancesByInstanceIdResponse.class, response -> {
-          if (response.succeeded()) {
-            if (response.result().getStatus() == 404) {
-              asyncResultHandler.handle(Future.succeededFuture(
-                  PutInstanceStorageInstancesByInstanceIdResponse
-                  .respond404WithTextPlain(response.result().getEntity())));
-            } else if (response.result().getStatus() == 500) {
-              asyncResultHandler.handle(Future.succeededFuture(
-                  PutInstanceStorageInstancesByInstanceIdResponse
-                  .respond500WithTextPlain(response.result().getEntity())));
-            } else {
-              final Instance existingInstance = (Instance) response.result().getEntity();
-              if (Objects.equals(entity.getHrid(), existingInstance.getHrid())) {
-                PgUtil.put(INSTANCE_TABLE, entity, instanceId, okapiHeaders, vertxContext,
-                    PutInstanceStorageInstancesByInstanceIdResponse.class, asyncResultHandler);
-              } else {
-                asyncResultHandler.handle(Future.succeededFuture(
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("PUT /instance-storage/instances/{id}", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      PgUtil.getById(INSTANCE_TABLE, Instance.class, instanceId, okapiHeaders, vertxContext,
+          GetInstanceStorageInstancesByInstanceIdResponse.class, response -> {
+            if (response.succeeded()) {
+              if (response.result().getStatus() == 404) {
+                responseHandler.handle(Future.succeededFuture(
+                    PutInstanceStorageInstancesByInstanceIdResponse
+                    .respond404WithTextPlain(response.result().getEntity())));
+              } else if (response.result().getStatus() == 500) {
+                responseHandler.handle(Future.succeededFuture(
                     PutInstanceStorageInstancesByInstanceIdResponse
-                    .respond400WithTextPlain(
-                        "The hrid field cannot be changed: new="
-                            + entity.getHrid()
-                            + ", old="
-                            + existingInstance.getHrid())));
+                    .respond500WithTextPlain(response.result().getEntity())));
+              } else {
+                final Instance existingInstance = (Instance) response.result().getEntity();
+                if (Objects.equals(entity.getHrid(), existingInstance.getHrid())) {
+                  PgUtil.put(INSTANCE_TABLE, entity, instanceId, okapiHeaders, vertxContext,
+                      PutInstanceStorageInstancesByInstanceIdResponse.class, responseHandler);
+                } else {
+                  responseHandler.handle(Future.succeededFuture(
+                      PutInstanceStorageInstancesByInstanceIdResponse
+                      .respond400WithTextPlain(
+                          "The hrid field cannot be changed: new="
+                              + entity.getHrid()
+                              + ", old="
+                              + existingInstance.getHrid())));
+                }
               }
+            } else {
+              responseHandler.handle(Future.succeededFuture(
+                  PutInstanceStorageInstancesByInstanceIdResponse
+                  .respond500WithTextPlain(response.cause().getMessage())));
             }
-          } else {
-            asyncResultHandler.handle(Future.succeededFuture(
-                PutInstanceStorageInstancesByInstanceIdResponse
-                .respond500WithTextPlain(response.cause().getMessage())));
-          }
-        });
+          });
+    });
   }
 
   private boolean isUUID(String id) {
@@ -512,10 +552,12 @@ public class InstanceStorageAPI implements InstanceStorage {
 
           CQLWrapper cql = createCQLWrapper(query, limit, offset, INSTANCE_RELATIONSHIP_TABLE);
 
-          log.info(String.format("SQL generated from CQL: %s", cql.toString()));
+          SlowQueryLog.Query slowQuery = SlowQueryLog.start(TenantTool.tenantId(okapiHeaders),
+            "GET /instance-storage/instance-relationships", query,
+            () -> PgUtilSql.get(TenantTool.tenantId(okapiHeaders), INSTANCE_RELATIONSHIP_TABLE, cql), null);
 
           postgresClient.get(INSTANCE_RELATIONSHIP_TABLE, InstanceRelationship.class, fieldList, cql,
-            true, false, reply -> {
+            true, false, slowQuery.handler(results -> results.getResults().size(), reply -> {
               try {
                 if(reply.succeeded()) {
                   List<InstanceRelationship> instanceRelationships = reply.result().getResults();
@@ -538,7 +580,7 @@ public class InstanceStorageAPI implements InstanceStorage {
                   GetInstanceStorageInstanceRelationshipsResponse.
                     respond500WithTextPlain(e.getMessage())));
               }
-            });
+            }));
         } catch (Exception e) {
           log.error(e.getMessage(), e);
           asyncResultHandler.handle(io.vertx.core.Future.succeededFuture(
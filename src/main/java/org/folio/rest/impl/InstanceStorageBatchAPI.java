@@ -15,6 +15,7 @@ import org.folio.rest.jaxrs.model.InstancesBatchResponse;
 import org.folio.rest.jaxrs.resource.InstanceStorageBatchInstances;
 import org.folio.rest.persist.PgUtil;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.support.AdmissionControl;
 import org.folio.rest.support.HridManager;
 import org.folio.rest.tools.utils.MetadataUtil;
 import javax.ws.rs.core.Response;
@@ -27,6 +28,7 @@ import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.rest.support.AdmissionControl.WorkClass.BULK;
 
 public class InstanceStorageBatchAPI implements InstanceStorageBatchInstances {
 
@@ -41,33 +43,35 @@ public class InstanceStorageBatchAPI implements InstanceStorageBatchInstances {
                                                 Map<String, String> okapiHeaders,
                                                 Handler<AsyncResult<Response>> asyncResultHandler,
                                                 Context vertxContext) {
-    vertxContext.runOnContext(v -> {
-      try {
-        PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
-        MetadataUtil.populateMetadata(entity.getInstances(), okapiHeaders);
-        executeInBatch(entity.getInstances(),
-          (instances, saveFutures) -> saveInstances(instances, postgresClient, saveFutures))
-          .setHandler(ar -> {
-
-            InstancesBatchResponse response = constructResponse(ar.result());
-
-            if (!response.getInstances().isEmpty()) {
-              // return 201 response - at least one Instance was successfully created
-              asyncResultHandler.handle(Future.succeededFuture(
-                PostInstanceStorageBatchInstancesResponse.respond201WithApplicationJson(response)));
-            } else {
-              // return 500 response with the list of errors - not one Instance was created
-              log.error("Failed to create some of the Instances: " + response.getErrorMessages());
-              asyncResultHandler.handle(Future.succeededFuture(
-                PostInstanceStorageBatchInstancesResponse.respond500WithApplicationJson(response)
-              ));
-            }
-          });
-      } catch (Exception e) {
-        log.error("Failed to create Instances", e);
-        asyncResultHandler.handle(Future.succeededFuture(
-          PostInstanceStorageBatchInstancesResponse.respond500WithTextPlain(e.getMessage())));
-      }
+    AdmissionControl.admit(BULK, okapiHeaders, asyncResultHandler, responseHandler -> {
+      vertxContext.runOnContext(v -> {
+        try {
+          PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+          MetadataUtil.populateMetadata(entity.getInstances(), okapiHeaders);
+          executeInBatch(entity.getInstances(),
+            (instances, saveFutures) -> saveInstances(instances, postgresClient, saveFutures))
+            .setHandler(ar -> {
+
+              InstancesBatchResponse response = constructResponse(ar.result());
+
+              if (!response.getInstances().isEmpty()) {
+                // return 201 response - at least one Instance was successfully created
+                responseHandler.handle(Future.succeededFuture(
+                  PostInstanceStorageBatchInstancesResponse.respond201WithApplicationJson(response)));
+              } else {
+                // return 500 response with the list of errors - not one Instance was created
+                log.error("Failed to create some of the Instances: " + response.getErrorMessages());
+                responseHandler.handle(Future.succeededFuture(
+                  PostInstanceStorageBatchInstancesResponse.respond500WithApplicationJson(response)
+                ));
+              }
+            });
+        } catch (Exception e) {
+          log.error("Failed to create Instances", e);
+          responseHandler.handle(Future.succeededFuture(
+            PostInstanceStorageBatchInstancesResponse.respond500WithTextPlain(e.getMessage())));
+        }
+      });
     });
   }
 
@@ -1,6 +1,7 @@
 package org.folio.rest.impl;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.validation.constraints.Pattern;
@@ -9,6 +10,8 @@ import javax.ws.rs.core.Response;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.InventoryInstanceIds;
 import org.folio.rest.jaxrs.resource.InventoryHierarchy;
+import org.folio.rest.tools.utils.TenantTool;
+import org.folio.services.InstanceHierarchySnapshotRefresher;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
@@ -17,18 +20,31 @@ import io.vertx.ext.web.RoutingContext;
 
 public class InventoryHierarchyAPI extends AbstractInstanceRecordsAPI implements InventoryHierarchy {
 
-  private static final String SQL_UPDATED_INSTANCES_IDS = "select * from get_updated_instance_ids_view($1,$2,$3,$4,$5);";
-  private static final String SQL_INSTANCES = "select * from get_items_and_holdings_view($1,$2);";
+  private static final String SQL_UPDATED_INSTANCES_IDS = "select * from get_updated_instance_ids_view($1,$2,$3,$4,$5,$6,$7)";
+  private static final String SQL_UPDATED_INSTANCES_IDS_PAGE =
+    "select * from get_updated_instance_ids_page($1,$2,$3,$4,$5,$6,$7,$8,$9,$10)";
+  // jsonb is selected as text so that it is streamed without being parsed
+  private static final Set<String> RAW_JSON_COLUMNS = Set.of("natureOfContent", "holdings", "items");
+  private static final String SQL_INSTANCES = "select \"instanceId\", \"source\", \"modeOfIssuance\", "
+    + "\"natureOfContent\"::text as \"natureOfContent\", \"holdings\"::text as \"holdings\", "
+    + "\"items\"::text as \"items\" from %s($1,$2);";
+  // built from the tables, ignoring the snapshots
+  private static final String SQL_INSTANCES_FRESH = String.format(SQL_INSTANCES, "get_items_and_holdings_view");
+  // read from clean snapshots, built from the tables for the other instances
+  private static final String SQL_INSTANCES_SNAPSHOT = String.format(SQL_INSTANCES, "get_items_and_holdings_snapshot");
 
   @Validate
   @Override
   public void getInventoryHierarchyUpdatedInstanceIds(String startDate, String endDate, boolean deletedRecordSupport, boolean skipSuppressedFromDiscoveryRecords,
-      boolean onlyInstanceUpdateDate, @Pattern(regexp = "[a-zA-Z]{2}") String lang, RoutingContext routingContext, Map<String, String> okapiHeaders,
+      boolean onlyInstanceUpdateDate, String resumptionToken, int limit, int shards, int shard,
+      @Pattern(regexp = "[a-zA-Z]{2}") String lang, RoutingContext routingContext, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
 
-    fetchRecordsByQuery(SQL_UPDATED_INSTANCES_IDS,
-      () -> createPostgresParams(startDate, endDate, deletedRecordSupport, skipSuppressedFromDiscoveryRecords, tuple -> {
+    fetchUpdatedInstanceIds(SQL_UPDATED_INSTANCES_IDS, SQL_UPDATED_INSTANCES_IDS_PAGE, "updatedDate", "instanceId",
+      startDate, resumptionToken, limit,
+      start -> createPostgresParams(start, endDate, deletedRecordSupport, skipSuppressedFromDiscoveryRecords, tuple -> {
         tuple.addBoolean(onlyInstanceUpdateDate);
+        addShardParams(tuple, shards, shard);
       }),
       routingContext, okapiHeaders, asyncResultHandler, vertxContext,
       "Get updated instances completed successfully");
@@ -36,12 +52,14 @@ public class InventoryHierarchyAPI extends AbstractInstanceRecordsAPI implements
 
   @Validate
   @Override
-  public void postInventoryHierarchyItemsAndHoldings(InventoryInstanceIds entity, RoutingContext routingContext, Map<String, String> okapiHeaders,
-      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void postInventoryHierarchyItemsAndHoldings(boolean fresh, InventoryInstanceIds entity, RoutingContext routingContext,
+      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
 
     UUID[] ids = entity.getInstanceIds().stream().map(UUID::fromString).toArray(UUID[]::new);
+    // the refresher of a tenant is started by the tenant API, this restarts it after a module restart
+    InstanceHierarchySnapshotRefresher.start(vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
 
-    fetchRecordsByQuery(SQL_INSTANCES,
+    fetchRecordsByQuery(fresh ? SQL_INSTANCES_FRESH : SQL_INSTANCES_SNAPSHOT, RAW_JSON_COLUMNS,
       () -> createPostgresParams(ids, entity.getSkipSuppressedFromDiscoveryRecords()),
       routingContext, okapiHeaders, asyncResultHandler, vertxContext,
       "Select from oai pmh instances view completed successfully");
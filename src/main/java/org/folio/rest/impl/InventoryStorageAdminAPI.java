@@ -0,0 +1,86 @@
+package org.folio.rest.impl;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+
+import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.QueryPlan;
+import org.folio.rest.jaxrs.model.SlowQueries;
+import org.folio.rest.jaxrs.model.SlowQuery;
+import org.folio.rest.jaxrs.resource.InventoryStorageAdmin;
+import org.folio.rest.support.Metrics;
+import org.folio.rest.support.SlowQueryLog;
+import org.folio.rest.tools.utils.TenantTool;
+import org.folio.services.QueryPlanExplainer;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Diagnostics of the module. Named differently from RMB's AdminAPI that serves /admin.
+ */
+public class InventoryStorageAdminAPI implements InventoryStorageAdmin {
+  private static final Logger log = LoggerFactory.getLogger(InventoryStorageAdminAPI.class);
+
+  @Override
+  public void getInventoryStorageAdminMetrics(Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    asyncResultHandler.handle(succeededFuture(GetInventoryStorageAdminMetricsResponse
+      .respond200WithTextPlain(Metrics.scrape())));
+  }
+
+  @Override
+  public void getInventoryStorageAdminSlowQueries(Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    List<SlowQuery> slowQueries = SlowQueryLog.get(TenantTool.tenantId(okapiHeaders));
+    asyncResultHandler.handle(succeededFuture(GetInventoryStorageAdminSlowQueriesResponse
+      .respond200WithApplicationJson(new SlowQueries()
+        .withSlowQueries(slowQueries)
+        .withTotalRecords(slowQueries.size()))));
+  }
+
+  @Override
+  public void deleteInventoryStorageAdminSlowQueries(Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    SlowQueryLog.clear(TenantTool.tenantId(okapiHeaders));
+    asyncResultHandler.handle(succeededFuture(DeleteInventoryStorageAdminSlowQueriesResponse.respond204()));
+  }
+
+  @Validate
+  @Override
+  public void getInventoryStorageAdminExplain(String table, String query, int offset, int limit,
+    boolean analyze, Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    Future<QueryPlan> queryPlan;
+    try {
+      queryPlan = new QueryPlanExplainer(vertxContext.owner(), TenantTool.tenantId(okapiHeaders))
+        .explain(table, query, offset, limit, analyze);
+    } catch (Exception e) {
+      asyncResultHandler.handle(succeededFuture(GetInventoryStorageAdminExplainResponse
+        .respond400WithTextPlain(e.getMessage())));
+      return;
+    }
+    queryPlan.onComplete(result -> {
+      if (result.failed()) {
+        log.error(result.cause().getMessage(), result.cause());
+        asyncResultHandler.handle(succeededFuture(GetInventoryStorageAdminExplainResponse
+          .respond500WithTextPlain(result.cause().getMessage())));
+        return;
+      }
+      asyncResultHandler.handle(succeededFuture(GetInventoryStorageAdminExplainResponse
+        .respond200WithApplicationJson(result.result())));
+    });
+  }
+}
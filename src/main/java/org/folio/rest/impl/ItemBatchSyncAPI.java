@@ -1,10 +1,12 @@
 package org.folio.rest.impl;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.folio.rest.support.AdmissionControl.WorkClass.BULK;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import javax.ws.rs.core.Response;
 
@@ -13,6 +15,7 @@ import org.folio.rest.jaxrs.model.Item;
 import org.folio.rest.jaxrs.model.ItemsPost;
 import org.folio.rest.jaxrs.resource.ItemStorageBatchSynchronous;
 import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.support.AdmissionControl;
 import org.folio.rest.support.EndpointFailureHandler;
 import org.folio.rest.support.HridManager;
 import org.folio.rest.tools.utils.TenantTool;
@@ -27,34 +30,54 @@ import io.vertx.core.Vertx;
 public class ItemBatchSyncAPI implements ItemStorageBatchSynchronous {
   @Validate
   @Override
-  public void postItemStorageBatchSynchronous(boolean upsert, ItemsPost entity, Map<String, String> okapiHeaders,
+  public void postItemStorageBatchSynchronous(boolean upsert, boolean bulkLoad, ItemsPost entity, Map<String, String> okapiHeaders,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    final List<Item> items = entity.getItems();
-    final PostgresClient postgresClient = PostgresClient.getInstance(
-          vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
-    final ItemEffectiveCallNumberComponentsService effectiveCallNumberService =
-      new ItemEffectiveCallNumberComponentsService(postgresClient);
+    AdmissionControl.admit(BULK, okapiHeaders, asyncResultHandler, responseHandler -> {
+      final List<Item> items = entity.getItems();
+      final PostgresClient postgresClient = PostgresClient.getInstance(
+            vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
+      final ItemEffectiveCallNumberComponentsService effectiveCallNumberService =
+        new ItemEffectiveCallNumberComponentsService(postgresClient);
 
-    // Currently, there is no method on CompositeFuture to accept List<Future<String>>
-    @SuppressWarnings("rawtypes")
-    final List<Future> futures = new ArrayList<>();
-    final HridManager hridManager = new HridManager(Vertx.currentContext(), postgresClient);
+      // Currently, there is no method on CompositeFuture to accept List<Future<String>>
+      @SuppressWarnings("rawtypes")
+      final List<Future> futures = new ArrayList<>();
+      final HridManager hridManager = new HridManager(Vertx.currentContext(), postgresClient);
 
+      for (Item item : items) {
+        futures.add(setHrid(item, hridManager));
+      }
+
+      CompositeFuture.all(futures)
+        .compose(result -> effectiveCallNumberService.populateEffectiveCallNumberComponents(items))
+        .map(result -> {
+          if (bulkLoad) {
+            StorageHelper.postSyncBulkLoad(ItemStorageAPI.ITEM_TABLE, withIds(items),
+              okapiHeaders, upsert, responseHandler, vertxContext,
+              PostItemStorageBatchSynchronousResponse::respond201);
+            return result;
+          }
+          StorageHelper.postSync(ItemStorageAPI.ITEM_TABLE, entity.getItems(),
+            okapiHeaders, upsert, responseHandler, vertxContext,
+            PostItemStorageBatchSynchronousResponse::respond201);
+          return result;
+        }).otherwise(EndpointFailureHandler.handleFailure(responseHandler,
+        PostItemStorageBatchSynchronousResponse::respond422WithApplicationJson,
+        PostItemStorageBatchSynchronousResponse::respond500WithTextPlain
+      ));
+    });
+  }
+
+  /**
+   * Set a random id where it is missing, bulk_load needs the ids in the records.
+   */
+  private static List<Item> withIds(List<Item> items) {
     for (Item item : items) {
-      futures.add(setHrid(item, hridManager));
+      if (item.getId() == null) {
+        item.setId(UUID.randomUUID().toString());
+      }
     }
-
-    CompositeFuture.all(futures)
-      .compose(result -> effectiveCallNumberService.populateEffectiveCallNumberComponents(items))
-      .map(result -> {
-        StorageHelper.postSync(ItemStorageAPI.ITEM_TABLE, entity.getItems(),
-          okapiHeaders, upsert, asyncResultHandler, vertxContext,
-          PostItemStorageBatchSynchronousResponse::respond201);
-        return result;
-      }).otherwise(EndpointFailureHandler.handleFailure(asyncResultHandler,
-      PostItemStorageBatchSynchronousResponse::respond422WithApplicationJson,
-      PostItemStorageBatchSynchronousResponse::respond500WithTextPlain
-    ));
+    return items;
   }
 
   private Future<Void> setHrid(Item item, HridManager hridManager) {
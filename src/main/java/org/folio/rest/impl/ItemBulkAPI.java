@@ -0,0 +1,47 @@
+package org.folio.rest.impl;
+
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+
+import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.ItemBulkIdsGetField;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+public class ItemBulkAPI extends AbstractBulkIdsAPI implements org.folio.rest.jaxrs.resource.ItemBulk {
+  public static final String ITEM_TABLE = "item";
+
+  @Validate
+  @Override
+  public void getItemBulkIds(ItemBulkIdsGetField field,
+      String query, String lang, RoutingContext routingContext,
+      Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
+
+    String name = null;
+    String expression = null;
+    switch (String.valueOf(field)) {
+      case "hrid":
+        name = "hrid";
+        expression = "jsonb->>'hrid'";
+        break;
+      case "barcode":
+        name = "barcode";
+        expression = "jsonb->>'barcode'";
+        break;
+      case "holdingsRecordId":
+        // foreign key column, no need to read the jsonb
+        name = "holdingsRecordId";
+        expression = "holdingsRecordId";
+        break;
+      default:
+    }
+    streamIds(ITEM_TABLE, query, name, expression, GetItemBulkIdsResponse::respond400WithTextPlain,
+      routingContext, okapiHeaders, asyncResultHandler, vertxContext);
+  }
+}
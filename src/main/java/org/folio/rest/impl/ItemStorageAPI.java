@@ -5,28 +5,32 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.folio.rest.jaxrs.resource.ItemStorage.PutItemStorageItemsByItemIdResponse.respond400WithTextPlain;
 import static org.folio.rest.jaxrs.resource.ItemStorage.PutItemStorageItemsByItemIdResponse.respond404WithTextPlain;
 import static org.folio.rest.jaxrs.resource.ItemStorage.PutItemStorageItemsByItemIdResponse.respond500WithTextPlain;
+import static org.folio.rest.support.AdmissionControl.WorkClass.INTERACTIVE;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 
 import javax.ws.rs.core.Response;
 
 import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.BulkDeleteRequest;
+import org.folio.rest.jaxrs.model.BulkUpdateRequest;
 import org.folio.rest.jaxrs.model.Item;
+import org.folio.rest.jaxrs.model.ItemStorageItemsDeleteMode;
 import org.folio.rest.jaxrs.resource.ItemStorage;
 import org.folio.rest.persist.PgUtil;
-import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.support.AdmissionControl;
 import org.folio.rest.support.EndpointFailureHandler;
 import org.folio.rest.support.HridManager;
-import org.folio.rest.tools.utils.TenantTool;
+import org.folio.rest.support.Metrics;
+import org.folio.rest.support.SlowQueryLog;
 import org.folio.services.ItemEffectiveCallNumberComponentsService;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
-import io.vertx.core.logging.Logger;
-import io.vertx.core.logging.LoggerFactory;
 import io.vertx.ext.web.RoutingContext;
 
 /**
@@ -35,7 +39,6 @@ import io.vertx.ext.web.RoutingContext;
 public class ItemStorageAPI implements ItemStorage {
 
   static final String ITEM_TABLE = "item";
-  private static final Logger log = LoggerFactory.getLogger(ItemStorageAPI.class);
 
   @Validate
   @Override
@@ -45,8 +48,12 @@ public class ItemStorageAPI implements ItemStorage {
     Handler<AsyncResult<Response>> asyncResultHandler,
     Context vertxContext) {
 
-    PgUtil.streamGet(ITEM_TABLE, Item.class, query, offset, limit, null, "items",
-      routingContext, okapiHeaders, vertxContext);
+    Metrics.request("GET /item-storage/items", okapiHeaders).end(routingContext);
+    SlowQueryLog.streamGet("GET /item-storage/items", ITEM_TABLE, query, offset, limit, okapiHeaders, routingContext);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, routingContext, () ->
+      PgUtil.streamGet(ITEM_TABLE, Item.class, query, offset, limit, null, "items",
+        routingContext, okapiHeaders, vertxContext));
   }
 
   @Validate
@@ -57,28 +64,33 @@ public class ItemStorageAPI implements ItemStorage {
       Handler<AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
 
-    final Future<String> hridFuture;
-    if (isBlank(entity.getHrid())) {
-      final HridManager hridManager = new HridManager(vertxContext,
-          StorageHelper.postgresClient(vertxContext, okapiHeaders));
-      hridFuture = hridManager.getNextItemHrid();
-    } else {
-      hridFuture = StorageHelper.completeFuture(entity.getHrid());
-    }
-
-    final ItemEffectiveCallNumberComponentsService effectiveCallNumbersService =
-      new ItemEffectiveCallNumberComponentsService(vertxContext, okapiHeaders);
-
-    hridFuture.map(entity::withHrid)
-      .compose(effectiveCallNumbersService::populateEffectiveCallNumberComponents)
-      .map(item -> {
-        PgUtil.post(ITEM_TABLE, item, okapiHeaders, vertxContext,
-          PostItemStorageItemsResponse.class, asyncResultHandler);
-        return item;
-      }).otherwise(EndpointFailureHandler.handleFailure(asyncResultHandler,
-      PostItemStorageItemsResponse::respond422WithApplicationJson,
-      PostItemStorageItemsResponse::respond500WithTextPlain
-    ));
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("POST /item-storage/items", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      final Future<String> hridFuture;
+      if (isBlank(entity.getHrid())) {
+        final HridManager hridManager = new HridManager(vertxContext,
+            StorageHelper.postgresClient(vertxContext, okapiHeaders));
+        hridFuture = hridManager.getNextItemHrid();
+      } else {
+        hridFuture = StorageHelper.completeFuture(entity.getHrid());
+      }
+
+      final ItemEffectiveCallNumberComponentsService effectiveCallNumbersService =
+        new ItemEffectiveCallNumberComponentsService(vertxContext, okapiHeaders);
+
+      hridFuture.map(entity::withHrid)
+        .compose(effectiveCallNumbersService::populateEffectiveCallNumberComponents)
+        .map(item -> {
+          PgUtil.post(ITEM_TABLE, item, okapiHeaders, vertxContext,
+            PostItemStorageItemsResponse.class, responseHandler);
+          return item;
+        }).otherwise(EndpointFailureHandler.handleFailure(responseHandler,
+        PostItemStorageItemsResponse::respond422WithApplicationJson,
+        PostItemStorageItemsResponse::respond500WithTextPlain
+      ));
+    });
   }
 
   @Validate
@@ -88,31 +100,51 @@ public class ItemStorageAPI implements ItemStorage {
       io.vertx.core.Handler<io.vertx.core.AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
 
-    PgUtil.getById(ITEM_TABLE, Item.class, itemId, okapiHeaders, vertxContext,
-        GetItemStorageItemsByItemIdResponse.class, asyncResultHandler);
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("GET /item-storage/items/{id}", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      PgUtil.getById(ITEM_TABLE, Item.class, itemId, okapiHeaders, vertxContext,
+          GetItemStorageItemsByItemIdResponse.class, responseHandler);
+    });
   }
 
   @Validate
   @Override
-  public void deleteItemStorageItems(String lang,
+  public void deleteItemStorageItems(ItemStorageItemsDeleteMode mode, String lang,
     RoutingContext routingContext, Map<String, String> okapiHeaders,
     Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
 
-    String tenantId = TenantTool.tenantId(okapiHeaders);
-    PostgresClient postgresClient = StorageHelper.postgresClient(vertxContext, okapiHeaders);
+    StorageHelper.deleteAll(String.valueOf(mode), "/item-storage/items", Collections.singletonList(ITEM_TABLE),
+      okapiHeaders, asyncResultHandler, vertxContext,
+      DeleteItemStorageItemsResponse::respond204,
+      DeleteItemStorageItemsResponse::respond202WithApplicationJson,
+      DeleteItemStorageItemsResponse::respond400WithTextPlain,
+      DeleteItemStorageItemsResponse::respond500WithTextPlain);
+  }
 
-    postgresClient.execute(String.format("DELETE FROM %s_%s.item", tenantId, "mod_inventory_storage"),
-        reply -> {
-          if (reply.succeeded()) {
-            asyncResultHandler.handle(Future.succeededFuture(
-                DeleteItemStorageItemsResponse.respond204()));
-          } else {
-            log.error(reply.cause().getMessage(), reply.cause());
-            asyncResultHandler.handle(Future.succeededFuture(
-                DeleteItemStorageItemsResponse.
-                respond500WithTextPlain(reply.cause().getMessage())));
-          }
-        });
+  @Validate
+  @Override
+  public void postItemStorageItemsBulkDelete(BulkDeleteRequest entity,
+    Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    StorageHelper.bulkDelete(ITEM_TABLE, "/item-storage/items", entity.getQuery(),
+      okapiHeaders, asyncResultHandler, vertxContext,
+      PostItemStorageItemsBulkDeleteResponse::respond202WithApplicationJson,
+      PostItemStorageItemsBulkDeleteResponse::respond400WithTextPlain,
+      PostItemStorageItemsBulkDeleteResponse::respond500WithTextPlain);
+  }
+
+  @Validate
+  @Override
+  public void postItemStorageItemsBulkUpdate(BulkUpdateRequest entity,
+    Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    StorageHelper.bulkUpdate(ITEM_TABLE, "/item-storage/items", "bulk_update_items", Item.class,
+      entity.getQuery(), entity.getPatch(), okapiHeaders, asyncResultHandler, vertxContext,
+      PostItemStorageItemsBulkUpdateResponse::respond202WithApplicationJson,
+      PostItemStorageItemsBulkUpdateResponse::respond400WithTextPlain,
+      PostItemStorageItemsBulkUpdateResponse::respond500WithTextPlain);
   }
 
   @Validate
@@ -122,40 +154,45 @@ public class ItemStorageAPI implements ItemStorage {
       io.vertx.core.Handler<io.vertx.core.AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
 
-    final ItemEffectiveCallNumberComponentsService effectiveCallNumbersService =
-      new ItemEffectiveCallNumberComponentsService(vertxContext, okapiHeaders);
-
-    PgUtil.getById(ITEM_TABLE, Item.class, itemId, okapiHeaders, vertxContext, GetItemStorageItemsByItemIdResponse.class, response -> {
-      if (response.succeeded()) {
-        if (response.result().getStatus() == 404) {
-          asyncResultHandler.handle(succeededFuture(
-              respond404WithTextPlain(response.result().getEntity())));
-        } else if (response.result().getStatus() == 500) {
-          asyncResultHandler.handle(succeededFuture(
-              respond500WithTextPlain(response.result().getEntity())));
-        } else {
-          final Item existingItem = (Item) response.result().getEntity();
-          if (Objects.equals(entity.getHrid(), existingItem.getHrid())) {
-            effectiveCallNumbersService.populateEffectiveCallNumberComponents(entity)
-              .map(item -> {
-                PgUtil.put(ITEM_TABLE, item, itemId, okapiHeaders, vertxContext,
-                  PutItemStorageItemsByItemIdResponse.class, asyncResultHandler);
-                return item;
-              });
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("PUT /item-storage/items/{id}", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      final ItemEffectiveCallNumberComponentsService effectiveCallNumbersService =
+        new ItemEffectiveCallNumberComponentsService(vertxContext, okapiHeaders);
+
+      PgUtil.getById(ITEM_TABLE, Item.class, itemId, okapiHeaders, vertxContext, GetItemStorageItemsByItemIdResponse.class, response -> {
+        if (response.succeeded()) {
+          if (response.result().getStatus() == 404) {
+            responseHandler.handle(succeededFuture(
+                respond404WithTextPlain(response.result().getEntity())));
+          } else if (response.result().getStatus() == 500) {
+            responseHandler.handle(succeededFuture(
+                respond500WithTextPlain(response.result().getEntity())));
           } else {
-            asyncResultHandler.handle(succeededFuture(
-                respond400WithTextPlain(
-                    "The hrid field cannot be changed: new="
-                        + entity.getHrid()
-                        + ", old="
-                        + existingItem.getHrid())));
-
+            final Item existingItem = (Item) response.result().getEntity();
+            if (Objects.equals(entity.getHrid(), existingItem.getHrid())) {
+              effectiveCallNumbersService.populateEffectiveCallNumberComponents(entity)
+                .map(item -> {
+                  PgUtil.put(ITEM_TABLE, item, itemId, okapiHeaders, vertxContext,
+                    PutItemStorageItemsByItemIdResponse.class, responseHandler);
+                  return item;
+                });
+            } else {
+              responseHandler.handle(succeededFuture(
+                  respond400WithTextPlain(
+                      "The hrid field cannot be changed: new="
+                          + entity.getHrid()
+                          + ", old="
+                          + existingItem.getHrid())));
+
+            }
           }
+        } else {
+          responseHandler.handle(succeededFuture(
+              respond500WithTextPlain(response.cause().getMessage())));
         }
-      } else {
-        asyncResultHandler.handle(succeededFuture(
-            respond500WithTextPlain(response.cause().getMessage())));
-      }
+      });
     });
   }
 
@@ -166,7 +203,12 @@ public class ItemStorageAPI implements ItemStorage {
       io.vertx.core.Handler<io.vertx.core.AsyncResult<Response>> asyncResultHandler,
       Context vertxContext) {
 
-    PgUtil.deleteById(ITEM_TABLE, itemId, okapiHeaders, vertxContext,
-        DeleteItemStorageItemsByItemIdResponse.class, asyncResultHandler);
+    Handler<AsyncResult<Response>> measuredHandler =
+      Metrics.request("DELETE /item-storage/items/{id}", okapiHeaders).wrap(asyncResultHandler);
+
+    AdmissionControl.admit(INTERACTIVE, okapiHeaders, measuredHandler, responseHandler -> {
+      PgUtil.deleteById(ITEM_TABLE, itemId, okapiHeaders, vertxContext,
+          DeleteItemStorageItemsByItemIdResponse.class, responseHandler);
+    });
   }
 }
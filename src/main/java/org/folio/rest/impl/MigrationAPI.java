@@ -0,0 +1,70 @@
+package org.folio.rest.impl;
+
+import static io.vertx.core.Future.succeededFuture;
+
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+
+import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.MigrationJobRequest;
+import org.folio.rest.jaxrs.resource.InventoryStorageMigrations;
+import org.folio.rest.tools.utils.TenantTool;
+import org.folio.services.MigrationService;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Data migrations of existing records, their progress is at /inventory-storage/jobs.
+ */
+public class MigrationAPI implements InventoryStorageMigrations {
+  private static final Logger log = LoggerFactory.getLogger(MigrationAPI.class);
+
+  @Override
+  public void getInventoryStorageMigrations(Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    MigrationService service = new MigrationService(vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
+    service.getMigrations().onComplete(migrations -> {
+      if (migrations.failed()) {
+        log.error("Getting the migrations failed", migrations.cause());
+        asyncResultHandler.handle(succeededFuture(GetInventoryStorageMigrationsResponse
+          .respond500WithTextPlain(migrations.cause().getMessage())));
+        return;
+      }
+      asyncResultHandler.handle(succeededFuture(GetInventoryStorageMigrationsResponse
+        .respond200WithApplicationJson(migrations.result())));
+    });
+  }
+
+  @Validate
+  @Override
+  public void postInventoryStorageMigrationsJobs(MigrationJobRequest entity, Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    MigrationService service = new MigrationService(vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
+    StorageHelper.respond(service.startMigrationJob(entity.getMigration(), entity.getParallelism())
+        .map(PostInventoryStorageMigrationsJobsResponse::respond202WithApplicationJson),
+      "Migration " + entity.getMigration(), asyncResultHandler,
+      PostInventoryStorageMigrationsJobsResponse::respond400WithTextPlain,
+      PostInventoryStorageMigrationsJobsResponse::respond500WithTextPlain);
+  }
+
+  @Override
+  public void postInventoryStorageMigrationsJobsResumeByJobId(String jobId, Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    MigrationService service = new MigrationService(vertxContext.owner(), TenantTool.tenantId(okapiHeaders));
+    StorageHelper.respond(service.resumeMigrationJob(jobId)
+        .map(job -> job == null
+          ? PostInventoryStorageMigrationsJobsResumeByJobIdResponse.respond404WithTextPlain("Not found")
+          : PostInventoryStorageMigrationsJobsResumeByJobIdResponse.respond202WithApplicationJson(job)),
+      "Resuming job " + jobId, asyncResultHandler,
+      PostInventoryStorageMigrationsJobsResumeByJobIdResponse::respond400WithTextPlain,
+      PostInventoryStorageMigrationsJobsResumeByJobIdResponse::respond500WithTextPlain);
+  }
+}
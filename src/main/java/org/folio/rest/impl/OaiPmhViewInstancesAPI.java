@@ -1,34 +1,52 @@
 package org.folio.rest.impl;
 
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.validation.constraints.Pattern;
 import javax.ws.rs.core.Response;
 
+import org.apache.commons.lang.StringUtils;
 import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.OaipmhHarvestPlan;
+import org.folio.rest.jaxrs.model.OaipmhHarvestPlanPart;
 import org.folio.rest.jaxrs.model.OaipmhInstanceIds;
 import org.folio.rest.jaxrs.resource.OaiPmhView;
+import org.folio.rest.persist.PgUtil;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
 
 public class OaiPmhViewInstancesAPI extends AbstractInstanceRecordsAPI implements OaiPmhView {
 
-  private static final String SQL = "select * from pmh_view_function($1,$2,$3,$4);";
-  private static final String SQL_UPDATED_INSTANCES_IDS = "select * from pmh_get_updated_instances_ids($1,$2,$3,$4);";
-  private static final String SQL_INSTANCES = "select * from pmh_instance_view_function($1,$2);";
+  // jsonb is selected as text so that it is streamed without being parsed
+  private static final Set<String> RAW_JSON_COLUMNS = Set.of("itemsandholdingsfields");
+  private static final String SQL = "select instanceid, updateddate, deleted, "
+    + "itemsandholdingsfields::text as itemsandholdingsfields from pmh_view_function($1,$2,$3,$4,$5,$6);";
+  private static final String SQL_UPDATED_INSTANCES_IDS = "select * from pmh_get_updated_instances_ids($1,$2,$3,$4,$5,$6)";
+  private static final String SQL_UPDATED_INSTANCES_IDS_PAGE =
+    "select * from pmh_get_updated_instances_ids_page($1,$2,$3,$4,$5,$6,$7,$8,$9)";
+  private static final String SQL_INSTANCES = "select instanceid, "
+    + "itemsandholdingsfields::text as itemsandholdingsfields from pmh_instance_view_function($1,$2);";
+  private static final String SQL_HARVEST_PLAN = "select * from get_harvest_plan($1,$2,$3);";
 
   @Validate
   @Override
   public void getOaiPmhViewInstances(String startDate, String endDate, boolean deletedRecordSupport,
-      boolean skipSuppressedFromDiscoveryRecords, String lang, RoutingContext routingContext, Map<String, String> okapiHeaders,
-      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+      boolean skipSuppressedFromDiscoveryRecords, int shards, int shard, String lang, RoutingContext routingContext,
+      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
 
-    fetchRecordsByQuery(SQL,
-      () -> createPostgresParams(startDate, endDate, deletedRecordSupport, skipSuppressedFromDiscoveryRecords),
+    fetchRecordsByQuery(SQL, RAW_JSON_COLUMNS,
+      () -> createPostgresParams(startDate, endDate, deletedRecordSupport, skipSuppressedFromDiscoveryRecords,
+        tuple -> addShardParams(tuple, shards, shard)),
       routingContext, okapiHeaders, asyncResultHandler, vertxContext,
       "Select from oai pmh view completed successfully");
   }
@@ -40,7 +58,7 @@ public class OaiPmhViewInstancesAPI extends AbstractInstanceRecordsAPI implement
 
     UUID[] ids = entity.getInstanceIds().stream().map(UUID::fromString).toArray(UUID[]::new);
 
-    fetchRecordsByQuery(SQL_INSTANCES,
+    fetchRecordsByQuery(SQL_INSTANCES, RAW_JSON_COLUMNS,
       () -> createPostgresParams(ids, entity.getSkipSuppressedFromDiscoveryRecords()),
       routingContext, okapiHeaders, asyncResultHandler, vertxContext,
       "Select from oai pmh instances view completed successfully");
@@ -48,13 +66,58 @@ public class OaiPmhViewInstancesAPI extends AbstractInstanceRecordsAPI implement
 
   @Validate
   @Override
-  public void getOaiPmhViewUpdatedInstanceIds(String startDate, String endDate, boolean deletedRecordSupport, boolean skipSuppressedFromDiscoveryRecords, @Pattern(regexp = "[a-zA-Z]{2}") String lang, RoutingContext routingContext,
-      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+  public void getOaiPmhViewUpdatedInstanceIds(String startDate, String endDate, boolean deletedRecordSupport, boolean skipSuppressedFromDiscoveryRecords,
+      String resumptionToken, int limit, int shards, int shard, @Pattern(regexp = "[a-zA-Z]{2}") String lang,
+      RoutingContext routingContext, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler,
+      Context vertxContext) {
 
-    fetchRecordsByQuery(SQL_UPDATED_INSTANCES_IDS,
-      () -> createPostgresParams(startDate, endDate, deletedRecordSupport, skipSuppressedFromDiscoveryRecords),
+    fetchUpdatedInstanceIds(SQL_UPDATED_INSTANCES_IDS, SQL_UPDATED_INSTANCES_IDS_PAGE, "updateddate", "instanceid",
+      startDate, resumptionToken, limit,
+      start -> createPostgresParams(start, endDate, deletedRecordSupport, skipSuppressedFromDiscoveryRecords,
+        tuple -> addShardParams(tuple, shards, shard)),
       routingContext, okapiHeaders, asyncResultHandler, vertxContext,
       "Select from oai pmh updated instances view completed successfully");
   }
 
+  @Validate
+  @Override
+  public void getOaiPmhViewHarvestPlan(String startDate, String endDate, int parts, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    Tuple params = Tuple.tuple();
+    try {
+      params.addValue(StringUtils.isEmpty(startDate) ? null : OffsetDateTime.parse(startDate));
+      params.addValue(StringUtils.isEmpty(endDate) ? null : OffsetDateTime.parse(endDate));
+      params.addInteger(parts);
+    } catch (DateTimeParseException e) {
+      asyncResultHandler.handle(Future.succeededFuture(
+        GetOaiPmhViewHarvestPlanResponse.respond400WithTextPlain(e.getMessage())));
+      return;
+    }
+
+    PgUtil.postgresClient(vertxContext, okapiHeaders).select(SQL_HARVEST_PLAN, params, ar -> {
+      if (ar.failed()) {
+        log.error(ar.cause());
+        asyncResultHandler.handle(Future.succeededFuture(
+          GetOaiPmhViewHarvestPlanResponse.respond500WithTextPlain(ar.cause().getMessage())));
+        return;
+      }
+      OaipmhHarvestPlan plan = new OaipmhHarvestPlan().withTotalRecords(0);
+      for (Row row : ar.result()) {
+        OaipmhHarvestPlanPart part = new OaipmhHarvestPlanPart()
+          .withPart(row.getInteger("part"))
+          .withStartDate(format(row.getOffsetDateTime("startDate")))
+          .withEndDate(format(row.getOffsetDateTime("endDate")))
+          .withRecords(row.getLong("records").intValue());
+        plan.getParts().add(part);
+        plan.setTotalRecords(plan.getTotalRecords() + part.getRecords());
+      }
+      asyncResultHandler.handle(Future.succeededFuture(
+        GetOaiPmhViewHarvestPlanResponse.respond200WithApplicationJson(plan)));
+    });
+  }
+
+  private static String format(OffsetDateTime date) {
+    return date == null ? null : date.toString();
+  }
 }
@@ -1,17 +1,22 @@
 package org.folio.rest.impl;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import javax.ws.rs.core.Response;
@@ -19,13 +24,18 @@ import javax.ws.rs.core.Response;
 import org.folio.cql2pgjson.CQL2PgJSON;
 import org.folio.cql2pgjson.exception.FieldException;
 import org.folio.rest.RestVerticle;
+import org.folio.rest.jaxrs.model.StorageJob;
 import org.folio.rest.persist.Criteria.Limit;
 import org.folio.rest.persist.Criteria.Offset;
+import org.folio.rest.persist.PgExceptionUtil;
 import org.folio.rest.persist.PgUtil;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.persist.cql.CQLWrapper;
+import org.folio.rest.support.Metrics;
 import org.folio.rest.tools.utils.TenantTool;
 import org.folio.rest.tools.utils.ValidationHelper;
+import org.folio.services.BulkService;
+import org.folio.services.DeleteAllService;
 
 /**
  * Small helpers for mod-inventory-storage.
@@ -78,6 +88,7 @@ public final class StorageHelper {
       boolean upsert,
       Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext, Supplier<Response> respond201) {
     PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    Metrics.batchSize(table, TenantTool.tenantId(okapiHeaders), entities.size());
 
     Handler<AsyncResult<RowSet<Row>>> replyHandler = result -> {
       if (result.failed()) {
@@ -94,6 +105,166 @@ public final class StorageHelper {
     }
   }
 
+  /**
+   * Like {@link #postSync} in bulk load mode: the entities are saved with one INSERT that also
+   * sets the values the expensive row triggers of the table would set, these triggers skip
+   * their work for this INSERT, see bulkLoad.sql.
+   *
+   * @param entities  the entities to save, each must have an id
+   */
+  protected static <T> void postSyncBulkLoad(String table, List<T> entities,
+      Map<String, String> okapiHeaders, boolean upsert,
+      Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext, Supplier<Response> respond201) {
+    PostgresClient postgresClient = PgUtil.postgresClient(vertxContext, okapiHeaders);
+    Metrics.batchSize(table, TenantTool.tenantId(okapiHeaders), entities.size());
+    JsonArray records = new JsonArray();
+    for (T entity : entities) {
+      records.add(JsonObject.mapFrom(entity));
+    }
+
+    postgresClient.selectSingle("SELECT bulk_load($1, $2, $3)", Tuple.of(table, records, upsert), result -> {
+      if (result.failed()) {
+        logger.error("postSyncBulkLoad: " + result.cause().getMessage(), result.cause());
+        ValidationHelper.handleError(result.cause(), asyncResultHandler);
+        return;
+      }
+      asyncResultHandler.handle(Future.succeededFuture(respond201.get()));
+    });
+  }
+
+  /**
+   * Delete all records of the tables with the {@link DeleteAllService}.
+   *
+   * @param mode  sync, async or truncate, see the delete all methods of the RAMLs
+   * @param resource  path of the records, for the job of mode async
+   * @param tables  the tables to empty, in this order
+   */
+  protected static void deleteAll(String mode, String resource, List<String> tables,
+      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext,
+      Supplier<Response> respond204, Function<StorageJob, Response> respond202,
+      Function<String, Response> respond400, Function<String, Response> respond500) {
+
+    DeleteAllService service = new DeleteAllService(vertxContext.owner(), TenantTool.tenantId(okapiHeaders), tables);
+    final Future<Response> response;
+    switch (mode) {
+      case "async":
+        response = service.startDeleteAllJob(resource).map(respond202);
+        break;
+      case "truncate":
+        response = service.truncate().map(x -> respond204.get());
+        break;
+      default:
+        response = service.deleteAll().map(x -> respond204.get());
+    }
+    respond(response, "Deleting all " + resource, asyncResultHandler, respond400, respond500);
+  }
+
+  /**
+   * Start a job of the {@link BulkService} deleting the records of the table that match the
+   * CQL query.
+   *
+   * @param resource  path of the records, for the job
+   */
+  protected static void bulkDelete(String table, String resource, String query,
+      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext,
+      Function<StorageJob, Response> respond202,
+      Function<String, Response> respond400, Function<String, Response> respond500) {
+
+    BulkService service = new BulkService(vertxContext.owner(), TenantTool.tenantId(okapiHeaders), table, null);
+    respond(service.startBulkDelete(resource, query).map(respond202),
+      "Bulk delete of " + resource, asyncResultHandler, respond400, respond500);
+  }
+
+  /**
+   * Start a job of the {@link BulkService} applying a JSON merge patch to the records of the
+   * table that match the CQL query. The patch must not change id or hrid, the patched
+   * properties must exist in recordClass and required properties must not be removed.
+   *
+   * @param resource  path of the records, for the job
+   * @param updateFunction  function of bulkOperations.sql that patches the records
+   * @param recordClass  the class of the records, for validating the patch
+   */
+  protected static void bulkUpdate(String table, String resource, String updateFunction, Class<?> recordClass,
+      String query, Object patch,
+      Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext,
+      Function<StorageJob, Response> respond202,
+      Function<String, Response> respond400, Function<String, Response> respond500) {
+
+    JsonObject json = JsonObject.mapFrom(patch);
+    if (json.containsKey("id") || json.containsKey("hrid")) {
+      asyncResultHandler.handle(Future.succeededFuture(respond400.apply("id and hrid cannot be changed")));
+      return;
+    }
+    try {
+      json.mapTo(recordClass);
+    } catch (IllegalArgumentException e) {
+      asyncResultHandler.handle(Future.succeededFuture(respond400.apply("Invalid patch: " + e.getMessage())));
+      return;
+    }
+    String removedProperty = removedRequiredProperty(json, recordClass, "");
+    if (removedProperty != null) {
+      asyncResultHandler.handle(Future.succeededFuture(
+        respond400.apply(removedProperty + " is required and cannot be removed")));
+      return;
+    }
+    BulkService service =
+      new BulkService(vertxContext.owner(), TenantTool.tenantId(okapiHeaders), table, updateFunction);
+    respond(service.startBulkUpdate(resource, query, json, okapiHeaders.get(RestVerticle.OKAPI_USERID_HEADER))
+        .map(respond202),
+      "Bulk update of " + resource, asyncResultHandler, respond400, respond500);
+  }
+
+  /**
+   * Find a property that the JSON merge patch removes, by setting it to null, although the
+   * schema of recordClass requires it. The generated record classes annotate the fields of
+   * required properties with {@link NotNull}.
+   *
+   * @param prefix  path of the patch within the record, empty for the record itself
+   * @return the path of the first such property, or null if there is none
+   */
+  static String removedRequiredProperty(JsonObject patch, Class<?> recordClass, String prefix) {
+    for (Field field : recordClass.getDeclaredFields()) {
+      JsonProperty property = field.getAnnotation(JsonProperty.class);
+      if (property == null || ! patch.containsKey(property.value())) {
+        continue;
+      }
+      Object value = patch.getValue(property.value());
+      if (value == null && field.isAnnotationPresent(NotNull.class)) {
+        return prefix + property.value();
+      }
+      if (value instanceof JsonObject) {
+        String removed = removedRequiredProperty((JsonObject) value, field.getType(), prefix + property.value() + ".");
+        if (removed != null) {
+          return removed;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Pass the response, or the failure as 400 if it is caused by the request, otherwise as 500.
+   */
+  static void respond(Future<Response> response, String what,
+      Handler<AsyncResult<Response>> asyncResultHandler,
+      Function<String, Response> respond400, Function<String, Response> respond500) {
+
+    response.onComplete(result -> {
+      if (result.succeeded()) {
+        asyncResultHandler.handle(result);
+        return;
+      }
+      logger.error(what + " failed: " + result.cause().getMessage(), result.cause());
+      String badRequestMessage = result.cause() instanceof IllegalArgumentException
+        ? result.cause().getMessage() : PgExceptionUtil.badRequestMessage(result.cause());
+      if (badRequestMessage != null) {
+        asyncResultHandler.handle(Future.succeededFuture(respond400.apply(badRequestMessage)));
+        return;
+      }
+      asyncResultHandler.handle(Future.succeededFuture(respond500.apply(result.cause().getMessage())));
+    });
+  }
+
   public static <T> Future<T> completeFuture(T id) {
     Promise<T> p = Promise.promise();
     p.complete(id);
@@ -0,0 +1,40 @@
+package org.folio.rest.impl;
+
+import static org.folio.services.StorageJobs.STORAGE_JOB_TABLE;
+
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+
+import org.folio.rest.annotations.Validate;
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.jaxrs.model.StorageJobs;
+import org.folio.rest.jaxrs.resource.InventoryStorageJobs;
+import org.folio.rest.persist.PgUtil;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+
+/**
+ * Progress of background jobs, for example of deleting all items with mode=async.
+ */
+public class StorageJobAPI implements InventoryStorageJobs {
+
+  @Validate
+  @Override
+  public void getInventoryStorageJobs(String query, int offset, int limit, String lang,
+    Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    PgUtil.get(STORAGE_JOB_TABLE, StorageJob.class, StorageJobs.class, query, offset, limit,
+      okapiHeaders, vertxContext, GetInventoryStorageJobsResponse.class, asyncResultHandler);
+  }
+
+  @Override
+  public void getInventoryStorageJobsByJobId(String jobId, String lang,
+    Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+
+    PgUtil.getById(STORAGE_JOB_TABLE, StorageJob.class, jobId, okapiHeaders, vertxContext,
+      GetInventoryStorageJobsByJobIdResponse.class, asyncResultHandler);
+  }
+}
@@ -2,7 +2,9 @@ package org.folio.rest.impl;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -11,6 +13,12 @@ import io.vertx.core.logging.LoggerFactory;
 import org.apache.commons.io.IOUtils;
 import org.folio.rest.jaxrs.model.TenantAttributes;
 import org.folio.rest.tools.utils.TenantLoading;
+import org.folio.rest.tools.utils.TenantTool;
+import org.folio.services.AuditPartitionMaintenance;
+import org.folio.services.ConcurrentIndexBuilder;
+import org.folio.services.InstanceHierarchySnapshotRefresher;
+import org.folio.services.MigrationService;
+import org.folio.services.TenantDataLoader;
 
 import javax.ws.rs.core.Response;
 import java.io.IOException;
@@ -24,41 +32,10 @@ import java.util.Map;
 
 public class TenantRefAPI extends TenantAPI {
 
-  private static final String SAMPLE_LEAD = "sample-data";
   private static final String SAMPLE_KEY = "loadSample";
   private static final String REFERENCE_KEY = "loadReference";
-  private static final String REFERENCE_LEAD = "ref-data";
 
   private static final Logger log = LoggerFactory.getLogger(TenantRefAPI.class);
-  final String[] refPaths = new String[]{
-    "material-types",
-    "loan-types",
-    "location-units/institutions",
-    "location-units/campuses",
-    "location-units/libraries",
-    "locations",
-    "identifier-types",
-    "contributor-types",
-    "service-points",
-    "instance-relationship-types",
-    "contributor-name-types",
-    "instance-types",
-    "instance-formats",
-    "nature-of-content-terms",
-    "classification-types",
-    "instance-statuses",
-    "statistical-code-types", "statistical-codes",
-    "modes-of-issuance",
-    "alternative-title-types",
-    "electronic-access-relationships",
-    "ill-policies",
-    "holdings-types",
-    "call-number-types",
-    "instance-note-types",
-    "holdings-note-types",
-    "item-note-types",
-    "item-damaged-statuses"
-  };
 
   List<JsonObject> servicePoints = null;
 
@@ -81,6 +58,7 @@ public class TenantRefAPI extends TenantAPI {
   public void postTenant(TenantAttributes ta, Map<String, String> headers,
     Handler<AsyncResult<Response>> hndlr, Context cntxt) {
     log.info("postTenant");
+    long start = System.currentTimeMillis();
     Vertx vertx = cntxt.owner();
     super.postTenant(ta, headers, res -> {
       if (res.failed()) {
@@ -89,7 +67,7 @@ public class TenantRefAPI extends TenantAPI {
       }
       try {
         List<URL> urls = TenantLoading.getURLsFromClassPathDir(
-          REFERENCE_LEAD + "/service-points");
+          TenantDataLoader.REFERENCE_LEAD + "/service-points");
         servicePoints = new LinkedList<>();
         for (URL url : urls) {
           InputStream stream = url.openStream();
@@ -102,37 +80,53 @@ public class TenantRefAPI extends TenantAPI {
           .respond500WithTextPlain(ex.getLocalizedMessage())));
         return;
       }
-      TenantLoading tl = new TenantLoading();
-
-      tl.withKey(REFERENCE_KEY).withLead(REFERENCE_LEAD);
-      tl.withIdContent();
-      for (String p : refPaths) {
-        tl.add(p);
-      }
-      tl.withKey(SAMPLE_KEY).withLead(SAMPLE_LEAD);
-      tl.add("instances", "instance-storage/instances");
-      tl.withIdContent();
-      tl.add("holdingsrecords", "holdings-storage/holdings");
-      tl.add("items", "item-storage/items");
-      tl.add("instance-relationships", "instance-storage/instance-relationships");
-      if (servicePoints != null) {
-        tl.withFilter(this::servicePointUserFilter)
-          .withPostOnly()
-          .withAcceptStatus(422)
-          .add("users", "service-points-users");
-      }
-      tl.perform(ta, headers, vertx, res1 -> {
-        if (res1.failed()) {
+      new TenantDataLoader(vertx, headers)
+        .load(isEnabled(ta, REFERENCE_KEY), isEnabled(ta, SAMPLE_KEY))
+        .compose(counts -> loadServicePointsUsers(ta, headers, vertx))
+        .onComplete(res1 -> {
+          if (res1.failed()) {
+            hndlr.handle(io.vertx.core.Future.succeededFuture(PostTenantResponse
+              .respond500WithTextPlain(res1.cause().getLocalizedMessage())));
+            return;
+          }
+          InstanceHierarchySnapshotRefresher.start(vertx, TenantTool.tenantId(headers));
+          AuditPartitionMaintenance.start(vertx, TenantTool.tenantId(headers));
+          MigrationService.startPending(vertx, TenantTool.tenantId(headers), ta.getModuleFrom());
+          ConcurrentIndexBuilder.start(vertx, TenantTool.tenantId(headers));
+          log.info("postTenant of tenant " + TenantTool.tenantId(headers) + " completed in "
+            + (System.currentTimeMillis() - start) + " ms");
           hndlr.handle(io.vertx.core.Future.succeededFuture(PostTenantResponse
-            .respond500WithTextPlain(res1.cause().getLocalizedMessage())));
-          return;
-        }
-        hndlr.handle(io.vertx.core.Future.succeededFuture(PostTenantResponse
-          .respond201WithApplicationJson("")));
-      });
+            .respond201WithApplicationJson("")));
+        });
     }, cntxt);
   }
 
+  /**
+   * The service points users of the sample users of mod-users, by HTTP as they are posted
+   * without id and a user that has one already is skipped (422).
+   */
+  private Future<Integer> loadServicePointsUsers(TenantAttributes ta, Map<String, String> headers, Vertx vertx) {
+    Promise<Integer> promise = Promise.promise();
+    TenantLoading tl = new TenantLoading();
+    tl.withKey(SAMPLE_KEY).withLead(TenantDataLoader.SAMPLE_LEAD);
+    if (servicePoints != null) {
+      tl.withFilter(this::servicePointUserFilter)
+        .withPostOnly()
+        .withAcceptStatus(422)
+        .add("users", "service-points-users");
+    }
+    tl.perform(ta, headers, vertx, promise);
+    return promise.future();
+  }
+
+  private static boolean isEnabled(TenantAttributes ta, String key) {
+    if (ta.getParameters() == null) {
+      return false;
+    }
+    return ta.getParameters().stream()
+      .anyMatch(parameter -> key.equals(parameter.getKey()) && Boolean.parseBoolean(parameter.getValue()));
+  }
+
   @Override
   public void getTenant(Map<String, String> map, Handler<AsyncResult<Response>> hndlr, Context cntxt) {
     log.info("getTenant");
@@ -142,6 +136,8 @@ public class TenantRefAPI extends TenantAPI {
   @Override
   public void deleteTenant(Map<String, String> map, Handler<AsyncResult<Response>> hndlr, Context cntxt) {
     log.info("deleteTenant");
+    InstanceHierarchySnapshotRefresher.stop(TenantTool.tenantId(map));
+    AuditPartitionMaintenance.stop(TenantTool.tenantId(map));
     super.deleteTenant(map, hndlr, cntxt);
   }
 }
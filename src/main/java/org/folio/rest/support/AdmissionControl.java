@@ -0,0 +1,347 @@
+package org.folio.rest.support;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.folio.rest.tools.utils.TenantTool;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Admission control of the database work of the storage APIs, so that the bulk loads and
+ * harvests of one tenant cannot starve the interactive requests of other tenants.
+ *
+ * <p>A request is admitted when fewer than {@code max.concurrent} requests of all tenants and
+ * fewer than {@code tenant.max.interactive} or {@code tenant.max.bulk} requests of its tenant and
+ * work class are running, otherwise it waits in the queue of its tenant. The waiting requests are
+ * admitted by weighted fair queuing: each request gets a virtual finish time, its cost (1 for
+ * interactive, {@code bulk.cost} for bulk) divided by the weight of its tenant ({@code weight.<tenant>},
+ * default 1) after the finish time of the previous request of the tenant, and the request with the
+ * lowest finish time that its limits allow goes next. A request is rejected with 429 and
+ * Retry-After when its tenant has {@code queue.size} requests waiting. An admission that has not
+ * ended after {@code permit.timeout.ms} milliseconds is released anyway, so that a request that
+ * never responds cannot hold its place forever.
+ *
+ * <p>The limits are module specific program arguments prefixed by
+ * {@code inventory.storage.admission.}; {@code inventory.storage.admission.enabled=false} admits
+ * every request at once. They apply per module instance.
+ */
+public final class AdmissionControl {
+  /**
+   * Interactive requests work on single records or pages of records, bulk requests on many.
+   */
+  public enum WorkClass {
+    INTERACTIVE,
+    BULK;
+
+    private String tag() {
+      return name().toLowerCase();
+    }
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+  private static final String PREFIX = "inventory.storage.admission.";
+  private static final boolean ENABLED = Boolean.parseBoolean(value("enabled", "true"));
+  private static final int RETRY_AFTER_SECONDS = Integer.parseInt(value("retry.after.seconds", "1"));
+  private static final long PERMIT_TIMEOUT_MILLIS = Long.parseLong(value("permit.timeout.ms", "600000"));
+  private static final AdmissionControl INSTANCE = new AdmissionControl(
+    Integer.parseInt(value("max.concurrent", "32")),
+    Integer.parseInt(value("tenant.max.interactive", "16")),
+    Integer.parseInt(value("tenant.max.bulk", "2")),
+    Integer.parseInt(value("queue.size", "200")),
+    Double.parseDouble(value("bulk.cost", "4")),
+    tenantId -> Double.parseDouble(value("weight." + tenantId, "1")));
+
+  private final int maxConcurrent;
+  private final Map<WorkClass, Integer> tenantMax = new EnumMap<>(WorkClass.class);
+  private final int queueSize;
+  private final double bulkCost;
+  private final ToDoubleFunction<String> weight;
+  private final Map<String, TenantQueue> tenants = new LinkedHashMap<>();
+  private int running;
+  private double virtualTime;
+
+  /**
+   * @param maxConcurrent  maximum number of running requests of all tenants
+   * @param tenantMaxInteractive  maximum number of running interactive requests of a tenant
+   * @param tenantMaxBulk  maximum number of running bulk requests of a tenant
+   * @param queueSize  maximum number of waiting requests of a tenant
+   * @param bulkCost  cost of a bulk request relative to an interactive request
+   * @param weight  weight of a tenant
+   */
+  public AdmissionControl(int maxConcurrent, int tenantMaxInteractive, int tenantMaxBulk, int queueSize,
+    double bulkCost, ToDoubleFunction<String> weight) {
+
+    this.maxConcurrent = maxConcurrent;
+    this.tenantMax.put(WorkClass.INTERACTIVE, tenantMaxInteractive);
+    this.tenantMax.put(WorkClass.BULK, tenantMaxBulk);
+    this.queueSize = queueSize;
+    this.bulkCost = bulkCost;
+    this.weight = weight;
+  }
+
+  /**
+   * Run the work of an endpoint once it is admitted. The admission ends when the work calls the
+   * response handler passed to it. If the queue of the tenant is full respond with 429 instead.
+   */
+  public static void admit(WorkClass workClass, Map<String, String> okapiHeaders,
+    Handler<AsyncResult<Response>> asyncResultHandler, Handler<Handler<AsyncResult<Response>>> work) {
+
+    if (! ENABLED) {
+      work.handle(asyncResultHandler);
+      return;
+    }
+    String tenantId = TenantTool.tenantId(okapiHeaders);
+    boolean queued = INSTANCE.submit(tenantId, workClass, permit -> {
+      try {
+        work.handle(result -> {
+          permit.release();
+          asyncResultHandler.handle(result);
+        });
+      } catch (RuntimeException e) {
+        permit.release();
+        throw e;
+      }
+    });
+    if (! queued) {
+      asyncResultHandler.handle(Future.succeededFuture(Response.status(429)
+        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+        .type(MediaType.TEXT_PLAIN)
+        .entity(tooManyRequests(tenantId, workClass))
+        .build()));
+    }
+  }
+
+  /**
+   * Run the work of an endpoint that writes the response to the routing context directly once
+   * it is admitted. The admission ends when the response has been written or the connection is
+   * closed. If the queue of the tenant is full respond with 429 instead.
+   */
+  public static void admit(WorkClass workClass, Map<String, String> okapiHeaders,
+    RoutingContext routingContext, Runnable work) {
+
+    if (! ENABLED) {
+      work.run();
+      return;
+    }
+    String tenantId = TenantTool.tenantId(okapiHeaders);
+    boolean queued = INSTANCE.submit(tenantId, workClass, permit -> {
+      // the end and close handlers of the response are shared with the streaming code
+      routingContext.addBodyEndHandler(v -> permit.release());
+      ResponseCleanup.add(routingContext, permit::release);
+      try {
+        work.run();
+      } catch (RuntimeException e) {
+        permit.release();
+        throw e;
+      }
+    });
+    if (! queued) {
+      routingContext.response()
+        .setStatusCode(429)
+        .putHeader(HttpHeaders.RETRY_AFTER, Integer.toString(RETRY_AFTER_SECONDS))
+        .putHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN)
+        .end(tooManyRequests(tenantId, workClass));
+    }
+  }
+
+  private static String tooManyRequests(String tenantId, WorkClass workClass) {
+    Metrics.admissionRejected(tenantId, workClass.tag());
+    log.warn("Rejected " + workClass.tag() + " request of tenant " + tenantId + ", too many requests waiting");
+    return "Too many requests of tenant " + tenantId + ", retry later";
+  }
+
+  /**
+   * Queue the task and run it on the current Vert.x context once it is admitted. The task must
+   * release the permit when its work is done.
+   *
+   * @return false if the queue of the tenant is full and the task has not been queued
+   */
+  public boolean submit(String tenantId, WorkClass workClass, Handler<Permit> task) {
+    List<Waiter> admitted;
+    synchronized (this) {
+      TenantQueue tenant = tenants.computeIfAbsent(tenantId, TenantQueue::new);
+      if (tenant.waiting() >= queueSize) {
+        return false;
+      }
+      double cost = workClass == WorkClass.BULK ? bulkCost : 1;
+      double start = Math.max(virtualTime, tenant.lastFinish);
+      Waiter waiter = new Waiter(tenant, workClass, task, start, start + cost / tenant.weight);
+      tenant.lastFinish = waiter.finish;
+      tenant.queues.get(workClass).addLast(waiter);
+      admitted = dispatch();
+    }
+    run(admitted);
+    return true;
+  }
+
+  /**
+   * The number of waiting requests of a tenant and work class.
+   */
+  public synchronized int waiting(String tenantId, WorkClass workClass) {
+    TenantQueue tenant = tenants.get(tenantId);
+    return tenant == null ? 0 : tenant.queues.get(workClass).size();
+  }
+
+  /**
+   * Admit the waiting requests with the lowest finish times as long as the limits allow.
+   */
+  private List<Waiter> dispatch() {
+    List<Waiter> admitted = new ArrayList<>();
+    while (running < maxConcurrent) {
+      Waiter next = null;
+      for (TenantQueue tenant : tenants.values()) {
+        for (WorkClass workClass : WorkClass.values()) {
+          Waiter head = tenant.queues.get(workClass).peekFirst();
+          if (head != null && tenant.running.get(workClass) < tenantMax.get(workClass)
+            && (next == null || head.finish < next.finish)) {
+            next = head;
+          }
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      next.tenant.queues.get(next.workClass).removeFirst();
+      next.tenant.running.merge(next.workClass, 1, Integer::sum);
+      running++;
+      virtualTime = Math.max(virtualTime, next.start);
+      admitted.add(next);
+    }
+    return admitted;
+  }
+
+  private void run(List<Waiter> admitted) {
+    Context current = Vertx.currentContext();
+    for (Waiter waiter : admitted) {
+      Permit permit = new Permit(waiter);
+      if (waiter.context != null && PERMIT_TIMEOUT_MILLIS > 0) {
+        permit.timeout(waiter.context.owner(), PERMIT_TIMEOUT_MILLIS);
+      }
+      Metrics.admissionWait(waiter.tenant.tenantId, waiter.workClass.tag(), System.nanoTime() - waiter.queuedNanos);
+      if (waiter.context == null || waiter.context == current) {
+        waiter.task.handle(permit);
+      } else {
+        waiter.context.runOnContext(v -> waiter.task.handle(permit));
+      }
+    }
+  }
+
+  private void release(Waiter waiter) {
+    List<Waiter> admitted;
+    synchronized (this) {
+      waiter.tenant.running.merge(waiter.workClass, -1, Integer::sum);
+      running--;
+      admitted = dispatch();
+    }
+    run(admitted);
+  }
+
+  private static String value(String name, String defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    return value == null ? defaultValue : value.trim();
+  }
+
+  /**
+   * The admission of a request, to be released once when its work is done.
+   */
+  public final class Permit {
+    private final Waiter waiter;
+    private boolean released;
+    private Vertx vertx;
+    private long timerId;
+
+    private Permit(Waiter waiter) {
+      this.waiter = waiter;
+    }
+
+    private void timeout(Vertx vertx, long millis) {
+      this.vertx = vertx;
+      this.timerId = vertx.setTimer(millis, id -> {
+        log.warn("Releasing the admission of a " + waiter.workClass.tag() + " request of tenant "
+          + waiter.tenant.tenantId + " that is still running after " + millis + " ms");
+        release();
+      });
+    }
+
+    /**
+     * End the admission; calls after the first are ignored.
+     */
+    public void release() {
+      synchronized (this) {
+        if (released) {
+          return;
+        }
+        released = true;
+      }
+      if (vertx != null) {
+        vertx.cancelTimer(timerId);
+      }
+      AdmissionControl.this.release(waiter);
+    }
+  }
+
+  private final class TenantQueue {
+    private final String tenantId;
+    private final double weight;
+    private final Map<WorkClass, Deque<Waiter>> queues = new EnumMap<>(WorkClass.class);
+    private final Map<WorkClass, Integer> running = new EnumMap<>(WorkClass.class);
+    private double lastFinish;
+
+    private TenantQueue(String tenantId) {
+      this.tenantId = tenantId;
+      this.weight = AdmissionControl.this.weight.applyAsDouble(tenantId);
+      for (WorkClass workClass : WorkClass.values()) {
+        queues.put(workClass, new ArrayDeque<>());
+        running.put(workClass, 0);
+        Metrics.admissionQueue(tenantId, workClass.tag(), AdmissionControl.this,
+          control -> control.waiting(tenantId, workClass));
+      }
+    }
+
+    private int waiting() {
+      int waiting = 0;
+      for (Deque<Waiter> queue : queues.values()) {
+        waiting += queue.size();
+      }
+      return waiting;
+    }
+  }
+
+  private static final class Waiter {
+    private final TenantQueue tenant;
+    private final WorkClass workClass;
+    private final Handler<Permit> task;
+    private final double start;
+    private final double finish;
+    private final Context context = Vertx.currentContext();
+    private final long queuedNanos = System.nanoTime();
+
+    private Waiter(TenantQueue tenant, WorkClass workClass, Handler<Permit> task, double start, double finish) {
+      this.tenant = tenant;
+      this.workClass = workClass;
+      this.task = task;
+      this.start = start;
+      this.finish = finish;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package org.folio.rest.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+
+/**
+ * Gzip-compresses everything written to it before passing it on to the delegate.
+ *
+ * <p>Compressed output is collected until {@link #FLUSH_THRESHOLD} bytes are
+ * available so that the delegate receives reasonably sized chunks. Back pressure
+ * is taken from the delegate.
+ */
+public class GzipWriteStream implements WriteStream<Buffer> {
+  static final int FLUSH_THRESHOLD = 16 * 1024;
+
+  private final WriteStream<Buffer> delegate;
+  private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(FLUSH_THRESHOLD * 2);
+  private final GZIPOutputStream gzip;
+
+  public GzipWriteStream(WriteStream<Buffer> delegate) {
+    this.delegate = delegate;
+    try {
+      this.gzip = new GZIPOutputStream(compressed, FLUSH_THRESHOLD);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public GzipWriteStream exceptionHandler(Handler<Throwable> handler) {
+    delegate.exceptionHandler(handler);
+    return this;
+  }
+
+  @Override
+  public GzipWriteStream write(Buffer data) {
+    return write(data, null);
+  }
+
+  @Override
+  public GzipWriteStream write(Buffer data, Handler<AsyncResult<Void>> handler) {
+    try {
+      gzip.write(data.getBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (compressed.size() >= FLUSH_THRESHOLD) {
+      delegate.write(drain(), handler);
+    } else if (handler != null) {
+      handler.handle(Future.succeededFuture());
+    }
+    return this;
+  }
+
+  @Override
+  public void end() {
+    end((Handler<AsyncResult<Void>>) null);
+  }
+
+  @Override
+  public void end(Handler<AsyncResult<Void>> handler) {
+    try {
+      gzip.finish();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    delegate.end(drain(), handler);
+  }
+
+  @Override
+  public GzipWriteStream setWriteQueueMaxSize(int maxSize) {
+    delegate.setWriteQueueMaxSize(maxSize);
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return delegate.writeQueueFull();
+  }
+
+  @Override
+  public GzipWriteStream drainHandler(Handler<Void> handler) {
+    delegate.drainHandler(handler);
+    return this;
+  }
+
+  private Buffer drain() {
+    Buffer chunk = Buffer.buffer(compressed.toByteArray());
+    compressed.reset();
+    return chunk;
+  }
+}
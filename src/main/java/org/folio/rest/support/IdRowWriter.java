@@ -0,0 +1,209 @@
+package org.folio.rest.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.sqlclient.Row;
+
+/**
+ * Writes the rows of the bulk ids endpoints: the id column first, optionally
+ * followed by one more text column named after the requested field.
+ *
+ * <p>The values are appended to the output as they are, no JSON object is
+ * created or parsed per row. The rows are encoded into a single pooled scratch
+ * buffer that is handed out in chunks of about {@value #CHUNK_SIZE} bytes, so most
+ * rows return an empty buffer. An instance must be {@link #close() closed} to
+ * return the scratch buffer to the pool.
+ */
+public class IdRowWriter implements RowWriter {
+
+  /**
+   * Output formats of the bulk ids endpoints.
+   */
+  public enum Format {
+    /**
+     * {@code {"ids":[{"id":"..."},...],"totalRecords":n}}, the historical format.
+     */
+    JSON("application/json"),
+    /**
+     * One id per line; with a field the id and the value separated by a tab.
+     */
+    TEXT("text/plain"),
+    /**
+     * Newline delimited JSON, one {@code {"id":"..."}} object per line.
+     */
+    NDJSON("application/x-ndjson");
+
+    private final String contentType;
+
+    Format(String contentType) {
+      this.contentType = contentType;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+
+    /**
+     * @param accept  the Accept request header, may be null
+     * @return the format the client asks for, JSON if it asks for none of the others
+     */
+    public static Format negotiate(String accept) {
+      if (accept != null) {
+        if (accept.contains(NDJSON.contentType)) {
+          return NDJSON;
+        }
+        if (accept.contains(TEXT.contentType) && !accept.contains(JSON.contentType)) {
+          return TEXT;
+        }
+      }
+      return JSON;
+    }
+  }
+
+  /** a chunk is handed to the HTTP response once it has reached this size */
+  private static final int CHUNK_SIZE = 16 * 1024;
+  /** returned for rows that are kept for a later chunk; consumers skip empty buffers */
+  private static final Buffer NOTHING = Buffer.buffer(0);
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  private final Format format;
+  private final ByteBuf scratch;
+  private byte[] fieldPrefix;
+  private long count;
+  private boolean closed;
+
+  public IdRowWriter(Format format) {
+    this(format, PooledByteBufAllocator.DEFAULT);
+  }
+
+  IdRowWriter(Format format, ByteBufAllocator allocator) {
+    this.format = format;
+    this.scratch = allocator.buffer(CHUNK_SIZE + 1024);
+  }
+
+  /**
+   * Append the row to the current chunk.
+   *
+   * @return the chunk if it has reached {@value #CHUNK_SIZE} bytes, otherwise an empty buffer
+   */
+  @Override
+  public Buffer write(Row row) {
+    switch (format) {
+      case TEXT:
+        appendId(row.getValue(0));
+        if (row.size() > 1) {
+          scratch.writeByte('\t');
+          appendFieldValueAsLine(row.getValue(1));
+        }
+        scratch.writeByte('\n');
+        break;
+      case NDJSON:
+        appendObject(row);
+        scratch.writeByte('\n');
+        break;
+      default:
+        scratch.writeCharSequence(count == 0 ? "{\"ids\":[" : ",", StandardCharsets.US_ASCII);
+        appendObject(row);
+    }
+    count++;
+    return scratch.readableBytes() >= CHUNK_SIZE ? drain() : NOTHING;
+  }
+
+  /**
+   * @return the rest of the last chunk and what has to follow the last row
+   */
+  @Override
+  public Buffer end() {
+    if (format == Format.JSON) {
+      scratch.writeCharSequence((count == 0 ? "{\"ids\":[" : "") + "],\"totalRecords\":" + count + "}",
+        StandardCharsets.US_ASCII);
+    }
+    return drain();
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    scratch.release();
+  }
+
+  private Buffer drain() {
+    if (scratch.readableBytes() == 0) {
+      return NOTHING;
+    }
+    Buffer chunk = Buffer.buffer(Unpooled.copiedBuffer(scratch));
+    scratch.clear();
+    return chunk;
+  }
+
+  private void appendObject(Row row) {
+    scratch.writeCharSequence("{\"id\":\"", StandardCharsets.US_ASCII);
+    appendId(row.getValue(0));
+    scratch.writeByte('"');
+    if (row.size() > 1 && row.getValue(1) != null) {
+      if (fieldPrefix == null) {
+        fieldPrefix = (",\"" + new String(JsonStringEncoder.getInstance().quoteAsString(row.getColumnName(1)))
+          + "\":\"").getBytes(StandardCharsets.UTF_8);
+      }
+      scratch.writeBytes(fieldPrefix);
+      scratch.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(row.getValue(1).toString()));
+      scratch.writeByte('"');
+    }
+    scratch.writeByte('}');
+  }
+
+  /**
+   * Write a UUID as its 36 characters without creating its string form.
+   */
+  private void appendId(Object id) {
+    if (! (id instanceof UUID)) {
+      scratch.writeCharSequence(String.valueOf(id), StandardCharsets.UTF_8);
+      return;
+    }
+    UUID uuid = (UUID) id;
+    appendHex(uuid.getMostSignificantBits() >>> 32, 8);
+    scratch.writeByte('-');
+    appendHex(uuid.getMostSignificantBits() >>> 16, 4);
+    scratch.writeByte('-');
+    appendHex(uuid.getMostSignificantBits(), 4);
+    scratch.writeByte('-');
+    appendHex(uuid.getLeastSignificantBits() >>> 48, 4);
+    scratch.writeByte('-');
+    appendHex(uuid.getLeastSignificantBits(), 12);
+  }
+
+  private void appendHex(long value, int digits) {
+    for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+      scratch.writeByte(HEX[(int) (value >>> shift) & 0xf]);
+    }
+  }
+
+  /**
+   * Write the value replacing tabs and line breaks by spaces. These are single bytes in UTF-8
+   * that never occur within the encoding of another character.
+   */
+  private void appendFieldValueAsLine(Object value) {
+    if (value == null) {
+      return;
+    }
+    int start = scratch.writerIndex();
+    scratch.writeCharSequence(value.toString(), StandardCharsets.UTF_8);
+    for (int i = start; i < scratch.writerIndex(); i++) {
+      byte b = scratch.getByte(i);
+      if (b == '\t' || b == '\r' || b == '\n') {
+        scratch.setByte(i, ' ');
+      }
+    }
+  }
+}
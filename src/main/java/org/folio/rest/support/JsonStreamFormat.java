@@ -0,0 +1,68 @@
+package org.folio.rest.support;
+
+/**
+ * Framing used when a stream of rows is written out as JSON.
+ */
+public enum JsonStreamFormat {
+  /**
+   * JSON objects written back to back without any separator. This is the
+   * historical format of the streaming endpoints.
+   */
+  CONCATENATED("", "", "", "", "application/json"),
+  /**
+   * A single JSON array containing one object per row.
+   */
+  ARRAY("[", ",", "", "]", "application/json"),
+  /**
+   * Newline delimited JSON, one object per line.
+   */
+  NDJSON("", "", "\n", "", "application/x-ndjson");
+
+  private final String prefix;
+  private final String separator;
+  private final String terminator;
+  private final String suffix;
+  private final String contentType;
+
+  JsonStreamFormat(String prefix, String separator, String terminator, String suffix,
+    String contentType) {
+
+    this.prefix = prefix;
+    this.separator = separator;
+    this.terminator = terminator;
+    this.suffix = suffix;
+    this.contentType = contentType;
+  }
+
+  /**
+   * @return text written before the first row
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @return text written between two rows
+   */
+  public String getSeparator() {
+    return separator;
+  }
+
+  /**
+   * @return text written after every row
+   */
+  public String getTerminator() {
+    return terminator;
+  }
+
+  /**
+   * @return text written when the stream ends
+   */
+  public String getSuffix() {
+    return suffix;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+}
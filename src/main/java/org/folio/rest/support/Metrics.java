@@ -0,0 +1,253 @@
+package org.folio.rest.support;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import javax.ws.rs.core.Response;
+
+import org.folio.rest.tools.utils.TenantTool;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Metrics of the module in an in-process Prometheus registry, scraped at
+ * /inventory-storage/admin/metrics. All meters are tagged by tenant.
+ *
+ * <p>A {@link Request} records the latency of an endpoint together with the number and time of
+ * the database queries the endpoint issues itself. Queries that RMB's PgUtil issues on behalf
+ * of an endpoint count towards its latency only.
+ *
+ * <p>The admission control records its queue depth, wait time and rejections by tenant and
+ * work class.
+ *
+ * <p>Configured with the module specific program arguments {@code inventory.storage.metrics.enabled}
+ * (default true; false makes every method a no-op) and {@code inventory.storage.metrics.histograms}
+ * (default true, publish latency histogram buckets of the endpoints).
+ */
+public final class Metrics {
+  private static final String PREFIX = "inventory.storage.metrics.";
+  private static final boolean ENABLED = Boolean.parseBoolean(value("enabled", "true"));
+  private static final boolean HISTOGRAMS = Boolean.parseBoolean(value("histograms", "true"));
+  private static final PrometheusMeterRegistry REGISTRY =
+    ENABLED ? new PrometheusMeterRegistry(PrometheusConfig.DEFAULT) : null;
+  private static final Request NOOP = new Request(null, null);
+
+  private Metrics() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * Start measuring a request.
+   *
+   * @param endpoint  method and path pattern, for example {@code PUT /holdings-storage/holdings/{id}}
+   */
+  public static Request request(String endpoint, Map<String, String> okapiHeaders) {
+    if (! ENABLED) {
+      return NOOP;
+    }
+    return new Request(endpoint, TenantTool.tenantId(okapiHeaders));
+  }
+
+  /**
+   * Record the number of rows a streaming endpoint has written to the HTTP response.
+   */
+  public static void rowsStreamed(String endpoint, String tenantId, long rows) {
+    if (! ENABLED) {
+      return;
+    }
+    DistributionSummary.builder("inventory.storage.rows.streamed")
+      .baseUnit("rows")
+      .tag("endpoint", endpoint)
+      .tag("tenant", tenantId)
+      .register(REGISTRY)
+      .record(rows);
+  }
+
+  /**
+   * Record the number of records of a batch written to a table.
+   */
+  public static void batchSize(String table, String tenantId, int size) {
+    if (! ENABLED) {
+      return;
+    }
+    DistributionSummary.builder("inventory.storage.batch.size")
+      .baseUnit("records")
+      .tag("table", table)
+      .tag("tenant", tenantId)
+      .register(REGISTRY)
+      .record(size);
+  }
+
+  /**
+   * Publish the number of requests of a tenant and work class waiting for admission.
+   */
+  public static <T> void admissionQueue(String tenantId, String workClass, T queue, ToDoubleFunction<T> depth) {
+    if (! ENABLED) {
+      return;
+    }
+    Gauge.builder("inventory.storage.admission.queue", queue, depth)
+      .tag("class", workClass)
+      .tag("tenant", tenantId)
+      .register(REGISTRY);
+  }
+
+  /**
+   * Record how long an admitted request waited for admission.
+   */
+  public static void admissionWait(String tenantId, String workClass, long nanos) {
+    if (! ENABLED) {
+      return;
+    }
+    Timer.builder("inventory.storage.admission.wait")
+      .tag("class", workClass)
+      .tag("tenant", tenantId)
+      .register(REGISTRY)
+      .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Count a request rejected because the queue of its tenant was full.
+   */
+  public static void admissionRejected(String tenantId, String workClass) {
+    if (! ENABLED) {
+      return;
+    }
+    Counter.builder("inventory.storage.admission.rejected")
+      .tag("class", workClass)
+      .tag("tenant", tenantId)
+      .register(REGISTRY)
+      .increment();
+  }
+
+  /**
+   * All metrics in the Prometheus text format, empty if the metrics are disabled.
+   */
+  public static String scrape() {
+    return ENABLED ? REGISTRY.scrape() : "";
+  }
+
+  private static String value(String name, String defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    return value == null ? defaultValue : value.trim();
+  }
+
+  /**
+   * The measurements of a single request.
+   *
+   * <p>Not thread safe, a request is only touched from its Vert.x context.
+   */
+  public static final class Request {
+    private final String endpoint;
+    private final String tenantId;
+    private final long startNanos = System.nanoTime();
+    private long dbNanos;
+    private int dbQueries;
+
+    private Request(String endpoint, String tenantId) {
+      this.endpoint = endpoint;
+      this.tenantId = tenantId;
+    }
+
+    /**
+     * Wrap the response handler of the request to record the request when the response is handled.
+     */
+    public Handler<AsyncResult<Response>> wrap(Handler<AsyncResult<Response>> handler) {
+      if (endpoint == null) {
+        return handler;
+      }
+      return result -> {
+        finished(result.succeeded() ? result.result().getStatus() : 500);
+        handler.handle(result);
+      };
+    }
+
+    /**
+     * Record the request when the response body has been written, for endpoints that write
+     * the response to the routing context directly.
+     */
+    public void end(RoutingContext routingContext) {
+      if (endpoint == null) {
+        return;
+      }
+      routingContext.addBodyEndHandler(v -> finished(routingContext.response().getStatusCode()));
+    }
+
+    /**
+     * Wrap the handler of a database operation to record its duration, measured from now until
+     * the handler is called.
+     *
+     * @param operation  for example select, update or save
+     */
+    public <T> Handler<AsyncResult<T>> db(String operation, Handler<AsyncResult<T>> handler) {
+      if (endpoint == null) {
+        return handler;
+      }
+      long start = System.nanoTime();
+      return result -> {
+        long nanos = System.nanoTime() - start;
+        dbNanos += nanos;
+        dbQueries++;
+        Timer.builder("inventory.storage.db.queries")
+          .tag("operation", operation)
+          .tag("tenant", tenantId)
+          .register(REGISTRY)
+          .record(nanos, TimeUnit.NANOSECONDS);
+        handler.handle(result);
+      };
+    }
+
+    /**
+     * Wrap the handler of startTx to record how long the request waited for a connection of the
+     * pool (including the BEGIN).
+     */
+    public <T> Handler<AsyncResult<T>> poolWait(Handler<AsyncResult<T>> handler) {
+      if (endpoint == null) {
+        return handler;
+      }
+      long start = System.nanoTime();
+      return result -> {
+        Timer.builder("inventory.storage.db.pool.wait")
+          .tag("tenant", tenantId)
+          .register(REGISTRY)
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        handler.handle(result);
+      };
+    }
+
+    private void finished(int status) {
+      Timer.Builder latency = Timer.builder("inventory.storage.requests")
+        .tag("endpoint", endpoint)
+        .tag("status", Integer.toString(status))
+        .tag("tenant", tenantId);
+      if (HISTOGRAMS) {
+        latency.publishPercentileHistogram();
+      }
+      latency.register(REGISTRY).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+      if (dbQueries == 0) {
+        return;
+      }
+      Timer.builder("inventory.storage.request.db")
+        .tag("endpoint", endpoint)
+        .tag("tenant", tenantId)
+        .register(REGISTRY)
+        .record(dbNanos, TimeUnit.NANOSECONDS);
+      DistributionSummary.builder("inventory.storage.request.db.queries")
+        .baseUnit("queries")
+        .tag("endpoint", endpoint)
+        .tag("tenant", tenantId)
+        .register(REGISTRY)
+        .record(dbQueries);
+    }
+  }
+}
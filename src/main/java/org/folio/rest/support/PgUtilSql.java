@@ -0,0 +1,50 @@
+package org.folio.rest.support;
+
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.cql.CQLWrapper;
+
+/**
+ * The SQL that RMB's PgUtil generates for a CQL query, for diagnostics.
+ */
+public final class PgUtilSql {
+  private PgUtilSql() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * The SQL statement that {@code PgUtil.streamGet} selects the records with: the CQL query
+   * translated for the jsonb column of the table, with limit and offset.
+   *
+   * @throws FieldException  if the table has no jsonb column
+   * @throws org.folio.cql2pgjson.exception.QueryValidationException  wrapped in a runtime
+   *     exception if the CQL query is invalid
+   */
+  public static String streamGet(String tenantId, String table, String cql, int offset, int limit)
+    throws FieldException {
+
+    CQLWrapper wrapper = new CQLWrapper(new CQL2PgJSON(table + ".jsonb"), cql, limit, offset);
+    return "SELECT jsonb,id FROM " + PostgresClient.convertToPsqlStandard(tenantId) + "." + table
+      + " " + wrapper.toString();
+  }
+
+  /**
+   * The SQL statement that {@code PostgresClient.get} selects all fields with.
+   */
+  public static String get(String tenantId, String table, CQLWrapper wrapper) {
+    return "SELECT * FROM " + PostgresClient.convertToPsqlStandard(tenantId) + "." + table + " " + wrapper.toString();
+  }
+
+  /**
+   * Like {@link #streamGet} but returns the error message in place of the SQL if the translation
+   * fails, for logging.
+   */
+  public static String streamGetOrError(String tenantId, String table, String cql, int offset, int limit) {
+    try {
+      return streamGet(tenantId, table, cql, offset, limit);
+    } catch (Exception e) {
+      return "CQL translation failed: " + e.getMessage();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package org.folio.rest.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Runs cleanup actions once the HTTP response of a request has ended or its connection has
+ * been closed, whichever comes first.
+ *
+ * <p>A response has a single end handler and a single close handler. The actions of all
+ * callers are collected per request so that one caller cannot replace the handler of another.
+ * Each action runs at most once.
+ */
+public final class ResponseCleanup {
+  private static final Logger log = LoggerFactory.getLogger(ResponseCleanup.class);
+  private static final String KEY = ResponseCleanup.class.getName();
+
+  private ResponseCleanup() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * Run the action when the response has ended or its connection has been closed; at once if
+   * that has already happened.
+   */
+  public static void add(RoutingContext routingContext, Runnable action) {
+    HttpServerResponse response = routingContext.response();
+    if (response.ended() || response.closed()) {
+      run(action);
+      return;
+    }
+    List<Runnable> actions = routingContext.get(KEY);
+    if (actions == null) {
+      List<Runnable> newActions = new ArrayList<>();
+      Handler<Void> runAll = v -> runAll(newActions);
+      response.endHandler(runAll);
+      response.closeHandler(runAll);
+      routingContext.put(KEY, newActions);
+      actions = newActions;
+    }
+    actions.add(action);
+  }
+
+  private static void runAll(List<Runnable> actions) {
+    List<Runnable> toRun = new ArrayList<>(actions);
+    actions.clear();
+    toRun.forEach(ResponseCleanup::run);
+  }
+
+  private static void run(Runnable action) {
+    try {
+      action.run();
+    } catch (RuntimeException e) {
+      log.error("Response cleanup failed: " + e.getMessage(), e);
+    }
+  }
+}
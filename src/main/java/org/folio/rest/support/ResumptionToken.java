@@ -0,0 +1,65 @@
+package org.folio.rest.support;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position (updatedDate, instanceId) of the last record returned by an
+ * updated instance ids stream.
+ *
+ * <p>The token is the URL safe base64 encoding of
+ * {@code <updatedDate in ISO-8601>/<instanceId>}, so a client that lost the
+ * connection can build it from the last record it has received.
+ */
+public final class ResumptionToken {
+  private static final String SEPARATOR = "/";
+
+  private final OffsetDateTime updatedDate;
+  private final UUID instanceId;
+
+  public ResumptionToken(OffsetDateTime updatedDate, UUID instanceId) {
+    this.updatedDate = updatedDate;
+    this.instanceId = instanceId;
+  }
+
+  /**
+   * @param token  token as returned by {@link #encode()}
+   * @return the decoded token
+   * @throws IllegalArgumentException if the token is malformed
+   */
+  public static ResumptionToken decode(String token) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+      int separator = decoded.lastIndexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new IllegalArgumentException("Invalid resumptionToken: " + token);
+      }
+      return new ResumptionToken(OffsetDateTime.parse(decoded.substring(0, separator)),
+        UUID.fromString(decoded.substring(separator + 1)));
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid resumptionToken: " + token, e);
+    }
+  }
+
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+      .encodeToString((updatedDate + SEPARATOR + instanceId).getBytes(UTF_8));
+  }
+
+  public OffsetDateTime getUpdatedDate() {
+    return updatedDate;
+  }
+
+  public UUID getInstanceId() {
+    return instanceId;
+  }
+
+  @Override
+  public String toString() {
+    return encode();
+  }
+}
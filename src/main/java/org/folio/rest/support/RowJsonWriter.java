@@ -0,0 +1,157 @@
+package org.folio.rest.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.json.jackson.DatabindCodec;
+import io.vertx.sqlclient.Row;
+
+/**
+ * Writes database rows as JSON objects straight into bytes.
+ *
+ * <p>Every row is encoded into a single pooled scratch buffer that is reused
+ * for the whole stream; only the final, exactly sized chunk handed to the
+ * HTTP response is allocated per row. Columns listed as raw JSON columns are
+ * expected to contain JSON text (for example {@code jsonb_column::text}) and are
+ * copied through without being parsed and encoded again.
+ *
+ * <p>The output of a single row is the same as the former
+ * {@code JsonObject}-based conversion: {@code null} values are written as
+ * {@code ""}, JSON values as JSON and everything else as its string form.
+ *
+ * <p>An instance is not thread safe and must be {@link #close() closed} to
+ * return the scratch buffer to the pool.
+ */
+public class RowJsonWriter implements RowWriter {
+
+  private static final int INITIAL_CAPACITY = 4 * 1024;
+
+  private final JsonStreamFormat format;
+  private final Set<String> rawJsonColumns;
+  private final ByteBuf scratch;
+  private final JsonGenerator generator;
+  private boolean started;
+  private boolean closed;
+
+  public RowJsonWriter(JsonStreamFormat format) {
+    this(format, Collections.emptySet());
+  }
+
+  public RowJsonWriter(JsonStreamFormat format, Set<String> rawJsonColumns) {
+    this(format, rawJsonColumns, PooledByteBufAllocator.DEFAULT);
+  }
+
+  RowJsonWriter(JsonStreamFormat format, Set<String> rawJsonColumns,
+    ByteBufAllocator allocator) {
+
+    this.format = Objects.requireNonNull(format, "format cannot be null");
+    this.rawJsonColumns = Objects.requireNonNull(rawJsonColumns, "rawJsonColumns cannot be null");
+    this.scratch = allocator.buffer(INITIAL_CAPACITY);
+    try {
+      this.generator = DatabindCodec.mapper().getFactory()
+        .createGenerator((OutputStream) new ByteBufOutputStream(scratch));
+      // rows are separated by the framing only
+      this.generator.setRootValueSeparator(null);
+    } catch (IOException e) {
+      scratch.release();
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Encode one row including the framing that belongs in front of and behind it.
+   *
+   * @param row  the row to encode
+   * @return the encoded bytes
+   */
+  @Override
+  public Buffer write(Row row) {
+    try {
+      if (started) {
+        generator.writeRaw(format.getSeparator());
+      } else {
+        generator.writeRaw(format.getPrefix());
+        started = true;
+      }
+      writeRow(row);
+      generator.writeRaw(format.getTerminator());
+      return drain();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Encode what has to follow the last row.
+   *
+   * @return the closing bytes, may be empty
+   */
+  @Override
+  public Buffer end() {
+    StringBuilder tail = new StringBuilder();
+    if (!started) {
+      tail.append(format.getPrefix());
+      started = true;
+    }
+    tail.append(format.getSuffix());
+    return Buffer.buffer(tail.toString());
+  }
+
+  private void writeRow(Row row) throws IOException {
+    generator.writeStartObject();
+    for (int i = 0; i < row.size(); i++) {
+      String name = row.getColumnName(i);
+      generator.writeFieldName(name);
+      writeValue(name, row.getValue(i));
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeValue(String name, Object value) throws IOException {
+    if (value == null) {
+      generator.writeString("");
+    } else if (value instanceof JsonObject || value instanceof JsonArray) {
+      generator.writeObject(value);
+    } else if (value instanceof String && rawJsonColumns.contains(name)) {
+      generator.writeRawValue((String) value);
+    } else {
+      generator.writeString(value.toString());
+    }
+  }
+
+  private Buffer drain() throws IOException {
+    generator.flush();
+    Buffer chunk = Buffer.buffer(Unpooled.copiedBuffer(scratch));
+    scratch.clear();
+    return chunk;
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      generator.close();
+    } catch (IOException e) {
+      // nothing left to flush into a buffer that is about to be released
+    } finally {
+      scratch.release();
+    }
+  }
+}
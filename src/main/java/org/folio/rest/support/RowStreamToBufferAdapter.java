@@ -1,9 +1,12 @@
 package org.folio.rest.support;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
 import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
-import io.vertx.core.json.JsonArray;
-import io.vertx.core.json.JsonObject;
 import io.vertx.core.streams.ReadStream;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowStream;
@@ -11,69 +14,210 @@ import io.vertx.sqlclient.RowStream;
 /**
  * Converts RowStream[Row] to ReadStream[Buffer]
  *
+ * <p>When created with {@link StreamOptions} the stream fails with a
+ * {@link TimeoutException} if it is paused or running longer than allowed; the
+ * database cursor is closed in that case.
  */
 public class RowStreamToBufferAdapter implements ReadStream<Buffer> {
 
   private final RowStream<Row> delegate;
+  private final RowWriter writer;
+  private final Vertx vertx;
+  private final StreamOptions options;
+  private final StreamStatistics statistics = new StreamStatistics();
+  private Handler<Buffer> handler;
+  private Handler<Row> rowObserver;
+  private Handler<Throwable> exceptionHandler;
+  private long durationTimer = -1;
+  private long pauseTimer = -1;
+  private boolean finished;
 
   public RowStreamToBufferAdapter(RowStream<Row> delegate) {
+    this(delegate, JsonStreamFormat.CONCATENATED, Collections.emptySet());
+  }
+
+  /**
+   * @param delegate        the rows to convert
+   * @param format          how the JSON objects of the rows are framed
+   * @param rawJsonColumns  names of text columns that already contain JSON
+   */
+  public RowStreamToBufferAdapter(RowStream<Row> delegate, JsonStreamFormat format,
+    Set<String> rawJsonColumns) {
+
+    this(delegate, format, rawJsonColumns, null, null);
+  }
+
+  /**
+   * @param delegate        the rows to convert
+   * @param format          how the JSON objects of the rows are framed
+   * @param rawJsonColumns  names of text columns that already contain JSON
+   * @param vertx           for the timers of the pause and duration limits
+   * @param options         the pause and duration limits
+   */
+  public RowStreamToBufferAdapter(RowStream<Row> delegate, JsonStreamFormat format,
+    Set<String> rawJsonColumns, Vertx vertx, StreamOptions options) {
+
+    this(delegate, new RowJsonWriter(format, rawJsonColumns), vertx, options);
+  }
+
+  /**
+   * @param delegate  the rows to convert
+   * @param writer    encodes the rows, closed when the stream ends
+   * @param vertx     for the timers of the pause and duration limits
+   * @param options   the pause and duration limits
+   */
+  public RowStreamToBufferAdapter(RowStream<Row> delegate, RowWriter writer, Vertx vertx, StreamOptions options) {
     this.delegate = delegate;
+    this.writer = writer;
+    this.vertx = vertx;
+    this.options = options;
+  }
+
+  /**
+   * @return rows, bytes and pauses of this stream so far
+   */
+  public StreamStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * @param rowObserver  called with each row before it is passed on as a buffer
+   */
+  public RowStreamToBufferAdapter rowObserver(Handler<Row> rowObserver) {
+    this.rowObserver = rowObserver;
+    return this;
   }
 
   public ReadStream<Buffer> exceptionHandler(Handler<Throwable> exceptionHandler) {
-    this.delegate.exceptionHandler(handler -> {
-      exceptionHandler.handle(handler);
-      delegate.close();
-    });
+    this.exceptionHandler = exceptionHandler;
+    this.delegate.exceptionHandler(this::fail);
     return this;
   }
 
   public RowStreamToBufferAdapter handler(Handler<Buffer> handler) {
+    this.handler = handler;
     if (handler != null) {
-      delegate.handler(row -> handler.handle(Buffer.buffer(createJsonFromRow(row))));
+      startDurationTimer();
+      delegate.handler(row -> {
+        if (finished) {
+          return;
+        }
+        if (row != null && rowObserver != null) {
+          rowObserver.handle(row);
+        }
+        Buffer buffer = row == null ? Buffer.buffer() : writer.write(row);
+        statistics.row(buffer.length());
+        if (buffer.length() > 0) {
+          handler.handle(buffer);
+        }
+      });
     }
     return this;
   }
 
   public ReadStream<Buffer> pause() {
+    statistics.paused();
+    startPauseTimer();
     this.delegate.pause();
     return this;
   }
 
   public ReadStream<Buffer> fetch(long amount) {
+    statistics.resumed();
+    cancelPauseTimer();
     this.delegate.fetch(amount);
     return this;
   }
 
   public ReadStream<Buffer> resume() {
+    statistics.resumed();
+    cancelPauseTimer();
     this.delegate.resume();
     return this;
   }
 
   public ReadStream<Buffer> endHandler(Handler<Void> endHandler) {
     this.delegate.endHandler(handler -> {
+      if (finished) {
+        return;
+      }
+      finish();
+      Buffer tail = writer.end();
+      writer.close();
+      if (this.handler != null && tail.length() > 0) {
+        statistics.bytes(tail.length());
+        this.handler.handle(tail);
+      }
       endHandler.handle(handler);
       delegate.close();
     });
     return this;
   }
 
-  private String createJsonFromRow(Row row) {
-    if (row == null) {
-      return "";
+  /**
+   * Stop streaming and close the database cursor without calling any handler,
+   * for example because the HTTP client has gone away.
+   */
+  public void close() {
+    if (finished) {
+      return;
+    }
+    finish();
+    writer.close();
+    delegate.close();
+  }
+
+  /**
+   * Stop streaming, close the database cursor and pass the cause to the exception handler,
+   * for example because the HTTP connection has been closed while the stream was paused.
+   * Does nothing if the stream has already finished.
+   */
+  public void fail(Throwable t) {
+    if (finished) {
+      return;
     }
-    JsonObject json = new JsonObject();
-    for (int i = 0; i < row.size(); i++) {
-      json.put(row.getColumnName(i), convertRowValue(row.getValue(i)));
+    close();
+    if (exceptionHandler != null) {
+      exceptionHandler.handle(t);
     }
-    return json.toString();
   }
 
-  private Object convertRowValue(Object value) {
-    if (value == null) {
-      return "";
+  private void finish() {
+    finished = true;
+    statistics.finished();
+    cancelPauseTimer();
+    if (durationTimer != -1) {
+      vertx.cancelTimer(durationTimer);
+      durationTimer = -1;
+    }
+  }
+
+  private void startDurationTimer() {
+    if (vertx == null || options.getMaxDurationMillis() <= 0 || durationTimer != -1) {
+      return;
+    }
+    durationTimer = vertx.setTimer(options.getMaxDurationMillis(), id -> {
+      durationTimer = -1;
+      fail(new TimeoutException("Stream exceeded the maximum duration of "
+        + options.getMaxDurationMillis() + " ms"));
+    });
+  }
+
+  private void startPauseTimer() {
+    if (vertx == null || options.getMaxPauseMillis() <= 0 || pauseTimer != -1 || finished) {
+      return;
+    }
+    pauseTimer = vertx.setTimer(options.getMaxPauseMillis(), id -> {
+      pauseTimer = -1;
+      fail(new TimeoutException("Stream was paused longer than "
+        + options.getMaxPauseMillis() + " ms"));
+    });
+  }
+
+  private void cancelPauseTimer() {
+    if (pauseTimer != -1) {
+      vertx.cancelTimer(pauseTimer);
+      pauseTimer = -1;
     }
-    return value instanceof JsonObject ||
-      value instanceof JsonArray ? value : value.toString();
   }
 }
@@ -0,0 +1,31 @@
+package org.folio.rest.support;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.sqlclient.Row;
+
+/**
+ * Encodes the rows of a database result set that is streamed to an HTTP response.
+ *
+ * <p>An instance belongs to a single stream and must be {@link #close() closed}
+ * when the stream ends or is aborted.
+ */
+public interface RowWriter extends AutoCloseable {
+  /**
+   * Encode one row including the framing that belongs in front of and behind it.
+   *
+   * @param row  the row to encode
+   * @return the encoded bytes; empty if the writer keeps them for a later buffer, the
+   *         caller must not modify an empty buffer
+   */
+  Buffer write(Row row);
+
+  /**
+   * Encode what has to follow the last row.
+   *
+   * @return the closing bytes, may be empty
+   */
+  Buffer end();
+
+  @Override
+  void close();
+}
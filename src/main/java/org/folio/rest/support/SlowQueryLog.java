@@ -0,0 +1,224 @@
+package org.folio.rest.support;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.folio.rest.jaxrs.model.SlowQuery;
+import org.folio.rest.tools.utils.TenantTool;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Records the database queries that take at least {@code inventory.storage.slowquery.threshold.ms}
+ * milliseconds (module specific program argument, default {@value #DEFAULT_THRESHOLD_MILLIS},
+ * negative disables the threshold) and a random fraction {@code inventory.storage.slowquery.sample.rate}
+ * (default 0) of all queries. The last {@code inventory.storage.slowquery.capacity} (default
+ * {@value #DEFAULT_CAPACITY}) records of each tenant are kept in memory, queries above the
+ * threshold are also logged.
+ *
+ * <p>The SQL of a query is only generated when the query is recorded, so that the queries that
+ * are not recorded do not pay for it.
+ */
+public final class SlowQueryLog {
+  static final long DEFAULT_THRESHOLD_MILLIS = 1000;
+  static final int DEFAULT_CAPACITY = 100;
+
+  private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+  private static final String PREFIX = "inventory.storage.slowquery.";
+  private static final long THRESHOLD_MILLIS =
+    Long.parseLong(value("threshold.ms", Long.toString(DEFAULT_THRESHOLD_MILLIS)));
+  private static final double SAMPLE_RATE = Double.parseDouble(value("sample.rate", "0"));
+  private static final int CAPACITY = Integer.parseInt(value("capacity", Integer.toString(DEFAULT_CAPACITY)));
+  private static final boolean ENABLED = CAPACITY > 0 && (THRESHOLD_MILLIS >= 0 || SAMPLE_RATE > 0);
+  private static final Query NOOP = new Query(null, null, null, null, null);
+
+  /** The records by tenant, the newest record first; a tenant never sees or evicts the records of another. */
+  private static final Map<String, Deque<SlowQuery>> RECORDS = new ConcurrentHashMap<>();
+
+  private SlowQueryLog() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * Start measuring a query.
+   *
+   * @param endpoint  method and path pattern of the request, for example {@code GET /item-storage/items}
+   * @param cql  CQL query of the request, may be null
+   * @param sql  generates the SQL statement if the query is recorded
+   * @param parameters  bind parameters of the statement, may be null
+   */
+  public static Query start(String tenantId, String endpoint, String cql, Supplier<String> sql,
+    Tuple parameters) {
+
+    if (! ENABLED) {
+      return NOOP;
+    }
+    return new Query(tenantId, endpoint, cql, sql, parameters);
+  }
+
+  /**
+   * Measure the {@code PgUtil.streamGet} of an endpoint until its response has been written.
+   */
+  public static void streamGet(String endpoint, String table, String cql, int offset, int limit,
+    Map<String, String> okapiHeaders, RoutingContext routingContext) {
+
+    if (! ENABLED) {
+      return;
+    }
+    String tenantId = TenantTool.tenantId(okapiHeaders);
+    start(tenantId, endpoint, cql, () -> PgUtilSql.streamGetOrError(tenantId, table, cql, offset, limit), null)
+      .end(routingContext);
+  }
+
+  /**
+   * The records of a tenant, newest first.
+   */
+  public static List<SlowQuery> get(String tenantId) {
+    Deque<SlowQuery> records = RECORDS.get(tenantId);
+    if (records == null) {
+      return new ArrayList<>();
+    }
+    synchronized (records) {
+      return new ArrayList<>(records);
+    }
+  }
+
+  /**
+   * Remove the records of a tenant.
+   */
+  public static void clear(String tenantId) {
+    Deque<SlowQuery> records = RECORDS.get(tenantId);
+    if (records == null) {
+      return;
+    }
+    synchronized (records) {
+      records.clear();
+    }
+  }
+
+  private static void add(SlowQuery record) {
+    Deque<SlowQuery> records = RECORDS.computeIfAbsent(record.getTenant(), tenantId -> new ArrayDeque<>());
+    synchronized (records) {
+      if (records.size() >= CAPACITY) {
+        records.removeLast();
+      }
+      records.addFirst(record);
+    }
+  }
+
+  private static String value(String name, String defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    return value == null ? defaultValue : value.trim();
+  }
+
+  /**
+   * A query being measured.
+   */
+  public static final class Query {
+    private final String tenantId;
+    private final String endpoint;
+    private final String cql;
+    private final Supplier<String> sql;
+    private final Tuple parameters;
+    private final long startNanos = System.nanoTime();
+
+    private Query(String tenantId, String endpoint, String cql, Supplier<String> sql, Tuple parameters) {
+      this.tenantId = tenantId;
+      this.endpoint = endpoint;
+      this.cql = cql;
+      this.sql = sql;
+      this.parameters = parameters;
+    }
+
+    /**
+     * Wrap the handler of the query to record the query when the handler is called.
+     *
+     * @param rows  the number of rows of the result
+     */
+    public <T> Handler<AsyncResult<T>> handler(ToLongFunction<T> rows, Handler<AsyncResult<T>> handler) {
+      if (sql == null) {
+        return handler;
+      }
+      return result -> {
+        if (result.succeeded()) {
+          finished(result.result() == null ? null : rows.applyAsLong(result.result()), null);
+        } else {
+          finished(null, result.cause().getMessage());
+        }
+        handler.handle(result);
+      };
+    }
+
+    /**
+     * Record the query when the response body has been written, for endpoints that write the
+     * result to the routing context directly.
+     */
+    public void end(RoutingContext routingContext) {
+      if (sql == null) {
+        return;
+      }
+      routingContext.addBodyEndHandler(v -> finished(null, null));
+    }
+
+    /**
+     * Record the query if it is slow or sampled.
+     *
+     * @param rows  number of rows of the result, null if unknown
+     * @param error  error message if the query failed, null otherwise
+     */
+    public void finished(Long rows, String error) {
+      if (sql == null) {
+        return;
+      }
+      long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      boolean slow = THRESHOLD_MILLIS >= 0 && millis >= THRESHOLD_MILLIS;
+      if (! slow && (SAMPLE_RATE <= 0 || ThreadLocalRandom.current().nextDouble() >= SAMPLE_RATE)) {
+        return;
+      }
+      SlowQuery record = new SlowQuery()
+        .withTenant(tenantId)
+        .withEndpoint(endpoint)
+        .withCql(cql)
+        .withSql(sql.get())
+        .withParameters(parameters())
+        .withDurationMs((int) Math.min(millis, Integer.MAX_VALUE))
+        .withRows(rows == null ? null : (int) Math.min(rows, Integer.MAX_VALUE))
+        .withError(error)
+        .withSampled(! slow)
+        .withRecordedDate(new Date());
+      add(record);
+      if (slow) {
+        log.warn("Slow query of tenant " + tenantId + " took " + millis + " ms: " + endpoint
+          + (cql == null ? "" : ", CQL: " + cql) + ", SQL: " + record.getSql());
+      }
+    }
+
+    private List<String> parameters() {
+      List<String> list = new ArrayList<>();
+      if (parameters == null) {
+        return list;
+      }
+      for (int i = 0; i < parameters.size(); i++) {
+        Object value = parameters.getValue(i);
+        list.add(value == null ? null : value.toString());
+      }
+      return list;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package org.folio.rest.support;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+/**
+ * Limits of a database result set streamed to an HTTP response.
+ *
+ * <p>The values are read from the module specific program arguments, an
+ * endpoint specific value wins over the general one:
+ * <ul>
+ * <li>{@code inventory.storage.stream.fetch.size} and
+ * {@code inventory.storage.stream.<endpoint>.fetch.size}: rows fetched from the
+ * database cursor per round trip (default {@value #DEFAULT_FETCH_SIZE})
+ * <li>{@code inventory.storage.stream.max.pause.ms} and
+ * {@code inventory.storage.stream.<endpoint>.max.pause.ms}: how long the client may
+ * stall the stream before it is aborted, 0 disables the check (default
+ * {@value #DEFAULT_MAX_PAUSE_MILLIS})
+ * <li>{@code inventory.storage.stream.max.duration.ms} and
+ * {@code inventory.storage.stream.<endpoint>.max.duration.ms}: how long a stream may
+ * run in total before it is aborted, 0 disables the check (default 0)
+ * </ul>
+ * where {@code <endpoint>} is the request path without the leading slash and
+ * with slashes replaced by dots, for example {@code oai-pmh-view.instances}.
+ */
+public final class StreamOptions {
+  static final int DEFAULT_FETCH_SIZE = 100;
+  static final long DEFAULT_MAX_PAUSE_MILLIS = 300_000;
+
+  private static final String PREFIX = "inventory.storage.stream.";
+
+  private final int fetchSize;
+  private final long maxPauseMillis;
+  private final long maxDurationMillis;
+
+  public StreamOptions(int fetchSize, long maxPauseMillis, long maxDurationMillis) {
+    if (fetchSize < 1) {
+      throw new IllegalArgumentException("fetch size must be positive: " + fetchSize);
+    }
+    this.fetchSize = fetchSize;
+    this.maxPauseMillis = maxPauseMillis;
+    this.maxDurationMillis = maxDurationMillis;
+  }
+
+  /**
+   * @param path  request path of the endpoint, like /oai-pmh-view/instances
+   * @return the options configured for the endpoint
+   */
+  public static StreamOptions forPath(String path) {
+    String endpoint = endpointName(path);
+    return new StreamOptions(
+      (int) value(endpoint, "fetch.size", DEFAULT_FETCH_SIZE),
+      value(endpoint, "max.pause.ms", DEFAULT_MAX_PAUSE_MILLIS),
+      value(endpoint, "max.duration.ms", 0));
+  }
+
+  static String endpointName(String path) {
+    String trimmed = path == null ? "" : path.replaceAll("^/+|/+$", "");
+    return trimmed.replace('/', '.');
+  }
+
+  private static long value(String endpoint, String name, long defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + endpoint + "." + name);
+    if (value == null) {
+      value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    }
+    return value == null ? defaultValue : Long.parseLong(value.trim());
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  public long getMaxPauseMillis() {
+    return maxPauseMillis;
+  }
+
+  public long getMaxDurationMillis() {
+    return maxDurationMillis;
+  }
+}
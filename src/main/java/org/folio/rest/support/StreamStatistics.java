@@ -0,0 +1,88 @@
+package org.folio.rest.support;
+
+/**
+ * Counters of a single result set streamed to an HTTP response.
+ *
+ * <p>Not thread safe, a stream is only touched from its Vert.x context.
+ */
+public class StreamStatistics {
+  private final long startNanos = System.nanoTime();
+  private long endNanos;
+  private long rows;
+  private long bytes;
+  private long pauses;
+  private long pausedNanos;
+  private long pauseStartNanos;
+
+  void row(int byteCount) {
+    rows++;
+    bytes += byteCount;
+  }
+
+  void bytes(int byteCount) {
+    bytes += byteCount;
+  }
+
+  void paused() {
+    if (pauseStartNanos == 0) {
+      pauses++;
+      pauseStartNanos = System.nanoTime();
+    }
+  }
+
+  void resumed() {
+    if (pauseStartNanos != 0) {
+      pausedNanos += System.nanoTime() - pauseStartNanos;
+      pauseStartNanos = 0;
+    }
+  }
+
+  void finished() {
+    resumed();
+    if (endNanos == 0) {
+      endNanos = System.nanoTime();
+    }
+  }
+
+  public long getRows() {
+    return rows;
+  }
+
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * @return how often the HTTP side stalled the database cursor
+   */
+  public long getPauses() {
+    return pauses;
+  }
+
+  public long getPausedMillis() {
+    long nanos = pausedNanos;
+    if (pauseStartNanos != 0) {
+      nanos += System.nanoTime() - pauseStartNanos;
+    }
+    return nanos / 1_000_000;
+  }
+
+  public long getDurationMillis() {
+    return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1_000_000;
+  }
+
+  public long getRowsPerSecond() {
+    long millis = getDurationMillis();
+    return millis == 0 ? rows : rows * 1000 / millis;
+  }
+
+  @Override
+  public String toString() {
+    return "rows=" + rows
+      + ", bytes=" + bytes
+      + ", durationMs=" + getDurationMillis()
+      + ", rowsPerSecond=" + getRowsPerSecond()
+      + ", pauses=" + pauses
+      + ", pausedMs=" + getPausedMillis();
+  }
+}
@@ -0,0 +1,95 @@
+package org.folio.services;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Periodically creates the upcoming monthly partitions of the audit tables of a tenant and drops
+ * the partitions older than the retention, see auditPartitions.sql. Started by the tenant API and,
+ * for all existing tenants, when the module starts, see InitStorageAPI.
+ *
+ * <p>Configured with the module specific program arguments
+ * {@code inventory.storage.audit.partitions.ahead.months} (default {@value #DEFAULT_MONTHS_AHEAD}),
+ * {@code inventory.storage.audit.retention.months} (default {@value #DEFAULT_RETENTION_MONTHS},
+ * 0 keeps all partitions) and {@code inventory.storage.audit.maintenance.interval.ms}
+ * (default {@value #DEFAULT_INTERVAL_MILLIS}, 0 disables the maintenance).
+ */
+public final class AuditPartitionMaintenance {
+  static final long DEFAULT_INTERVAL_MILLIS = 86_400_000;
+  static final int DEFAULT_MONTHS_AHEAD = 3;
+  static final int DEFAULT_RETENTION_MONTHS = 0;
+
+  private static final Logger log = LoggerFactory.getLogger(AuditPartitionMaintenance.class);
+  private static final String PREFIX = "inventory.storage.audit.";
+  private static final String SQL_MAINTAIN = "SELECT maintain_audit_partitions($1, $2)";
+  private static final Map<String, AuditPartitionMaintenance> MAINTENANCES = new ConcurrentHashMap<>();
+
+  private final Vertx vertx;
+  private final String tenantId;
+  private final int monthsAhead;
+  private final int retentionMonths;
+  private final long timerId;
+
+  private AuditPartitionMaintenance(Vertx vertx, String tenantId, long intervalMillis,
+    int monthsAhead, int retentionMonths) {
+
+    this.vertx = vertx;
+    this.tenantId = tenantId;
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+    this.timerId = vertx.setPeriodic(intervalMillis, id -> maintain());
+    vertx.runOnContext(v -> maintain());
+  }
+
+  /**
+   * Start maintaining the audit partitions of the tenant unless already started or disabled.
+   */
+  public static void start(Vertx vertx, String tenantId) {
+    long intervalMillis = value("maintenance.interval.ms", DEFAULT_INTERVAL_MILLIS);
+    if (intervalMillis <= 0) {
+      return;
+    }
+    int monthsAhead = (int) value("partitions.ahead.months", DEFAULT_MONTHS_AHEAD);
+    int retentionMonths = (int) value("retention.months", DEFAULT_RETENTION_MONTHS);
+    MAINTENANCES.computeIfAbsent(tenantId,
+      tenant -> new AuditPartitionMaintenance(vertx, tenant, intervalMillis, monthsAhead, retentionMonths));
+  }
+
+  /**
+   * Stop maintaining the audit partitions of the tenant, for example because the tenant is deleted.
+   */
+  public static void stop(String tenantId) {
+    AuditPartitionMaintenance maintenance = MAINTENANCES.remove(tenantId);
+    if (maintenance != null) {
+      maintenance.vertx.cancelTimer(maintenance.timerId);
+    }
+  }
+
+  private static long value(String name, long defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    return value == null ? defaultValue : Long.parseLong(value.trim());
+  }
+
+  private void maintain() {
+    if (MAINTENANCES.get(tenantId) != this) {
+      return;
+    }
+    PostgresClient.getInstance(vertx, tenantId)
+      .selectSingle(SQL_MAINTAIN, Tuple.of(monthsAhead, retentionMonths), result -> {
+        if (result.failed()) {
+          log.error("Maintaining audit partitions of tenant " + tenantId + " failed", result.cause());
+          return;
+        }
+        log.info("Maintained audit partitions of tenant " + tenantId);
+      });
+  }
+}
@@ -0,0 +1,106 @@
+package org.folio.services;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.services.StorageJobs.toInt;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.folio.cql2pgjson.CQL2PgJSON;
+import org.folio.cql2pgjson.exception.QueryValidationException;
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+
+/**
+ * Deletes or updates the records of the item or holdings record table that match a CQL query,
+ * as a background job.
+ *
+ * <p>The matching records are processed set-based in chunks ordered by id by a
+ * {@link ChunkRunner}. The row triggers and the foreign keys apply as for single deletes and
+ * updates; a foreign key violation fails the job. Updated records that no longer match the
+ * query are not visited again because each chunk continues after the last id of the previous
+ * chunk. The number of records per chunk is the module specific program argument
+ * {@code inventory.storage.bulk.chunk.size} (default {@value #DEFAULT_CHUNK_SIZE}).
+ */
+public final class BulkService {
+  static final int DEFAULT_CHUNK_SIZE = 1000;
+
+  private static final String CHUNK_SIZE = "inventory.storage.bulk.chunk.size";
+
+  private final PostgresClient postgresClient;
+  private final String table;
+  private final String updateFunction;
+  private final int chunkSize;
+
+  /**
+   * @param table  item or holdings_record
+   * @param updateFunction  function of bulkOperations.sql that patches the records of an id array
+   */
+  public BulkService(Vertx vertx, String tenantId, String table, String updateFunction) {
+    this.postgresClient = PostgresClient.getInstance(vertx, tenantId);
+    this.table = table;
+    this.updateFunction = updateFunction;
+    String chunkSize = MODULE_SPECIFIC_ARGS.get(CHUNK_SIZE);
+    this.chunkSize = chunkSize == null ? DEFAULT_CHUNK_SIZE : Integer.parseInt(chunkSize.trim());
+  }
+
+  /**
+   * Save a job for deleting the records matching query and start it in the background.
+   *
+   * @param resource  path of the records for {@link StorageJob#getResource()}
+   * @return the saved job, or a failed future with {@link IllegalArgumentException} if query is invalid
+   */
+  public Future<StorageJob> startBulkDelete(String resource, String query) {
+    return start(StorageJob.Type.BULK_DELETE, resource, query, where -> keyset ->
+      "WITH chunk AS (SELECT id FROM " + table + " WHERE (" + where + ") AND " + keyset + " ORDER BY id LIMIT $1),"
+        + " deleted AS (DELETE FROM " + table + " WHERE id IN (SELECT id FROM chunk) RETURNING id)"
+        + " SELECT (SELECT count(*) FROM deleted)::int, (SELECT id FROM chunk ORDER BY id DESC LIMIT 1)",
+      Collections.emptyList());
+  }
+
+  /**
+   * Save a job for applying a JSON merge patch (RFC 7386) to the records matching query and
+   * start it in the background.
+   *
+   * @param resource  path of the records for {@link StorageJob#getResource()}
+   * @param patch  the merge patch
+   * @param userId  user for metadata.updatedByUserId, may be null
+   * @return the saved job, or a failed future with {@link IllegalArgumentException} if query is invalid
+   */
+  public Future<StorageJob> startBulkUpdate(String resource, String query, JsonObject patch, String userId) {
+    return start(StorageJob.Type.BULK_UPDATE, resource, query, where -> keyset ->
+      "WITH chunk AS (SELECT id FROM " + table + " WHERE (" + where + ") AND " + keyset + " ORDER BY id LIMIT $1)"
+        + " SELECT " + updateFunction + "(ARRAY(SELECT id FROM chunk), $2::jsonb, $3),"
+        + " (SELECT id FROM chunk ORDER BY id DESC LIMIT 1)",
+      Arrays.asList(patch, userId));
+  }
+
+  private Future<StorageJob> start(StorageJob.Type type, String resource, String query,
+    Function<String, Function<String, String>> sql, List<Object> params) {
+
+    String where;
+    try {
+      where = new CQL2PgJSON(table + ".jsonb").toSql(query).getWhere();
+    } catch (QueryValidationException e) {
+      return Future.failedFuture(new IllegalArgumentException(e.getMessage(), e));
+    }
+    StorageJob job = StorageJobs.newJob(type, resource).withQuery(query);
+
+    Promise<Row> count = Promise.promise();
+    postgresClient.selectSingle("SELECT count(*) FROM " + table + " WHERE " + where, count);
+    return count.future()
+      .compose(row -> {
+        job.setTotal(toInt(row.getLong(0)));
+        return StorageJobs.start(postgresClient, job,
+          () -> new ChunkRunner(postgresClient, chunkSize, job).run(sql.apply(where), params, 0));
+      });
+  }
+}
@@ -0,0 +1,126 @@
+package org.folio.services;
+
+import static org.folio.services.StorageJobs.toInt;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Runs a statement on the rows of a table chunk by chunk in id order, each chunk in its own
+ * transaction, so that no statement runs for long or holds many locks. Each chunk continues
+ * after the last id of the previous chunk instead of rescanning the rows already processed.
+ */
+final class ChunkRunner {
+  private final PostgresClient postgresClient;
+  private final int chunkSize;
+  private final StorageJob job;
+  private Consumer<UUID> checkpoint;
+
+  /**
+   * @param job  the job to update after each chunk, or null
+   */
+  ChunkRunner(PostgresClient postgresClient, int chunkSize, StorageJob job) {
+    this.postgresClient = postgresClient;
+    this.chunkSize = chunkSize;
+    this.job = job;
+  }
+
+  /**
+   * Run the statement until no rows are left.
+   *
+   * <p>The statement is built from the keyset condition on the id column and gets the chunk size
+   * as parameter $1 followed by the given parameters. It must return the number of processed
+   * rows of the chunk and the last id of the chunk, null if there was no row left.
+   *
+   * @param sql  builds the statement from the keyset condition
+   * @param params  parameters $2, $3, ... of the statement
+   * @param processed  number of rows processed before, for example in other tables
+   * @return processed plus the number of rows processed by this run
+   */
+  Future<Long> run(Function<String, String> sql, List<Object> params, long processed) {
+    return run(sql, params, null, processed);
+  }
+
+  /**
+   * Run the statement on the rows after afterId until no rows are left, for example to resume
+   * a run after the last id of its last completed chunk.
+   *
+   * @param afterId  the id to continue after, null to start with the first row
+   * @see #run(Function, List, long)
+   */
+  Future<Long> run(Function<String, String> sql, List<Object> params, UUID afterId, long processed) {
+    Promise<Long> promise = Promise.promise();
+    runChunks(sql, params, afterId, processed, promise);
+    return promise.future();
+  }
+
+  /**
+   * @param checkpoint  gets the last id of each completed chunk before the job is saved
+   * @return this
+   */
+  ChunkRunner withCheckpoint(Consumer<UUID> checkpoint) {
+    this.checkpoint = checkpoint;
+    return this;
+  }
+
+  /**
+   * Run the next chunk after afterId and continue with the following chunk until no row is
+   * left. The result is passed to one promise instead of composing a future per chunk, whose
+   * completion would nest as deep as the number of chunks.
+   */
+  private void runChunks(Function<String, String> sql, List<Object> params, UUID afterId, long processed,
+    Promise<Long> promise) {
+
+    Tuple tuple = Tuple.of(chunkSize);
+    params.forEach(tuple::addValue);
+    String keyset = "true";
+    if (afterId != null) {
+      tuple.addUUID(afterId);
+      keyset = "id > $" + tuple.size();
+    }
+    Promise<Row> chunk = Promise.promise();
+    postgresClient.selectSingle(sql.apply(keyset), tuple, chunk);
+    chunk.future().onComplete(result -> {
+      if (result.failed()) {
+        promise.fail(result.cause());
+        return;
+      }
+      int count = result.result().getInteger(0);
+      long total = processed + count;
+      UUID lastId = result.result().getUUID(1);
+      if (lastId == null) {
+        promise.complete(total);
+        return;
+      }
+      if (checkpoint != null) {
+        checkpoint.accept(lastId);
+      }
+      if (job == null) {
+        runChunks(sql, params, lastId, total, promise);
+        return;
+      }
+      // increment rather than set, several runners may work for the same job in parallel
+      job.setProcessed(toInt((long) job.getProcessed() + count));
+      if (job.getChunkCounts() != null) {
+        job.getChunkCounts().add(count);
+      }
+      StorageJobs.save(postgresClient, job).onComplete(saved -> {
+        if (saved.failed()) {
+          promise.fail(saved.cause());
+          return;
+        }
+        runChunks(sql, params, lastId, total, promise);
+      });
+    });
+  }
+}
@@ -0,0 +1,288 @@
+package org.folio.services;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Builds the large expression indexes of a tenant with CREATE INDEX CONCURRENTLY after the
+ * upgrade, outside of the upgrade transaction, so that the tables stay writable while the indexes
+ * are built.
+ *
+ * <p>The definition of each index is kept as the comment of the index. An index is built if it
+ * is missing, rebuilt if it is invalid (a concurrent build that failed or was interrupted leaves
+ * an invalid index behind), and replaced if its comment differs from its definition: the new
+ * index is built concurrently as {@code <name>_new}, then one short transaction drops the old
+ * index and renames the new one. A valid index without comment was created by the scripts of
+ * an older module version with a definition that may differ, it is replaced as well.
+ *
+ * <p>The indexes that need work are built one after the other by a job of type INDEX_BUILD of
+ * the storage_job table. Its currentStep shows the build progress from
+ * pg_stat_progress_create_index (PostgreSQL 12 and later), polled every
+ * {@code inventory.storage.index.progress.interval.ms} milliseconds (module specific program
+ * argument, default {@value #DEFAULT_PROGRESS_INTERVAL_MILLIS}, 0 disables the polling).
+ *
+ * <p>The indexes of schema.json are created by RMB within the upgrade; a new or changed index
+ * on a large table belongs into {@link #INDEXES} instead. The audit tables are partitioned, and
+ * PostgreSQL does not support CREATE INDEX CONCURRENTLY on partitioned tables.
+ */
+public final class ConcurrentIndexBuilder {
+  static final long DEFAULT_PROGRESS_INTERVAL_MILLIS = 10_000;
+
+  private static final Logger log = LoggerFactory.getLogger(ConcurrentIndexBuilder.class);
+  private static final String PREFIX = "inventory.storage.index.";
+  private static final String SQL_INDEX_STATE =
+    "SELECT i.indisvalid, obj_description(i.indexrelid, 'pg_class') FROM pg_index i"
+      + " WHERE i.indexrelid = to_regclass($1)";
+  private static final String SQL_PROGRESS =
+    "SELECT phase, blocks_done, blocks_total, tuples_done, tuples_total"
+      + " FROM pg_stat_progress_create_index WHERE relid = to_regclass($1)";
+  private static final String UPDATED_DATE = "((strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate')))";
+  // the id lets the keyset paging of get_updated_instance_ids_page seek on the index
+  private static final String UPDATED_DATE_AND_ID = "((strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate')), id)";
+
+  private static final List<Index> INDEXES = Collections.unmodifiableList(Arrays.asList(
+    new Index("instance_pmh_metadata_updateddate_idx", "instance", UPDATED_DATE_AND_ID),
+    new Index("item_pmh_metadata_updateddate_idx", "item", UPDATED_DATE),
+    new Index("holdings_record_pmh_metadata_updateddate_idx", "holdings_record", UPDATED_DATE)));
+
+  /** The builds running in this module instance by tenant. */
+  private static final Map<String, Future<StorageJob>> RUNNING = new ConcurrentHashMap<>();
+
+  private final Vertx vertx;
+  private final String tenantId;
+  private final PostgresClient postgresClient;
+  private final long progressIntervalMillis;
+
+  public ConcurrentIndexBuilder(Vertx vertx, String tenantId) {
+    this.vertx = vertx;
+    this.tenantId = tenantId;
+    this.postgresClient = PostgresClient.getInstance(vertx, tenantId);
+    this.progressIntervalMillis = value("progress.interval.ms", DEFAULT_PROGRESS_INTERVAL_MILLIS);
+  }
+
+  /**
+   * Build the indexes of the tenant that are missing, invalid or changed in the background.
+   */
+  public static void start(Vertx vertx, String tenantId) {
+    new ConcurrentIndexBuilder(vertx, tenantId).build()
+      .onFailure(e -> log.error("Building the indexes of tenant " + tenantId + " failed", e));
+  }
+
+  /**
+   * Build the indexes that are missing, invalid or changed. If a build of the tenant is running
+   * in this module instance return that build.
+   *
+   * @return the job once its indexes are built, its final status is saved right after; null if
+   *     all indexes were up to date
+   */
+  public Future<StorageJob> build() {
+    Promise<StorageJob> promise = Promise.promise();
+    Future<StorageJob> running = RUNNING.putIfAbsent(tenantId, promise.future());
+    if (running != null) {
+      return running;
+    }
+    buildOutdated().onComplete(result -> {
+      RUNNING.remove(tenantId);
+      promise.handle(result);
+    });
+    return promise.future();
+  }
+
+  private Future<StorageJob> buildOutdated() {
+    List<Index> outdated = new ArrayList<>();
+    Future<Void> inspected = Future.succeededFuture();
+    for (Index index : INDEXES) {
+      inspected = inspected
+        .compose(x -> inspect(index))
+        .map(upToDate -> {
+          if (! upToDate) {
+            outdated.add(index);
+          }
+          return null;
+        });
+    }
+    return inspected.compose(x -> {
+      if (outdated.isEmpty()) {
+        return Future.succeededFuture();
+      }
+      StorageJob job = StorageJobs.newJob(StorageJob.Type.INDEX_BUILD, "/_/tenant")
+        .withTotal(outdated.size())
+        .withChunkCounts(null);
+      Promise<StorageJob> finished = Promise.promise();
+      return StorageJobs.start(postgresClient, job, () -> buildAll(job, outdated)
+          .onComplete(result -> finished.complete(job)))
+        .compose(started -> finished.future());
+    });
+  }
+
+  /**
+   * Whether the index is valid and has its definition as comment.
+   */
+  private Future<Boolean> inspect(Index index) {
+    Promise<Row> state = Promise.promise();
+    postgresClient.selectSingle(SQL_INDEX_STATE, Tuple.of(index.name), state);
+    return state.future().map(row -> row != null && row.getBoolean(0)
+      && index.definition().equals(row.getString(1)));
+  }
+
+  private Future<Long> buildAll(StorageJob job, List<Index> indexes) {
+    Future<Void> previous = Future.succeededFuture();
+    for (Index index : indexes) {
+      previous = previous
+        .compose(x -> build(job, index))
+        .compose(x -> {
+          job.setProcessed(job.getProcessed() + 1);
+          job.setCurrentStep(null);
+          return StorageJobs.save(postgresClient, job);
+        })
+        .mapEmpty();
+    }
+    return previous.map(x -> (long) job.getProcessed());
+  }
+
+  private Future<Void> build(StorageJob job, Index index) {
+    Promise<Row> state = Promise.promise();
+    postgresClient.selectSingle(SQL_INDEX_STATE, Tuple.of(index.name), state);
+    return state.future().compose(row -> {
+      if (row == null) {
+        log.info("Building index " + index.name + " of tenant " + tenantId);
+        return buildConcurrently(job, index, index.name);
+      }
+      if (! row.getBoolean(0)) {
+        log.info("Rebuilding invalid index " + index.name + " of tenant " + tenantId);
+        return execute("DROP INDEX CONCURRENTLY IF EXISTS " + index.name)
+          .compose(x -> buildConcurrently(job, index, index.name));
+      }
+      log.info("Replacing changed index " + index.name + " of tenant " + tenantId);
+      String newName = index.name + "_new";
+      return execute("DROP INDEX CONCURRENTLY IF EXISTS " + newName)
+        .compose(x -> buildConcurrently(job, index, newName))
+        .compose(x -> swap(index, newName));
+    });
+  }
+
+  /**
+   * CREATE INDEX CONCURRENTLY cannot run in a transaction block; execute without transaction
+   * runs it in autocommit mode.
+   */
+  private Future<Void> buildConcurrently(StorageJob job, Index index, String name) {
+    job.setCurrentStep("Building index " + name);
+    long timerId = progressIntervalMillis > 0
+      ? vertx.setPeriodic(progressIntervalMillis, id -> progress(id, job, index, name))
+      : -1;
+    return StorageJobs.save(postgresClient, job)
+      .compose(x -> execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " " + index.definition()))
+      .compose(x -> execute(index.commentSql(name)))
+      .onComplete(x -> vertx.cancelTimer(timerId));
+  }
+
+  private void progress(long timerId, StorageJob job, Index index, String name) {
+    Promise<Row> progress = Promise.promise();
+    postgresClient.selectSingle(SQL_PROGRESS, Tuple.of(index.table), progress);
+    progress.future().onComplete(result -> {
+      if (result.failed()) {
+        // pg_stat_progress_create_index is available since PostgreSQL 12
+        log.info("No index build progress for index " + name + ": " + result.cause().getMessage());
+        vertx.cancelTimer(timerId);
+        return;
+      }
+      Row row = result.result();
+      if (row == null) {
+        return;
+      }
+      job.setCurrentStep("Building index " + name + ": " + row.getString(0)
+        + ", blocks " + row.getLong(1) + " of " + row.getLong(2)
+        + ", tuples " + row.getLong(3) + " of " + row.getLong(4));
+      log.info(job.getCurrentStep() + " of tenant " + tenantId);
+      StorageJobs.save(postgresClient, job);
+    });
+  }
+
+  /**
+   * Replace the index by the new index in one transaction; the table is locked only for the
+   * drop and rename.
+   */
+  private Future<Void> swap(Index index, String newName) {
+    Promise<Void> promise = Promise.promise();
+    postgresClient.startTx(tx -> {
+      Promise<RowSet<Row>> drop = Promise.promise();
+      postgresClient.execute(tx, "DROP INDEX " + index.name, Tuple.tuple(), drop);
+      drop.future()
+        .compose(x -> {
+          Promise<RowSet<Row>> rename = Promise.promise();
+          postgresClient.execute(tx, "ALTER INDEX " + newName + " RENAME TO " + index.name, Tuple.tuple(), rename);
+          return rename.future();
+        })
+        .compose(x -> {
+          Promise<RowSet<Row>> comment = Promise.promise();
+          postgresClient.execute(tx, index.commentSql(index.name), Tuple.tuple(), comment);
+          return comment.future();
+        })
+        .compose(x -> {
+          Promise<Void> end = Promise.promise();
+          postgresClient.endTx(tx, end);
+          return end.future();
+        })
+        .onComplete(result -> {
+          if (result.failed()) {
+            postgresClient.rollbackTx(tx, rollback -> promise.fail(result.cause()));
+            return;
+          }
+          promise.complete();
+        });
+    });
+    return promise.future();
+  }
+
+  private Future<Void> execute(String sql) {
+    Promise<RowSet<Row>> promise = Promise.promise();
+    postgresClient.execute(sql, promise);
+    return promise.future().mapEmpty();
+  }
+
+  private static long value(String name, long defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    return value == null ? defaultValue : Long.parseLong(value.trim());
+  }
+
+  /**
+   * An index of a table. The columns are the part of CREATE INDEX after the table name.
+   */
+  private static final class Index {
+    private final String name;
+    private final String table;
+    private final String columns;
+
+    private Index(String name, String table, String columns) {
+      this.name = name;
+      this.table = table;
+      this.columns = columns;
+    }
+
+    private String definition() {
+      return "ON " + table + " " + columns;
+    }
+
+    private String commentSql(String indexName) {
+      return "COMMENT ON INDEX " + indexName + " IS '" + definition().replace("'", "''") + "'";
+    }
+  }
+}
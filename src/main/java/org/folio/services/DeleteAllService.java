@@ -0,0 +1,101 @@
+package org.folio.services;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.services.StorageJobs.toInt;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Deletes all records of the instance, holdings or item collection.
+ *
+ * <p>The records are deleted in chunks ordered by id by a {@link ChunkRunner}, so that vacuum
+ * can reclaim the deleted rows while the delete is running and no deleted index entries are
+ * rescanned. The row triggers, for example the audit
+ * triggers, fire as for single deletes. The number of records per chunk is the module specific
+ * program argument {@code inventory.storage.delete.chunk.size} (default
+ * {@value #DEFAULT_CHUNK_SIZE}).
+ */
+public final class DeleteAllService {
+  static final int DEFAULT_CHUNK_SIZE = 1000;
+  private static final String CHUNK_SIZE = "inventory.storage.delete.chunk.size";
+  private static final String SQL_ESTIMATE =
+    "SELECT coalesce(sum(greatest(reltuples, 0)), 0)::bigint FROM pg_class WHERE oid = ANY ($1::text[]::regclass[])";
+  private static final String SQL_TRUNCATE = "SELECT truncate_tables($1)";
+
+  private final PostgresClient postgresClient;
+  private final List<String> tables;
+  private final int chunkSize;
+
+  /**
+   * @param tables  the tables to empty, in this order
+   */
+  public DeleteAllService(Vertx vertx, String tenantId, List<String> tables) {
+    this.postgresClient = PostgresClient.getInstance(vertx, tenantId);
+    this.tables = tables;
+    String chunkSize = MODULE_SPECIFIC_ARGS.get(CHUNK_SIZE);
+    this.chunkSize = chunkSize == null ? DEFAULT_CHUNK_SIZE : Integer.parseInt(chunkSize.trim());
+  }
+
+  /**
+   * Delete all records in chunks.
+   *
+   * @return the number of deleted records
+   */
+  public Future<Long> deleteAll() {
+    return deleteTables(0, 0, null);
+  }
+
+  /**
+   * Save a job for deleting all records and start it in the background.
+   *
+   * @param resource  path of the records for {@link StorageJob#getResource()}
+   * @return the saved job
+   */
+  public Future<StorageJob> startDeleteAllJob(String resource) {
+    StorageJob job = StorageJobs.newJob(StorageJob.Type.DELETE_ALL, resource);
+
+    Promise<Row> estimate = Promise.promise();
+    postgresClient.selectSingle(SQL_ESTIMATE, Tuple.of(tables.toArray(new String[0])), estimate);
+    return estimate.future()
+      .compose(row -> {
+        job.setTotal(toInt(row.getLong(0)));
+        return StorageJobs.start(postgresClient, job, () -> deleteTables(0, 0, job));
+      });
+  }
+
+  /**
+   * Truncate the tables, see truncateTables.sql. Fails with a foreign key violation if records
+   * of other tables still refer to them.
+   */
+  public Future<Void> truncate() {
+    Promise<Row> promise = Promise.promise();
+    postgresClient.selectSingle(SQL_TRUNCATE, Tuple.of(tables.toArray(new String[0])), promise);
+    return promise.future().mapEmpty();
+  }
+
+  private Future<Long> deleteTables(int tableIndex, long deleted, StorageJob job) {
+    if (tableIndex == tables.size()) {
+      return Future.succeededFuture(deleted);
+    }
+    String table = tables.get(tableIndex);
+    return new ChunkRunner(postgresClient, chunkSize, job)
+      .run(keyset -> deleteChunkSql(table, keyset), Collections.emptyList(), deleted)
+      .compose(total -> deleteTables(tableIndex + 1, total, job));
+  }
+
+  private static String deleteChunkSql(String table, String keyset) {
+    return "WITH chunk AS (SELECT id FROM " + table + " WHERE " + keyset + " ORDER BY id LIMIT $1),"
+      + " deleted AS (DELETE FROM " + table + " WHERE id IN (SELECT id FROM chunk) RETURNING id)"
+      + " SELECT (SELECT count(*) FROM deleted)::int, (SELECT id FROM chunk ORDER BY id DESC LIMIT 1)";
+  }
+}
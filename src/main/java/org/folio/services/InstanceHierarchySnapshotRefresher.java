@@ -0,0 +1,103 @@
+package org.folio.services;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Periodically rebuilds the dirty and stale rows of the instance_hierarchy_snapshot table of a
+ * tenant, see inventory-hierarchy/instanceHierarchySnapshot.sql.
+ *
+ * <p>Each run refreshes batches until a batch refreshes fewer snapshots than the batch size.
+ * Of the module instances refreshing the same tenant only one refreshes at a time. Configured with the
+ * module specific program arguments {@code inventory.storage.hierarchy.snapshot.refresh.interval.ms}
+ * (default {@value #DEFAULT_INTERVAL_MILLIS}, 0 disables the refresher) and
+ * {@code inventory.storage.hierarchy.snapshot.refresh.batch.size} (default
+ * {@value #DEFAULT_BATCH_SIZE}).
+ */
+public final class InstanceHierarchySnapshotRefresher {
+  static final long DEFAULT_INTERVAL_MILLIS = 10_000;
+  static final int DEFAULT_BATCH_SIZE = 500;
+
+  private static final Logger log = LoggerFactory.getLogger(InstanceHierarchySnapshotRefresher.class);
+  private static final String PREFIX = "inventory.storage.hierarchy.snapshot.refresh.";
+  private static final String SQL_REFRESH = "SELECT refresh_instance_hierarchy_snapshots($1)";
+  private static final Map<String, InstanceHierarchySnapshotRefresher> REFRESHERS = new ConcurrentHashMap<>();
+
+  private final Vertx vertx;
+  private final String tenantId;
+  private final int batchSize;
+  private final long timerId;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  private InstanceHierarchySnapshotRefresher(Vertx vertx, String tenantId, long intervalMillis, int batchSize) {
+    this.vertx = vertx;
+    this.tenantId = tenantId;
+    this.batchSize = batchSize;
+    this.timerId = vertx.setPeriodic(intervalMillis, id -> refresh());
+  }
+
+  /**
+   * Start refreshing the snapshots of the tenant unless already started or disabled.
+   */
+  public static void start(Vertx vertx, String tenantId) {
+    long intervalMillis = value("interval.ms", DEFAULT_INTERVAL_MILLIS);
+    if (intervalMillis <= 0) {
+      return;
+    }
+    int batchSize = (int) value("batch.size", DEFAULT_BATCH_SIZE);
+    REFRESHERS.computeIfAbsent(tenantId,
+      tenant -> new InstanceHierarchySnapshotRefresher(vertx, tenant, intervalMillis, batchSize));
+  }
+
+  /**
+   * Stop refreshing the snapshots of the tenant, for example because the tenant is deleted.
+   */
+  public static void stop(String tenantId) {
+    InstanceHierarchySnapshotRefresher refresher = REFRESHERS.remove(tenantId);
+    if (refresher != null) {
+      refresher.vertx.cancelTimer(refresher.timerId);
+    }
+  }
+
+  private static long value(String name, long defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    return value == null ? defaultValue : Long.parseLong(value.trim());
+  }
+
+  private void refresh() {
+    if (running.compareAndSet(false, true)) {
+      refreshBatch();
+    }
+  }
+
+  private void refreshBatch() {
+    if (REFRESHERS.get(tenantId) != this) {
+      running.set(false);
+      return;
+    }
+    PostgresClient.getInstance(vertx, tenantId).selectSingle(SQL_REFRESH, Tuple.of(batchSize), result -> {
+      if (result.failed()) {
+        log.error("Refreshing instance hierarchy snapshots of tenant " + tenantId + " failed", result.cause());
+        running.set(false);
+        return;
+      }
+      int refreshed = result.result().getInteger(0);
+      log.debug("Refreshed " + refreshed + " instance hierarchy snapshots of tenant " + tenantId);
+      if (refreshed < batchSize) {
+        running.set(false);
+        return;
+      }
+      vertx.runOnContext(v -> refreshBatch());
+    });
+  }
+}
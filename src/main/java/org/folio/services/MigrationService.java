@@ -0,0 +1,449 @@
+package org.folio.services;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+import static org.folio.services.StorageJobs.STORAGE_JOB_TABLE;
+import static org.folio.services.StorageJobs.toInt;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.folio.rest.jaxrs.model.Migration;
+import org.folio.rest.jaxrs.model.MigrationRange;
+import org.folio.rest.jaxrs.model.Migrations;
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Data migrations of existing records that run as resumable background jobs of the storage_job
+ * table.
+ *
+ * <p>A migration updates the records set-based in chunks ordered by id by a {@link ChunkRunner},
+ * each chunk in its own transaction, so that no table is locked for long and vacuum can reclaim
+ * the old row versions while the migration is running. With parallelism n the id space is split
+ * into n ranges of equal size that are migrated in parallel, each by its own connection of the
+ * pool. After each chunk the job is saved with the last migrated id of each range; a job that
+ * failed or was interrupted by a restart continues after these ids when it is resumed.
+ *
+ * <p>The chunks only update records whose values differ from the migrated values, and the row
+ * triggers stay enabled and compute the same values. Therefore running a chunk again, for example
+ * after a checkpoint that was overtaken by the save of a parallel range, does not change anything.
+ *
+ * <p>An upgrade of a tenant from a module version older than the {@code fromModuleVersion} of a
+ * migration runs the migration, see {@link #startPending(Vertx, String, String)}. The upgrade responds
+ * before its migrations have run. A job interrupted by a restart is resumed when the module
+ * starts, see {@link #resumeInterrupted(Vertx, String)}.
+ *
+ * <p>Configured with the module specific program arguments
+ * {@code inventory.storage.migration.chunk.size} (default {@value #DEFAULT_CHUNK_SIZE}) and
+ * {@code inventory.storage.migration.parallelism} (default {@value #DEFAULT_PARALLELISM}, the
+ * parallelism of the migrations started by an upgrade).
+ */
+public final class MigrationService {
+  static final int DEFAULT_CHUNK_SIZE = 1000;
+  static final int DEFAULT_PARALLELISM = 1;
+
+  private static final Logger log = LoggerFactory.getLogger(MigrationService.class);
+  private static final String PREFIX = "inventory.storage.migration.";
+  private static final String SQL_ESTIMATE =
+    "SELECT greatest(reltuples, 0)::bigint FROM pg_class WHERE oid = $1::regclass";
+  private static final String SQL_UNFINISHED_JOB = "SELECT jsonb FROM " + STORAGE_JOB_TABLE
+    + " WHERE jsonb->>'type' = 'MIGRATION' AND jsonb->>'migration' = $1 AND jsonb->>'status' <> 'COMPLETED'"
+    + " ORDER BY jsonb->>'startedDate' DESC LIMIT 1";
+  private static final String SQL_INTERRUPTED_JOBS = "SELECT jsonb FROM " + STORAGE_JOB_TABLE
+    + " WHERE jsonb->>'type' = 'MIGRATION' AND jsonb->>'status' = 'IN_PROGRESS'"
+    + " ORDER BY jsonb->>'startedDate'";
+  private static final String SQL_LATEST_JOBS = "SELECT DISTINCT ON (jsonb->>'migration')"
+    + " jsonb->>'migration', id, jsonb->>'status' FROM " + STORAGE_JOB_TABLE
+    + " WHERE jsonb->>'type' = 'MIGRATION' ORDER BY jsonb->>'migration', jsonb->>'startedDate' DESC";
+  private static final BigInteger ID_SPACE = BigInteger.ONE.shiftLeft(128);
+  private static final Pattern VERSION = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)");
+  /** Ids of the jobs running in this module instance. */
+  private static final Set<String> RUNNING = ConcurrentHashMap.newKeySet();
+
+  private static final String ITEM_EFFECTIVE_LOCATION =
+    "coalesce(item.jsonb->'temporaryLocationId', item.jsonb->'permanentLocationId',"
+      + " hr.jsonb->'temporaryLocationId', hr.jsonb->'permanentLocationId')";
+  private static final String ITEM_EFFECTIVE_LOCATION_ID =
+    "coalesce(item.jsonb->>'temporaryLocationId', item.jsonb->>'permanentLocationId',"
+      + " hr.jsonb->>'temporaryLocationId', hr.jsonb->>'permanentLocationId')::uuid";
+  private static final String ITEM_EFFECTIVE_CALL_NUMBER_COMPONENTS =
+    "item_effective_call_number_components(item.jsonb, hr.jsonb)";
+
+  private static final Map<String, Definition> DEFINITIONS = definitions(
+    new Definition("item-effective-location", "17.1.0", "item", "/item-storage/items",
+      "Sets effectiveLocationId of all items from the locations of the item and its holdings record",
+      "UPDATE item SET jsonb = jsonb_set(item.jsonb, '{effectiveLocationId}', " + ITEM_EFFECTIVE_LOCATION + "),"
+        + " effectiveLocationId = " + ITEM_EFFECTIVE_LOCATION_ID
+        + " FROM holdings_record hr"
+        + " WHERE item.id IN (SELECT id FROM chunk) AND hr.id = item.holdingsRecordId"
+        + " AND (item.jsonb->'effectiveLocationId' IS DISTINCT FROM " + ITEM_EFFECTIVE_LOCATION
+        + " OR item.effectiveLocationId IS DISTINCT FROM " + ITEM_EFFECTIVE_LOCATION_ID + ")"),
+    new Definition("item-effective-call-number-components", "18.3.0", "item", "/item-storage/items",
+      "Sets effectiveCallNumberComponents of all items from the call number of the item and its holdings record",
+      "UPDATE item SET jsonb = jsonb_set(item.jsonb, '{effectiveCallNumberComponents}', "
+        + ITEM_EFFECTIVE_CALL_NUMBER_COMPONENTS + ")"
+        + " FROM holdings_record hr"
+        + " WHERE item.id IN (SELECT id FROM chunk) AND hr.id = item.holdingsRecordId"
+        + " AND item.jsonb->'effectiveCallNumberComponents' IS DISTINCT FROM " + ITEM_EFFECTIVE_CALL_NUMBER_COMPONENTS),
+    new Definition("item-copy-number-single-value", "19.0.0", "item", "/item-storage/items",
+      "Replaces the copyNumbers array of all items by copyNumber, the first element of the array",
+      "UPDATE item SET jsonb = CASE"
+        + " WHEN item.jsonb->>'copyNumbers' IS NOT NULL AND jsonb_array_length(item.jsonb->'copyNumbers') > 0"
+        + " THEN jsonb_set(item.jsonb - 'copyNumbers', '{copyNumber}', item.jsonb#>'{copyNumbers,0}')"
+        + " ELSE item.jsonb - 'copyNumbers' END"
+        + " WHERE item.id IN (SELECT id FROM chunk) AND item.jsonb->'copyNumbers' IS NOT NULL"));
+
+  private final PostgresClient postgresClient;
+  private final int chunkSize;
+
+  public MigrationService(Vertx vertx, String tenantId) {
+    this.postgresClient = PostgresClient.getInstance(vertx, tenantId);
+    this.chunkSize = (int) value("chunk.size", DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Run the migrations whose fromModuleVersion is newer than moduleFrom one after the other in
+   * the background. A migration that has an unfinished job, for example because the module was
+   * restarted during the previous upgrade, resumes that job.
+   *
+   * @param moduleFrom  module id or version the tenant is upgraded from, null for a new tenant
+   */
+  public static void startPending(Vertx vertx, String tenantId, String moduleFrom) {
+    if (moduleFrom == null) {
+      return;
+    }
+    MigrationService service = new MigrationService(vertx, tenantId);
+    int parallelism = (int) value("parallelism", DEFAULT_PARALLELISM);
+    Future<Void> previous = Future.succeededFuture();
+    for (Definition definition : DEFINITIONS.values()) {
+      if (isOlder(moduleFrom, definition.migration.getFromModuleVersion())) {
+        previous = previous.compose(x -> service.runPending(definition, parallelism));
+      }
+    }
+  }
+
+  /**
+   * Resume the migration jobs of the tenant that were interrupted by a restart of the module, one
+   * after the other in the background. The jobs stay IN_PROGRESS when the module stops; a job that
+   * is running in this module instance is skipped. A FAILED job is not resumed, it is resumed by
+   * the next upgrade or by /inventory-storage/migrations/jobs/{id}/resume.
+   */
+  public static void resumeInterrupted(Vertx vertx, String tenantId) {
+    MigrationService service = new MigrationService(vertx, tenantId);
+    Promise<RowSet<Row>> jobs = Promise.promise();
+    service.postgresClient.select(SQL_INTERRUPTED_JOBS, Tuple.tuple(), jobs);
+    jobs.future()
+      .onFailure(e -> log.error("Cannot find the interrupted migrations of tenant " + tenantId, e))
+      .onSuccess(rows -> {
+        Future<Void> previous = Future.succeededFuture();
+        for (Row row : rows) {
+          StorageJob job = ((JsonObject) row.getValue(0)).mapTo(StorageJob.class);
+          if (! RUNNING.contains(job.getId())) {
+            previous = previous.compose(x -> service.resumePending(job));
+          }
+        }
+      });
+  }
+
+  /**
+   * All migrations of the module with the latest job of the tenant running each.
+   */
+  public Future<Migrations> getMigrations() {
+    Promise<RowSet<Row>> latestJobs = Promise.promise();
+    postgresClient.select(SQL_LATEST_JOBS, Tuple.tuple(), latestJobs);
+    return latestJobs.future().map(rows -> {
+      Map<String, Row> jobs = new HashMap<>();
+      rows.forEach(row -> jobs.put(row.getString(0), row));
+      List<Migration> migrations = DEFINITIONS.values().stream()
+        .map(definition -> {
+          Migration migration = definition.migration;
+          Row job = jobs.get(migration.getName());
+          if (job == null) {
+            return migration;
+          }
+          // a copy, the migration of the definition is shared by all tenants
+          return new Migration()
+            .withName(migration.getName())
+            .withFromModuleVersion(migration.getFromModuleVersion())
+            .withResource(migration.getResource())
+            .withDescription(migration.getDescription())
+            .withJobId(job.getUUID(1).toString())
+            .withJobStatus(Migration.JobStatus.fromValue(job.getString(2)));
+        })
+        .collect(Collectors.toList());
+      return new Migrations().withMigrations(migrations).withTotalRecords(migrations.size());
+    });
+  }
+
+  /**
+   * Save a job running the migration and start it in the background.
+   *
+   * @param name  name of the migration
+   * @param parallelism  number of id ranges migrated in parallel
+   * @return the saved job, or a failed future with {@link IllegalArgumentException} if there is
+   *     no migration with that name
+   */
+  public Future<StorageJob> startMigrationJob(String name, int parallelism) {
+    return startJob(name, parallelism, Promise.promise());
+  }
+
+  /**
+   * Resume a migration job that failed or was interrupted by a restart of the module.
+   *
+   * @return the saved job, null if there is no job with that id, or a failed future with
+   *     {@link IllegalArgumentException} if the job is no migration, has completed or is running
+   */
+  public Future<StorageJob> resumeMigrationJob(String jobId) {
+    Promise<StorageJob> promise = Promise.promise();
+    postgresClient.getById(STORAGE_JOB_TABLE, jobId, StorageJob.class, promise);
+    return promise.future().compose(job -> {
+      if (job == null) {
+        return Future.succeededFuture();
+      }
+      return resumeJob(job, Promise.promise());
+    });
+  }
+
+  private Future<StorageJob> startJob(String name, int parallelism, Promise<Void> finished) {
+    Definition definition = DEFINITIONS.get(name);
+    if (definition == null) {
+      return Future.failedFuture(new IllegalArgumentException("Unknown migration: " + name));
+    }
+    if (parallelism < 1) {
+      return Future.failedFuture(new IllegalArgumentException("parallelism must be at least 1: " + parallelism));
+    }
+    StorageJob job = StorageJobs.newJob(StorageJob.Type.MIGRATION, definition.migration.getResource())
+      .withMigration(name)
+      .withParallelism(parallelism)
+      .withRanges(ranges(parallelism))
+      .withChunkCounts(null);
+
+    Promise<Row> estimate = Promise.promise();
+    postgresClient.selectSingle(SQL_ESTIMATE, Tuple.of(definition.table), estimate);
+    return estimate.future()
+      .compose(row -> {
+        job.setTotal(toInt(row.getLong(0)));
+        return StorageJobs.start(postgresClient, job, () -> run(definition, job, finished));
+      });
+  }
+
+  private Future<StorageJob> resumeJob(StorageJob job, Promise<Void> finished) {
+    if (job.getType() != StorageJob.Type.MIGRATION) {
+      return Future.failedFuture(new IllegalArgumentException("Job " + job.getId() + " is not a migration"));
+    }
+    if (job.getStatus() == StorageJob.Status.COMPLETED) {
+      return Future.failedFuture(new IllegalArgumentException("Job " + job.getId() + " has completed"));
+    }
+    if (RUNNING.contains(job.getId())) {
+      return Future.failedFuture(new IllegalArgumentException("Job " + job.getId() + " is running"));
+    }
+    Definition definition = DEFINITIONS.get(job.getMigration());
+    if (definition == null) {
+      return Future.failedFuture(new IllegalArgumentException("Unknown migration: " + job.getMigration()));
+    }
+    job.setStatus(StorageJob.Status.IN_PROGRESS);
+    job.setFinishedDate(null);
+    job.setErrorMessage(null);
+    job.setChunkCounts(null);
+    return StorageJobs.start(postgresClient, job, () -> run(definition, job, finished));
+  }
+
+  /**
+   * Resume the unfinished job of the migration or start a new one.
+   *
+   * @return completes when the job has completed or failed
+   */
+  private Future<Void> runPending(Definition definition, int parallelism) {
+    String name = definition.migration.getName();
+    Promise<Row> unfinished = Promise.promise();
+    postgresClient.selectSingle(SQL_UNFINISHED_JOB, Tuple.of(name), unfinished);
+    Promise<Void> finished = Promise.promise();
+    unfinished.future()
+      .compose(row -> {
+        if (row == null) {
+          return startJob(name, parallelism, finished);
+        }
+        StorageJob job = ((JsonObject) row.getValue(0)).mapTo(StorageJob.class);
+        return resumeJob(job, finished);
+      })
+      .onComplete(job -> {
+        if (job.failed()) {
+          log.error("Migration " + name + " could not be started", job.cause());
+          finished.tryComplete();
+        } else {
+          log.info("Migration " + name + " runs as job " + job.result().getId());
+        }
+      });
+    return finished.future();
+  }
+
+  /**
+   * Resume the job.
+   *
+   * @return completes when the job has completed or failed
+   */
+  private Future<Void> resumePending(StorageJob job) {
+    Promise<Void> finished = Promise.promise();
+    resumeJob(job, finished).onComplete(resumed -> {
+      if (resumed.failed()) {
+        log.error("Job " + job.getId() + " of migration " + job.getMigration() + " could not be resumed",
+          resumed.cause());
+        finished.tryComplete();
+      } else {
+        log.info("Migration " + job.getMigration() + " resumes job " + job.getId());
+      }
+    });
+    return finished.future();
+  }
+
+  /**
+   * Migrate the ranges of the job that have not completed in parallel.
+   *
+   * @param finished  completed when all ranges have completed or failed
+   * @return the number of processed records of the job
+   */
+  private Future<Long> run(Definition definition, StorageJob job, Promise<Void> finished) {
+    RUNNING.add(job.getId());
+    @SuppressWarnings("rawtypes")
+    List<Future> ranges = new ArrayList<>();
+    for (MigrationRange range : job.getRanges()) {
+      if (! Boolean.TRUE.equals(range.getCompleted())) {
+        ranges.add(runRange(definition, job, range));
+      }
+    }
+    // join rather than all: on failure wait for the other ranges to save their checkpoints
+    return CompositeFuture.join(ranges)
+      .map(x -> (long) job.getProcessed())
+      .onComplete(x -> {
+        RUNNING.remove(job.getId());
+        finished.tryComplete();
+      });
+  }
+
+  private Future<Long> runRange(Definition definition, StorageJob job, MigrationRange range) {
+    List<Object> params = Collections.emptyList();
+    String to = "";
+    if (range.getTo() != null) {
+      params = Collections.singletonList(UUID.fromString(range.getTo()));
+      to = " AND id <= $2";
+    }
+    String lastId = range.getLastId() != null ? range.getLastId() : range.getAfter();
+    UUID afterId = lastId == null ? null : UUID.fromString(lastId);
+    String upperBound = to;
+    return new ChunkRunner(postgresClient, chunkSize, job)
+      .withCheckpoint(id -> range.setLastId(id.toString()))
+      .run(keyset -> definition.chunkSql(keyset + upperBound), params, afterId, 0)
+      .compose(processed -> {
+        range.setCompleted(true);
+        return StorageJobs.save(postgresClient, job).map(processed);
+      });
+  }
+
+  /**
+   * Split the id space into ranges of equal size.
+   */
+  static List<MigrationRange> ranges(int parallelism) {
+    List<MigrationRange> ranges = new ArrayList<>();
+    String after = null;
+    for (int i = 1; i <= parallelism; i++) {
+      String to = null;
+      if (i < parallelism) {
+        BigInteger bound = ID_SPACE.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(parallelism));
+        to = new UUID(bound.shiftRight(64).longValue(), bound.longValue()).toString();
+      }
+      ranges.add(new MigrationRange().withAfter(after).withTo(to).withCompleted(false));
+      after = to;
+    }
+    return ranges;
+  }
+
+  /**
+   * Whether the major.minor.patch version in moduleFrom, for example mod-inventory-storage-19.4.0,
+   * is older than version. False if moduleFrom contains no version.
+   */
+  static boolean isOlder(String moduleFrom, String version) {
+    int[] from = version(moduleFrom);
+    int[] than = version(version);
+    if (from == null || than == null) {
+      return false;
+    }
+    for (int i = 0; i < from.length; i++) {
+      if (from[i] != than[i]) {
+        return from[i] < than[i];
+      }
+    }
+    return false;
+  }
+
+  private static int[] version(String s) {
+    Matcher matcher = VERSION.matcher(s);
+    if (! matcher.find()) {
+      return null;
+    }
+    return new int[] {
+      Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3))
+    };
+  }
+
+  private static long value(String name, long defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    return value == null ? defaultValue : Long.parseLong(value.trim());
+  }
+
+  private static Map<String, Definition> definitions(Definition... definitions) {
+    Map<String, Definition> map = new LinkedHashMap<>();
+    Arrays.stream(definitions).forEach(definition -> map.put(definition.migration.getName(), definition));
+    return Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * A migration with the UPDATE statement of a chunk. The statement updates the rows of the
+   * table whose id is in the chunk, {@code id IN (SELECT id FROM chunk)}.
+   */
+  private static final class Definition {
+    private final Migration migration;
+    private final String table;
+    private final String update;
+
+    private Definition(String name, String fromModuleVersion, String table, String resource,
+      String description, String update) {
+
+      this.migration = new Migration()
+        .withName(name)
+        .withFromModuleVersion(fromModuleVersion)
+        .withResource(resource)
+        .withDescription(description);
+      this.table = table;
+      this.update = update;
+    }
+
+    private String chunkSql(String condition) {
+      return "WITH chunk AS (SELECT id FROM " + table + " WHERE " + condition + " ORDER BY id LIMIT $1),"
+        + " migrated AS (" + update + ")"
+        + " SELECT (SELECT count(*) FROM chunk)::int, (SELECT id FROM chunk ORDER BY id DESC LIMIT 1)";
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package org.folio.services;
+
+import static org.folio.rest.RestVerticle.MODULE_SPECIFIC_ARGS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.folio.cql2pgjson.exception.FieldException;
+import org.folio.rest.jaxrs.model.QueryPlan;
+import org.folio.rest.jaxrs.model.SequentialScan;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.persist.SQLConnection;
+import org.folio.rest.support.PgUtilSql;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+/**
+ * Explains the SQL statement that a GET of records with a CQL query issues, to find the queries
+ * that need an index.
+ *
+ * <p>The statement is explained in a read only transaction that is rolled back, so that
+ * EXPLAIN ANALYZE, which executes the statement, cannot change anything. Sequential scans on
+ * tables with at least {@code inventory.storage.explain.large.table.rows} rows (module specific
+ * program argument, default {@value #DEFAULT_LARGE_TABLE_ROWS}) are reported separately.
+ */
+public final class QueryPlanExplainer {
+  static final long DEFAULT_LARGE_TABLE_ROWS = 100_000;
+
+  private static final String PREFIX = "inventory.storage.explain.";
+  private static final String SQL_TABLE_ROWS = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass($1)";
+
+  private final String tenantId;
+  private final PostgresClient postgresClient;
+  private final long largeTableRows;
+
+  public QueryPlanExplainer(Vertx vertx, String tenantId) {
+    this.tenantId = tenantId;
+    this.postgresClient = PostgresClient.getInstance(vertx, tenantId);
+    this.largeTableRows = value("large.table.rows", DEFAULT_LARGE_TABLE_ROWS);
+  }
+
+  /**
+   * Explain the statement that {@code PgUtil.streamGet} issues for the CQL query.
+   *
+   * @param analyze  whether to execute the statement (EXPLAIN ANALYZE with BUFFERS)
+   * @throws FieldException  if the table has no jsonb column
+   * @throws RuntimeException  if the CQL query is invalid
+   */
+  public Future<QueryPlan> explain(String table, String cql, int offset, int limit, boolean analyze)
+    throws FieldException {
+
+    String sql = PgUtilSql.streamGet(tenantId, table, cql, offset, limit);
+    // BUFFERS without ANALYZE needs PostgreSQL 13
+    String options = analyze ? "FORMAT JSON, ANALYZE, BUFFERS" : "FORMAT JSON";
+    QueryPlan queryPlan = new QueryPlan()
+      .withTable(table)
+      .withQuery(cql)
+      .withSql(sql)
+      .withAnalyzed(analyze);
+    return explain("EXPLAIN (" + options + ") " + sql)
+      .compose(plan -> {
+        queryPlan.setPlan(new ArrayList<>(plan.getList()));
+        List<JsonObject> scans = new ArrayList<>();
+        for (int i = 0; i < plan.size(); i++) {
+          sequentialScans(plan.getJsonObject(i).getJsonObject("Plan"), scans);
+        }
+        return largeTables(scans, queryPlan.getSequentialScans());
+      })
+      .map(queryPlan);
+  }
+
+  private Future<JsonArray> explain(String explainSql) {
+    Promise<JsonArray> promise = Promise.promise();
+    postgresClient.startTx(tx -> {
+      if (tx.failed()) {
+        promise.fail(tx.cause());
+        return;
+      }
+      Promise<RowSet<Row>> readOnly = Promise.promise();
+      postgresClient.execute(tx, "SET TRANSACTION READ ONLY", Tuple.tuple(), readOnly);
+      readOnly.future()
+        .compose(x -> {
+          Promise<RowSet<Row>> explain = Promise.promise();
+          postgresClient.select(tx, explainSql, explain);
+          return explain.future();
+        })
+        .map(rowSet -> new JsonArray(rowSet.iterator().next().getValue(0).toString()))
+        .onComplete(result -> rollback(tx, result, promise));
+    });
+    return promise.future();
+  }
+
+  private void rollback(AsyncResult<SQLConnection> tx, AsyncResult<JsonArray> result, Promise<JsonArray> promise) {
+    postgresClient.rollbackTx(tx, rollback -> promise.handle(result));
+  }
+
+  /**
+   * Add the sequential scan nodes of the plan and its sub plans to scans.
+   */
+  private static void sequentialScans(JsonObject plan, List<JsonObject> scans) {
+    if (plan == null) {
+      return;
+    }
+    if ("Seq Scan".equals(plan.getString("Node Type"))) {
+      scans.add(plan);
+    }
+    JsonArray plans = plan.getJsonArray("Plans");
+    if (plans == null) {
+      return;
+    }
+    for (int i = 0; i < plans.size(); i++) {
+      sequentialScans(plans.getJsonObject(i), scans);
+    }
+  }
+
+  /**
+   * Add the scans on tables with at least the large table rows to result.
+   */
+  private Future<Void> largeTables(List<JsonObject> scans, List<SequentialScan> result) {
+    Future<Void> previous = Future.succeededFuture();
+    for (JsonObject scan : scans) {
+      String relation = scan.getString("Relation Name");
+      previous = previous.compose(x -> {
+        Promise<Row> rows = Promise.promise();
+        postgresClient.selectSingle(SQL_TABLE_ROWS,
+          Tuple.of(PostgresClient.convertToPsqlStandard(tenantId) + "." + relation), rows);
+        return rows.future();
+      }).map(row -> {
+        long tableRows = row == null || row.getLong(0) == null ? 0 : row.getLong(0);
+        if (tableRows >= largeTableRows) {
+          result.add(new SequentialScan()
+            .withRelation(relation)
+            .withTableRows((int) Math.min(tableRows, Integer.MAX_VALUE))
+            .withFilter(scan.getString("Filter")));
+        }
+        return null;
+      });
+    }
+    return previous;
+  }
+
+  private static long value(String name, long defaultValue) {
+    String value = MODULE_SPECIFIC_ARGS.get(PREFIX + name);
+    return value == null ? defaultValue : Long.parseLong(value.trim());
+  }
+}
@@ -0,0 +1,77 @@
+package org.folio.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.persist.PostgresClient;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Background jobs of the storage_job table, their progress is available at
+ * /inventory-storage/jobs.
+ */
+public final class StorageJobs {
+  public static final String STORAGE_JOB_TABLE = "storage_job";
+
+  private static final Logger log = LoggerFactory.getLogger(StorageJobs.class);
+
+  private StorageJobs() {
+    throw new UnsupportedOperationException("Cannot instantiate utility class");
+  }
+
+  /**
+   * A new job with status IN_PROGRESS that has processed nothing yet.
+   */
+  static StorageJob newJob(StorageJob.Type type, String resource) {
+    return new StorageJob()
+      .withId(UUID.randomUUID().toString())
+      .withType(type)
+      .withResource(resource)
+      .withStatus(StorageJob.Status.IN_PROGRESS)
+      .withProcessed(0)
+      .withChunkCounts(new ArrayList<>())
+      .withStartedDate(new Date());
+  }
+
+  static Future<String> save(PostgresClient postgresClient, StorageJob job) {
+    Promise<String> promise = Promise.promise();
+    postgresClient.upsert(STORAGE_JOB_TABLE, job.getId(), job, promise);
+    return promise.future();
+  }
+
+  /**
+   * Save the job, then run it in the background and save its final status.
+   *
+   * @param run  does the work of the job and updates its progress
+   * @return the saved job
+   */
+  static Future<StorageJob> start(PostgresClient postgresClient, StorageJob job, Supplier<Future<Long>> run) {
+    return save(postgresClient, job)
+      .map(saved -> {
+        run.get().onComplete(result -> {
+          job.setFinishedDate(new Date());
+          if (result.succeeded()) {
+            job.setStatus(StorageJob.Status.COMPLETED);
+          } else {
+            log.error("Job " + job.getId() + " " + job.getType() + " of " + job.getResource() + " failed",
+              result.cause());
+            job.setStatus(StorageJob.Status.FAILED);
+            job.setErrorMessage(result.cause().getMessage());
+          }
+          save(postgresClient, job);
+        });
+        return job;
+      });
+  }
+
+  static int toInt(long value) {
+    return (int) Math.min(Integer.MAX_VALUE, value);
+  }
+}
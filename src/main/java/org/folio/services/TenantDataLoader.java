@@ -0,0 +1,294 @@
+package org.folio.services;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import org.apache.commons.io.IOUtils;
+import org.folio.rest.jaxrs.model.AlternativeTitleType;
+import org.folio.rest.jaxrs.model.CallNumberType;
+import org.folio.rest.jaxrs.model.ClassificationType;
+import org.folio.rest.jaxrs.model.ContributorNameType;
+import org.folio.rest.jaxrs.model.ContributorType;
+import org.folio.rest.jaxrs.model.ElectronicAccessRelationship;
+import org.folio.rest.jaxrs.model.HoldingsNoteType;
+import org.folio.rest.jaxrs.model.HoldingsRecord;
+import org.folio.rest.jaxrs.model.HoldingsType;
+import org.folio.rest.jaxrs.model.IdentifierType;
+import org.folio.rest.jaxrs.model.IllPolicy;
+import org.folio.rest.jaxrs.model.Instance;
+import org.folio.rest.jaxrs.model.InstanceFormat;
+import org.folio.rest.jaxrs.model.InstanceNoteType;
+import org.folio.rest.jaxrs.model.InstanceRelationship;
+import org.folio.rest.jaxrs.model.InstanceRelationshipType;
+import org.folio.rest.jaxrs.model.InstanceStatus;
+import org.folio.rest.jaxrs.model.InstanceType;
+import org.folio.rest.jaxrs.model.IssuanceMode;
+import org.folio.rest.jaxrs.model.Item;
+import org.folio.rest.jaxrs.model.ItemDamageStatus;
+import org.folio.rest.jaxrs.model.ItemNoteType;
+import org.folio.rest.jaxrs.model.Loantype;
+import org.folio.rest.jaxrs.model.Location;
+import org.folio.rest.jaxrs.model.Loccamp;
+import org.folio.rest.jaxrs.model.Locinst;
+import org.folio.rest.jaxrs.model.Loclib;
+import org.folio.rest.jaxrs.model.Mtype;
+import org.folio.rest.jaxrs.model.NatureOfContentTerm;
+import org.folio.rest.jaxrs.model.Servicepoint;
+import org.folio.rest.jaxrs.model.StatisticalCode;
+import org.folio.rest.jaxrs.model.StatisticalCodeType;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.tools.utils.MetadataUtil;
+import org.folio.rest.tools.utils.TenantLoading;
+import org.folio.rest.tools.utils.TenantTool;
+
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+
+/**
+ * Loads the reference data and the sample data of a tenant directly into the tables, one batch
+ * upsert per table, rather than by one HTTP request per record.
+ *
+ * <p>Each table starts loading as soon as the tables it depends on (foreign keys) have been
+ * loaded, independent tables load in parallel. Like the PUT of a record, the upsert replaces an
+ * existing record with the same id. The records are validated against the constraints of their
+ * schema and items get their effective call number components like in the APIs; the data files
+ * must contain records with id, and sample records with hrid.
+ */
+public final class TenantDataLoader {
+  public static final String REFERENCE_LEAD = "ref-data";
+  public static final String SAMPLE_LEAD = "sample-data";
+
+  private static final Logger log = LoggerFactory.getLogger(TenantDataLoader.class);
+  private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+  private static final List<Dataset> REFERENCE_DATA = datasets(REFERENCE_LEAD, emptyList(),
+    new Dataset("material-types", "material_type", Mtype.class),
+    new Dataset("loan-types", "loan_type", Loantype.class),
+    new Dataset("location-units/institutions", "locinstitution", Locinst.class),
+    new Dataset("location-units/campuses", "loccampus", Loccamp.class,
+      "location-units/institutions"),
+    new Dataset("location-units/libraries", "loclibrary", Loclib.class,
+      "location-units/campuses"),
+    new Dataset("service-points", "service_point", Servicepoint.class),
+    new Dataset("locations", "location", Location.class,
+      "location-units/libraries", "service-points"),
+    new Dataset("identifier-types", "identifier_type", IdentifierType.class),
+    new Dataset("contributor-types", "contributor_type", ContributorType.class),
+    new Dataset("instance-relationship-types", "instance_relationship_type", InstanceRelationshipType.class),
+    new Dataset("contributor-name-types", "contributor_name_type", ContributorNameType.class),
+    new Dataset("instance-types", "instance_type", InstanceType.class),
+    new Dataset("instance-formats", "instance_format", InstanceFormat.class),
+    new Dataset("nature-of-content-terms", "nature_of_content_term", NatureOfContentTerm.class),
+    new Dataset("classification-types", "classification_type", ClassificationType.class),
+    new Dataset("instance-statuses", "instance_status", InstanceStatus.class),
+    new Dataset("statistical-code-types", "statistical_code_type", StatisticalCodeType.class),
+    new Dataset("statistical-codes", "statistical_code", StatisticalCode.class,
+      "statistical-code-types"),
+    new Dataset("modes-of-issuance", "mode_of_issuance", IssuanceMode.class),
+    new Dataset("alternative-title-types", "alternative_title_type", AlternativeTitleType.class),
+    new Dataset("electronic-access-relationships", "electronic_access_relationship",
+      ElectronicAccessRelationship.class),
+    new Dataset("ill-policies", "ill_policy", IllPolicy.class),
+    new Dataset("holdings-types", "holdings_type", HoldingsType.class),
+    new Dataset("call-number-types", "call_number_type", CallNumberType.class),
+    new Dataset("instance-note-types", "instance_note_type", InstanceNoteType.class),
+    new Dataset("holdings-note-types", "holdings_note_type", HoldingsNoteType.class),
+    new Dataset("item-note-types", "item_note_type", ItemNoteType.class),
+    new Dataset("item-damaged-statuses", "item_damaged_status", ItemDamageStatus.class));
+
+  private static final List<Dataset> SAMPLE_DATA = datasets(SAMPLE_LEAD, REFERENCE_DATA,
+    new Dataset("instances", "instance", Instance.class,
+      "instance-types", "instance-statuses", "modes-of-issuance"),
+    new Dataset("holdingsrecords", "holdings_record", HoldingsRecord.class,
+      "instances", "locations", "holdings-types", "call-number-types", "ill-policies"),
+    new Dataset("items", "item", Item.class,
+      "holdingsrecords", "loan-types", "material-types", "locations"),
+    new Dataset("instance-relationships", "instance_relationship", InstanceRelationship.class,
+      "instances", "instance-relationship-types"));
+
+  private final Vertx vertx;
+  private final String tenantId;
+  private final Map<String, String> okapiHeaders;
+  private final PostgresClient postgresClient;
+
+  public TenantDataLoader(Vertx vertx, Map<String, String> okapiHeaders) {
+    this.vertx = vertx;
+    this.tenantId = TenantTool.tenantId(okapiHeaders);
+    this.okapiHeaders = okapiHeaders;
+    this.postgresClient = PostgresClient.getInstance(vertx, tenantId);
+  }
+
+  /**
+   * Load the reference data and/or the sample data.
+   *
+   * @return the number of loaded records by table
+   */
+  public Future<Map<String, Integer>> load(boolean reference, boolean sample) {
+    List<Dataset> datasets = new ArrayList<>();
+    if (reference) {
+      datasets.addAll(REFERENCE_DATA);
+    }
+    if (sample) {
+      datasets.addAll(SAMPLE_DATA);
+    }
+    long start = System.currentTimeMillis();
+    Map<String, Future<Integer>> loaded = new HashMap<>();
+    for (Dataset dataset : datasets) {
+      // a dependency that is not loaded by this call must exist already
+      @SuppressWarnings("rawtypes")
+      List<Future> dependencies = dataset.dependsOn.stream()
+        .map(loaded::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+      loaded.put(dataset.path, CompositeFuture.all(dependencies).compose(x -> load(dataset)));
+    }
+    @SuppressWarnings("rawtypes")
+    List<Future> all = new ArrayList<>(loaded.values());
+    return CompositeFuture.all(all)
+      .map(x -> {
+        Map<String, Integer> counts = new HashMap<>();
+        datasets.forEach(dataset -> counts.put(dataset.table, loaded.get(dataset.path).result()));
+        log.info("Loaded " + counts.values().stream().mapToInt(Integer::intValue).sum()
+          + " records into " + counts.size() + " tables of tenant " + tenantId
+          + " in " + (System.currentTimeMillis() - start) + " ms");
+        return counts;
+      });
+  }
+
+  private Future<Integer> load(Dataset dataset) {
+    long start = System.currentTimeMillis();
+    Promise<List<Object>> read = Promise.promise();
+    vertx.executeBlocking(promise -> {
+      try {
+        promise.complete(read(dataset));
+      } catch (Exception e) {
+        promise.fail(e);
+      }
+    }, false, read);
+    return read.future()
+      .compose(this::populateEffectiveValues)
+      .compose(entities -> {
+        if (entities.isEmpty()) {
+          return Future.succeededFuture(0);
+        }
+        Promise<RowSet<Row>> upsert = Promise.promise();
+        postgresClient.upsertBatch(dataset.table, entities, upsert);
+        return upsert.future().map(entities.size());
+      })
+      .map(count -> {
+        log.info("Loaded " + count + " records of " + dataset.lead + "/" + dataset.path + " into table "
+          + dataset.table + " of tenant " + tenantId + " in " + (System.currentTimeMillis() - start) + " ms");
+        return count;
+      })
+      .recover(e -> Future.failedFuture(new IllegalStateException(
+        "Loading " + dataset.lead + "/" + dataset.path + " failed: " + e.getMessage(), e)));
+  }
+
+  /**
+   * Set the values that the API computes in Java when it saves the records, the database
+   * triggers set the others.
+   */
+  @SuppressWarnings("unchecked")
+  private Future<List<Object>> populateEffectiveValues(List<Object> entities) {
+    if (entities.isEmpty() || ! (entities.get(0) instanceof Item)) {
+      return Future.succeededFuture(entities);
+    }
+    return new ItemEffectiveCallNumberComponentsService(postgresClient)
+      .populateEffectiveCallNumberComponents((List<Item>) (List<?>) entities)
+      .map(entities);
+  }
+
+  private List<Object> read(Dataset dataset)
+    throws IOException, URISyntaxException, ReflectiveOperationException {
+
+    List<Object> entities = new ArrayList<>();
+    for (URL url : TenantLoading.getURLsFromClassPathDir(dataset.lead + "/" + dataset.path)) {
+      try (InputStream stream = url.openStream()) {
+        String content = IOUtils.toString(stream, StandardCharsets.UTF_8);
+        Object entity = new JsonObject(content).mapTo(dataset.entityClass);
+        validate(url, entity);
+        entities.add(entity);
+      }
+    }
+    MetadataUtil.populateMetadata(entities, okapiHeaders);
+    return entities;
+  }
+
+  /**
+   * Validate the record against the constraints of its schema like the APIs validate a request.
+   *
+   * @throws IllegalArgumentException  if the record is invalid
+   */
+  private static void validate(URL url, Object entity) {
+    Set<ConstraintViolation<Object>> violations = VALIDATOR.validate(entity);
+    if (violations.isEmpty()) {
+      return;
+    }
+    throw new IllegalArgumentException(url + " is invalid: " + violations.stream()
+      .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+      .sorted()
+      .collect(Collectors.joining(", ")));
+  }
+
+  /**
+   * Set the lead of the datasets and check that the dependencies of each dataset come before it.
+   *
+   * @param previous  datasets the datasets may depend on
+   */
+  private static List<Dataset> datasets(String lead, List<Dataset> previous, Dataset... datasets) {
+    List<String> paths = previous.stream().map(dataset -> dataset.path).collect(Collectors.toList());
+    for (Dataset dataset : datasets) {
+      for (String dependency : dataset.dependsOn) {
+        if (! paths.contains(dependency)) {
+          throw new IllegalStateException(dataset.path + " depends on " + dependency
+            + " that is not listed before it");
+        }
+      }
+      dataset.lead = lead;
+      paths.add(dataset.path);
+    }
+    return asList(datasets);
+  }
+
+  /**
+   * The records of a directory of a lead, a JSON file per record, and the table they go into.
+   */
+  private static final class Dataset {
+    private final String path;
+    private final String table;
+    private final Class<?> entityClass;
+    private final List<String> dependsOn;
+    private String lead;
+
+    private Dataset(String path, String table, Class<?> entityClass, String... dependsOn) {
+      this.path = path;
+      this.table = table;
+      this.entityClass = entityClass;
+      this.dependsOn = asList(dependsOn);
+    }
+  }
+}
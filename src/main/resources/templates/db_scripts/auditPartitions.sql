@@ -0,0 +1,135 @@
+-- Range partitioning of the audit tables by month of their createdDate.
+--
+-- The partition key is the expression the deleted record queries of the OAI-PMH and inventory
+-- hierarchy functions filter on, strToTimestamp(jsonb ->> 'createdDate'), so those queries only
+-- scan the partitions of the requested date range. Old months are removed by dropping their
+-- partitions instead of deleting rows, see maintain_audit_partitions. Rows outside of the
+-- existing monthly partitions go to the default partition and are moved to their monthly
+-- partition when it is created, while writes to the audit table wait.
+
+-- Creates the missing monthly partitions of auditTable from the month of fromDate to the month
+-- of toDate, named <auditTable>_pYYYY_MM
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.create_audit_partitions(auditTable text,
+                                                                               fromDate   timestamptz,
+                                                                               toDate     timestamptz) RETURNS int
+AS $$
+  DECLARE
+    month          timestamp := date_trunc('month', fromDate AT TIME ZONE 'UTC');
+    monthStart     timestamptz;
+    monthEnd       timestamptz;
+    partitionTable text;
+    created        int := 0;
+  BEGIN
+    WHILE month <= toDate AT TIME ZONE 'UTC' LOOP
+      partitionTable := auditTable || '_p' || to_char(month, 'YYYY_MM');
+      monthStart := month AT TIME ZONE 'UTC';
+      monthEnd := (month + interval '1 month') AT TIME ZONE 'UTC';
+      IF to_regclass('${myuniversity}_${mymodule}.' || partitionTable) IS NULL THEN
+        -- rows of the month in the default partition would make attaching fail, they are moved;
+        -- writes to the audit table wait until the partition is attached so that no row of the
+        -- month can reach the default partition after the move
+        EXECUTE format('LOCK TABLE ${myuniversity}_${mymodule}.%I IN SHARE ROW EXCLUSIVE MODE', auditTable);
+        EXECUTE format('CREATE TABLE ${myuniversity}_${mymodule}.%I (LIKE ${myuniversity}_${mymodule}.%I)',
+                       partitionTable, auditTable);
+        EXECUTE format('WITH moved AS (DELETE FROM ${myuniversity}_${mymodule}.%I'
+                       ' WHERE ${myuniversity}_${mymodule}.strToTimestamp(jsonb ->> ''createdDate'') >= %L'
+                       '   AND ${myuniversity}_${mymodule}.strToTimestamp(jsonb ->> ''createdDate'') < %L RETURNING *)'
+                       ' INSERT INTO ${myuniversity}_${mymodule}.%I SELECT * FROM moved',
+                       auditTable || '_default', monthStart, monthEnd, partitionTable);
+        EXECUTE format('ALTER TABLE ${myuniversity}_${mymodule}.%I ATTACH PARTITION ${myuniversity}_${mymodule}.%I'
+                       ' FOR VALUES FROM (%L) TO (%L)', auditTable, partitionTable, monthStart, monthEnd);
+        created := created + 1;
+      END IF;
+      month := month + interval '1 month';
+    END LOOP;
+    RETURN created;
+  END;
+$$ LANGUAGE plpgsql;
+
+-- Drops the monthly partitions of auditTable that end before the start of the current month
+-- minus retentionMonths months
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.drop_audit_partitions(auditTable      text,
+                                                                             retentionMonths int) RETURNS int
+AS $$
+  DECLARE
+    partitionTable text;
+    dropped        int := 0;
+  BEGIN
+    FOR partitionTable IN
+      SELECT child.relname
+        FROM pg_inherits
+             JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+             JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+       WHERE parent.oid = to_regclass('${myuniversity}_${mymodule}.' || auditTable)
+         AND child.relname ~ ('^' || auditTable || '_p\d{4}_\d{2}$')
+         AND to_timestamp(right(child.relname, 7), 'YYYY_MM')::timestamp + interval '1 month'
+             <= date_trunc('month', now() AT TIME ZONE 'UTC') - make_interval(months => retentionMonths)
+    LOOP
+      EXECUTE format('DROP TABLE ${myuniversity}_${mymodule}.%I', partitionTable);
+      dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+  END;
+$$ LANGUAGE plpgsql;
+
+-- Creates the partitions of the next monthsAhead months of all audit tables and, unless
+-- retentionMonths is 0, drops the partitions older than retentionMonths months
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.maintain_audit_partitions(monthsAhead     int,
+                                                                                 retentionMonths int) RETURNS void
+AS $$
+  DECLARE
+    auditTable text;
+  BEGIN
+    FOREACH auditTable IN ARRAY ARRAY['audit_instance', 'audit_holdings_record', 'audit_item'] LOOP
+      PERFORM ${myuniversity}_${mymodule}.create_audit_partitions(auditTable, now(),
+                                                                  now() + make_interval(months => monthsAhead));
+      IF retentionMonths > 0 THEN
+        PERFORM ${myuniversity}_${mymodule}.drop_audit_partitions(auditTable, retentionMonths);
+      END IF;
+    END LOOP;
+  END;
+$$ LANGUAGE plpgsql;
+
+-- Converts the audit tables created by RMB (id uuid PRIMARY KEY, jsonb jsonb) into partitioned
+-- tables. A partitioned table cannot have a primary key without the partition key, id gets a
+-- plain index. The other indexes are recreated on the partitioned table.
+DO $$
+  DECLARE
+    auditTable  text;
+    indexDefs   text[];
+    indexDef    text;
+    firstDate   timestamptz;
+  BEGIN
+    FOREACH auditTable IN ARRAY ARRAY['audit_instance', 'audit_holdings_record', 'audit_item'] LOOP
+      CONTINUE WHEN EXISTS (SELECT 1 FROM pg_partitioned_table
+                             WHERE partrelid = to_regclass('${myuniversity}_${mymodule}.' || auditTable));
+
+      SELECT array_agg(pg_get_indexdef(indexrelid)) INTO indexDefs
+        FROM pg_index
+       WHERE indrelid = to_regclass('${myuniversity}_${mymodule}.' || auditTable)
+         AND NOT indisprimary;
+
+      EXECUTE format('ALTER TABLE ${myuniversity}_${mymodule}.%I RENAME TO %I', auditTable, auditTable || '_unpartitioned');
+      EXECUTE format('CREATE TABLE ${myuniversity}_${mymodule}.%I (id uuid NOT NULL, jsonb jsonb NOT NULL)'
+                     ' PARTITION BY RANGE (${myuniversity}_${mymodule}.strToTimestamp(jsonb ->> ''createdDate''))',
+                     auditTable);
+      EXECUTE format('CREATE TABLE ${myuniversity}_${mymodule}.%I PARTITION OF ${myuniversity}_${mymodule}.%I DEFAULT',
+                     auditTable || '_default', auditTable);
+
+      EXECUTE format('SELECT min(${myuniversity}_${mymodule}.strToTimestamp(jsonb ->> ''createdDate''))'
+                     ' FROM ${myuniversity}_${mymodule}.%I', auditTable || '_unpartitioned') INTO firstDate;
+      PERFORM ${myuniversity}_${mymodule}.create_audit_partitions(auditTable, coalesce(firstDate, now()),
+                                                                  now() + interval '3 months');
+
+      EXECUTE format('INSERT INTO ${myuniversity}_${mymodule}.%I SELECT id, jsonb FROM ${myuniversity}_${mymodule}.%I',
+                     auditTable, auditTable || '_unpartitioned');
+      EXECUTE format('DROP TABLE ${myuniversity}_${mymodule}.%I', auditTable || '_unpartitioned');
+
+      EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON ${myuniversity}_${mymodule}.%I (id)',
+                     auditTable || '_id_idx', auditTable);
+      FOREACH indexDef IN ARRAY coalesce(indexDefs, '{}') LOOP
+        EXECUTE indexDef;
+      END LOOP;
+    END LOOP;
+  END
+$$;
@@ -0,0 +1,94 @@
+-- Bulk load mode of POST /item-storage/batch/synchronous and POST /instance-storage/batch/synchronous,
+-- see StorageHelper.postSyncBulkLoad. bulk_load saves the whole batch with one INSERT that sets the
+-- values the expensive row triggers would set row by row:
+--
+--   SELECT bulk_load('item', '[{...}, ...]', upsert);
+--
+-- While the transaction-local setting inventory.bulk_load is on, these triggers return at once:
+-- update_effective_location and update_item_status_date of item, set_instance_status_updated_date
+-- of instance. The setting ends with the transaction of the INSERT, other sessions and other
+-- statements never see it and no table lock is taken. RMB's triggers (metadata, foreign key
+-- columns) and the change log triggers run as usual.
+
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.bulk_load_begin(text, uuid[]);
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.bulk_load_end(text, uuid[]);
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.bulk_load_item_status(jsonb, jsonb, boolean);
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.bulk_load_triggers(text);
+
+-- The item as the row triggers would have saved it: effective location, effective call number
+-- components and, if it replaces oldItem, the status date: now if the status name has changed,
+-- the old date otherwise.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.bulk_load_item(item     jsonb,
+                                                                      holdings jsonb,
+                                                                      oldItem  jsonb) RETURNS jsonb
+AS $$
+  DECLARE
+    location jsonb := coalesce(item->'temporaryLocationId', item->'permanentLocationId',
+                               holdings->'temporaryLocationId', holdings->'permanentLocationId');
+  BEGIN
+    IF location IS NOT NULL THEN
+      item := jsonb_set(item, '{effectiveLocationId}', location);
+    END IF;
+    item := jsonb_set(item, '{effectiveCallNumberComponents}',
+                      ${myuniversity}_${mymodule}.item_effective_call_number_components(item, holdings));
+    IF oldItem IS NULL OR item->'status' IS NULL THEN
+      RETURN item;
+    END IF;
+    IF item->'status'->>'name' IS DISTINCT FROM oldItem->'status'->>'name' THEN
+      RETURN jsonb_set(item, '{status,date}',
+        to_jsonb(to_char(CURRENT_TIMESTAMP(3) AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.ms"Z"')));
+    END IF;
+    IF oldItem->'status'->'date' IS NOT NULL THEN
+      RETURN jsonb_set(item, '{status,date}', oldItem->'status'->'date');
+    END IF;
+    RETURN item #- '{status,date}';
+  END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- The instance as set_instance_status_updated_date would have saved it: statusUpdatedDate is now
+-- if it replaces oldInstance with a different statusId.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.bulk_load_instance(instance    jsonb,
+                                                                          oldInstance jsonb) RETURNS jsonb
+AS $$
+  SELECT CASE
+    WHEN $2 IS NOT NULL AND $2->'statusId' IS DISTINCT FROM $1->'statusId' THEN
+      jsonb_set($1, '{statusUpdatedDate}',
+        to_jsonb(to_char(CURRENT_TIMESTAMP(3) AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.ms"Z"')))
+    ELSE $1
+    END;
+$$ LANGUAGE sql STABLE;
+
+-- Saves records, a JSON array of items or instances with ids, into tableName with one INSERT;
+-- with upsert existing records are replaced, otherwise an existing id fails the INSERT.
+-- Returns the number of saved records.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.bulk_load(tableName text,
+                                                                 records   jsonb,
+                                                                 upsert    boolean) RETURNS int
+AS $$
+  DECLARE
+    onConflict text := CASE WHEN upsert THEN 'ON CONFLICT (id) DO UPDATE SET jsonb = EXCLUDED.jsonb' ELSE '' END;
+    saved int;
+  BEGIN
+    PERFORM set_config('inventory.bulk_load', 'on', true);
+    IF tableName = 'item' THEN
+      EXECUTE format('INSERT INTO ${myuniversity}_${mymodule}.item (id, jsonb)'
+                     ' SELECT (record->>''id'')::uuid, ${myuniversity}_${mymodule}.bulk_load_item(record, hr.jsonb, old.jsonb)'
+                     '   FROM jsonb_array_elements($1) record'
+                     '        LEFT JOIN ${myuniversity}_${mymodule}.holdings_record hr'
+                     '               ON hr.id = (record->>''holdingsRecordId'')::uuid'
+                     '        LEFT JOIN ${myuniversity}_${mymodule}.item old ON old.id = (record->>''id'')::uuid'
+                     ' %s', onConflict) USING records;
+    ELSIF tableName = 'instance' THEN
+      EXECUTE format('INSERT INTO ${myuniversity}_${mymodule}.instance (id, jsonb)'
+                     ' SELECT (record->>''id'')::uuid, ${myuniversity}_${mymodule}.bulk_load_instance(record, old.jsonb)'
+                     '   FROM jsonb_array_elements($1) record'
+                     '        LEFT JOIN ${myuniversity}_${mymodule}.instance old ON old.id = (record->>''id'')::uuid'
+                     ' %s', onConflict) USING records;
+    ELSE
+      RAISE EXCEPTION 'bulk load is not supported for table %', tableName;
+    END IF;
+    GET DIAGNOSTICS saved = ROW_COUNT;
+    PERFORM set_config('inventory.bulk_load', 'off', true);
+    RETURN saved;
+  END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,98 @@
+-- Functions of the bulk update endpoints of items and holdings records, see BulkService.
+
+-- JSON merge patch (RFC 7386) of target with patch: objects are merged recursively, null
+-- removes a property, any other value replaces it
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.jsonb_merge_patch(target jsonb, patch jsonb) RETURNS jsonb
+AS $$
+  BEGIN
+    IF jsonb_typeof(patch) IS DISTINCT FROM 'object' THEN
+      RETURN patch;
+    END IF;
+    RETURN (
+      SELECT coalesce(jsonb_object_agg(key, CASE WHEN p.value IS NULL THEN t.value
+                                                 ELSE ${myuniversity}_${mymodule}.jsonb_merge_patch(t.value, p.value)
+                                            END), '{}'::jsonb)
+        FROM jsonb_each(CASE WHEN jsonb_typeof(target) = 'object' THEN target ELSE '{}'::jsonb END) t
+             FULL JOIN jsonb_each(patch) p USING (key)
+       WHERE p.value IS DISTINCT FROM 'null'::jsonb);
+  END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- Sets metadata.updatedDate to now and, if not null, metadata.updatedByUserId to userId, as
+-- a PUT of the record does
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.set_updated_metadata(record jsonb, userId text) RETURNS jsonb
+AS $$
+  SELECT jsonb_set($1, '{metadata}', coalesce($1 -> 'metadata', '{}'::jsonb) || jsonb_strip_nulls(jsonb_build_object(
+    'updatedDate', to_char(CURRENT_TIMESTAMP(3) AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.MS"+0000"'),
+    'updatedByUserId', $2)));
+$$ LANGUAGE sql STABLE;
+
+-- The value if it contains a non whitespace character, otherwise null
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.not_blank(value text) RETURNS text
+AS $$
+  SELECT CASE WHEN $1 ~ '\S' THEN $1 END;
+$$ LANGUAGE sql IMMUTABLE;
+
+-- effectiveCallNumberComponents of an item as built by EffectiveCallNumberComponentsUtil
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.item_effective_call_number_components(item     jsonb,
+                                                                                            holdings jsonb) RETURNS jsonb
+AS $$
+  SELECT jsonb_strip_nulls(jsonb_build_object(
+    'callNumber', coalesce(${myuniversity}_${mymodule}.not_blank($1 ->> 'itemLevelCallNumber'),
+                           ${myuniversity}_${mymodule}.not_blank($2 ->> 'callNumber')),
+    'prefix', coalesce(${myuniversity}_${mymodule}.not_blank($1 ->> 'itemLevelCallNumberPrefix'),
+                       ${myuniversity}_${mymodule}.not_blank($2 ->> 'callNumberPrefix')),
+    'suffix', coalesce(${myuniversity}_${mymodule}.not_blank($1 ->> 'itemLevelCallNumberSuffix'),
+                       ${myuniversity}_${mymodule}.not_blank($2 ->> 'callNumberSuffix')),
+    'typeId', coalesce(${myuniversity}_${mymodule}.not_blank($1 ->> 'itemLevelCallNumberTypeId'),
+                       ${myuniversity}_${mymodule}.not_blank($2 ->> 'callNumberTypeId'))));
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Applies patch to the items with the given ids and rebuilds their effective call number
+-- components. Returns the number of updated items.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.bulk_update_items(ids    uuid[],
+                                                                         patch  jsonb,
+                                                                         userId text) RETURNS int
+AS $$
+  WITH patched AS (
+    SELECT item.id,
+           ${myuniversity}_${mymodule}.set_updated_metadata(
+             ${myuniversity}_${mymodule}.jsonb_merge_patch(item.jsonb, $2), $3) AS jsonb
+      FROM ${myuniversity}_${mymodule}.item
+     WHERE item.id = ANY ($1)
+  ), updated AS (
+    UPDATE ${myuniversity}_${mymodule}.item
+       SET jsonb = jsonb_set(patched.jsonb, '{effectiveCallNumberComponents}',
+                             ${myuniversity}_${mymodule}.item_effective_call_number_components(patched.jsonb, hr.jsonb))
+      FROM patched
+           LEFT JOIN ${myuniversity}_${mymodule}.holdings_record hr
+                  ON hr.id = (patched.jsonb ->> 'holdingsRecordId')::uuid
+     WHERE item.id = patched.id
+    RETURNING 1
+  )
+  SELECT count(*)::int FROM updated;
+$$ LANGUAGE sql;
+
+-- Applies patch to the holdings records with the given ids and rebuilds the effective call
+-- number components of their items, as a PUT of a holdings record does. Returns the number
+-- of updated holdings records.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.bulk_update_holdings_records(ids    uuid[],
+                                                                                    patch  jsonb,
+                                                                                    userId text) RETURNS int
+AS $$
+  UPDATE ${myuniversity}_${mymodule}.holdings_record
+     SET jsonb = ${myuniversity}_${mymodule}.set_updated_metadata(
+                   ${myuniversity}_${mymodule}.jsonb_merge_patch(jsonb, $2), $3)
+   WHERE id = ANY ($1);
+
+  UPDATE ${myuniversity}_${mymodule}.item
+     SET jsonb = jsonb_set(item.jsonb, '{effectiveCallNumberComponents}',
+                           ${myuniversity}_${mymodule}.item_effective_call_number_components(item.jsonb, hr.jsonb))
+    FROM ${myuniversity}_${mymodule}.holdings_record hr
+   WHERE hr.id = ANY ($1)
+     AND item.holdingsRecordId = hr.id
+     AND item.jsonb -> 'effectiveCallNumberComponents' IS DISTINCT FROM
+         ${myuniversity}_${mymodule}.item_effective_call_number_components(item.jsonb, hr.jsonb);
+
+  SELECT count(*)::int FROM ${myuniversity}_${mymodule}.holdings_record WHERE id = ANY ($1);
+$$ LANGUAGE sql;
@@ -0,0 +1,28 @@
+-- Deletes the instances with the given ids and their source records in one statement, see
+-- DELETE /instance-storage/instances/{instanceId} and POST /instance-storage/instances/cascade-delete.
+--
+-- With cascade the items, holdings records, instance relationships and preceding/succeeding
+-- title links of the instances are deleted first, each set-based; without cascade they make
+-- the delete fail with a foreign key violation. The row triggers fire as for single deletes.
+-- Returns the number of deleted instances.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.delete_instances(ids uuid[], cascade boolean) RETURNS int
+AS $$
+  DECLARE
+    deleted int;
+  BEGIN
+    IF cascade THEN
+      DELETE FROM ${myuniversity}_${mymodule}.item
+       WHERE holdingsRecordId IN (SELECT id FROM ${myuniversity}_${mymodule}.holdings_record
+                                   WHERE instanceId = ANY (ids));
+      DELETE FROM ${myuniversity}_${mymodule}.holdings_record WHERE instanceId = ANY (ids);
+      DELETE FROM ${myuniversity}_${mymodule}.instance_relationship
+       WHERE superInstanceId = ANY (ids) OR subInstanceId = ANY (ids);
+      DELETE FROM ${myuniversity}_${mymodule}.preceding_succeeding_title
+       WHERE precedingInstanceId = ANY (ids) OR succeedingInstanceId = ANY (ids);
+    END IF;
+    DELETE FROM ${myuniversity}_${mymodule}.instance_source_marc WHERE id = ANY (ids);
+    DELETE FROM ${myuniversity}_${mymodule}.instance WHERE id = ANY (ids);
+    GET DIAGNOSTICS deleted = ROW_COUNT;
+    RETURN deleted;
+  END;
+$$ LANGUAGE plpgsql;
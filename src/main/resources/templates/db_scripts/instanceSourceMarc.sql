@@ -1,20 +1,24 @@
 ALTER TABLE ${myuniversity}_${mymodule}.${table.tableName}
   ADD FOREIGN KEY (id) REFERENCES ${myuniversity}_${mymodule}.instance;
 
+-- instance.hasSourceMarc is true if the instance has a source record. Only the triggers of
+-- instance_source_marc change it, the instance trigger derives sourceRecordFormat from it.
+ALTER TABLE ${myuniversity}_${mymodule}.instance
+  ADD COLUMN IF NOT EXISTS hasSourceMarc boolean NOT NULL DEFAULT false;
+
 -- Trigger: If instance changes then enforce a correct value in instance.jsonb->sourceRecordFormat
+-- In-row only, no lookup of instance_source_marc.
 CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.set_instance_sourceRecordFormat()
   RETURNS TRIGGER AS $$
   BEGIN
-    CASE TG_OP
-    WHEN 'INSERT' THEN
+    IF TG_OP = 'INSERT' THEN
       -- a newly inserted instance cannot have a source record because of foreign key relationship
-      NEW.jsonb := NEW.jsonb - 'sourceRecordFormat';
-    ELSE
-      NEW.jsonb := CASE (SELECT count(*) FROM ${myuniversity}_${mymodule}.instance_source_marc WHERE id=NEW.id)
-                   WHEN 0 THEN NEW.jsonb - 'sourceRecordFormat'
-                   ELSE jsonb_set(NEW.jsonb, '{sourceRecordFormat}', '"MARC-JSON"')
-                   END;
-    END CASE;
+      NEW.hasSourceMarc := false;
+    END IF;
+    NEW.jsonb := CASE WHEN NEW.hasSourceMarc
+                 THEN jsonb_set(NEW.jsonb, '{sourceRecordFormat}', '"MARC-JSON"')
+                 ELSE NEW.jsonb - 'sourceRecordFormat'
+                 END;
     RETURN NEW;
   END;
   $$ language 'plpgsql';
@@ -23,23 +27,35 @@ CREATE TRIGGER set_instance_sourceRecordFormat
   BEFORE INSERT OR UPDATE ON ${myuniversity}_${mymodule}.instance
   FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.set_instance_sourceRecordFormat();
 
--- Trigger: If instance_source_marc changes then update instance.jsonb->sourceRecordFormat
+-- Trigger: If an instance_source_marc record is inserted or deleted then update instance.hasSourceMarc;
+-- the instance trigger above then updates instance.jsonb->sourceRecordFormat.
+-- Statement level: one set-based UPDATE of the instances whose flag changes. Updating a source
+-- record does not change the flag and does not touch the instance.
 CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.update_${table.tableName}()
   RETURNS TRIGGER AS $$
   BEGIN
     IF (TG_OP = 'DELETE') THEN
       UPDATE ${myuniversity}_${mymodule}.instance
-        SET jsonb = jsonb - 'sourceRecordFormat'
-        WHERE id = OLD.id;
+        SET hasSourceMarc = false
+        WHERE id IN (SELECT id FROM old_marc) AND hasSourceMarc;
     ELSE
       UPDATE ${myuniversity}_${mymodule}.instance
-        SET jsonb = jsonb_set(jsonb, '{sourceRecordFormat}', '"MARC-JSON"')
-        WHERE id = NEW.id;
+        SET hasSourceMarc = true
+        WHERE id IN (SELECT id FROM new_marc) AND NOT hasSourceMarc;
     END IF;
     RETURN NULL;
   END;
   $$ language 'plpgsql';
+-- a trigger with transition tables fires on a single event only
 DROP TRIGGER IF EXISTS update_${table.tableName} ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
-CREATE TRIGGER update_${table.tableName}
-  AFTER DELETE OR INSERT OR UPDATE ON ${myuniversity}_${mymodule}.${table.tableName}
-  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.update_${table.tableName}();
+DROP TRIGGER IF EXISTS update_${table.tableName}_on_insert ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+CREATE TRIGGER update_${table.tableName}_on_insert
+  AFTER INSERT ON ${myuniversity}_${mymodule}.${table.tableName}
+  REFERENCING NEW TABLE AS new_marc
+  FOR EACH STATEMENT EXECUTE PROCEDURE ${myuniversity}_${mymodule}.update_${table.tableName}();
+DROP TRIGGER IF EXISTS update_${table.tableName}_on_update ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+DROP TRIGGER IF EXISTS update_${table.tableName}_on_delete ON ${myuniversity}_${mymodule}.${table.tableName} CASCADE;
+CREATE TRIGGER update_${table.tableName}_on_delete
+  AFTER DELETE ON ${myuniversity}_${mymodule}.${table.tableName}
+  REFERENCING OLD TABLE AS old_marc
+  FOR EACH STATEMENT EXECUTE PROCEDURE ${myuniversity}_${mymodule}.update_${table.tableName}();
@@ -2,6 +2,10 @@ CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.set_instance_status_updat
 RETURNS trigger
 AS $function$
 	BEGIN
+		-- bulk_load has set statusUpdatedDate already, see bulkLoad.sql
+		IF current_setting('inventory.bulk_load', true) = 'on' THEN
+			RETURN NEW;
+		END IF;
 		IF (OLD.jsonb->'statusId' IS DISTINCT FROM NEW.jsonb->'statusId') THEN
 			-- Date time in "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'" format at UTC (00:00) time zone
 			NEW.jsonb = jsonb_set(
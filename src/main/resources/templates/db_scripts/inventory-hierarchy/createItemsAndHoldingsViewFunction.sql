@@ -0,0 +1,236 @@
+-- Creates function returned instance identifiers with holdings and items by specified instances ids.
+-- Location, campus, library and institution names are read from location_hierarchy,
+-- see inventory-hierarchy/locationHierarchy.sql. Other reference data names are resolved with
+-- lookup maps, see inventory-hierarchy/createLookupFunctions.sql.
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.get_items_and_holdings_view;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.get_items_and_holdings_view(instanceIds                        uuid[],
+                                                                                   skipSuppressedFromDiscoveryRecords bool DEFAULT TRUE)
+    RETURNS TABLE
+            (
+                "instanceId"             uuid,
+                "source"                 varchar,
+                "modeOfIssuance"         varchar,
+                "natureOfContent"        jsonb,
+                "holdings"               jsonb,
+                "items"                  jsonb
+            )
+AS
+$BODY$
+WITH
+	-- Reference data names by id, built once per call, see createLookupFunctions.sql
+	lookups(earNames, itemNoteTypes, holdingsNoteTypes, statCodes, noctNames) AS (
+	SELECT electronicAccessRelationshipNames(),
+	       itemNoteTypeNames(),
+	       holdingsNoteTypeNames(),
+	       statisticalCodesById(),
+	       natureOfContentTermNames()
+	),
+	-- Passed instances ids
+	viewInstances(instId, source, modeOfIssuance, natureOfContent) AS (
+  SELECT DISTINCT
+         instId AS "instanceId",
+         i.jsonb ->> 'source' AS source,
+         moi.jsonb ->> 'name' AS modeOfIssuance,
+         COALESCE(getNatureOfContentName(COALESCE(i.jsonb #> '{natureOfContentTermIds}', '[]'::jsonb), lookups.noctNames), '[]'::jsonb) AS natureOfContent
+    FROM UNNEST( $1 ) instId
+		     CROSS JOIN lookups
+		     JOIN instance i
+			        ON i.id = instId
+			   LEFT JOIN mode_of_issuance moi
+			        ON moi.id = (i.jsonb ->> 'modeOfIssuanceId')::uuid
+	),
+	-- Prepared items and holdings
+	viewItemsAndHoldings(instId, records) AS (
+	SELECT itemAndHoldingsAttrs.instanceId, jsonb_strip_nulls(itemAndHoldingsAttrs.itemsAndHoldings)
+      FROM (SELECT
+              i.id AS instanceId,
+              jsonb_build_object('holdings',
+                                 COALESCE(jsonb_agg(DISTINCT
+                                            jsonb_build_object('id', hr.id,
+                                                               'hrId', hr.jsonb ->> 'hrId',
+                                                               'suppressFromDiscovery',
+                                                               CASE WHEN hr.id IS NOT NULL THEN
+                                                                  COALESCE((i.jsonb ->> 'discoverySuppress')::bool, false) OR
+                                                                  COALESCE((hr.jsonb ->> 'discoverySuppress')::bool, false)
+                                                               ELSE NULL END::bool,
+                                                               'holdingsType', ht.jsonb ->> 'name',
+                                                               'formerIds', hr.jsonb -> 'formerIds',
+                                                               'location',
+                                                               CASE WHEN hr.id IS NOT NULL THEN
+                                                                   json_build_object('permanentLocation',
+                                                                                     jsonb_build_object('name', holdPermLoc.display_name,
+                                                                                                        'campusName', holdPermLoc.campus_name,
+                                                                                                        'libraryName', holdPermLoc.library_name,
+                                                                                                        'institutionName', holdPermLoc.institution_name),
+                                                                                     'temporaryLocation',
+                                                                                     jsonb_build_object('name', holdTempLoc.display_name,
+                                                                                                        'campusName', holdTempLoc.campus_name,
+                                                                                                        'libraryName', holdTempLoc.library_name,
+                                                                                                        'institutionName', holdTempLoc.institution_name))
+                                                               ELSE NULL END::jsonb,
+                                                               'callNumber', json_build_object('prefix', hr.jsonb ->> 'callNumberPrefix',
+                                                                                               'suffix', hr.jsonb ->> 'callNumberSuffix',
+                                                                                               'typeId', hr.jsonb ->> 'callNumberTypeId',
+                                                                                               'typeName', hrcnt.jsonb ->> 'name',
+                                                                                               'callNumber', hr.jsonb ->> 'callNumber'),
+                                                               'shelvingTitle', hr.jsonb ->> 'shelvingTitle',
+                                                               'acquisitionFormat', hr.jsonb ->> 'acquisitionFormat',
+                                                               'acquisitionMethod', hr.jsonb ->> 'acquisitionMethod',
+                                                               'receiptStatus', hr.jsonb ->> 'receiptStatus',
+                                                               'electronicAccess',
+                                                               CASE WHEN hr.id IS NOT NULL THEN
+                                                                  COALESCE(getElectronicAccessName(COALESCE(hr.jsonb #> '{electronicAccess}', '[]'::jsonb), lookups.earNames), '[]'::jsonb)
+                                                               ELSE NULL::jsonb END,
+                                                               'notes',
+                                                               CASE WHEN hr.id IS NOT NULL THEN
+                                                                  COALESCE(getHoldingNoteTypeName(hr.jsonb -> 'notes', lookups.holdingsNoteTypes), '[]'::jsonb)
+                                                               ELSE NULL END::jsonb,
+                                                               'illPolicy', ilp.jsonb ->> 'name',
+                                                               'retentionPolicy', hr.jsonb ->> 'retentionPolicy',
+                                                               'digitizationPolicy', hr.jsonb ->> 'digitizationPolicy',
+                                                               'holdingsStatements', hr.jsonb -> 'holdingsStatements',
+                                                               'holdingsStatementsForIndexes', hr.jsonb -> 'holdingsStatementsForIndexes',
+                                                               'holdingsStatementsForSupplements', hr.jsonb -> 'holdingsStatementsForSupplements',
+                                                               'copyNumber', hr.jsonb ->> 'copyNumber',
+                                                               'numberOfItems', hr.jsonb ->> 'numberOfItems',
+                                                               'receivingHistory', hr.jsonb -> 'receivingHistory',
+                                                               'tags', hr.jsonb -> 'tags',
+                                                               'statisticalCodes',
+                                                               CASE WHEN hr.id IS NOT NULL THEN
+                                                                  COALESCE(getStatisticalCodes(hr.jsonb -> 'statisticalCodeIds', lookups.statCodes), '[]'::jsonb)
+                                                               ELSE NULL END ::jsonb))
+                                 FILTER (WHERE hr.id IS NOT NULL), '[]'::jsonb),
+                                 'items',
+                                 COALESCE(jsonb_agg(DISTINCT
+                                      jsonb_build_object('id', item.id,
+                                               'hrId', item.jsonb ->> 'hrId',
+                                               'holdingsRecordId', (item.jsonb ->> 'holdingsRecordId')::UUID,
+                                               'suppressFromDiscovery',
+                                               CASE WHEN item.id IS NOT NULL THEN
+                                                  COALESCE((i.jsonb ->> 'discoverySuppress')::bool, false) OR
+                                                  COALESCE((hr.jsonb ->> 'discoverySuppress')::bool, false) OR
+                                                  COALESCE((item.jsonb ->> 'discoverySuppress')::bool, false)
+                                               ELSE NULL END::bool,
+                                               'status', item.jsonb #>> '{status, name}',
+                                               'formerIds', item.jsonb -> 'formerIds',
+                                               'location',
+                                               CASE WHEN item.id IS NOT NULL THEN
+                                                   json_build_object('location',
+                                                                     jsonb_build_object('name', itemEffLoc.display_name,
+                                                                                        'campusName', itemEffLoc.campus_name,
+                                                                                        'libraryName', itemEffLoc.library_name,
+                                                                                        'institutionName', itemEffLoc.institution_name),
+                                                                     'permanentLocation',
+                                                                     jsonb_build_object('name', itemPermLoc.display_name,
+                                                                                        'campusName', itemPermLoc.campus_name,
+                                                                                        'libraryName', itemPermLoc.library_name,
+                                                                                        'institutionName', itemPermLoc.institution_name),
+                                                                     'temporaryLocation',
+                                                                     jsonb_build_object('name', itemTempLoc.display_name,
+                                                                                        'campusName', itemTempLoc.campus_name,
+                                                                                        'libraryName', itemTempLoc.library_name,
+                                                                                        'institutionName', itemTempLoc.institution_name))
+                                               ELSE NULL END::jsonb,
+                                               'callNumber', item.jsonb -> 'effectiveCallNumberComponents' ||
+                                                             jsonb_build_object('typeName', cnt.jsonb ->> 'name'),
+                                               'accessionNumber', item.jsonb ->> 'accessionNumber',
+                                               'barcode', item.jsonb ->> 'barcode',
+                                               'copyNumber', item.jsonb ->> 'copyNumber',
+                                               'volume', item.jsonb ->> 'volume',
+                                               'enumeration', item.jsonb ->> 'enumeration',
+                                               'chronology', item.jsonb ->>'chronology',
+                                               'yearCaption', item.jsonb -> 'yearCaption',
+                                               'itemIdentifier', item.jsonb ->> 'itemIdentifier',
+                                               'numberOfPieces', item.jsonb ->> 'numberOfPieces',
+                                               'descriptionOfPieces', item.jsonb ->> 'descriptionOfPieces',
+                                               'numberOfMissingPieces', item.jsonb ->> 'numberOfMissingPieces',
+                                               'missingPieces', item.jsonb ->> 'missingPieces',
+                                               'missingPiecesDate', item.jsonb ->> 'missingPiecesDate',
+                                               'itemDamagedStatus', itemDmgStat.jsonb ->> 'name',
+                                               'itemDamagedStatusDate', item.jsonb ->> 'itemDamagedStatusDate',
+                                               'materialType', mt.jsonb ->> 'name',
+                                               'permanentLoanType', plt.jsonb ->> 'name',
+                                               'temporaryLoanType', tlt.jsonb ->> 'name',
+                                               'electronicAccess',
+                                               CASE WHEN item.id IS NOT NULL THEN
+                                                  COALESCE(getElectronicAccessName(COALESCE(item.jsonb #> '{electronicAccess}', '[]'::jsonb), lookups.earNames), '[]'::jsonb)
+                                               ELSE NULL::jsonb END,
+                                               'notes',
+                                               CASE WHEN item.id IS NOT NULL THEN
+                                                  COALESCE(getItemNoteTypeName(item.jsonb -> 'notes', lookups.itemNoteTypes), '[]'::jsonb)
+                                               ELSE NULL END::jsonb,
+                                               'tags', item.jsonb -> 'tags',
+                                               'statisticalCodes',
+                                               CASE WHEN item.id IS NOT NULL THEN
+                                                  COALESCE(getStatisticalCodes(item.jsonb -> 'statisticalCodeIds', lookups.statCodes), '[]'::jsonb)
+                                               ELSE NULL END ::jsonb))
+                                 FILTER (WHERE item.id IS NOT NULL), '[]'::jsonb)
+                              ) itemsAndHoldings
+
+            FROM ${myuniversity}_${mymodule}.holdings_record hr
+                  CROSS JOIN lookups
+                  JOIN ${myuniversity}_${mymodule}.instance i
+                       ON i.id = hr.instanceid
+                  JOIN viewInstances vi
+                       ON vi.instId = i.id
+                  LEFT JOIN ${myuniversity}_${mymodule}.item item
+                       ON item.holdingsrecordid = hr.id
+                  -- Item's Effective location relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.location_hierarchy itemEffLoc
+                       ON itemEffLoc.location_id = item.effectiveLocationId AND itemEffLoc.is_active
+                  -- Item's Permanent location relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.location_hierarchy itemPermLoc
+                       ON itemPermLoc.location_id = item.permanentLocationId AND itemPermLoc.is_active
+                  -- Item's Temporary location relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.location_hierarchy itemTempLoc
+                       ON itemTempLoc.location_id = item.temporaryLocationId AND itemTempLoc.is_active
+                  -- Item's Material type relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.material_type mt
+                       ON item.materialtypeid = mt.id
+                  -- Item's Call number type relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.call_number_type cnt
+                       ON (item.jsonb #>> '{effectiveCallNumberComponents, typeId}')::uuid = cnt.id
+                  -- Item's Damaged status relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.item_damaged_status itemDmgStat
+                       ON (item.jsonb ->> 'itemDamagedStatusId')::uuid = itemDmgStat.id
+                  -- Item's Permanent loan type relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.loan_type plt
+                       ON (item.jsonb ->> 'permanentLoanTypeId')::uuid = plt.id
+                  -- Item's Temporary loan type relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.loan_type tlt
+                       ON (item.jsonb ->> 'temporaryLoanTypeId')::uuid = tlt.id
+                  -- Holdings type relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.holdings_type ht
+                       ON ht.id = hr.holdingstypeid
+                  -- Holdings Permanent location relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.location_hierarchy holdPermLoc
+                       ON holdPermLoc.location_id = hr.permanentLocationId AND holdPermLoc.is_active
+                  -- Holdings Temporary location relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.location_hierarchy holdTempLoc
+                       ON holdTempLoc.location_id = hr.temporaryLocationId AND holdTempLoc.is_active
+                  -- Holdings Call number type relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.call_number_type hrcnt
+                       ON (hr.jsonb ->> 'callNumberTypeId')::uuid = hrcnt.id
+                  -- Holdings Ill policy relation
+                  LEFT JOIN ${myuniversity}_${mymodule}.ill_policy ilp
+                       ON hr.illpolicyid = ilp.id
+            WHERE true
+                  AND NOT ($2 AND COALESCE((hr.jsonb ->> 'discoverySuppress')::bool, false))
+                  AND NOT ($2 AND COALESCE((item.jsonb ->> 'discoverySuppress')::bool, false))
+            GROUP BY 1
+           ) itemAndHoldingsAttrs
+                                           )
+-- Instances with items and holding records
+SELECT
+      vi.instId AS "instanceId",
+      vi.source AS "source",
+  	  vi.modeOfIssuance AS "modeOfIssuance",
+  	  vi.natureOfContent AS "natureOfContent",
+      COALESCE(viah.records -> 'holdings', '[]'::jsonb) AS "holdings",
+      COALESCE(viah.records -> 'items', '[]'::jsonb) AS "items"
+FROM viewInstances vi
+	   LEFT JOIN viewItemsAndHoldings viah
+		      ON viah.instId = vi.instId
+
+$BODY$ LANGUAGE sql;
@@ -0,0 +1,76 @@
+-- Lookup maps of reference data names by id and the enrichment functions using them.
+-- The view functions build each map once per call and pass it to the enrichment
+-- functions, which then resolve the ids of an array with jsonb lookups instead of
+-- running a correlated query per array element.
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.electronicAccessRelationshipNames() RETURNS jsonb AS
+$$
+SELECT COALESCE(jsonb_object_agg(id, jsonb -> 'name'), '{}'::jsonb)
+FROM ${myuniversity}_${mymodule}.electronic_access_relationship
+$$ LANGUAGE sql stable;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.itemNoteTypeNames() RETURNS jsonb AS
+$$
+SELECT COALESCE(jsonb_object_agg(id, jsonb -> 'name'), '{}'::jsonb)
+FROM ${myuniversity}_${mymodule}.item_note_type
+$$ LANGUAGE sql stable;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.holdingsNoteTypeNames() RETURNS jsonb AS
+$$
+SELECT COALESCE(jsonb_object_agg(id, jsonb -> 'name'), '{}'::jsonb)
+FROM ${myuniversity}_${mymodule}.holdings_note_type
+$$ LANGUAGE sql stable;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.natureOfContentTermNames() RETURNS jsonb AS
+$$
+SELECT COALESCE(jsonb_object_agg(id, jsonb -> 'name'), '{}'::jsonb)
+FROM ${myuniversity}_${mymodule}.nature_of_content_term
+$$ LANGUAGE sql stable;
+
+-- Statistical codes by id, already in the output format of getStatisticalCodes
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.statisticalCodesById() RETURNS jsonb AS
+$$
+SELECT COALESCE(jsonb_object_agg(sc.id, jsonb_build_object('id', sc.jsonb ->> 'id',
+                                                           'code', sc.jsonb ->> 'code',
+                                                           'name', sc.jsonb ->> 'name',
+                                                           'statisticalCodeType', sct.jsonb ->> 'name',
+                                                           'source', sct.jsonb ->> 'source')), '{}'::jsonb)
+FROM ${myuniversity}_${mymodule}.statistical_code sc
+       JOIN ${myuniversity}_${mymodule}.statistical_code_type sct ON sct.id = sc.statisticalcodetypeid
+$$ LANGUAGE sql stable;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.getElectronicAccessName(val jsonb, relationshipNames jsonb) RETURNS jsonb AS
+$$
+SELECT jsonb_agg(DISTINCT e || jsonb_build_object('name', $2 ->> lower(e ->> 'relationshipId')))
+FROM jsonb_array_elements($1) AS e
+$$ LANGUAGE sql immutable strict;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.getItemNoteTypeName(val jsonb, noteTypeNames jsonb) RETURNS jsonb AS
+$$
+SELECT jsonb_agg(DISTINCT e - 'itemNoteTypeId' - 'staffOnly' ||
+                 jsonb_build_object('itemNoteTypeName', $2 ->> lower(e ->> 'itemNoteTypeId')))
+FROM jsonb_array_elements($1) AS e
+WHERE NOT (e ->> 'staffOnly')::bool
+$$ LANGUAGE sql immutable strict;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.getHoldingNoteTypeName(val jsonb, noteTypeNames jsonb) RETURNS jsonb AS
+$$
+SELECT jsonb_agg(DISTINCT e - 'holdingsNoteTypeId' - 'staffOnly' ||
+                 jsonb_build_object('holdingsNoteTypeName', $2 ->> lower(e ->> 'holdingsNoteTypeId')))
+FROM jsonb_array_elements($1) AS e
+WHERE NOT (e ->> 'staffOnly')::bool
+$$ LANGUAGE sql immutable strict;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.getStatisticalCodes(val jsonb, statisticalCodes jsonb) RETURNS jsonb AS
+$$
+SELECT jsonb_agg(DISTINCT $2 -> lower(e ->> 0))
+FROM jsonb_array_elements($1) AS e
+WHERE $2 ? lower(e ->> 0)
+$$ LANGUAGE sql immutable strict;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.getNatureOfContentName(val jsonb, termNames jsonb) RETURNS jsonb AS
+$$
+SELECT jsonb_agg(DISTINCT $2 -> lower(e ->> 0))
+FROM jsonb_array_elements($1) AS e
+WHERE $2 ? lower(e ->> 0)
+$$ LANGUAGE sql immutable strict;
@@ -0,0 +1,273 @@
+-- Prebuilt get_items_and_holdings_view rows per instance, so that repeated harvests of the
+-- same instances read one row instead of rebuilding the holdings and items documents.
+--
+-- doc holds the row for skipSuppressedFromDiscoveryRecords = false, discoverable_doc the row
+-- for true. Triggers on instance, holdings_record and item mark the snapshots of the changed
+-- instances dirty and increment their version; changes that may affect any instance, of the
+-- reference tables used by the view or a truncate, increment the snapshot generation instead.
+-- refresh_instance_hierarchy_snapshots rebuilds dirty snapshots and snapshots of an older
+-- generation in batches, it is run periodically by the module. get_items_and_holdings_snapshot
+-- falls back to get_items_and_holdings_view for instances without a clean snapshot of the
+-- current generation, so results are never stale beyond the running transaction.
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.instance_hierarchy_snapshot (
+  instance_id      uuid PRIMARY KEY,
+  doc              jsonb,
+  discoverable_doc jsonb,
+  updated_at       timestamptz,
+  dirty            boolean NOT NULL DEFAULT true
+);
+
+-- version is incremented by every change of the instance, its holdings or its items; the
+-- refresher only clears dirty if the version it read before building the documents is current
+ALTER TABLE ${myuniversity}_${mymodule}.instance_hierarchy_snapshot
+  ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0,
+  ADD COLUMN IF NOT EXISTS generation bigint NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS instance_hierarchy_snapshot_dirty_idx
+  ON ${myuniversity}_${mymodule}.instance_hierarchy_snapshot (instance_id) WHERE dirty;
+
+CREATE INDEX IF NOT EXISTS instance_hierarchy_snapshot_generation_idx
+  ON ${myuniversity}_${mymodule}.instance_hierarchy_snapshot (generation);
+
+-- A single row with the current snapshot generation
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_generation (
+  id         boolean PRIMARY KEY DEFAULT true CHECK (id),
+  generation bigint NOT NULL
+);
+
+INSERT INTO ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_generation (id, generation)
+VALUES (true, 1)
+ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_generation() RETURNS bigint
+AS $$
+  SELECT generation FROM ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_generation;
+$$ LANGUAGE sql stable;
+
+-- Makes all snapshots stale by updating one row, instead of rewriting every snapshot within
+-- the transaction of the change
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.increment_instance_hierarchy_snapshot_generation() RETURNS void
+AS $$
+  UPDATE ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_generation SET generation = generation + 1;
+$$ LANGUAGE sql;
+
+-- Always updates the row, also if it is dirty already: the row lock makes the refresher wait for
+-- the transaction of the change, and the new version keeps a refresh that read the old version
+-- from clearing dirty.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.mark_instance_hierarchy_snapshots_dirty(instanceIds uuid[]) RETURNS void
+AS $$
+  INSERT INTO ${myuniversity}_${mymodule}.instance_hierarchy_snapshot AS snapshot (instance_id)
+    SELECT DISTINCT instanceId FROM unnest($1) instanceId WHERE instanceId IS NOT NULL
+    ON CONFLICT (instance_id) DO UPDATE
+      SET dirty = true,
+          version = snapshot.version + 1;
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_instance() RETURNS trigger
+AS $$
+  BEGIN
+    IF (TG_OP = 'DELETE') THEN
+      DELETE FROM ${myuniversity}_${mymodule}.instance_hierarchy_snapshot WHERE instance_id = OLD.id;
+      RETURN OLD;
+    END IF;
+    PERFORM ${myuniversity}_${mymodule}.mark_instance_hierarchy_snapshots_dirty(ARRAY[NEW.id]);
+    RETURN NEW;
+  END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_holdings_record() RETURNS trigger
+AS $$
+  BEGIN
+    -- a holdings record that is deleted or moved changes its former instance
+    IF (TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.instanceId IS DISTINCT FROM NEW.instanceId)) THEN
+      PERFORM ${myuniversity}_${mymodule}.mark_instance_hierarchy_snapshots_dirty(ARRAY[OLD.instanceId]);
+    END IF;
+    IF (TG_OP = 'DELETE') THEN
+      RETURN OLD;
+    END IF;
+    PERFORM ${myuniversity}_${mymodule}.mark_instance_hierarchy_snapshots_dirty(ARRAY[NEW.instanceId]);
+    RETURN NEW;
+  END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_item() RETURNS trigger
+AS $$
+  BEGIN
+    -- an item that is deleted or moved changes the instance of its former holdings record
+    IF (TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.holdingsRecordId IS DISTINCT FROM NEW.holdingsRecordId)) THEN
+      PERFORM ${myuniversity}_${mymodule}.mark_instance_hierarchy_snapshots_dirty(ARRAY[hr.instanceId])
+        FROM ${myuniversity}_${mymodule}.holdings_record hr
+        WHERE hr.id = OLD.holdingsRecordId;
+    END IF;
+    IF (TG_OP = 'DELETE') THEN
+      RETURN OLD;
+    END IF;
+    PERFORM ${myuniversity}_${mymodule}.mark_instance_hierarchy_snapshots_dirty(ARRAY[hr.instanceId])
+      FROM ${myuniversity}_${mymodule}.holdings_record hr
+      WHERE hr.id = NEW.holdingsRecordId;
+    RETURN NEW;
+  END;
+$$ LANGUAGE plpgsql;
+
+-- Reference data changes are rare and may affect any instance, they start a new generation of
+-- snapshots. Inserted reference records are not referenced by any snapshot yet. The statement
+-- triggers also fire for statements that change no row, for example the delete of
+-- refresh_location_hierarchy for a new location, those are ignored.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_reference_data() RETURNS trigger
+AS $$
+  BEGIN
+    IF EXISTS (SELECT 1 FROM changed) THEN
+      PERFORM ${myuniversity}_${mymodule}.increment_instance_hierarchy_snapshot_generation();
+    END IF;
+    RETURN NULL;
+  END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS instance_hierarchy_snapshot ON ${myuniversity}_${mymodule}.instance;
+CREATE TRIGGER instance_hierarchy_snapshot AFTER INSERT OR UPDATE OR DELETE
+  ON ${myuniversity}_${mymodule}.instance
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_instance();
+
+DROP TRIGGER IF EXISTS instance_hierarchy_snapshot ON ${myuniversity}_${mymodule}.holdings_record;
+CREATE TRIGGER instance_hierarchy_snapshot AFTER INSERT OR UPDATE OR DELETE
+  ON ${myuniversity}_${mymodule}.holdings_record
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_holdings_record();
+
+DROP TRIGGER IF EXISTS instance_hierarchy_snapshot ON ${myuniversity}_${mymodule}.item;
+CREATE TRIGGER instance_hierarchy_snapshot AFTER INSERT OR UPDATE OR DELETE
+  ON ${myuniversity}_${mymodule}.item
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_item();
+
+DO $$
+  DECLARE
+    referenceTable text;
+  BEGIN
+    FOREACH referenceTable IN ARRAY ARRAY['location_hierarchy', 'mode_of_issuance', 'nature_of_content_term',
+                                          'electronic_access_relationship', 'item_note_type', 'holdings_note_type',
+                                          'statistical_code', 'statistical_code_type', 'material_type',
+                                          'call_number_type', 'item_damaged_status', 'loan_type',
+                                          'holdings_type', 'ill_policy'] LOOP
+      -- a trigger with transition tables can only have one event
+      EXECUTE format('DROP TRIGGER IF EXISTS instance_hierarchy_snapshot_update ON ${myuniversity}_${mymodule}.%I', referenceTable);
+      EXECUTE format('CREATE TRIGGER instance_hierarchy_snapshot_update AFTER UPDATE'
+                     ' ON ${myuniversity}_${mymodule}.%I REFERENCING OLD TABLE AS changed'
+                     ' FOR EACH STATEMENT EXECUTE PROCEDURE'
+                     ' ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_reference_data()', referenceTable);
+      EXECUTE format('DROP TRIGGER IF EXISTS instance_hierarchy_snapshot_delete ON ${myuniversity}_${mymodule}.%I', referenceTable);
+      EXECUTE format('CREATE TRIGGER instance_hierarchy_snapshot_delete AFTER DELETE'
+                     ' ON ${myuniversity}_${mymodule}.%I REFERENCING OLD TABLE AS changed'
+                     ' FOR EACH STATEMENT EXECUTE PROCEDURE'
+                     ' ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_on_reference_data()', referenceTable);
+    END LOOP;
+  END
+$$;
+
+-- Rebuilds up to batchSize dirty or stale snapshots and returns the number of snapshots that
+-- are clean afterwards. Only one refresher of the tenant runs at a time, the others return 0.
+--
+-- The versions and the generation are read by a statement before the one that builds the
+-- documents, so the documents contain at least the changes of these versions. A change that
+-- commits later increments the version, then the update of the snapshot does not match and the
+-- snapshot stays dirty; a change that has not committed yet holds the row lock, the update waits
+-- for it and does not match either. A reference data change makes the generation stale.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.refresh_instance_hierarchy_snapshots(batchSize int) RETURNS int
+AS $$
+  DECLARE
+    currentGeneration bigint;
+    ids               uuid[];
+    versions          bigint[];
+    refreshed         int;
+  BEGIN
+    IF NOT pg_try_advisory_xact_lock('${myuniversity}_${mymodule}.instance_hierarchy_snapshot'::regclass::oid::bigint) THEN
+      RETURN 0;
+    END IF;
+    currentGeneration := ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_generation();
+    SELECT array_agg(batch.instance_id), array_agg(batch.version)
+      INTO ids, versions
+      FROM ( SELECT candidates.instance_id, candidates.version
+               FROM ( ( SELECT instance_id, version
+                          FROM ${myuniversity}_${mymodule}.instance_hierarchy_snapshot
+                         WHERE dirty
+                         LIMIT batchSize )
+                      UNION
+                      ( SELECT instance_id, version
+                          FROM ${myuniversity}_${mymodule}.instance_hierarchy_snapshot
+                         WHERE generation < currentGeneration
+                         LIMIT batchSize ) ) candidates
+              LIMIT batchSize ) batch;
+    IF ids IS NULL THEN
+      RETURN 0;
+    END IF;
+
+    WITH batch AS (
+      SELECT * FROM unnest(ids, versions) AS batch(instance_id, version)
+    ), docs AS (
+      SELECT v."instanceId" AS instance_id, to_jsonb(v) - 'instanceId' AS doc
+        FROM ${myuniversity}_${mymodule}.get_items_and_holdings_view(ids, false) v
+    ), discoverableDocs AS (
+      SELECT v."instanceId" AS instance_id, to_jsonb(v) - 'instanceId' AS doc
+        FROM ${myuniversity}_${mymodule}.get_items_and_holdings_view(ids, true) v
+    ), updated AS (
+      UPDATE ${myuniversity}_${mymodule}.instance_hierarchy_snapshot snapshot
+         SET doc = docs.doc,
+             discoverable_doc = discoverableDocs.doc,
+             updated_at = now(),
+             dirty = false,
+             generation = currentGeneration
+        FROM batch
+             LEFT JOIN docs ON docs.instance_id = batch.instance_id
+             LEFT JOIN discoverableDocs ON discoverableDocs.instance_id = batch.instance_id
+       WHERE snapshot.instance_id = batch.instance_id
+         AND snapshot.version = batch.version
+      RETURNING 1
+    )
+    SELECT count(*)::int INTO refreshed FROM updated;
+    RETURN refreshed;
+  END;
+$$ LANGUAGE plpgsql;
+
+-- Same result as get_items_and_holdings_view, read from clean snapshots where available
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.get_items_and_holdings_snapshot(instanceIds                        uuid[],
+                                                                                       skipSuppressedFromDiscoveryRecords bool DEFAULT TRUE)
+    RETURNS TABLE
+            (
+                "instanceId"             uuid,
+                "source"                 varchar,
+                "modeOfIssuance"         varchar,
+                "natureOfContent"        jsonb,
+                "holdings"               jsonb,
+                "items"                  jsonb
+            )
+AS $$
+  WITH requested AS (
+    SELECT DISTINCT instanceId FROM unnest($1) instanceId
+  ), snapshots AS (
+    SELECT snapshot.instance_id,
+           CASE WHEN $2 THEN snapshot.discoverable_doc ELSE snapshot.doc END AS doc
+      FROM requested
+           JOIN ${myuniversity}_${mymodule}.instance_hierarchy_snapshot snapshot
+                ON snapshot.instance_id = requested.instanceId
+     WHERE NOT snapshot.dirty
+       AND snapshot.generation = (SELECT ${myuniversity}_${mymodule}.instance_hierarchy_snapshot_generation())
+  )
+  SELECT instance_id,
+         (doc ->> 'source')::varchar,
+         (doc ->> 'modeOfIssuance')::varchar,
+         doc -> 'natureOfContent',
+         doc -> 'holdings',
+         doc -> 'items'
+    FROM snapshots
+   WHERE doc IS NOT NULL
+  UNION ALL
+  SELECT *
+    FROM ${myuniversity}_${mymodule}.get_items_and_holdings_view(
+           ARRAY(SELECT instanceId FROM requested
+                  WHERE NOT EXISTS (SELECT 1 FROM snapshots
+                                     WHERE snapshots.instance_id = requested.instanceId
+                                       AND snapshots.doc IS NOT NULL)), $2);
+$$ LANGUAGE sql;
+
+-- Existing instances get a dirty snapshot that the refresher builds in the background
+INSERT INTO ${myuniversity}_${mymodule}.instance_hierarchy_snapshot (instance_id)
+SELECT id FROM ${myuniversity}_${mymodule}.instance
+ON CONFLICT (instance_id) DO NOTHING;
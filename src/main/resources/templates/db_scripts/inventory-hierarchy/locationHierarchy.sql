@@ -0,0 +1,104 @@
+-- Locations with the resolved names of their institution, campus and library.
+-- Maintained by triggers on location and the location unit tables, so that the
+-- view functions join one table by location id instead of four tables through jsonb.
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.location_hierarchy (
+  location_id      uuid PRIMARY KEY,
+  name             text,
+  -- discoveryDisplayName if set, otherwise name
+  display_name     text,
+  is_active        boolean NOT NULL DEFAULT false,
+  institution_id   uuid,
+  institution_name text,
+  campus_id        uuid,
+  campus_name      text,
+  library_id       uuid,
+  library_name     text
+);
+
+CREATE INDEX IF NOT EXISTS location_hierarchy_institution_id_idx
+  ON ${myuniversity}_${mymodule}.location_hierarchy (institution_id);
+CREATE INDEX IF NOT EXISTS location_hierarchy_campus_id_idx
+  ON ${myuniversity}_${mymodule}.location_hierarchy (campus_id);
+CREATE INDEX IF NOT EXISTS location_hierarchy_library_id_idx
+  ON ${myuniversity}_${mymodule}.location_hierarchy (library_id);
+
+-- Recreates the rows of the given locations, of all locations if locationIds is null
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.refresh_location_hierarchy(locationIds uuid[]) RETURNS void
+AS $$
+  DELETE FROM ${myuniversity}_${mymodule}.location_hierarchy
+    WHERE $1 IS NULL OR location_id = ANY ($1);
+
+  INSERT INTO ${myuniversity}_${mymodule}.location_hierarchy
+    (location_id, name, display_name, is_active,
+     institution_id, institution_name, campus_id, campus_name, library_id, library_name)
+  SELECT loc.id,
+         loc.jsonb ->> 'name',
+         COALESCE(loc.jsonb ->> 'discoveryDisplayName', loc.jsonb ->> 'name'),
+         COALESCE((loc.jsonb ->> 'isActive')::bool, false),
+         locInst.id, locInst.jsonb ->> 'name',
+         locCamp.id, locCamp.jsonb ->> 'name',
+         locLib.id, locLib.jsonb ->> 'name'
+    FROM ${myuniversity}_${mymodule}.location loc
+         LEFT JOIN ${myuniversity}_${mymodule}.locinstitution locInst
+                ON (loc.jsonb ->> 'institutionId')::uuid = locInst.id
+         LEFT JOIN ${myuniversity}_${mymodule}.loccampus locCamp
+                ON (loc.jsonb ->> 'campusId')::uuid = locCamp.id
+         LEFT JOIN ${myuniversity}_${mymodule}.loclibrary locLib
+                ON (loc.jsonb ->> 'libraryId')::uuid = locLib.id
+   WHERE $1 IS NULL OR loc.id = ANY ($1);
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.location_hierarchy_on_location() RETURNS trigger
+AS $$
+  BEGIN
+    IF (TG_OP = 'DELETE') THEN
+      DELETE FROM ${myuniversity}_${mymodule}.location_hierarchy WHERE location_id = OLD.id;
+      RETURN OLD;
+    END IF;
+    PERFORM ${myuniversity}_${mymodule}.refresh_location_hierarchy(ARRAY[NEW.id]);
+    RETURN NEW;
+  END;
+$$ LANGUAGE plpgsql;
+
+-- A location unit cannot be deleted while a location refers to it, only a changed name matters.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.location_hierarchy_on_location_unit() RETURNS trigger
+AS $$
+  BEGIN
+    IF (OLD.jsonb ->> 'name' IS NOT DISTINCT FROM NEW.jsonb ->> 'name') THEN
+      RETURN NEW;
+    END IF;
+    IF (TG_TABLE_NAME = 'locinstitution') THEN
+      UPDATE ${myuniversity}_${mymodule}.location_hierarchy
+        SET institution_name = NEW.jsonb ->> 'name' WHERE institution_id = NEW.id;
+    ELSIF (TG_TABLE_NAME = 'loccampus') THEN
+      UPDATE ${myuniversity}_${mymodule}.location_hierarchy
+        SET campus_name = NEW.jsonb ->> 'name' WHERE campus_id = NEW.id;
+    ELSE
+      UPDATE ${myuniversity}_${mymodule}.location_hierarchy
+        SET library_name = NEW.jsonb ->> 'name' WHERE library_id = NEW.id;
+    END IF;
+    RETURN NEW;
+  END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS location_hierarchy ON ${myuniversity}_${mymodule}.location;
+CREATE TRIGGER location_hierarchy AFTER INSERT OR UPDATE OR DELETE
+  ON ${myuniversity}_${mymodule}.location
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.location_hierarchy_on_location();
+
+DROP TRIGGER IF EXISTS location_hierarchy ON ${myuniversity}_${mymodule}.locinstitution;
+CREATE TRIGGER location_hierarchy AFTER UPDATE
+  ON ${myuniversity}_${mymodule}.locinstitution
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.location_hierarchy_on_location_unit();
+
+DROP TRIGGER IF EXISTS location_hierarchy ON ${myuniversity}_${mymodule}.loccampus;
+CREATE TRIGGER location_hierarchy AFTER UPDATE
+  ON ${myuniversity}_${mymodule}.loccampus
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.location_hierarchy_on_location_unit();
+
+DROP TRIGGER IF EXISTS location_hierarchy ON ${myuniversity}_${mymodule}.loclibrary;
+CREATE TRIGGER location_hierarchy AFTER UPDATE
+  ON ${myuniversity}_${mymodule}.loclibrary
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.location_hierarchy_on_location_unit();
+
+SELECT ${myuniversity}_${mymodule}.refresh_location_hierarchy(NULL);
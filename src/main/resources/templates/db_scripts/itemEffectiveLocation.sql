@@ -1,28 +1,28 @@
 
--- Updates item effective location property in case holding's effective location has changed.
+-- Updates item effective location property of the items of all holdings records of an UPDATE
+-- statement whose effective location has changed, in one joined UPDATE.
 -- Only items that do not have permanent or temp location set will be updated.
 CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.update_effective_location_on_holding_update() RETURNS trigger
 AS $$
-  DECLARE
-    old_effective_location_id jsonb;
-    new_effective_location_id jsonb;
   BEGIN
-    old_effective_location_id = coalesce(OLD.jsonb->'temporaryLocationId', OLD.jsonb->'permanentLocationId');
-    new_effective_location_id = coalesce(NEW.jsonb->'temporaryLocationId', NEW.jsonb->'permanentLocationId');
-
-    -- null-safe comparison, do nothing if location is not changed.
-    if (new_effective_location_id IS NOT DISTINCT FROM old_effective_location_id) THEN
-      RETURN NEW;
-    end if;
-
     UPDATE ${myuniversity}_${mymodule}.item
-      SET jsonb = jsonb_set(jsonb, '{effectiveLocationId}', new_effective_location_id)
-      WHERE holdingsRecordId = new.id
+      SET jsonb = jsonb_set(item.jsonb, '{effectiveLocationId}', changed.effective_location_id)
+      FROM (SELECT new_holdings.id,
+                   coalesce(new_holdings.jsonb->'temporaryLocationId', new_holdings.jsonb->'permanentLocationId')
+                     AS effective_location_id
+              FROM new_holdings
+              JOIN old_holdings ON old_holdings.id = new_holdings.id
+              -- null-safe comparison, skip holdings whose location is not changed.
+             WHERE coalesce(new_holdings.jsonb->'temporaryLocationId', new_holdings.jsonb->'permanentLocationId')
+                   IS DISTINCT FROM
+                   coalesce(old_holdings.jsonb->'temporaryLocationId', old_holdings.jsonb->'permanentLocationId')
+           ) changed
+      WHERE item.holdingsRecordId = changed.id
             -- if item's either temp or perm location is not null then we don't need to update it's effective location
             -- as item's location has more priority than holding's one.
-            AND permanentLocationId IS NULL
-            AND temporaryLocationId IS NULL;
-    RETURN NEW;
+            AND item.permanentLocationId IS NULL
+            AND item.temporaryLocationId IS NULL;
+    RETURN NULL;
   END;
   $$ LANGUAGE 'plpgsql';
 
@@ -32,6 +32,10 @@ AS $$
   declare
     effective_location_id jsonb;
   begin
+    -- bulk_load has set the effective location already, see bulkLoad.sql
+    if (current_setting('inventory.bulk_load', true) = 'on') then
+      return NEW;
+    end if;
     -- If location attributes set on item - use tem as they have higher priority
     effective_location_id = coalesce(NEW.jsonb->'temporaryLocationId', NEW.jsonb->'permanentLocationId');
     if (effective_location_id IS NOT NULL) then
@@ -77,9 +81,12 @@ AS $$
 $$ LANGUAGE 'plpgsql';
 
 DROP TRIGGER IF EXISTS update_effective_location_for_items ON ${myuniversity}_${mymodule}.holdings_record;
--- should be after update trigger, will allow item trigger to fetch up-to-date locations from holding
+-- should be after update trigger, will allow item trigger to fetch up-to-date locations from holding;
+-- fires once per statement, not once per holdings record
 create trigger update_effective_location_for_items after update
-on ${myuniversity}_${mymodule}.holdings_record for each row execute procedure ${myuniversity}_${mymodule}.update_effective_location_on_holding_update();
+on ${myuniversity}_${mymodule}.holdings_record
+referencing old table as old_holdings new table as new_holdings
+for each statement execute procedure ${myuniversity}_${mymodule}.update_effective_location_on_holding_update();
 
 -- This trigger must run before the trigger update_item_references that
 -- copies item.jsonb->>'effectiveLocationId' into item.effectiveLocationId.
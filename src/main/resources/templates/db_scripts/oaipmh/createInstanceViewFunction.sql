@@ -0,0 +1,74 @@
+-- Creates function returning the holdings and items fields of the given instances for OAI-PMH.
+-- Location, campus, library and institution names are read from location_hierarchy,
+-- see inventory-hierarchy/locationHierarchy.sql.
+create or replace function ${myuniversity}_${mymodule}.pmh_instance_view_function(instanceIds uuid[],
+                                                                                  skipSuppressedFromDiscoveryRecords bool default true)
+    returns table
+            (
+                instanceId             uuid,
+                itemsAndHoldingsFields jsonb
+            )
+as
+$body$
+with lookups as ( select electronicAccessRelationshipNames() as earNames,
+                         itemNoteTypeNames()                 as itemNoteTypes )
+select instId,
+(select to_jsonb(itemAndHoldingsAttrs) as itemsAndHoldingsFields
+         from ( select hr.instanceid,
+                       jsonb_agg(jsonb_build_object('id', item.id, 'callNumber',
+                                                    item.jsonb -> 'effectiveCallNumberComponents'
+                                                        || jsonb_build_object('typeName',cnt.jsonb ->> 'name'),
+                                                    'location',
+                                                    json_build_object('location', jsonb_build_object('institutionId',
+                                                                                                     loc.institution_id,
+                                                                                                     'institutionName',
+                                                                                                     loc.institution_name,
+                                                                                                     'campusId',
+                                                                                                     loc.campus_id,
+                                                                                                     'campusName',
+                                                                                                     loc.campus_name,
+                                                                                                     'libraryId',
+                                                                                                     loc.library_id,
+                                                                                                     'libraryName',
+                                                                                                     loc.library_name),
+                                                                                                      'name',
+                                                                                                      loc.display_name),
+                                                    'volume',
+                                                    item.jsonb -> 'volume',
+                                                    'enumeration',
+                                                    item.jsonb -> 'enumeration',
+                                                    'materialType',
+                                                    mt.jsonb -> 'name',
+                                                    'electronicAccess',
+                                                    getElectronicAccessName(
+                                                                coalesce(item.jsonb #> '{electronicAccess}', '[]'::jsonb) ||
+                                                                coalesce(hr.jsonb #> '{electronicAccess}', '[]'::jsonb),
+                                                                lookups.earNames),
+                                                    'suppressFromDiscovery',
+                                                                coalesce((hr.jsonb ->> 'discoverySuppress')::bool, false) or
+                                                                coalesce((item.jsonb ->> 'discoverySuppress')::bool, false),
+                                                    'notes',
+                                                    getItemNoteTypeName(item.jsonb-> 'notes', lookups.itemNoteTypes),
+                                                    'barcode',
+                                                    item.jsonb->>'barcode',
+                                                    'chronology',
+                                                    item.jsonb->>'chronology',
+                                                    'copyNumber',
+                                                    item.jsonb->>'copyNumber',
+                                                    'holdingsRecordId',
+                                                    hr.id
+                           )) items
+                from holdings_record hr
+                         join ${myuniversity}_${mymodule}.item item on item.holdingsrecordid = hr.id
+                         join ${myuniversity}_${mymodule}.location_hierarchy loc
+                              on loc.location_id = item.effectiveLocationId and loc.is_active
+                         left join ${myuniversity}_${mymodule}.material_type mt on item.materialtypeid = mt.id
+                         left join ${myuniversity}_${mymodule}.call_number_type cnt on (item.jsonb #>> '{effectiveCallNumberComponents, typeId}')::uuid = cnt.id
+                where instanceId = instId
+                  and not ($2 and coalesce((hr.jsonb ->> 'discoverySuppress')::bool, false))
+                  and not ($2 and coalesce((item.jsonb ->> 'discoverySuppress')::bool, false))
+                group by 1) itemAndHoldingsAttrs)
+FROM unnest( $1 ) AS instId
+     cross join lookups;
+
+$body$ language sql;
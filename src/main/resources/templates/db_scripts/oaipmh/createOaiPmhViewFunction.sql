@@ -39,16 +39,9 @@ from ( select e || jsonb_build_object('noteTypeName', ( select jsonb ->> 'name'
        from jsonb_array_elements($1) as e ) e1
 $$ language sql strict;
 
-drop index if exists ${myuniversity}_${mymodule}.item_pmh_metadata_updateddate_idx;
-drop index if exists ${myuniversity}_${mymodule}.holdings_record_pmh_metadata_updateddate_idx;
-drop index if exists ${myuniversity}_${mymodule}.audit_instance_pmh_createddate_idx;
-drop index if exists ${myuniversity}_${mymodule}.audit_holdings_record_pmh_createddate_idx;
-drop index if exists ${myuniversity}_${mymodule}.audit_item_pmh_createddate_idx;
-drop index if exists ${myuniversity}_${mymodule}.instance_pmh_metadata_updateddate_idx;
-
-create index if not exists instance_pmh_metadata_updateddate_idx on ${myuniversity}_${mymodule}.instance ((strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate')));
-create index if not exists item_pmh_metadata_updateddate_idx on ${myuniversity}_${mymodule}.item ((strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate')));
-create index if not exists holdings_record_pmh_metadata_updateddate_idx on ${myuniversity}_${mymodule}.holdings_record ((strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate')));
+-- The metadata.updatedDate indexes of instance, item and holdings_record are built with
+-- CREATE INDEX CONCURRENTLY after the upgrade, see ConcurrentIndexBuilder. The audit tables are
+-- partitioned, which CREATE INDEX CONCURRENTLY does not support.
 create index if not exists audit_instance_pmh_createddate_idx on ${myuniversity}_${mymodule}.audit_instance ((strToTimestamp(jsonb ->> 'createdDate')));
 create index if not exists audit_holdings_record_pmh_createddate_idx on ${myuniversity}_${mymodule}.audit_holdings_record ((strToTimestamp(jsonb -> 'record' ->> 'updatedDate')));
 create index if not exists audit_item_pmh_createddate_idx on ${myuniversity}_${mymodule}.audit_item ((strToTimestamp(jsonb -> 'record' ->> 'updatedDate')));
@@ -243,77 +236,4 @@ where $3
 
 $body$ language sql;
 
-create or replace function ${myuniversity}_${mymodule}.pmh_instance_view_function(instanceIds uuid[],
-                                                                                  skipSuppressedFromDiscoveryRecords bool default true)
-    returns table
-            (
-                instanceId             uuid,
-                itemsAndHoldingsFields jsonb
-            )
-as
-$body$
-select instId,
-(select to_jsonb(itemAndHoldingsAttrs) as itemsAndHoldingsFields
-         from ( select hr.instanceid,
-                       jsonb_agg(jsonb_build_object('id', item.id, 'callNumber',
-                                                    item.jsonb -> 'effectiveCallNumberComponents'
-                                                        || jsonb_build_object('typeName',cnt.jsonb ->> 'name'),
-                                                    'location',
-                                                    json_build_object('location', jsonb_build_object('institutionId',
-                                                                                                     itemLocInst.id,
-                                                                                                     'institutionName',
-                                                                                                     itemLocInst.jsonb ->> 'name',
-                                                                                                     'campusId',
-                                                                                                     itemLocCamp.id,
-                                                                                                     'campusName',
-                                                                                                     itemLocCamp.jsonb ->> 'name',
-                                                                                                     'libraryId',
-                                                                                                     itemLocLib.id,
-                                                                                                     'libraryName',
-                                                                                                     itemLocLib.jsonb ->> 'name'),
-                                                                                                      'name',
-                                                                                                      coalesce(loc.jsonb ->> 'discoveryDisplayName', loc.jsonb ->> 'name')),
-                                                    'volume',
-                                                    item.jsonb -> 'volume',
-                                                    'enumeration',
-                                                    item.jsonb -> 'enumeration',
-                                                    'materialType',
-                                                    mt.jsonb -> 'name',
-                                                    'electronicAccess',
-                                                    getElectronicAccessName(
-                                                                coalesce(item.jsonb #> '{electronicAccess}', '[]'::jsonb) ||
-                                                                coalesce(hr.jsonb #> '{electronicAccess}', '[]'::jsonb)),
-                                                    'suppressFromDiscovery',
-                                                                coalesce((hr.jsonb ->> 'discoverySuppress')::bool, false) or
-                                                                coalesce((item.jsonb ->> 'discoverySuppress')::bool, false),
-                                                    'notes',
-                                                    getItemNoteTypeName(item.jsonb-> 'notes'),
-                                                    'barcode',
-                                                    item.jsonb->>'barcode',
-                                                    'chronology',
-                                                    item.jsonb->>'chronology',
-                                                    'copyNumber',
-                                                    item.jsonb->>'copyNumber',
-                                                    'holdingsRecordId',
-                                                    hr.id
-                           )) items
-                from holdings_record hr
-                         join ${myuniversity}_${mymodule}.item item on item.holdingsrecordid = hr.id
-                         join ${myuniversity}_${mymodule}.location loc
-                              on (item.jsonb ->> 'effectiveLocationId')::uuid = loc.id and
-                                 (loc.jsonb ->> 'isActive')::bool = true
-                         join ${myuniversity}_${mymodule}.locinstitution itemLocInst
-                              on (loc.jsonb ->> 'institutionId')::uuid = itemLocInst.id
-                         join ${myuniversity}_${mymodule}.loccampus itemLocCamp
-                              on (loc.jsonb ->> 'campusId')::uuid = itemLocCamp.id
-                         join ${myuniversity}_${mymodule}.loclibrary itemLocLib
-                              on (loc.jsonb ->> 'libraryId')::uuid = itemLocLib.id
-                         left join ${myuniversity}_${mymodule}.material_type mt on item.materialtypeid = mt.id
-                         left join ${myuniversity}_${mymodule}.call_number_type cnt on (item.jsonb #>> '{effectiveCallNumberComponents, typeId}')::uuid = cnt.id
-                where instanceId = instId
-                  and not ($2 and coalesce((hr.jsonb ->> 'discoverySuppress')::bool, false))
-                  and not ($2 and coalesce((item.jsonb ->> 'discoverySuppress')::bool, false))
-                group by 1) itemAndHoldingsAttrs)
-FROM unnest( $1 ) AS instId;
-
-$body$ language sql;
+-- pmh_instance_view_function is created by oaipmh/createInstanceViewFunction.sql
@@ -0,0 +1,515 @@
+-- Instances that changed themselves or whose holdings or items changed, with the date
+-- of the latest change. Maintained by triggers on instance, holdings_record and item so
+-- that the OAI-PMH and inventory hierarchy functions find changed instances with a range
+-- scan on changed_at instead of joining holdings and items and the audit tables.
+CREATE TABLE IF NOT EXISTS ${myuniversity}_${mymodule}.instance_change_log (
+  instance_id uuid PRIMARY KEY,
+  changed_at  timestamptz NOT NULL,
+  deleted     boolean NOT NULL DEFAULT false
+);
+
+-- (changed_at, instance_id) for the keyset paging of the updated instance ids, it also serves
+-- the range scans on changed_at
+CREATE INDEX IF NOT EXISTS instance_change_log_changed_at_instance_id_idx
+  ON ${myuniversity}_${mymodule}.instance_change_log (changed_at, instance_id);
+DROP INDEX IF EXISTS ${myuniversity}_${mymodule}.instance_change_log_changed_at_idx;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.log_instance_change(instanceId uuid,
+                                                                           changedAt  timestamptz,
+                                                                           isDeleted  boolean) RETURNS void
+AS $$
+  INSERT INTO ${myuniversity}_${mymodule}.instance_change_log AS log (instance_id, changed_at, deleted)
+    VALUES ($1, coalesce($2, now()), $3)
+    ON CONFLICT (instance_id) DO UPDATE
+      SET changed_at = greatest(log.changed_at, excluded.changed_at),
+          deleted = excluded.deleted;
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_change_log_on_instance() RETURNS trigger
+AS $$
+  BEGIN
+    IF (TG_OP = 'DELETE') THEN
+      PERFORM ${myuniversity}_${mymodule}.log_instance_change(OLD.id, now(), true);
+      RETURN OLD;
+    END IF;
+    PERFORM ${myuniversity}_${mymodule}.log_instance_change(NEW.id,
+      ${myuniversity}_${mymodule}.strToTimestamp(NEW.jsonb -> 'metadata' ->> 'updatedDate'), false);
+    RETURN NEW;
+  END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_change_log_on_holdings_record() RETURNS trigger
+AS $$
+  BEGIN
+    -- a holdings record that is deleted or moved changes its former instance
+    IF (TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.instanceId IS DISTINCT FROM NEW.instanceId)) THEN
+      PERFORM ${myuniversity}_${mymodule}.log_instance_change(OLD.instanceId, now(), false);
+    END IF;
+    IF (TG_OP = 'DELETE') THEN
+      RETURN OLD;
+    END IF;
+    PERFORM ${myuniversity}_${mymodule}.log_instance_change(NEW.instanceId,
+      ${myuniversity}_${mymodule}.strToTimestamp(NEW.jsonb -> 'metadata' ->> 'updatedDate'), false);
+    RETURN NEW;
+  END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_change_log_on_item() RETURNS trigger
+AS $$
+  BEGIN
+    -- an item that is deleted or moved changes the instance of its former holdings record
+    IF (TG_OP = 'DELETE' OR (TG_OP = 'UPDATE' AND OLD.holdingsRecordId IS DISTINCT FROM NEW.holdingsRecordId)) THEN
+      PERFORM ${myuniversity}_${mymodule}.log_instance_change(hr.instanceId, now(), false)
+        FROM ${myuniversity}_${mymodule}.holdings_record hr
+        WHERE hr.id = OLD.holdingsRecordId;
+    END IF;
+    IF (TG_OP = 'DELETE') THEN
+      RETURN OLD;
+    END IF;
+    PERFORM ${myuniversity}_${mymodule}.log_instance_change(hr.instanceId,
+      ${myuniversity}_${mymodule}.strToTimestamp(NEW.jsonb -> 'metadata' ->> 'updatedDate'), false)
+      FROM ${myuniversity}_${mymodule}.holdings_record hr
+      WHERE hr.id = NEW.holdingsRecordId;
+    RETURN NEW;
+  END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS instance_change_log ON ${myuniversity}_${mymodule}.instance;
+CREATE TRIGGER instance_change_log AFTER INSERT OR UPDATE OR DELETE
+  ON ${myuniversity}_${mymodule}.instance
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.instance_change_log_on_instance();
+
+DROP TRIGGER IF EXISTS instance_change_log ON ${myuniversity}_${mymodule}.holdings_record;
+CREATE TRIGGER instance_change_log AFTER INSERT OR UPDATE OR DELETE
+  ON ${myuniversity}_${mymodule}.holdings_record
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.instance_change_log_on_holdings_record();
+
+DROP TRIGGER IF EXISTS instance_change_log ON ${myuniversity}_${mymodule}.item;
+CREATE TRIGGER instance_change_log AFTER INSERT OR UPDATE OR DELETE
+  ON ${myuniversity}_${mymodule}.item
+  FOR EACH ROW EXECUTE PROCEDURE ${myuniversity}_${mymodule}.instance_change_log_on_item();
+
+-- Populate the change log from the existing records and audit tables
+INSERT INTO ${myuniversity}_${mymodule}.instance_change_log AS log (instance_id, changed_at, deleted)
+SELECT changes.instanceId, max(changes.changedAt), false
+FROM ( SELECT id AS instanceId,
+              strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate') AS changedAt
+       FROM ${myuniversity}_${mymodule}.instance
+       UNION ALL
+       SELECT instanceId,
+              strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate')
+       FROM ${myuniversity}_${mymodule}.holdings_record
+       UNION ALL
+       SELECT hr.instanceId,
+              strToTimestamp(item.jsonb -> 'metadata' ->> 'updatedDate')
+       FROM ${myuniversity}_${mymodule}.item
+                JOIN ${myuniversity}_${mymodule}.holdings_record hr ON hr.id = item.holdingsRecordId
+       UNION ALL
+       SELECT (jsonb #>> '{record,instanceId}')::uuid,
+              strToTimestamp(jsonb ->> 'createdDate')
+       FROM ${myuniversity}_${mymodule}.audit_holdings_record
+       UNION ALL
+       SELECT hr.instanceId,
+              strToTimestamp(audit_item.jsonb ->> 'createdDate')
+       FROM ${myuniversity}_${mymodule}.audit_item
+                JOIN ${myuniversity}_${mymodule}.holdings_record hr
+                     ON hr.id = (audit_item.jsonb #>> '{record,holdingsRecordId}')::uuid ) changes
+WHERE changes.changedAt IS NOT NULL
+  AND EXISTS (SELECT 1 FROM ${myuniversity}_${mymodule}.instance WHERE instance.id = changes.instanceId)
+GROUP BY changes.instanceId
+ON CONFLICT (instance_id) DO UPDATE
+  SET changed_at = greatest(log.changed_at, excluded.changed_at);
+
+INSERT INTO ${myuniversity}_${mymodule}.instance_change_log AS log (instance_id, changed_at, deleted)
+SELECT (jsonb #>> '{record,id}')::uuid, max(strToTimestamp(jsonb ->> 'createdDate')), true
+FROM ${myuniversity}_${mymodule}.audit_instance
+WHERE NOT EXISTS (SELECT 1 FROM ${myuniversity}_${mymodule}.instance
+                  WHERE instance.id = (audit_instance.jsonb #>> '{record,id}')::uuid)
+GROUP BY 1
+ON CONFLICT (instance_id) DO NOTHING;
+
+-- The functions below replace the versions of oaipmh/createOaiPmhViewFunction.sql and
+-- inventory-hierarchy/createRecordsViewFunction.sql that computed the changed instances
+-- with a UNION ALL over instance, holdings_record joined to item and the audit tables.
+-- Deleted instances are still read from audit_instance, by its createdDate index.
+
+-- Shard 0 to shards - 1 of an instance for parallel harvesting, computed from the first
+-- 32 bits of the instance id, which are random for the version 4 UUIDs of inventory
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.instance_shard(instanceId uuid, shards int) RETURNS int
+AS $$
+  SELECT (('x' || left($1::text, 8))::bit(32)::bigint % $2)::int
+$$ LANGUAGE sql immutable strict;
+
+-- The harvesting functions got the shards and shard parameters, the previous signatures
+-- would make calls without them ambiguous
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.pmh_view_function(timestamptz, timestamptz, bool, bool);
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.pmh_get_updated_instances_ids(timestamptz, timestamptz, bool, bool);
+DROP FUNCTION IF EXISTS ${myuniversity}_${mymodule}.get_updated_instance_ids_view(timestamptz, timestamptz, bool, bool, bool);
+
+-- Retained for backward compatibility only. Should be removed for 20.0.0.
+create or replace function ${myuniversity}_${mymodule}.pmh_view_function(startDate timestamptz,
+                                                                         endDate timestamptz,
+                                                                         deletedRecordSupport bool default true,
+                                                                         skipSuppressedFromDiscoveryRecords bool default true,
+                                                                         shards int default 1,
+                                                                         shard int default 0)
+    returns table
+            (
+                instanceId             uuid,
+                updatedDate    timestamptz,
+                deleted                boolean,
+                itemsAndHoldingsFields jsonb
+            )
+as
+$body$
+with lookups as ( select electronicAccessRelationshipNames() as earNames,
+                         itemNoteTypeNames()                 as itemNoteTypes ),
+     instanceIdsAndDatesInRange as ( select log.instance_id                                as instanceId,
+                                            log.changed_at                                 as maxDate,
+                                            (instance.jsonb ->> 'discoverySuppress')::bool as suppressFromDiscovery
+                                     from ${myuniversity}_${mymodule}.instance_change_log log
+                                              join ${myuniversity}_${mymodule}.instance on instance.id = log.instance_id
+                                     where log.changed_at between dateOrMin($1) and dateOrMax($2)
+                                       and not log.deleted
+                                       and not ($4 and coalesce((instance.jsonb ->> 'discoverySuppress')::bool, false))
+                                       and ($5 = 1 or instance_shard(log.instance_id, $5) = $6) )
+
+select instanceIdsAndDatesInRange.instanceId,
+       instanceIdsAndDatesInRange.maxDate,
+       false as deleted,
+       ( select to_jsonb(itemAndHoldingsAttrs) as instanceFields
+         from ( select hr.instanceid,
+                       instanceIdsAndDatesInRange.suppressFromDiscovery as suppressFromDiscovery,
+                       jsonb_agg(jsonb_build_object('id', item.id, 'callNumber',
+                                                    item.jsonb -> 'effectiveCallNumberComponents'
+                                                        || jsonb_build_object('typeName',cnt.jsonb ->> 'name'),
+                                                    'location',
+                                                    json_build_object('location', jsonb_build_object('institutionId',
+                                                                                                     loc.institution_id,
+                                                                                                     'institutionName',
+                                                                                                     loc.institution_name,
+                                                                                                     'campusId',
+                                                                                                     loc.campus_id,
+                                                                                                     'campusName',
+                                                                                                     loc.campus_name,
+                                                                                                     'libraryId',
+                                                                                                     loc.library_id,
+                                                                                                     'libraryName',
+                                                                                                     loc.library_name),
+                                                                                                      'name',
+                                                                                                      loc.display_name),
+                                                    'volume',
+                                                    item.jsonb -> 'volume',
+                                                    'enumeration',
+                                                    item.jsonb -> 'enumeration',
+                                                    'materialType',
+                                                    mt.jsonb -> 'name',
+                                                    'electronicAccess',
+                                                    getElectronicAccessName(
+                                                                coalesce(item.jsonb #> '{electronicAccess}', '[]'::jsonb) ||
+                                                                coalesce(hr.jsonb #> '{electronicAccess}', '[]'::jsonb),
+                                                                lookups.earNames),
+                                                    'suppressFromDiscovery',
+                                                    case
+                                                        when instanceIdsAndDatesInRange.suppressFromDiscovery
+                                                            then true
+                                                        else
+                                                                coalesce((hr.jsonb ->> 'discoverySuppress')::bool, false) or
+                                                                coalesce((item.jsonb ->> 'discoverySuppress')::bool, false)
+                                                        end,
+                                                    'notes',
+                                                    getItemNoteTypeName(item.jsonb-> 'notes', lookups.itemNoteTypes),
+                                                    'barcode',
+                                                    item.jsonb->>'barcode',
+                                                    'chronology',
+                                                    item.jsonb->>'chronology',
+                                                    'copyNumber',
+                                                    item.jsonb->>'copyNumber',
+                                                    'holdingsRecordId',
+                                                    hr.id
+                           )) items
+                from holdings_record hr
+                         join ${myuniversity}_${mymodule}.item item on item.holdingsrecordid = hr.id
+                         join ${myuniversity}_${mymodule}.location_hierarchy loc
+                              on loc.location_id = item.effectiveLocationId and loc.is_active
+                         left join ${myuniversity}_${mymodule}.material_type mt on item.materialtypeid = mt.id
+                         left join ${myuniversity}_${mymodule}.call_number_type cnt on (item.jsonb #>> '{effectiveCallNumberComponents, typeId}')::uuid = cnt.id
+                where instanceId = instanceIdsAndDatesInRange.instanceId
+                  and not ($4 and coalesce((hr.jsonb ->> 'discoverySuppress')::bool, false))
+                  and not ($4 and coalesce((item.jsonb ->> 'discoverySuppress')::bool, false))
+                group by 1) itemAndHoldingsAttrs )
+from instanceIdsAndDatesInRange
+         cross join lookups
+union all
+select (audit_instance.jsonb #>> '{record,id}')::uuid as instanceId,
+       strToTimestamp(jsonb ->> 'createdDate')         as maxDate,
+       true                                           as deleted,
+       null                                           as itemFields
+from ${myuniversity}_${mymodule}.audit_instance
+where $3
+  and strToTimestamp(jsonb ->> 'createdDate') between dateOrMin($1) and dateOrMax($2)
+  and ($5 = 1 or instance_shard((jsonb #>> '{record,id}')::uuid, $5) = $6)
+
+$body$ language sql;
+
+create or replace function ${myuniversity}_${mymodule}.pmh_get_updated_instances_ids(startDate timestamptz,
+                                                                                     endDate timestamptz,
+                                                                                     deletedRecordSupport bool default true,
+                                                                                     skipSuppressedFromDiscoveryRecords bool default true,
+                                                                                     shards int default 1,
+                                                                                     shard int default 0)
+    returns table
+            (
+                instanceId             uuid,
+                updatedDate    timestamptz,
+                suppressFromDiscovery      boolean,
+                deleted                boolean
+            )
+as
+$body$
+select log.instance_id                                as instanceId,
+       log.changed_at                                 as maxDate,
+       (instance.jsonb ->> 'discoverySuppress')::bool as suppressFromDiscovery,
+       false                                          as deleted
+from ${myuniversity}_${mymodule}.instance_change_log log
+         join ${myuniversity}_${mymodule}.instance on instance.id = log.instance_id
+where log.changed_at between dateOrMin($1) and dateOrMax($2)
+  and not log.deleted
+  and not ($4 and coalesce((instance.jsonb ->> 'discoverySuppress')::bool, false))
+  and ($5 = 1 or instance_shard(log.instance_id, $5) = $6)
+union all
+select (audit_instance.jsonb #>> '{record,id}')::uuid as instanceId,
+       strToTimestamp(jsonb ->> 'createdDate')        as maxDate,
+       false                                          as suppressFromDiscovery,
+       true                                           as deleted
+from ${myuniversity}_${mymodule}.audit_instance
+where $3
+  and strToTimestamp(jsonb ->> 'createdDate') between dateOrMin($1) and dateOrMax($2)
+  and ($5 = 1 or instance_shard((jsonb #>> '{record,id}')::uuid, $5) = $6)
+
+$body$ language sql;
+
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.get_updated_instance_ids_view(startDate                          timestamptz,
+                                                                                     endDate                            timestamptz,
+                                                                                     deletedRecordSupport               bool DEFAULT TRUE,
+                                                                                     skipSuppressedFromDiscoveryRecords bool DEFAULT TRUE,
+                                                                                     onlyInstanceUpdateDate             bool DEFAULT TRUE,
+                                                                                     shards                             int DEFAULT 1,
+                                                                                     shard                              int DEFAULT 0)
+    RETURNS TABLE
+            (
+                "instanceId"            uuid,
+                "source"                varchar,
+                "updatedDate"           timestamptz,
+                "suppressFromDiscovery" boolean,
+                "deleted"               boolean
+            )
+AS
+$BODY$
+-- only the update date of the instance itself, a range scan on instance_pmh_metadata_updateddate_idx
+SELECT instance.id                                                      AS instanceId,
+       instance.jsonb ->> 'source'                                      AS source,
+       strToTimestamp(instance.jsonb -> 'metadata' ->> 'updatedDate') AS maxDate,
+       (instance.jsonb ->> 'discoverySuppress')::bool                   AS suppressFromDiscovery,
+       false                                                            AS deleted
+FROM ${myuniversity}_${mymodule}.instance
+WHERE $5
+      AND strToTimestamp(instance.jsonb -> 'metadata' ->> 'updatedDate') BETWEEN dateOrMin($1) AND dateOrMax($2)
+      AND NOT ($4 AND COALESCE((instance.jsonb ->> 'discoverySuppress')::bool, false))
+      AND ($6 = 1 OR instance_shard(instance.id, $6) = $7)
+
+UNION ALL
+-- changes of the instance, its holdings and its items
+SELECT log.instance_id                                AS instanceId,
+       instance.jsonb ->> 'source'                    AS source,
+       log.changed_at                                 AS maxDate,
+       (instance.jsonb ->> 'discoverySuppress')::bool AS suppressFromDiscovery,
+       false                                          AS deleted
+FROM ${myuniversity}_${mymodule}.instance_change_log log
+         JOIN ${myuniversity}_${mymodule}.instance ON instance.id = log.instance_id
+WHERE NOT $5
+      AND log.changed_at BETWEEN dateOrMin($1) AND dateOrMax($2)
+      AND NOT log.deleted
+      AND NOT ($4 AND COALESCE((instance.jsonb ->> 'discoverySuppress')::bool, false))
+      AND ($6 = 1 OR instance_shard(log.instance_id, $6) = $7)
+
+UNION ALL
+SELECT (jsonb #>> '{record,id}')::uuid              AS instanceId,
+        jsonb #>> '{record,source}'                 AS source,
+        strToTimestamp(jsonb ->> 'createdDate')     AS maxDate,
+        false                                       AS suppressFromDiscovery,
+        true                                        AS deleted
+FROM ${myuniversity}_${mymodule}.audit_instance
+WHERE $3
+      AND strToTimestamp(jsonb ->> 'createdDate') BETWEEN dateOrMin($1) AND dateOrMax($2)
+      AND ($6 = 1 OR instance_shard((jsonb #>> '{record,id}')::uuid, $6) = $7)
+
+$BODY$ LANGUAGE sql;
+
+-- A page of pmh_get_updated_instances_ids ordered by updatedDate and instanceId: the rows after
+-- the keyset position (afterDate, afterId), at most maxRows rows. Each branch seeks to the
+-- position on an index that is ordered by date and id and stops after maxRows rows, so a page
+-- does not read the changes before the position or after its last row. A null position starts
+-- at the beginning, a null maxRows returns all rows.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.pmh_get_updated_instances_ids_page(startDate                          timestamptz,
+                                                                                          endDate                            timestamptz,
+                                                                                          deletedRecordSupport               bool,
+                                                                                          skipSuppressedFromDiscoveryRecords bool,
+                                                                                          shards                             int,
+                                                                                          shard                              int,
+                                                                                          afterDate                          timestamptz,
+                                                                                          afterId                            uuid,
+                                                                                          maxRows                            int)
+    RETURNS TABLE
+            (
+                instanceId            uuid,
+                updatedDate           timestamptz,
+                suppressFromDiscovery boolean,
+                deleted               boolean
+            )
+AS
+$BODY$
+( SELECT log.instance_id                                AS instanceId,
+         log.changed_at                                 AS maxDate,
+         (instance.jsonb ->> 'discoverySuppress')::bool AS suppressFromDiscovery,
+         false                                          AS deleted
+  FROM ${myuniversity}_${mymodule}.instance_change_log log
+           JOIN ${myuniversity}_${mymodule}.instance ON instance.id = log.instance_id
+  WHERE log.changed_at BETWEEN dateOrMin($1) AND dateOrMax($2)
+    AND (log.changed_at, log.instance_id) > (COALESCE($7, '-infinity'), COALESCE($8, '00000000-0000-0000-0000-000000000000'))
+    AND NOT log.deleted
+    AND NOT ($4 AND COALESCE((instance.jsonb ->> 'discoverySuppress')::bool, false))
+    AND ($5 = 1 OR instance_shard(log.instance_id, $5) = $6)
+  ORDER BY log.changed_at, log.instance_id
+  LIMIT $9 )
+UNION ALL
+( SELECT (audit_instance.jsonb #>> '{record,id}')::uuid AS instanceId,
+         strToTimestamp(jsonb ->> 'createdDate')         AS maxDate,
+         false                                           AS suppressFromDiscovery,
+         true                                            AS deleted
+  FROM ${myuniversity}_${mymodule}.audit_instance
+  WHERE $3
+    AND strToTimestamp(jsonb ->> 'createdDate') BETWEEN GREATEST(dateOrMin($1), COALESCE($7, '-infinity')) AND dateOrMax($2)
+    AND (strToTimestamp(jsonb ->> 'createdDate'), (jsonb #>> '{record,id}')::uuid)
+        > (COALESCE($7, '-infinity'), COALESCE($8, '00000000-0000-0000-0000-000000000000'))
+    AND ($5 = 1 OR instance_shard((jsonb #>> '{record,id}')::uuid, $5) = $6)
+  ORDER BY 2, 1
+  LIMIT $9 )
+ORDER BY 2, 1
+LIMIT $9
+$BODY$ LANGUAGE sql STABLE;
+
+-- A page of get_updated_instance_ids_view, see pmh_get_updated_instances_ids_page. The branch
+-- of the instance update date seeks on instance_pmh_metadata_updateddate_idx, which ends with
+-- the instance id for that purpose.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.get_updated_instance_ids_page(startDate                          timestamptz,
+                                                                                     endDate                            timestamptz,
+                                                                                     deletedRecordSupport               bool,
+                                                                                     skipSuppressedFromDiscoveryRecords bool,
+                                                                                     onlyInstanceUpdateDate             bool,
+                                                                                     shards                             int,
+                                                                                     shard                              int,
+                                                                                     afterDate                          timestamptz,
+                                                                                     afterId                            uuid,
+                                                                                     maxRows                            int)
+    RETURNS TABLE
+            (
+                "instanceId"            uuid,
+                "source"                varchar,
+                "updatedDate"           timestamptz,
+                "suppressFromDiscovery" boolean,
+                "deleted"               boolean
+            )
+AS
+$BODY$
+( SELECT instance.id                                                    AS instanceId,
+         instance.jsonb ->> 'source'                                    AS source,
+         strToTimestamp(instance.jsonb -> 'metadata' ->> 'updatedDate') AS maxDate,
+         (instance.jsonb ->> 'discoverySuppress')::bool                 AS suppressFromDiscovery,
+         false                                                          AS deleted
+  FROM ${myuniversity}_${mymodule}.instance
+  WHERE $5
+    AND strToTimestamp(instance.jsonb -> 'metadata' ->> 'updatedDate') BETWEEN dateOrMin($1) AND dateOrMax($2)
+    AND (strToTimestamp(instance.jsonb -> 'metadata' ->> 'updatedDate'), instance.id)
+        > (COALESCE($8, '-infinity'), COALESCE($9, '00000000-0000-0000-0000-000000000000'))
+    AND NOT ($4 AND COALESCE((instance.jsonb ->> 'discoverySuppress')::bool, false))
+    AND ($6 = 1 OR instance_shard(instance.id, $6) = $7)
+  ORDER BY strToTimestamp(instance.jsonb -> 'metadata' ->> 'updatedDate'), instance.id
+  LIMIT $10 )
+UNION ALL
+( SELECT log.instance_id                                AS instanceId,
+         instance.jsonb ->> 'source'                    AS source,
+         log.changed_at                                 AS maxDate,
+         (instance.jsonb ->> 'discoverySuppress')::bool AS suppressFromDiscovery,
+         false                                          AS deleted
+  FROM ${myuniversity}_${mymodule}.instance_change_log log
+           JOIN ${myuniversity}_${mymodule}.instance ON instance.id = log.instance_id
+  WHERE NOT $5
+    AND log.changed_at BETWEEN dateOrMin($1) AND dateOrMax($2)
+    AND (log.changed_at, log.instance_id) > (COALESCE($8, '-infinity'), COALESCE($9, '00000000-0000-0000-0000-000000000000'))
+    AND NOT log.deleted
+    AND NOT ($4 AND COALESCE((instance.jsonb ->> 'discoverySuppress')::bool, false))
+    AND ($6 = 1 OR instance_shard(log.instance_id, $6) = $7)
+  ORDER BY log.changed_at, log.instance_id
+  LIMIT $10 )
+UNION ALL
+( SELECT (jsonb #>> '{record,id}')::uuid          AS instanceId,
+         jsonb #>> '{record,source}'             AS source,
+         strToTimestamp(jsonb ->> 'createdDate') AS maxDate,
+         false                                   AS suppressFromDiscovery,
+         true                                    AS deleted
+  FROM ${myuniversity}_${mymodule}.audit_instance
+  WHERE $3
+    AND strToTimestamp(jsonb ->> 'createdDate') BETWEEN GREATEST(dateOrMin($1), COALESCE($8, '-infinity')) AND dateOrMax($2)
+    AND (strToTimestamp(jsonb ->> 'createdDate'), (jsonb #>> '{record,id}')::uuid)
+        > (COALESCE($8, '-infinity'), COALESCE($9, '00000000-0000-0000-0000-000000000000'))
+    AND ($6 = 1 OR instance_shard((jsonb #>> '{record,id}')::uuid, $6) = $7)
+  ORDER BY 3, 1
+  LIMIT $10 )
+ORDER BY 3, 1
+LIMIT $10
+$BODY$ LANGUAGE sql STABLE;
+
+-- Splits the changes between startDate and endDate into parts with about the same number of
+-- changed instances, deleted instances are not counted. Changes with the same change date always
+-- fall into the same part, so there may be fewer parts than requested. Returns the first and the
+-- last change date of each part, consecutive parts are separated by one microsecond so that every
+-- change falls into exactly one part.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.get_harvest_plan(startDate timestamptz,
+                                                                        endDate   timestamptz,
+                                                                        parts     int)
+    RETURNS TABLE
+            (
+                "part"      int,
+                "startDate" timestamptz,
+                "endDate"   timestamptz,
+                "records"   bigint
+            )
+AS
+$BODY$
+WITH changes AS (
+  SELECT changed_at, count(*) AS records
+    FROM ${myuniversity}_${mymodule}.instance_change_log
+   WHERE changed_at BETWEEN dateOrMin($1) AND dateOrMax($2)
+     AND NOT deleted
+   GROUP BY changed_at
+), positions AS (
+  SELECT changed_at, records,
+         sum(records) OVER (ORDER BY changed_at) - records AS preceding,
+         sum(records) OVER () AS total
+    FROM changes
+), buckets AS (
+  SELECT floor(preceding * $3 / total) AS bucket, min(changed_at) AS firstChange, sum(records)::bigint AS records
+    FROM positions
+   GROUP BY 1
+), parts AS (
+  SELECT row_number() OVER (ORDER BY bucket) AS part, firstChange, records
+    FROM buckets
+)
+SELECT (part - 1)::int,
+       CASE WHEN part = 1 THEN $1 ELSE firstChange END,
+       COALESCE(lead(firstChange) OVER (ORDER BY part) - interval '1 microsecond', $2),
+       records
+  FROM parts
+ ORDER BY part
+$BODY$ LANGUAGE sql stable;
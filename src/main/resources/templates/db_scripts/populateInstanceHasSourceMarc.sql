@@ -0,0 +1,17 @@
+-- Sets the instance.hasSourceMarc column of the instances that already have a source record,
+-- see instanceSourceMarc.sql. Their jsonb already contains the matching sourceRecordFormat.
+ALTER TABLE ${myuniversity}_${mymodule}.instance
+  ADD COLUMN IF NOT EXISTS hasSourceMarc boolean NOT NULL DEFAULT false;
+
+START TRANSACTION;
+
+ALTER TABLE ${myuniversity}_${mymodule}.instance DISABLE TRIGGER USER;
+
+UPDATE ${myuniversity}_${mymodule}.instance
+  SET hasSourceMarc = true
+  WHERE id IN (SELECT id FROM ${myuniversity}_${mymodule}.instance_source_marc)
+    AND NOT hasSourceMarc;
+
+ALTER TABLE ${myuniversity}_${mymodule}.instance ENABLE TRIGGER USER;
+
+END TRANSACTION;
@@ -0,0 +1,52 @@
+-- Truncates the given tables for mode=truncate of the delete all endpoints.
+--
+-- Like a DELETE of all rows this fails with a foreign key violation if a table outside of the
+-- given tables refers to them and has rows; TRUNCATE ... CASCADE then only empties tables that
+-- are empty already. TRUNCATE does not fire the row triggers: no audit records are written, and
+-- instance_change_log and the instance hierarchy snapshots are updated here for all rows at once.
+CREATE OR REPLACE FUNCTION ${myuniversity}_${mymodule}.truncate_tables(tableNames text[]) RETURNS void
+AS $$
+  DECLARE
+    truncated   regclass[] := ARRAY(SELECT to_regclass('${myuniversity}_${mymodule}.' || tableName)
+                                      FROM unnest(tableNames) tableName);
+    referencing regclass;
+    hasRows     boolean;
+  BEGIN
+    FOR referencing IN
+      WITH RECURSIVE refs(rel) AS (
+        SELECT conrelid FROM pg_constraint WHERE contype = 'f' AND confrelid = ANY (truncated)
+        UNION
+        SELECT pg_constraint.conrelid
+          FROM pg_constraint JOIN refs ON pg_constraint.confrelid = refs.rel
+         WHERE pg_constraint.contype = 'f'
+      )
+      SELECT rel FROM refs WHERE rel <> ALL (truncated)
+    LOOP
+      EXECUTE format('SELECT EXISTS (SELECT 1 FROM %s)', referencing) INTO hasRows;
+      IF hasRows THEN
+        RAISE foreign_key_violation USING
+          MESSAGE = format('Cannot truncate %s, %s still has records referring to it',
+                           array_to_string(tableNames, ', '), referencing);
+      END IF;
+    END LOOP;
+
+    IF 'instance' = ANY (tableNames) THEN
+      TRUNCATE ${myuniversity}_${mymodule}.instance_change_log, ${myuniversity}_${mymodule}.instance_hierarchy_snapshot;
+    ELSE
+      IF 'holdings_record' = ANY (tableNames) THEN
+        INSERT INTO ${myuniversity}_${mymodule}.instance_change_log AS log (instance_id, changed_at, deleted)
+          SELECT DISTINCT instanceId, now(), false FROM ${myuniversity}_${mymodule}.holdings_record
+          ON CONFLICT (instance_id) DO UPDATE SET changed_at = greatest(log.changed_at, excluded.changed_at);
+      ELSIF 'item' = ANY (tableNames) THEN
+        INSERT INTO ${myuniversity}_${mymodule}.instance_change_log AS log (instance_id, changed_at, deleted)
+          SELECT DISTINCT hr.instanceId, now(), false
+            FROM ${myuniversity}_${mymodule}.holdings_record hr
+           WHERE EXISTS (SELECT 1 FROM ${myuniversity}_${mymodule}.item WHERE item.holdingsRecordId = hr.id)
+          ON CONFLICT (instance_id) DO UPDATE SET changed_at = greatest(log.changed_at, excluded.changed_at);
+      END IF;
+      PERFORM ${myuniversity}_${mymodule}.increment_instance_hierarchy_snapshot_generation();
+    END IF;
+
+    EXECUTE 'TRUNCATE ' || array_to_string(truncated::text[], ', ') || ' CASCADE';
+  END;
+$$ LANGUAGE plpgsql;
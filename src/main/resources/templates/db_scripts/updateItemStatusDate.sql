@@ -6,6 +6,10 @@ AS $$
   DECLARE
 	  newStatus text;
   BEGIN
+    -- bulk_load has set the status date already, see bulkLoad.sql
+    IF current_setting('inventory.bulk_load', true) = 'on' THEN
+      RETURN NEW;
+    END IF;
   	newStatus = NEW.jsonb->'status'->>'name';
 	  IF (newStatus IS DISTINCT FROM OLD.jsonb->'status'->>'name') THEN
 	    -- Date time in "YYYY-MM-DD"T"HH24:MI:SS.ms'Z'" format at UTC (00:00) time zone
@@ -6,6 +6,9 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.net.MalformedURLException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -28,6 +31,7 @@ import io.vertx.core.json.pointer.JsonPointer;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 import io.vertx.sqlclient.Row;
 import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
 
 @RunWith(VertxUnitRunner.class)
 public class AuditDeleteTest extends TestBaseWithInventoryUtil {
@@ -117,6 +121,54 @@ public class AuditDeleteTest extends TestBaseWithInventoryUtil {
     assertThat(getRecordIdFromAuditTable(AUDIT_HOLDINGS_RECORD), is(holdingsRecordId.toString()));
   }
 
+  @Test
+  public void testDeletedInstancesAreStoredInPartitionOfCurrentMonth() throws InterruptedException,
+    MalformedURLException, TimeoutException, ExecutionException {
+    //given
+    UUID instanceId = UUID.fromString(instancesClient.getAll().get(0).getString("id"));
+    //when
+    holdingsClient.deleteAll();
+    instancesClient.delete(instanceId);
+    //then
+    final String partition = selectSingle("SELECT c.relname FROM audit_instance a"
+      + " JOIN pg_class c ON c.oid = a.tableoid", Tuple.tuple()).getString(0);
+    assertThat(partition, is(AUDIT_INSTANCE + "_p"
+      + ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ofPattern("yyyy_MM"))));
+  }
+
+  @Test
+  public void testPartitionsOlderThanRetentionAreDropped() throws InterruptedException,
+    TimeoutException, ExecutionException {
+    //given
+    final ZonedDateTime threeYearsAgo = ZonedDateTime.now(ZoneOffset.UTC).minusYears(3);
+    final String partition = AUDIT_ITEM + "_p" + threeYearsAgo.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+    final UUID id = UUID.randomUUID();
+    selectSingle("INSERT INTO audit_item VALUES ($1, jsonb_build_object('createdDate', $2::text))",
+      Tuple.of(id, threeYearsAgo.toOffsetDateTime().toString()));
+    selectSingle("SELECT create_audit_partitions($1, $2, $2)",
+      Tuple.of(AUDIT_ITEM, threeYearsAgo.toOffsetDateTime()));
+    assertThat(selectSingle("SELECT count(*) FROM " + partition, Tuple.tuple()).getLong(0), is(1L));
+    //when
+    selectSingle("SELECT drop_audit_partitions($1, 24)", Tuple.of(AUDIT_ITEM));
+    //then
+    assertThat(selectSingle("SELECT to_regclass($1) IS NULL", Tuple.of(partition)).getBoolean(0), is(true));
+    assertThat(selectSingle("SELECT count(*) FROM audit_item WHERE id = $1", Tuple.of(id)).getLong(0), is(0L));
+  }
+
+  private Row selectSingle(String sql, Tuple params)
+    throws InterruptedException, TimeoutException, ExecutionException {
+
+    final CompletableFuture<Row> result = new CompletableFuture<>();
+    postgresClient.selectSingle(sql, params, h -> {
+      if (h.failed()) {
+        result.completeExceptionally(h.cause());
+        return;
+      }
+      result.complete(h.result());
+    });
+    return result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
   private Object getRecordIdFromAuditTable(String tableName)
     throws InterruptedException, TimeoutException, ExecutionException {
 
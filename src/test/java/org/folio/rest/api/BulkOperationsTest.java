@@ -0,0 +1,179 @@
+package org.folio.rest.api;
+
+import static org.folio.rest.api.StorageTestSuite.deleteAll;
+import static org.folio.rest.support.http.InterfaceUrls.holdingsStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.instancesStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.itemsStorageUrl;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.UUID;
+
+import org.folio.rest.support.Response;
+import org.folio.rest.support.builders.ItemRequestBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class BulkOperationsTest extends TestBaseWithInventoryUtil {
+
+  @Before
+  public void beforeEach() {
+    deleteAll(itemsStorageUrl(""));
+    deleteAll(holdingsStorageUrl(""));
+    deleteAll(instancesStorageUrl(""));
+  }
+
+  @Test
+  public void canBulkUpdateItems() throws Exception {
+    UUID a1 = createItem("A1", "Fiction");
+    UUID a2 = createItem("A1", null);
+    UUID b1 = createItem("B1", null);
+
+    Response response = post(itemsStorageUrl("/bulk-update"), new JsonObject()
+      .put("query", "itemLevelCallNumber==A1")
+      .put("patch", new JsonObject()
+        .put("itemLevelCallNumber", "C1")
+        .put("copyNumber", "c.2")
+        .putNull("itemLevelCallNumberPrefix")));
+
+    assertThat(response.getBody(), response.getStatusCode(), is(202));
+    JsonObject job = awaitStorageJob(response.getJson().getString("id"));
+    assertThat(job.getString("type"), is("BULK_UPDATE"));
+    assertThat(job.getString("status"), is("COMPLETED"));
+    assertThat(job.getInteger("total"), is(2));
+    assertThat(job.getInteger("processed"), is(2));
+    assertThat(job.getJsonArray("chunkCounts"), is(new JsonArray().add(2)));
+    for (UUID id : new UUID[] {a1, a2}) {
+      JsonObject item = itemsClient.getById(id).getJson();
+      assertThat(item.getString("itemLevelCallNumber"), is("C1"));
+      assertThat(item.getString("copyNumber"), is("c.2"));
+      assertThat(item.getString("itemLevelCallNumberPrefix"), is(nullValue()));
+      assertThat(item.getJsonObject("effectiveCallNumberComponents").getString("callNumber"), is("C1"));
+      assertThat(item.getJsonObject("effectiveCallNumberComponents").getString("prefix"), is(nullValue()));
+      assertThat(item.getJsonObject("metadata").getString("updatedDate"), is(notNullValue()));
+    }
+    assertThat(itemsClient.getById(b1).getJson().getString("itemLevelCallNumber"), is("B1"));
+  }
+
+  @Test
+  public void canBulkUpdateHoldingsAndTheirItemsEffectiveCallNumber() throws Exception {
+    UUID holdingsRecordId = createInstanceAndHolding(mainLibraryLocationId);
+    UUID itemId = itemsClient.create(new ItemRequestBuilder()
+      .forHolding(holdingsRecordId)
+      .withMaterialType(bookMaterialTypeId)
+      .withPermanentLoanType(canCirculateLoanTypeId)
+      .create()).getId();
+
+    Response response = post(holdingsStorageUrl("/bulk-update"), new JsonObject()
+      .put("query", "id==" + holdingsRecordId)
+      .put("patch", new JsonObject().put("callNumber", "H1")));
+
+    assertThat(response.getBody(), response.getStatusCode(), is(202));
+    assertThat(awaitStorageJob(response.getJson().getString("id")).getString("status"), is("COMPLETED"));
+    assertThat(holdingsClient.getById(holdingsRecordId).getJson().getString("callNumber"), is("H1"));
+    JsonObject item = itemsClient.getById(itemId).getJson();
+    assertThat(item.getJsonObject("effectiveCallNumberComponents").getString("callNumber"), is("H1"));
+  }
+
+  @Test
+  public void canBulkDeleteItems() throws Exception {
+    createItem("A1", null);
+    createItem("A1", null);
+    UUID b1 = createItem("B1", null);
+
+    Response response = post(itemsStorageUrl("/bulk-delete"),
+      new JsonObject().put("query", "itemLevelCallNumber==A1"));
+
+    assertThat(response.getBody(), response.getStatusCode(), is(202));
+    JsonObject job = awaitStorageJob(response.getJson().getString("id"));
+    assertThat(job.getString("type"), is("BULK_DELETE"));
+    assertThat(job.getString("status"), is("COMPLETED"));
+    assertThat(job.getInteger("processed"), is(2));
+    assertThat(itemsClient.getAll().size(), is(1));
+    assertThat(itemsClient.getById(b1).getStatusCode(), is(200));
+  }
+
+  @Test
+  public void bulkDeleteOfHoldingsWithItemsFails() throws Exception {
+    createItem("A1", null);
+
+    Response response = post(holdingsStorageUrl("/bulk-delete"),
+      new JsonObject().put("query", "cql.allRecords=1"));
+
+    assertThat(response.getBody(), response.getStatusCode(), is(202));
+    JsonObject job = awaitStorageJob(response.getJson().getString("id"));
+    assertThat(job.getString("status"), is("FAILED"));
+    assertThat(job.getString("errorMessage"), containsString("item"));
+    assertThat(holdingsClient.getAll().size(), is(1));
+  }
+
+  @Test
+  public void cannotBulkUpdateIdOrHrid() throws Exception {
+    Response response = post(itemsStorageUrl("/bulk-update"), new JsonObject()
+      .put("query", "cql.allRecords=1")
+      .put("patch", new JsonObject().put("hrid", "it1")));
+
+    assertThat(response.getStatusCode(), is(400));
+    assertThat(response.getBody(), containsString("hrid"));
+  }
+
+  @Test
+  public void cannotBulkUpdateUnknownProperty() throws Exception {
+    Response response = post(itemsStorageUrl("/bulk-update"), new JsonObject()
+      .put("query", "cql.allRecords=1")
+      .put("patch", new JsonObject().put("foo", "bar")));
+
+    assertThat(response.getStatusCode(), is(400));
+  }
+
+  @Test
+  public void cannotBulkUpdateRequiredPropertyToNull() throws Exception {
+    UUID itemId = createItem("A1", null);
+
+    Response response = post(itemsStorageUrl("/bulk-update"), new JsonObject()
+      .put("query", "cql.allRecords=1")
+      .put("patch", new JsonObject().putNull("materialTypeId")));
+
+    assertThat(response.getStatusCode(), is(400));
+    assertThat(response.getBody(), containsString("materialTypeId"));
+    assertThat(itemsClient.getById(itemId).getJson().getString("materialTypeId"), is(bookMaterialTypeID));
+  }
+
+  @Test
+  public void cannotBulkUpdateNestedRequiredPropertyToNull() throws Exception {
+    Response response = post(itemsStorageUrl("/bulk-update"), new JsonObject()
+      .put("query", "cql.allRecords=1")
+      .put("patch", new JsonObject().put("status", new JsonObject().putNull("name"))));
+
+    assertThat(response.getStatusCode(), is(400));
+    assertThat(response.getBody(), containsString("status.name"));
+  }
+
+  @Test
+  public void cannotBulkDeleteWithInvalidQuery() throws Exception {
+    Response response = post(holdingsStorageUrl("/bulk-delete"),
+      new JsonObject().put("query", "callNumber=="));
+
+    assertThat(response.getStatusCode(), is(400));
+  }
+
+  private UUID createItem(String callNumber, String prefix) throws Exception {
+    UUID holdingsRecordId = createInstanceAndHolding(mainLibraryLocationId);
+    return itemsClient.create(new ItemRequestBuilder()
+      .forHolding(holdingsRecordId)
+      .withMaterialType(bookMaterialTypeId)
+      .withPermanentLoanType(canCirculateLoanTypeId)
+      .withItemLevelCallNumber(callNumber)
+      .withItemLevelCallNumberPrefix(prefix)
+      .create()).getId();
+  }
+}
@@ -0,0 +1,142 @@
+package org.folio.rest.api;
+
+import static org.folio.rest.api.StorageTestSuite.TENANT_ID;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.services.ConcurrentIndexBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+
+@RunWith(VertxUnitRunner.class)
+public class ConcurrentIndexBuilderTest extends TestBase {
+  private static final String INDEX = "instance_pmh_metadata_updateddate_idx";
+  private static final String DEFINITION = "ON instance ((strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate')), id)";
+  private static final String SQL_INDEX = "SELECT c.oid::bigint, i.indisvalid, obj_description(c.oid, 'pg_class')"
+    + " FROM pg_class c JOIN pg_index i ON i.indexrelid = c.oid WHERE c.oid = to_regclass($1)";
+
+  @Before
+  public void beforeEach() {
+    // wait for the build started by the tenant initialization
+    build();
+  }
+
+  @Test
+  public void indexesAreUpToDate() {
+    assertThat(build(), is(nullValue()));
+
+    Row index = index(INDEX);
+    assertThat(index.getBoolean(1), is(true));
+    assertThat(index.getString(2), is(DEFINITION));
+  }
+
+  @Test
+  public void canBuildMissingIndex() {
+    execute("DROP INDEX " + INDEX);
+
+    StorageJob job = build();
+
+    assertThat(job.getType(), is(StorageJob.Type.INDEX_BUILD));
+    assertThat(job.getTotal(), is(1));
+    assertThat(job.getProcessed(), is(1));
+    JsonObject saved = awaitStorageJob(job.getId());
+    assertThat(saved.getString("status"), is("COMPLETED"));
+    assertThat(index(INDEX).getBoolean(1), is(true));
+    assertThat(index(INDEX).getString(2), is(DEFINITION));
+  }
+
+  @Test
+  public void canReplaceChangedIndex() {
+    long oid = index(INDEX).getLong(0);
+    execute("COMMENT ON INDEX " + INDEX + " IS 'ON instance (jsonb)'");
+
+    StorageJob job = build();
+
+    assertThat(awaitStorageJob(job.getId()).getString("status"), is("COMPLETED"));
+    Row index = index(INDEX);
+    assertThat(index.getLong(0), is(not(oid)));
+    assertThat(index.getBoolean(1), is(true));
+    assertThat(index.getString(2), is(DEFINITION));
+    assertThat(index(INDEX + "_new"), is(nullValue()));
+  }
+
+  @Test
+  public void replacesIndexWithoutComment() {
+    // the index as created by the scripts of older module versions
+    execute("DROP INDEX " + INDEX);
+    execute("CREATE INDEX " + INDEX + " ON instance ((strToTimestamp(jsonb -> 'metadata' ->> 'updatedDate')))");
+    long oid = index(INDEX).getLong(0);
+
+    StorageJob job = build();
+
+    assertThat(awaitStorageJob(job.getId()).getString("status"), is("COMPLETED"));
+    Row index = index(INDEX);
+    assertThat(index.getLong(0), is(not(oid)));
+    assertThat(index.getBoolean(1), is(true));
+    assertThat(index.getString(2), is(DEFINITION));
+    assertThat(indexDefinition(INDEX).endsWith(", id)"), is(true));
+  }
+
+  private StorageJob build() {
+    CompletableFuture<StorageJob> future = new CompletableFuture<>();
+    new ConcurrentIndexBuilder(StorageTestSuite.getVertx(), TENANT_ID).build().onComplete(result -> {
+      if (result.failed()) {
+        future.completeExceptionally(result.cause());
+        return;
+      }
+      future.complete(result.result());
+    });
+    return get(future);
+  }
+
+  private Row index(String name) {
+    CompletableFuture<Row> future = new CompletableFuture<>();
+    PostgresClient.getInstance(StorageTestSuite.getVertx(), TENANT_ID)
+      .selectSingle(SQL_INDEX, Tuple.of(name), result -> {
+        if (result.failed()) {
+          future.completeExceptionally(result.cause());
+          return;
+        }
+        future.complete(result.result());
+      });
+    return get(future);
+  }
+
+  private String indexDefinition(String name) {
+    CompletableFuture<String> future = new CompletableFuture<>();
+    PostgresClient.getInstance(StorageTestSuite.getVertx(), TENANT_ID)
+      .selectSingle("SELECT pg_get_indexdef(to_regclass($1))", Tuple.of(name), result -> {
+        if (result.failed()) {
+          future.completeExceptionally(result.cause());
+          return;
+        }
+        future.complete(result.result().getString(0));
+      });
+    return get(future);
+  }
+
+  private void execute(String sql) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    PostgresClient.getInstance(StorageTestSuite.getVertx(), TENANT_ID)
+      .execute(sql, result -> {
+        if (result.failed()) {
+          future.completeExceptionally(result.cause());
+          return;
+        }
+        future.complete(null);
+      });
+    get(future);
+  }
+}
@@ -0,0 +1,99 @@
+package org.folio.rest.api;
+
+import static org.folio.rest.api.StorageTestSuite.deleteAll;
+import static org.folio.rest.support.http.InterfaceUrls.holdingsStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.instancesStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.itemsStorageUrl;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.UUID;
+
+import org.folio.rest.support.Response;
+import org.folio.rest.support.builders.ItemRequestBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class DeleteAllTest extends TestBaseWithInventoryUtil {
+
+  @Before
+  public void beforeEach() {
+    deleteAll(itemsStorageUrl(""));
+    deleteAll(holdingsStorageUrl(""));
+    deleteAll(instancesStorageUrl(""));
+  }
+
+  @Test
+  public void canDeleteAllItemsInBackgroundJob() throws Exception {
+    createItems(3);
+
+    Response response = delete(itemsStorageUrl("?mode=async"));
+
+    assertThat(response.getStatusCode(), is(202));
+    JsonObject job = response.getJson();
+    assertThat(job.getString("type"), is("DELETE_ALL"));
+    assertThat(job.getString("resource"), is("/item-storage/items"));
+    job = awaitStorageJob(job.getString("id"));
+    assertThat(job.getString("status"), is("COMPLETED"));
+    assertThat(job.getInteger("processed"), is(3));
+    assertThat(itemsClient.getAll().size(), is(0));
+  }
+
+  @Test
+  public void canDeleteAllInstancesInChunks() throws Exception {
+    createItems(2);
+    deleteAll(itemsStorageUrl(""));
+    deleteAll(holdingsStorageUrl(""));
+
+    assertThat(delete(instancesStorageUrl("?mode=sync")).getStatusCode(), is(204));
+
+    assertThat(instancesClient.getAll().size(), is(0));
+  }
+
+  @Test
+  public void canTruncateItems() throws Exception {
+    createItems(2);
+
+    assertThat(delete(itemsStorageUrl("?mode=truncate")).getStatusCode(), is(204));
+
+    assertThat(itemsClient.getAll().size(), is(0));
+    assertThat(holdingsClient.getAll().size(), is(2));
+  }
+
+  @Test
+  public void cannotTruncateHoldingsWithItems() throws Exception {
+    createItems(1);
+
+    Response response = delete(holdingsStorageUrl("?mode=truncate"));
+
+    assertThat(response.getStatusCode(), is(400));
+    assertThat(response.getBody(), containsString("item"));
+    assertThat(holdingsClient.getAll().size(), is(1));
+  }
+
+  @Test
+  public void cannotDeleteAllHoldingsWithItems() throws Exception {
+    createItems(1);
+
+    assertThat(delete(holdingsStorageUrl("")).getStatusCode(), is(400));
+
+    assertThat(holdingsClient.getAll().size(), is(1));
+  }
+
+  private void createItems(int count) throws Exception {
+    for (int i = 0; i < count; i++) {
+      UUID holdingsRecordId = createInstanceAndHolding(mainLibraryLocationId);
+      createItem(new ItemRequestBuilder()
+        .forHolding(holdingsRecordId)
+        .withMaterialType(bookMaterialTypeId)
+        .withPermanentLoanType(canCirculateLoanTypeId)
+        .create());
+    }
+  }
+}
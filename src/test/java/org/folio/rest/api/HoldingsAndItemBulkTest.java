@@ -0,0 +1,122 @@
+package org.folio.rest.api;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.folio.rest.api.StorageTestSuite.TENANT_ID;
+import static org.folio.rest.support.ResponseHandler.any;
+import static org.folio.rest.support.ResponseHandler.json;
+import static org.folio.rest.support.http.InterfaceUrls.holdingsBulkUrl;
+import static org.folio.rest.support.http.InterfaceUrls.holdingsStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.instancesStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.itemBulkUrl;
+import static org.folio.rest.support.http.InterfaceUrls.itemsStorageUrl;
+import static org.folio.util.StringUtil.urlEncode;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.rest.support.Response;
+import org.folio.rest.support.builders.ItemRequestBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class HoldingsAndItemBulkTest extends TestBaseWithInventoryUtil {
+
+  @Before
+  public void beforeEach() {
+    StorageTestSuite.deleteAll(itemsStorageUrl(""));
+    StorageTestSuite.deleteAll(holdingsStorageUrl(""));
+    StorageTestSuite.deleteAll(instancesStorageUrl(""));
+  }
+
+  @Test
+  public void canGetHoldingsIdsAndInstanceIds() throws Exception {
+    UUID holdingsRecordId = createInstanceAndHolding(mainLibraryLocationId);
+    createInstanceAndHolding(secondFloorLocationId);
+    String instanceId = holdingsClient.getById(holdingsRecordId).getJson().getString("instanceId");
+
+    String query = urlEncode("permanentLocationId==" + mainLibraryLocationId);
+    JsonArray ids = getIds(holdingsBulkUrl("/ids?field=instanceId&query=" + query));
+
+    assertThat(ids.size(), is(1));
+    assertThat(ids.getJsonObject(0).getString("id"), is(holdingsRecordId.toString()));
+    assertThat(ids.getJsonObject(0).getString("instanceId"), is(instanceId));
+  }
+
+  @Test
+  public void canGetItemIdsOnly() throws Exception {
+    createItem("100001");
+    createItem("100002");
+
+    JsonArray ids = getIds(itemBulkUrl("/ids"));
+
+    assertThat(ids.size(), is(2));
+    assertThat(ids.getJsonObject(0).getString("id"), is(notNullValue()));
+    assertThat(ids.getJsonObject(0).getString("barcode"), is(nullValue()));
+  }
+
+  @Test
+  public void canGetItemIdsAndBarcodes() throws Exception {
+    UUID itemId = createItem("100001");
+    createItem("100002");
+
+    JsonArray ids = getIds(itemBulkUrl("/ids?field=barcode&query=" + urlEncode("barcode==100001")));
+
+    assertThat(ids.size(), is(1));
+    assertThat(ids.getJsonObject(0).getString("id"), is(itemId.toString()));
+    assertThat(ids.getJsonObject(0).getString("barcode"), is("100001"));
+    assertThat(ids.getJsonObject(0).getString("hrid"), is(nullValue()));
+  }
+
+  @Test
+  public void canGetItemIdsAndBarcodesAsText() throws Exception {
+    UUID itemId = createItem("100001");
+
+    CompletableFuture<Response> getCompleted = new CompletableFuture<>();
+    client.get(itemBulkUrl("/ids?field=barcode"), Map.of("Accept", "text/plain"), TENANT_ID, any(getCompleted));
+    Response response = getCompleted.get(5, SECONDS);
+
+    assertThat(response.getStatusCode(), is(HTTP_OK));
+    assertThat(response.getContentType(), is("text/plain"));
+    assertThat(response.getBody(), is(itemId + "\t100001\n"));
+  }
+
+  @Test
+  public void cannotGetIdsWithInvalidQuery() throws Exception {
+    CompletableFuture<Response> getCompleted = new CompletableFuture<>();
+    client.get(holdingsBulkUrl("/ids?query=" + urlEncode("callNumber==")), TENANT_ID, any(getCompleted));
+
+    assertThat(getCompleted.get(5, SECONDS).getStatusCode(), is(400));
+  }
+
+  private UUID createItem(String barcode) {
+    UUID holdingsRecordId = createInstanceAndHolding(mainLibraryLocationId);
+    return createItem(new ItemRequestBuilder()
+      .forHolding(holdingsRecordId)
+      .withBarcode(barcode)
+      .withMaterialType(bookMaterialTypeId)
+      .withPermanentLoanType(canCirculateLoanTypeId)).getId();
+  }
+
+  private JsonArray getIds(URL url) throws Exception {
+    CompletableFuture<Response> getCompleted = new CompletableFuture<>();
+    client.get(url, TENANT_ID, json(getCompleted));
+    Response response = getCompleted.get(5, SECONDS);
+    assertThat(response.getBody(), response.getStatusCode(), is(HTTP_OK));
+    JsonObject collection = response.getJson();
+    assertThat(collection.getInteger("totalRecords"), is(collection.getJsonArray("ids").size()));
+    return collection.getJsonArray("ids");
+  }
+}
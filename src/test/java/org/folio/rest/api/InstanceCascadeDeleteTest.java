@@ -0,0 +1,103 @@
+package org.folio.rest.api;
+
+import static org.folio.rest.api.StorageTestSuite.TENANT_ID;
+import static org.folio.rest.api.StorageTestSuite.deleteAll;
+import static org.folio.rest.support.http.InterfaceUrls.holdingsStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.instancesStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.itemsStorageUrl;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.UUID;
+
+import org.folio.rest.support.Response;
+import org.folio.rest.support.builders.ItemRequestBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class InstanceCascadeDeleteTest extends TestBaseWithInventoryUtil {
+
+  @Before
+  public void beforeEach() {
+    deleteAll(TENANT_ID, "preceding_succeeding_title");
+    deleteAll(itemsStorageUrl(""));
+    deleteAll(holdingsStorageUrl(""));
+    deleteAll(instancesStorageUrl(""));
+  }
+
+  @Test
+  public void cannotDeleteInstanceWithHoldingsWithoutCascade() throws Exception {
+    UUID instanceId = createInstanceWithItem();
+
+    Response response = delete(instancesStorageUrl("/" + instanceId));
+
+    assertThat(response.getStatusCode(), is(400));
+    assertThat(instancesClient.getById(instanceId).getStatusCode(), is(200));
+  }
+
+  @Test
+  public void canDeleteInstanceWithCascade() throws Exception {
+    UUID instanceId = createInstanceWithItem();
+    UUID otherInstanceId = UUID.randomUUID();
+    instancesClient.create(instance(otherInstanceId));
+    precedingSucceedingTitleClient.create(new JsonObject()
+      .put("precedingInstanceId", instanceId.toString())
+      .put("succeedingInstanceId", otherInstanceId.toString()));
+
+    Response response = delete(instancesStorageUrl("/" + instanceId + "?cascade=true"));
+
+    assertThat(response.getBody(), response.getStatusCode(), is(204));
+    assertThat(instancesClient.getById(instanceId).getStatusCode(), is(404));
+    assertThat(instancesClient.getById(otherInstanceId).getStatusCode(), is(200));
+    assertThat(holdingsClient.getAll().size(), is(0));
+    assertThat(itemsClient.getAll().size(), is(0));
+    assertThat(precedingSucceedingTitleClient.getAll().size(), is(0));
+  }
+
+  @Test
+  public void canCascadeDeleteListOfInstances() throws Exception {
+    UUID instanceId1 = createInstanceWithItem();
+    UUID instanceId2 = createInstanceWithItem();
+    UUID instanceId3 = createInstanceWithItem();
+
+    Response response = post(instancesStorageUrl("/cascade-delete"), new JsonObject()
+      .put("ids", new JsonArray().add(instanceId1.toString()).add(instanceId2.toString())));
+
+    assertThat(response.getBody(), response.getStatusCode(), is(204));
+    assertThat(instancesClient.getAll().size(), is(1));
+    assertThat(instancesClient.getById(instanceId3).getStatusCode(), is(200));
+    assertThat(holdingsClient.getAll().size(), is(1));
+    assertThat(itemsClient.getAll().size(), is(1));
+  }
+
+  @Test
+  public void cannotCascadeDeleteMoreThan1000Instances() throws Exception {
+    UUID instanceId = createInstanceWithItem();
+    JsonArray ids = new JsonArray().add(instanceId.toString());
+    for (int i = 0; i < 1000; i++) {
+      ids.add(UUID.randomUUID().toString());
+    }
+
+    Response response = post(instancesStorageUrl("/cascade-delete"), new JsonObject().put("ids", ids));
+
+    assertThat(response.getBody(), response.getStatusCode(), is(422));
+    assertThat(instancesClient.getById(instanceId).getStatusCode(), is(200));
+  }
+
+  private UUID createInstanceWithItem() {
+    UUID instanceId = UUID.randomUUID();
+    instancesClient.create(instance(instanceId));
+    UUID holdingsRecordId = createHolding(instanceId, mainLibraryLocationId, null);
+    createItem(new ItemRequestBuilder()
+      .forHolding(holdingsRecordId)
+      .withMaterialType(bookMaterialTypeId)
+      .withPermanentLoanType(canCirculateLoanTypeId));
+    return instanceId;
+  }
+}
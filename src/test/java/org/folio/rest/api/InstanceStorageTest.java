@@ -971,6 +971,21 @@ public class InstanceStorageTest extends TestBaseWithInventoryUtil {
     getMarcJsonNotFound(id);
   }
 
+  @Test
+  public void canKeepSourceRecordFormatOnInstanceAndSourceRecordUpdate() throws Exception {
+    UUID id = UUID.randomUUID();
+    createInstance(smallAngryPlanet(id));
+    put(id, marcJson);
+
+    JsonObject instance = instancesClient.getById(id).getJson();
+    instance.remove("sourceRecordFormat");
+    instancesClient.replace(id, instance.put("title", "Long Way to a Small Angry Planet"));
+    assertThat(getSourceRecordFormat(id), is("MARC-JSON"));
+
+    put(id, marcJson);
+    assertThat(getSourceRecordFormat(id), is("MARC-JSON"));
+  }
+
   @Test
   public void canDeleteSourceRecordWhenDeletingInstance() throws Exception {
     UUID id = UUID.randomUUID();
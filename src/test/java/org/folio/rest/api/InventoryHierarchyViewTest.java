@@ -319,6 +319,157 @@ public class InventoryHierarchyViewTest extends TestBaseWithInventoryUtil {
       ));
   }
 
+  @Test
+  public void servesRefreshedSnapshotsAndBuildsChangedInstancesFromTables() throws Exception {
+    // given
+    // one instance, 1 holding, 2 items, snapshots refreshed
+    params.put(QUERY_PARAM_NAME_SKIP_SUPPRESSED_FROM_DISCOVERY_RECORDS, "false");
+    refreshSnapshots();
+    assertThat(isSnapshotDirty(instanceIdPreDefined), is(false));
+    assertThat(getInventoryHierarchyInstances(params).get(0), hasAggregatedNumberOfItems(2));
+
+    // when
+    createItem(thirdFloorLocationId, "item barcode 3", "item effective call number 3", bookMaterialTypeId);
+    // then
+    // the snapshot is dirty unless the background refresher has rebuilt it already
+    assertThat(getInventoryHierarchyInstances(params).get(0), hasAggregatedNumberOfItems(3));
+
+    // when
+    refreshSnapshots();
+    // then
+    assertThat(isSnapshotDirty(instanceIdPreDefined), is(false));
+    assertThat(getInventoryHierarchyInstances(params).get(0), allOf(
+      hasCallNumberForItems("item effective call number 1", "item effective call number 2", "item effective call number 3"),
+      hasAggregatedNumberOfItems(3)));
+  }
+
+  @Test
+  public void canRequestFreshInventoryHierarchyItemsAndHoldings() throws Exception {
+    // given
+    // one instance, 1 holding, 2 items, snapshots refreshed
+    refreshSnapshots();
+    // when
+    List<JsonObject> snapshot = requestInventoryHierarchyItemsAndHoldingsViewInstance("",
+      new UUID[] { instanceIdPreDefined }, false, response -> assertThat(response.getStatusCode(), is(200)));
+    List<JsonObject> fresh = requestInventoryHierarchyItemsAndHoldingsViewInstance("?fresh=true",
+      new UUID[] { instanceIdPreDefined }, false, response -> assertThat(response.getStatusCode(), is(200)));
+    // then
+    assertThat(fresh.get(0), allOf(hasIdForInstance(instanceIdPreDefined.toString()), hasAggregatedNumberOfItems(2)));
+    assertThat(fresh, is(snapshot));
+  }
+
+  @Test
+  public void writesBumpTheSnapshotVersion() throws Exception {
+    // given
+    refreshSnapshots();
+    long version = selectSnapshot(instanceIdPreDefined).getLong("version");
+    // when
+    createItem(thirdFloorLocationId, "item barcode 3", "item effective call number 3", bookMaterialTypeId);
+    // then
+    // a refresh that read the snapshot before this write cannot clear its dirty flag
+    assertThat(selectSnapshot(instanceIdPreDefined).getLong("version") > version, is(true));
+  }
+
+  @Test
+  public void referenceDataChangeInvalidatesSnapshotsByGeneration() throws Exception {
+    // given
+    params.put(QUERY_PARAM_NAME_SKIP_SUPPRESSED_FROM_DISCOVERY_RECORDS, "false");
+    refreshSnapshots();
+    long version = selectSnapshot(instanceIdPreDefined).getLong("version");
+    // when
+    execute("UPDATE material_type SET jsonb = jsonb_set(jsonb, '{name}', '\"renamed book\"')"
+      + " WHERE id = '" + bookMaterialTypeId + "'");
+    // then
+    // the snapshot row is not rewritten, its generation is outdated
+    Row snapshot = selectSnapshot(instanceIdPreDefined);
+    assertThat(snapshot.getBoolean("dirty"), is(false));
+    assertThat(snapshot.getLong("version"), is(version));
+    assertThat(snapshot.getBoolean("current"), is(false));
+    List<JsonObject> served = requestInventoryHierarchyItemsAndHoldingsViewInstance("",
+      new UUID[] { instanceIdPreDefined }, false, response -> assertThat(response.getStatusCode(), is(200)));
+    List<JsonObject> fresh = requestInventoryHierarchyItemsAndHoldingsViewInstance("?fresh=true",
+      new UUID[] { instanceIdPreDefined }, false, response -> assertThat(response.getStatusCode(), is(200)));
+    assertThat(served, is(fresh));
+
+    // when
+    refreshSnapshots();
+    // then
+    assertThat(selectSnapshot(instanceIdPreDefined).getBoolean("current"), is(true));
+  }
+
+  @Test
+  public void lookupFunctionsMatchCorrelatedFunctions() throws Exception {
+    // every tenth record refers to an id without reference data
+    Row differing = execute("WITH ear AS (SELECT array_agg(id) AS ids FROM electronic_access_relationship),"
+      + " nt AS (SELECT array_agg(id) AS ids FROM item_note_type),"
+      + " hnt AS (SELECT array_agg(id) AS ids FROM holdings_note_type),"
+      + " sc AS (SELECT array_agg(id) AS ids FROM statistical_code),"
+      + " noc AS (SELECT array_agg(id) AS ids FROM nature_of_content_term),"
+      + " record AS (SELECT jsonb_build_object("
+      + "   'electronicAccess', jsonb_build_array(jsonb_build_object('uri', 'http://example.org/' || n,"
+      + "     'relationshipId', CASE WHEN n % 10 = 0 THEN md5('unknown' || n)::uuid ELSE ear.ids[1 + n % array_length(ear.ids, 1)] END)),"
+      + "   'notes', jsonb_build_array("
+      + "     jsonb_build_object('note', 'note ' || n, 'staffOnly', false,"
+      + "       'itemNoteTypeId', nt.ids[1 + n % array_length(nt.ids, 1)]),"
+      + "     jsonb_build_object('note', 'staff note ' || n, 'staffOnly', true,"
+      + "       'itemNoteTypeId', CASE WHEN n % 10 = 0 THEN md5('unknown' || n)::uuid ELSE nt.ids[1 + (n + 1) % array_length(nt.ids, 1)] END)),"
+      + "   'holdingsNotes', jsonb_build_array(jsonb_build_object('note', 'note ' || n, 'staffOnly', false,"
+      + "     'holdingsNoteTypeId', hnt.ids[1 + n % array_length(hnt.ids, 1)])),"
+      + "   'statisticalCodeIds', jsonb_build_array(sc.ids[1 + n % array_length(sc.ids, 1)],"
+      + "     CASE WHEN n % 10 = 0 THEN md5('unknown' || n)::uuid ELSE sc.ids[1 + (n + 1) % array_length(sc.ids, 1)] END),"
+      + "   'natureOfContentTermIds', jsonb_build_array(noc.ids[1 + n % array_length(noc.ids, 1)])) AS jsonb"
+      + "   FROM generate_series(1, 1000) AS n, ear, nt, hnt, sc, noc),"
+      + " lookups AS (SELECT electronicAccessRelationshipNames() AS earNames, itemNoteTypeNames() AS itemNoteTypes,"
+      + "   holdingsNoteTypeNames() AS holdingsNoteTypes, statisticalCodesById() AS statCodes,"
+      + "   natureOfContentTermNames() AS termNames)"
+      + " SELECT count(*) FROM record, lookups"
+      + " WHERE getElectronicAccessName(jsonb -> 'electronicAccess')"
+      + "   IS DISTINCT FROM getElectronicAccessName(jsonb -> 'electronicAccess', lookups.earNames)"
+      + " OR getItemNoteTypeName(jsonb -> 'notes') IS DISTINCT FROM getItemNoteTypeName(jsonb -> 'notes', lookups.itemNoteTypes)"
+      + " OR getHoldingNoteTypeName(jsonb -> 'holdingsNotes')"
+      + "   IS DISTINCT FROM getHoldingNoteTypeName(jsonb -> 'holdingsNotes', lookups.holdingsNoteTypes)"
+      + " OR getStatisticalCodes(jsonb -> 'statisticalCodeIds')"
+      + "   IS DISTINCT FROM getStatisticalCodes(jsonb -> 'statisticalCodeIds', lookups.statCodes)"
+      + " OR getNatureOfContentName(jsonb -> 'natureOfContentTermIds')"
+      + "   IS DISTINCT FROM getNatureOfContentName(jsonb -> 'natureOfContentTermIds', lookups.termNames)");
+
+    assertThat(differing.getLong(0), is(0L));
+  }
+
+  private void refreshSnapshots() throws Exception {
+    CompletableFuture<Row> future = new CompletableFuture<>();
+    postgresClient.selectSingle("SELECT refresh_instance_hierarchy_snapshots(1000)", handler -> {
+      if (handler.failed()) {
+        future.completeExceptionally(handler.cause());
+        return;
+      }
+      future.complete(handler.result());
+    });
+    future.get(5, TimeUnit.SECONDS);
+  }
+
+  private boolean isSnapshotDirty(UUID instanceId) throws Exception {
+    return selectSnapshot(instanceId).getBoolean("dirty");
+  }
+
+  private Row selectSnapshot(UUID instanceId) throws Exception {
+    return execute("SELECT dirty, version,"
+      + " generation = instance_hierarchy_snapshot_generation() AS current"
+      + " FROM instance_hierarchy_snapshot WHERE instance_id = '" + instanceId + "'");
+  }
+
+  private Row execute(String sql) throws Exception {
+    CompletableFuture<Row> future = new CompletableFuture<>();
+    postgresClient.selectSingle(sql, handler -> {
+      if (handler.failed()) {
+        future.completeExceptionally(handler.cause());
+        return;
+      }
+      future.complete(handler.result());
+    });
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
   private Predicate<Object> instancePredicate() {
     return jo -> StringUtils.equals(((JsonObject) jo).getString("instanceId"), instanceIdPreDefined.toString());
   }
@@ -385,6 +536,13 @@ public class InventoryHierarchyViewTest extends TestBaseWithInventoryUtil {
   private List<JsonObject> requestInventoryHierarchyItemsAndHoldingsViewInstance(UUID[] instanceIds, boolean skipSuppressedFromDiscoveryRecords,
       Handler<Response> responseMatcher) throws InterruptedException, ExecutionException, TimeoutException {
 
+    return requestInventoryHierarchyItemsAndHoldingsViewInstance("", instanceIds, skipSuppressedFromDiscoveryRecords, responseMatcher);
+  }
+
+  private List<JsonObject> requestInventoryHierarchyItemsAndHoldingsViewInstance(String queryParams, UUID[] instanceIds,
+      boolean skipSuppressedFromDiscoveryRecords, Handler<Response> responseMatcher)
+      throws InterruptedException, ExecutionException, TimeoutException {
+
     CompletableFuture<Response> future = new CompletableFuture<>();
     final List<JsonObject> results = new ArrayList<>();
 
@@ -392,7 +550,7 @@ public class InventoryHierarchyViewTest extends TestBaseWithInventoryUtil {
     instanceIdsPayload.setInstanceIds(Arrays.stream(instanceIds).map(UUID::toString).collect(Collectors.toList()));
     instanceIdsPayload.setSkipSuppressedFromDiscoveryRecords(skipSuppressedFromDiscoveryRecords);
 
-    client.post(inventoryHierarchyItemsAndHoldings(), instanceIdsPayload, TENANT_ID, ResponseHandler.any(future));
+    client.post(inventoryHierarchyItemsAndHoldings(queryParams), instanceIdsPayload, TENANT_ID, ResponseHandler.any(future));
 
     final Response response = future.get(2, TimeUnit.SECONDS);
     responseMatcher.handle(response);
@@ -0,0 +1,94 @@
+package org.folio.rest.api;
+
+import static org.folio.rest.api.StorageTestSuite.TENANT_ID;
+import static org.folio.rest.support.http.InterfaceUrls.inventoryStorageAdminUrl;
+import static org.folio.rest.support.http.InterfaceUrls.itemsStorageUrl;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.rest.support.Response;
+import org.folio.rest.support.ResponseHandler;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class InventoryStorageAdminTest extends TestBase {
+
+  @Test
+  public void canGetMetrics() {
+    CompletableFuture<Response> itemsCompleted = new CompletableFuture<>();
+    client.get(itemsStorageUrl("?limit=1"), TENANT_ID, ResponseHandler.json(itemsCompleted));
+    assertThat(get(itemsCompleted).getStatusCode(), is(200));
+
+    Response response = getText(inventoryStorageAdminUrl("/metrics"));
+
+    assertThat(response.getStatusCode(), is(200));
+    assertThat(response.getBody(), containsString(
+      "inventory_storage_requests_seconds_count{endpoint=\"GET /item-storage/items\",status=\"200\",tenant=\"" + TENANT_ID + "\",}"));
+  }
+
+  @Test
+  public void canGetAndDeleteSlowQueries() {
+    CompletableFuture<Response> getCompleted = new CompletableFuture<>();
+    client.get(inventoryStorageAdminUrl("/slow-queries"), TENANT_ID, ResponseHandler.json(getCompleted));
+    Response response = get(getCompleted);
+
+    assertThat(response.getStatusCode(), is(200));
+    assertThat(response.getJson().getInteger("totalRecords"),
+      is(response.getJson().getJsonArray("slowQueries").size()));
+
+    assertThat(get(client.delete(inventoryStorageAdminUrl("/slow-queries"), TENANT_ID)).getStatusCode(), is(204));
+
+    CompletableFuture<Response> getAgainCompleted = new CompletableFuture<>();
+    client.get(inventoryStorageAdminUrl("/slow-queries"), TENANT_ID, ResponseHandler.json(getAgainCompleted));
+    assertThat(get(getAgainCompleted).getJson().getInteger("totalRecords"), is(0));
+  }
+
+  @Test
+  public void canExplainQuery() throws Exception {
+    Response response = explain("table=item&query=" + URLEncoder.encode("barcode==123", "UTF-8"));
+
+    assertThat(response.getStatusCode(), is(200));
+    JsonObject queryPlan = response.getJson();
+    assertThat(queryPlan.getString("sql"), containsString("_mod_inventory_storage.item WHERE"));
+    assertThat(queryPlan.getBoolean("analyzed"), is(false));
+    assertThat(queryPlan.getJsonArray("plan").getJsonObject(0).containsKey("Plan"), is(true));
+    assertThat(queryPlan.getJsonArray("sequentialScans").size(), is(0));
+  }
+
+  @Test
+  public void canExplainAnalyzeQuery() throws Exception {
+    Response response = explain("table=instance&analyze=true&query=" + URLEncoder.encode("title=war", "UTF-8"));
+
+    assertThat(response.getStatusCode(), is(200));
+    JsonObject plan = response.getJson().getJsonArray("plan").getJsonObject(0);
+    assertThat(plan.containsKey("Execution Time"), is(true));
+  }
+
+  @Test
+  public void cannotExplainInvalidQuery() throws Exception {
+    Response response = explain("table=item&query=" + URLEncoder.encode("barcode==", "UTF-8"));
+
+    assertThat(response.getStatusCode(), is(400));
+  }
+
+  private Response explain(String parameters) {
+    CompletableFuture<Response> completed = new CompletableFuture<>();
+    client.get(inventoryStorageAdminUrl("/explain?" + parameters), TENANT_ID, ResponseHandler.any(completed));
+    return get(completed);
+  }
+
+  private Response getText(URL url) {
+    CompletableFuture<Response> completed = new CompletableFuture<>();
+    client.get(url, TENANT_ID, ResponseHandler.text(completed));
+    return get(completed);
+  }
+}
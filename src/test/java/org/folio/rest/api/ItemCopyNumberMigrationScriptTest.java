@@ -25,8 +25,6 @@ import org.junit.Test;
 import io.vertx.core.json.JsonObject;
 
 public class ItemCopyNumberMigrationScriptTest extends MigrationTestBase {
-  private static final String MIGRATION_SCRIPT = loadScript("migrateItemCopyNumberToSingleValue.sql");
-
   @Before
   public void beforeEach() {
     StorageTestSuite.deleteAll(itemsStorageUrl(""));
@@ -41,7 +39,7 @@ public class ItemCopyNumberMigrationScriptTest extends MigrationTestBase {
 
     setCopyNumbersArray(ids);
 
-    executeMultipleSqlStatements(MIGRATION_SCRIPT);
+    migrateCopyNumbers();
 
     assertCopyNumber(ids[0], "cp0");
     assertCopyNumber(ids[1], "cp1");
@@ -59,7 +57,7 @@ public class ItemCopyNumberMigrationScriptTest extends MigrationTestBase {
 
     setCopyNumbersArray(itemIdsWithCopyNumbers);
 
-    executeMultipleSqlStatements(MIGRATION_SCRIPT);
+    migrateCopyNumbers();
 
     assertCopyNumber(itemIdsWithCopyNumbers[0], "cp0");
     assertCopyNumber(itemIdsWithCopyNumbers[1], "cp1");
@@ -78,7 +76,7 @@ public class ItemCopyNumberMigrationScriptTest extends MigrationTestBase {
 
     setCopyNumbersArray(itemIdsWithCopyNumbers);
 
-    executeMultipleSqlStatements(MIGRATION_SCRIPT);
+    migrateCopyNumbers();
 
     assertNoCopyNumber(itemIdsWithNullCopyNumbers[0]);
     assertNoCopyNumber(itemIdsWithNullCopyNumbers[1]);
@@ -102,7 +100,7 @@ public class ItemCopyNumberMigrationScriptTest extends MigrationTestBase {
 
     setCopyNumbersArray(itemIdsWithCopyNumbers);
 
-    executeMultipleSqlStatements(MIGRATION_SCRIPT);
+    migrateCopyNumbers();
 
     assertCopyNumber(itemIdsWithCopyNumbers[0], "cp0");
     assertCopyNumber(itemIdsWithCopyNumbers[1], "cp1");
@@ -113,6 +111,11 @@ public class ItemCopyNumberMigrationScriptTest extends MigrationTestBase {
     assertNoCopyNumber(itemIdsWithoutCopyNumbers[1]);
   }
 
+  private void migrateCopyNumbers() {
+    JsonObject job = runMigration("item-copy-number-single-value", 1);
+    assertThat(job.encode(), job.getString("status"), is("COMPLETED"));
+  }
+
   private IndividualResource createItem() throws Exception {
     UUID holdingsRecordId = createInstanceAndHolding(mainLibraryLocationId);
 
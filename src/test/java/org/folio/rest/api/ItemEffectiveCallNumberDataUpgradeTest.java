@@ -19,7 +19,6 @@ import org.folio.rest.jaxrs.model.HoldingsRecord;
 import org.folio.rest.jaxrs.model.Item;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.support.builders.ItemRequestBuilder;
-import org.folio.util.ResourceUtil;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -38,9 +37,6 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
 
   private static Vertx vertx = Vertx.vertx();
   private static UUID instanceId = UUID.randomUUID();
-  private static final String POPULATE_EFFECTIVE_CALL_NUMBER_SQL = ResourceUtil
-      .asString("templates/db_scripts/populateEffectiveCallNumberComponentsForExistingItems.sql")
-      .replace("${myuniversity}_${mymodule}", "test_tenant_mod_inventory_storage");
 
   private ObjectMapper mapper = new ObjectMapper();
 
@@ -79,7 +75,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getCallNumber(),
       is(nullValue()));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     assertThat(
       getItem(item.getId()).getEffectiveCallNumberComponents().getCallNumber(),
@@ -106,7 +102,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getCallNumber(),
       is("testCallNumber"));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     assertThat(getHoldings(holding).getCallNumber(), is("updatedCallNumber"));
     assertThat(
@@ -136,7 +132,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getCallNumber(),
       is("testCallNumber"));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     Item populatedItem = getItem(item.getId());
 
@@ -161,7 +157,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getPrefix(),
       is(nullValue()));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     assertThat(
       getItem(item.getId()).getEffectiveCallNumberComponents().getPrefix(),
@@ -188,7 +184,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getPrefix(),
       is("testCallNumberPrefix"));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     assertThat(getHoldings(holding).getCallNumberPrefix(), is("updatedCallNumberPrefix"));
     assertThat(
@@ -218,7 +214,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getPrefix(),
       is("testCallNumberPrefix"));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     Item populatedItem = getItem(item.getId());
 
@@ -243,7 +239,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getSuffix(),
       is(nullValue()));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     assertThat(
       getItem(item.getId()).getEffectiveCallNumberComponents().getSuffix(),
@@ -270,7 +266,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getSuffix(),
       is("testCallNumberSuffix"));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     assertThat(getHoldings(holding).getCallNumberSuffix(), is("updatedCallNumberSuffix"));
     assertThat(
@@ -300,7 +296,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
       getItem(item.getId()).getEffectiveCallNumberComponents().getSuffix(),
       is("testCallNumberSuffix"));
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     Item populatedItem = getItem(item.getId());
 
@@ -330,7 +326,7 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
 
     removeEffectiveCallNumberComponents(itemId);
 
-    runSql(POPULATE_EFFECTIVE_CALL_NUMBER_SQL);
+    populateEffectiveCallNumberComponents();
 
     Item populatedItem = getItem(itemId);
 
@@ -360,6 +356,14 @@ public class ItemEffectiveCallNumberDataUpgradeTest extends TestBaseWithInventor
     assertNull(getItem(itemId).getEffectiveCallNumberComponents());
   }
 
+  /**
+   * Run the data migration that runs on mod-inventory-storage version upgrade.
+   */
+  private void populateEffectiveCallNumberComponents() {
+    JsonObject job = runMigration("item-effective-call-number-components", 2);
+    assertThat(job.encode(), job.getString("status"), is("COMPLETED"));
+  }
+
   private Item getItem(String id) throws Exception {
     return itemsClient.getById(UUID.fromString(id)).getJson().mapTo(Item.class);
   }
@@ -21,7 +21,6 @@ import org.folio.rest.jaxrs.model.Item;
 import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.support.IndividualResource;
 import org.folio.rest.support.http.InterfaceUrls;
-import org.folio.util.ResourceUtil;
 import org.junit.After;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -43,10 +42,6 @@ import static org.folio.rest.api.testdata.ItemEffectiveLocationTestDataProvider.
 public class ItemEffectiveLocationTest extends TestBaseWithInventoryUtil {
   private static Vertx vertx = Vertx.vertx();
   private static UUID instanceId = UUID.randomUUID();
-  /** The upgrading script that runs on mod-inventory-storage version upgrade.  */
-  private static final String POPULATE_EFFECTIVE_LOCATION_SQL =
-      ResourceUtil.asString("templates/db_scripts/populateEffectiveLocationForExistingItems.sql")
-      .replace("${myuniversity}_${mymodule}", "test_tenant_mod_inventory_storage");
 
   // for @BeforeClass beforeAny() see TestBaseWithInventoryUtil
 
@@ -144,6 +139,26 @@ public class ItemEffectiveLocationTest extends TestBaseWithInventoryUtil {
     assertEquals(itemWithTempLocationFetched.getEffectiveLocationId(), annexLibraryLocationId.toString());
   }
 
+  @Test
+  public void canCalculateEffectiveLocationWhenOneStatementUpdatesSeveralHoldings() throws Exception {
+    UUID holding1 = createInstanceAndHolding(mainLibraryLocationId);
+    UUID holding2 = createInstanceAndHolding(mainLibraryLocationId, annexLibraryLocationId);
+    Item item1 = buildItem(holding1, null, null);
+    Item item2 = buildItem(holding2, null, null);
+    Item item3 = buildItem(holding2, onlineLocationId, null);
+    createItem(item1);
+    createItem(item2);
+    createItem(item3);
+
+    runSql("UPDATE test_tenant_mod_inventory_storage.holdings_record "
+        + "SET jsonb = jsonb_set(jsonb, '{temporaryLocationId}', '\"" + secondFloorLocationId + "\"') "
+        + "WHERE id IN ('" + holding1 + "', '" + holding2 + "')");
+
+    assertEquals(secondFloorLocationId.toString(), getItem(item1.getId()).getEffectiveLocationId());
+    assertEquals(secondFloorLocationId.toString(), getItem(item2.getId()).getEffectiveLocationId());
+    assertEquals(onlineLocationId.toString(), getItem(item3.getId()).getEffectiveLocationId());
+  }
+
   /**
    * Test that creating an item and updating an item correctly sets the effectiveLocationId.
    *
@@ -316,26 +331,12 @@ public class ItemEffectiveLocationTest extends TestBaseWithInventoryUtil {
     }
   }
 
-  private void runSqlFile(String sqlFile) {
-    CompletableFuture<Void> future = new CompletableFuture<>();
-
-    PostgresClient.getInstance(vertx).runSQLFile(sqlFile, true, handler -> {
-      if (handler.failed()) {
-        future.completeExceptionally(handler.cause());
-        return;
-      }
-      if (! handler.result().isEmpty()) {
-        future.completeExceptionally(new RuntimeException("Failing SQL: " + handler.result().toString()));
-        return;
-      }
-      future.complete(null);
-    });
-
-    try {
-      future.get(1, TimeUnit.SECONDS);
-    } catch (InterruptedException | ExecutionException | TimeoutException e) {
-      throw new RuntimeException(e);
-    }
+  /**
+   * Run the data migration that runs on mod-inventory-storage version upgrade.
+   */
+  private void populateEffectiveLocation(int parallelism) {
+    JsonObject job = runMigration("item-effective-location", parallelism);
+    assertThat(job.encode(), job.getString("status"), is("COMPLETED"));
   }
 
   private void disableTriggers() {
@@ -345,7 +346,8 @@ public class ItemEffectiveLocationTest extends TestBaseWithInventoryUtil {
 
   private void enableTriggers() {
     runSql("create trigger update_effective_location_for_items after update on test_tenant_mod_inventory_storage.holdings_record "
-        + "for each row execute procedure test_tenant_mod_inventory_storage.update_effective_location_on_holding_update()");
+        + "referencing old table as old_holdings new table as new_holdings "
+        + "for each statement execute procedure test_tenant_mod_inventory_storage.update_effective_location_on_holding_update()");
     runSql("create trigger update_effective_location before insert or update on test_tenant_mod_inventory_storage.item "
         + "for each row execute procedure test_tenant_mod_inventory_storage.update_effective_location_on_item_update()");
   }
@@ -366,7 +368,7 @@ public class ItemEffectiveLocationTest extends TestBaseWithInventoryUtil {
     assertThat(getItem(item2.getId()).getEffectiveLocationId(), is(nullValue()));
 
     enableTriggers();
-    runSqlFile(POPULATE_EFFECTIVE_LOCATION_SQL);
+    populateEffectiveLocation(2);
 
     assertThat(getItem(item1.getId()).getEffectiveLocationId(), is(annexLibraryLocationId.toString()));
     assertThat(getItem(item2.getId()).getEffectiveLocationId(), is(fourthFloorLocationId.toString()));
@@ -388,7 +390,7 @@ public class ItemEffectiveLocationTest extends TestBaseWithInventoryUtil {
     assertThat(getItem(item.getId()).getEffectiveLocationId(), is(annexLibraryLocationId.toString()));
 
     enableTriggers();
-    runSql(POPULATE_EFFECTIVE_LOCATION_SQL);
+    populateEffectiveLocation(1);
 
     assertThat(getItem(item.getId()).getEffectiveLocationId(), is(mainLibraryLocationId.toString()));
   }
@@ -406,7 +408,7 @@ public class ItemEffectiveLocationTest extends TestBaseWithInventoryUtil {
     assertThat(getItem(item.getId()).getEffectiveLocationId(), is(fourthFloorLocationId.toString()));
 
     enableTriggers();
-    runSql(POPULATE_EFFECTIVE_LOCATION_SQL);
+    populateEffectiveLocation(1);
 
     assertThat(getItem(item.getId()).getEffectiveLocationId(), is(thirdFloorLocationId.toString()));
   }
@@ -922,6 +922,58 @@ public class ItemStorageTest extends TestBaseWithInventoryUtil {
     assertThat(postSynchronousBatchWithExistingId("?upsert=true"), statusCodeIs(HTTP_CREATED));
   }
 
+  @Test
+  public void canPostSynchronousBatchInBulkLoadMode() throws Exception {
+    JsonArray itemsArray = threeItems();
+    assertThat(postSynchronousBatch("?bulkLoad=true", itemsArray), statusCodeIs(HTTP_CREATED));
+
+    for (Object o : itemsArray) {
+      JsonObject item = (JsonObject) o;
+      JsonObject saved = itemsClient.getById(UUID.fromString(item.getString("id"))).getJson();
+      String expectedLocation = item.getString("temporaryLocationId",
+        item.getString("permanentLocationId", mainLibraryLocationId.toString()));
+      assertThat(saved.getString("effectiveLocationId"), is(expectedLocation));
+      assertThat(saved.getJsonObject("effectiveCallNumberComponents").getString("callNumber"),
+        is(item.getString("itemLevelCallNumber", "hrCallNumber")));
+    }
+  }
+
+  @Test
+  public void canUpsertSynchronousBatchInBulkLoadModeAndSetStatusDate() throws Exception {
+    JsonArray itemsArray = threeItems();
+    assertThat(postSynchronousBatch("?bulkLoad=true", itemsArray), statusCodeIs(HTTP_CREATED));
+    itemsArray.getJsonObject(0).put("status", new JsonObject().put("name", "Checked out"));
+
+    assertThat(postSynchronousBatch("?upsert=true&bulkLoad=true", itemsArray), statusCodeIs(HTTP_CREATED));
+
+    JsonObject changed = itemsClient.getById(UUID.fromString(itemsArray.getJsonObject(0).getString("id"))).getJson();
+    assertThat(changed.getJsonObject("status").getString("name"), is("Checked out"));
+    assertThat(changed.getJsonObject("status").getString("date"), is(notNullValue()));
+    JsonObject unchanged = itemsClient.getById(UUID.fromString(itemsArray.getJsonObject(1).getString("id"))).getJson();
+    assertThat(unchanged.getJsonObject("status").getString("date"), is(nullValue()));
+  }
+
+  @Test
+  public void cannotPostSynchronousBatchInBulkLoadModeWithExistingId() throws Exception {
+    JsonArray itemsArray = threeItems();
+    assertThat(postSynchronousBatch("?bulkLoad=true", itemsArray), statusCodeIs(HTTP_CREATED));
+
+    assertThat(postSynchronousBatch("?bulkLoad=true", itemsArray), statusCodeIs(HTTP_UNPROCESSABLE_ENTITY));
+  }
+
+  @Test
+  public void itemTriggersRunAgainAfterBulkLoad() throws Exception {
+    JsonArray itemsArray = threeItems();
+    assertThat(postSynchronousBatch("?bulkLoad=true", itemsArray), statusCodeIs(HTTP_CREATED));
+    UUID id = UUID.fromString(itemsArray.getJsonObject(0).getString("id"));
+
+    JsonObject item = itemsClient.getById(id).getJson();
+    item.put("status", new JsonObject().put("name", "Checked out"));
+    itemsClient.replace(id, item);
+
+    assertThat(itemsClient.getById(id).getJson().getJsonObject("status").getString("date"), is(notNullValue()));
+  }
+
   @Test
   public void canPostSynchronousBatchWithGeneratedHRID() {
     log.info("Starting canPostSynchronousBatchWithGeneratedHRID");
@@ -11,6 +11,7 @@ import static org.folio.rest.support.http.InterfaceUrls.locationsStorageUrl;
 import static org.folio.rest.support.http.InterfaceUrls.materialTypesStorageUrl;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.net.HttpURLConnection;
@@ -20,12 +21,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import org.folio.rest.persist.PostgresClient;
 import org.folio.rest.support.AdditionalHttpStatusCodes;
 import org.folio.rest.support.Response;
 import org.folio.rest.support.ResponseHandler;
 import org.folio.rest.support.client.LoanTypesClient;
 import org.folio.rest.support.client.MaterialTypesClient;
+import org.folio.rest.tools.utils.TenantTool;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -40,6 +44,7 @@ import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import io.vertx.sqlclient.Row;
 
 /* TODO: Missing tests
    - Bad inst/camp/lib in PUT
@@ -196,6 +201,49 @@ public class LocationsTest extends TestBaseWithInventoryUtil {
     assertThat(item.getString("name"), is("Annex Library"));
   }
 
+  @Test
+  public void locationHierarchyFollowsLocationAndLibraryChanges() throws Exception {
+    UUID id = UUID.randomUUID();
+    createLocation(id, "Main Library", "PI/CC/ML/X");
+
+    Row created = selectLocationHierarchy(id);
+    assertThat(created.getString("display_name"), is("d:Main Library"));
+    assertThat(created.getString("institution_name"), is("Primary Institution"));
+    assertThat(created.getString("campus_name"), is("Central Campus"));
+    assertThat(created.getString("library_name"), is("Main Library"));
+
+    JsonObject library = new JsonObject()
+      .put("id", libID.toString())
+      .put("name", "Renamed Library")
+      .put("code", "ML")
+      .put("campusId", campID.toString());
+    CompletableFuture<Response> updated = new CompletableFuture<>();
+    send(locLibraryStorageUrl("/" + libID), HttpMethod.PUT, library.toString(),
+      SUPPORTED_CONTENT_TYPE_JSON_DEF, ResponseHandler.any(updated));
+    assertThat(get(updated).getStatusCode(), is(HttpURLConnection.HTTP_NO_CONTENT));
+
+    assertThat(selectLocationHierarchy(id).getString("library_name"), is("Renamed Library"));
+
+    CompletableFuture<Response> deleted = new CompletableFuture<>();
+    send(locationsStorageUrl("/" + id), HttpMethod.DELETE, null,
+      SUPPORTED_CONTENT_TYPE_JSON_DEF, ResponseHandler.any(deleted));
+    assertThat(get(deleted).getStatusCode(), is(HttpURLConnection.HTTP_NO_CONTENT));
+    assertThat(selectLocationHierarchy(id), is(nullValue()));
+  }
+
+  private static Row selectLocationHierarchy(UUID locationId) throws Exception {
+    CompletableFuture<Row> future = new CompletableFuture<>();
+    PostgresClient.getInstance(StorageTestSuite.getVertx(), TenantTool.calculateTenantId(StorageTestSuite.TENANT_ID))
+      .selectSingle("SELECT * FROM location_hierarchy WHERE location_id = '" + locationId + "'", handler -> {
+        if (handler.failed()) {
+          future.completeExceptionally(handler.cause());
+          return;
+        }
+        future.complete(handler.result());
+      });
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
   @Test
   public void cannotUpdateId() {
 
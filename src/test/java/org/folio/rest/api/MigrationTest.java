@@ -0,0 +1,227 @@
+package org.folio.rest.api;
+
+import static org.folio.rest.api.StorageTestSuite.TENANT_ID;
+import static org.folio.rest.api.StorageTestSuite.deleteAll;
+import static org.folio.rest.support.http.InterfaceUrls.holdingsStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.instancesStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.itemsStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.migrationsUrl;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.folio.rest.jaxrs.model.MigrationRange;
+import org.folio.rest.jaxrs.model.StorageJob;
+import org.folio.rest.persist.PostgresClient;
+import org.folio.rest.support.Response;
+import org.folio.rest.support.ResponseHandler;
+import org.folio.rest.support.builders.ItemRequestBuilder;
+import org.folio.services.MigrationService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+@RunWith(VertxUnitRunner.class)
+public class MigrationTest extends TestBaseWithInventoryUtil {
+  private static final String MIGRATION = "item-effective-call-number-components";
+  /** In the first of two ranges. */
+  private static final UUID LOW_ID = UUID.fromString("10000000-0000-4000-8000-000000000000");
+  /** In the second of two ranges. */
+  private static final UUID HIGH_ID = UUID.fromString("c0000000-0000-4000-8000-000000000000");
+
+  @Before
+  public void beforeEach() {
+    deleteAll(itemsStorageUrl(""));
+    deleteAll(holdingsStorageUrl(""));
+    deleteAll(instancesStorageUrl(""));
+  }
+
+  @Test
+  public void canListMigrations() {
+    CompletableFuture<Response> getCompleted = new CompletableFuture<>();
+    client.get(migrationsUrl(""), TENANT_ID, ResponseHandler.json(getCompleted));
+    Response response = get(getCompleted);
+
+    assertThat(response.getStatusCode(), is(200));
+    List<String> names = response.getJson().getJsonArray("migrations").stream()
+      .map(migration -> ((JsonObject) migration).getString("name"))
+      .collect(Collectors.toList());
+    assertThat(names, hasItems("item-effective-location", MIGRATION, "item-copy-number-single-value"));
+  }
+
+  @Test
+  public void canListLatestJobOfMigration() {
+    JsonObject job = runMigration(MIGRATION, 1);
+
+    CompletableFuture<Response> getCompleted = new CompletableFuture<>();
+    client.get(migrationsUrl(""), TENANT_ID, ResponseHandler.json(getCompleted));
+    Response response = get(getCompleted);
+
+    assertThat(response.getStatusCode(), is(200));
+    JsonObject migration = response.getJson().getJsonArray("migrations").stream()
+      .map(JsonObject.class::cast)
+      .filter(m -> MIGRATION.equals(m.getString("name")))
+      .findFirst().orElseThrow(AssertionError::new);
+    assertThat(migration.getString("jobId"), is(job.getString("id")));
+    assertThat(migration.getString("jobStatus"), is("COMPLETED"));
+  }
+
+  @Test
+  public void canMigrateRangesInParallel() throws Exception {
+    createItem(LOW_ID, "A1");
+    createItem(HIGH_ID, "B1");
+    removeEffectiveCallNumberComponents();
+
+    JsonObject job = runMigration(MIGRATION, 4);
+
+    assertThat(job.getString("type"), is("MIGRATION"));
+    assertThat(job.getString("migration"), is(MIGRATION));
+    assertThat(job.getString("status"), is("COMPLETED"));
+    assertThat(job.getInteger("processed"), is(2));
+    JsonArray ranges = job.getJsonArray("ranges");
+    assertThat(ranges.size(), is(4));
+    assertThat(ranges.getJsonObject(0).getString("to"), is("40000000-0000-0000-0000-000000000000"));
+    assertThat(ranges.getJsonObject(3).getString("after"), is("c0000000-0000-0000-0000-000000000000"));
+    for (int i = 0; i < ranges.size(); i++) {
+      assertThat(ranges.getJsonObject(i).getBoolean("completed"), is(true));
+    }
+    assertThat(effectiveCallNumber(LOW_ID), is("A1"));
+    assertThat(effectiveCallNumber(HIGH_ID), is("B1"));
+  }
+
+  @Test
+  public void canResumeFailedJobAfterCompletedRanges() throws Exception {
+    createItem(LOW_ID, "A1");
+    createItem(HIGH_ID, "B1");
+    removeEffectiveCallNumberComponents();
+    String jobId = UUID.randomUUID().toString();
+    saveJob(new StorageJob()
+      .withId(jobId)
+      .withType(StorageJob.Type.MIGRATION)
+      .withResource("/item-storage/items")
+      .withMigration(MIGRATION)
+      .withParallelism(2)
+      .withRanges(Arrays.asList(
+        new MigrationRange().withTo("80000000-0000-0000-0000-000000000000").withCompleted(true),
+        new MigrationRange().withAfter("80000000-0000-0000-0000-000000000000").withCompleted(false)))
+      .withStatus(StorageJob.Status.FAILED)
+      .withProcessed(0)
+      .withChunkCounts(null)
+      .withStartedDate(new Date())
+      .withErrorMessage("terminating connection due to administrator command"));
+
+    Response response = post(migrationsUrl("/jobs/" + jobId + "/resume"), null);
+
+    assertThat(response.getBody(), response.getStatusCode(), is(202));
+    JsonObject job = awaitStorageJob(jobId);
+    assertThat(job.getString("status"), is("COMPLETED"));
+    assertThat(job.containsKey("errorMessage"), is(false));
+    assertThat(job.getJsonArray("ranges").getJsonObject(1).getString("lastId"), is(HIGH_ID.toString()));
+    // the completed range is not migrated again
+    assertThat(effectiveCallNumber(LOW_ID), is(nullValue()));
+    assertThat(effectiveCallNumber(HIGH_ID), is("B1"));
+  }
+
+  @Test
+  public void resumesInterruptedJob() throws Exception {
+    createItem(HIGH_ID, "B1");
+    removeEffectiveCallNumberComponents();
+    String jobId = UUID.randomUUID().toString();
+    // the job as a restart of the module left it behind
+    saveJob(new StorageJob()
+      .withId(jobId)
+      .withType(StorageJob.Type.MIGRATION)
+      .withResource("/item-storage/items")
+      .withMigration(MIGRATION)
+      .withParallelism(1)
+      .withRanges(Arrays.asList(new MigrationRange().withCompleted(false)))
+      .withStatus(StorageJob.Status.IN_PROGRESS)
+      .withProcessed(0)
+      .withChunkCounts(null)
+      .withStartedDate(new Date()));
+
+    MigrationService.resumeInterrupted(StorageTestSuite.getVertx(), TENANT_ID);
+
+    assertThat(awaitStorageJob(jobId).getString("status"), is("COMPLETED"));
+    assertThat(effectiveCallNumber(HIGH_ID), is("B1"));
+  }
+
+  @Test
+  public void cannotResumeCompletedJob() {
+    JsonObject job = runMigration(MIGRATION, 1);
+
+    Response response = post(migrationsUrl("/jobs/" + job.getString("id") + "/resume"), null);
+
+    assertThat(response.getStatusCode(), is(400));
+    assertThat(response.getBody(), is("Job " + job.getString("id") + " has completed"));
+  }
+
+  @Test
+  public void cannotResumeUnknownJob() {
+    Response response = post(migrationsUrl("/jobs/" + UUID.randomUUID() + "/resume"), null);
+
+    assertThat(response.getStatusCode(), is(404));
+  }
+
+  @Test
+  public void cannotStartUnknownMigration() {
+    Response response = post(migrationsUrl("/jobs"), new JsonObject().put("migration", "foo"));
+
+    assertThat(response.getStatusCode(), is(400));
+    assertThat(response.getBody(), is("Unknown migration: foo"));
+  }
+
+  private void createItem(UUID id, String callNumber) throws Exception {
+    UUID holdingsRecordId = createInstanceAndHolding(mainLibraryLocationId);
+    itemsClient.create(new ItemRequestBuilder()
+      .forHolding(holdingsRecordId)
+      .withMaterialType(bookMaterialTypeId)
+      .withPermanentLoanType(canCirculateLoanTypeId)
+      .withItemLevelCallNumber(callNumber)
+      .create()
+      .put("id", id.toString()));
+  }
+
+  private String effectiveCallNumber(UUID itemId) throws Exception {
+    JsonObject components = itemsClient.getById(itemId).getJson().getJsonObject("effectiveCallNumberComponents");
+    return components == null ? null : components.getString("callNumber");
+  }
+
+  private void removeEffectiveCallNumberComponents() {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    PostgresClient.getInstance(StorageTestSuite.getVertx(), TENANT_ID)
+      .execute("UPDATE item SET jsonb = jsonb - 'effectiveCallNumberComponents'", result -> {
+        if (result.failed()) {
+          future.completeExceptionally(result.cause());
+          return;
+        }
+        future.complete(null);
+      });
+    get(future);
+  }
+
+  private void saveJob(StorageJob job) {
+    CompletableFuture<String> future = new CompletableFuture<>();
+    PostgresClient.getInstance(StorageTestSuite.getVertx(), TENANT_ID)
+      .upsert("storage_job", job.getId(), job, result -> {
+        if (result.failed()) {
+          future.completeExceptionally(result.cause());
+          return;
+        }
+        future.complete(result.result());
+      });
+    get(future);
+  }
+}
@@ -8,6 +8,7 @@ import static org.folio.rest.support.http.InterfaceUrls.instancesStorageUrl;
 import static org.folio.rest.support.http.InterfaceUrls.itemsStorageUrl;
 import static org.folio.rest.support.http.InterfaceUrls.oaiPmhView;
 import static org.folio.rest.support.http.InterfaceUrls.oaiPmhViewEnrichedInstances;
+import static org.folio.rest.support.http.InterfaceUrls.oaiPmhViewHarvestPlan;
 import static org.folio.rest.support.http.InterfaceUrls.oaiPmhViewUpdatedInstanceIds;
 import static org.folio.rest.support.matchers.OaiPmhResponseMatchers.hasAggregatedNumberOfItems;
 import static org.folio.rest.support.matchers.OaiPmhResponseMatchers.hasCallNumber;
@@ -15,17 +16,23 @@ import static org.folio.rest.support.matchers.OaiPmhResponseMatchers.hasEffectiv
 import static org.folio.rest.support.matchers.OaiPmhResponseMatchers.isDeleted;
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.ByteArrayInputStream;
 import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -34,6 +41,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -50,7 +58,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
@@ -335,6 +346,237 @@ public class OaiPmhViewTest extends TestBaseWithInventoryUtil {
         hasAggregatedNumberOfItems(3), hasEffectiveLocationInstitutionName("Primary Institution")));
   }
 
+  @Test
+  public void canRequestOaiPmhViewUpdatedInstanceIdsAsNdjson() throws Exception {
+    CompletableFuture<HttpClientResponse> responseFuture = new CompletableFuture<>();
+    CompletableFuture<Buffer> bodyFuture = new CompletableFuture<>();
+
+    client.get(oaiPmhViewUpdatedInstanceIds(""), Map.of("Accept", "application/x-ndjson"),
+      TENANT_ID, response -> {
+        responseFuture.complete(response);
+        response.bodyHandler(bodyFuture::complete);
+      });
+
+    HttpClientResponse response = responseFuture.get(5, TimeUnit.SECONDS);
+    String body = bodyFuture.get(5, TimeUnit.SECONDS).toString();
+
+    assertThat(response.statusCode(), is(200));
+    assertThat(response.getHeader("Content-Type"), is("application/x-ndjson"));
+    assertThat(body.endsWith("\n"), is(true));
+    String[] lines = body.split("\n");
+    assertThat(lines.length, is(1));
+    assertThat(new JsonObject(lines[0]).getString("instanceid"), is(instanceId1.toString()));
+  }
+
+  @Test
+  public void ndjsonWithQualityZeroIsNotSelected() throws Exception {
+    CompletableFuture<HttpClientResponse> responseFuture = new CompletableFuture<>();
+
+    client.get(oaiPmhViewUpdatedInstanceIds(""),
+      Map.of("Accept", "application/x-ndjson;q=0, application/json", "Accept-Encoding", "gzip; q=0"),
+      TENANT_ID, response -> {
+        responseFuture.complete(response);
+        response.bodyHandler(body -> { });
+      });
+
+    HttpClientResponse response = responseFuture.get(5, TimeUnit.SECONDS);
+
+    assertThat(response.statusCode(), is(200));
+    assertThat(response.getHeader("Content-Type"), is(not("application/x-ndjson")));
+    assertThat(response.getHeader("Content-Encoding"), is(nullValue()));
+  }
+
+  @Test
+  public void canRequestGzipCompressedOaiPmhViewUpdatedInstanceIds() throws Exception {
+    CompletableFuture<HttpClientResponse> responseFuture = new CompletableFuture<>();
+    CompletableFuture<Buffer> bodyFuture = new CompletableFuture<>();
+
+    client.get(oaiPmhViewUpdatedInstanceIds(""), Map.of("Accept-Encoding", "gzip"),
+      TENANT_ID, response -> {
+        responseFuture.complete(response);
+        response.bodyHandler(bodyFuture::complete);
+      });
+
+    HttpClientResponse response = responseFuture.get(5, TimeUnit.SECONDS);
+    byte[] compressed = bodyFuture.get(5, TimeUnit.SECONDS).getBytes();
+
+    assertThat(response.statusCode(), is(200));
+    assertThat(response.getHeader("Content-Encoding"), is("gzip"));
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      JsonObject instance = new JsonObject(new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+      assertThat(instance.getString("instanceid"), is(instanceId1.toString()));
+    }
+  }
+
+  @Test
+  public void canHarvestOaiPmhViewUpdatedInstanceIdsInPages() throws Exception {
+    createInstanceAndHolding(mainLibraryLocationId);
+
+    HttpClientResponse[] page1 = new HttpClientResponse[1];
+    String body1 = requestUpdatedInstanceIdsAsNdjson("?limit=1", page1);
+    String token = page1[0].trailers().get("X-Resumption-Token");
+    assertThat(body1.split("\n").length, is(1));
+    assertThat(token != null, is(true));
+
+    HttpClientResponse[] page2 = new HttpClientResponse[1];
+    String body2 = requestUpdatedInstanceIdsAsNdjson("?limit=1&resumptionToken=" + token, page2);
+    assertThat(body2.split("\n").length, is(1));
+    String id1 = new JsonObject(body1.trim()).getString("instanceid");
+    String id2 = new JsonObject(body2.trim()).getString("instanceid");
+    assertThat(id1.equals(id2), is(false));
+
+    String token2 = page2[0].trailers().get("X-Resumption-Token");
+    String body3 = requestUpdatedInstanceIdsAsNdjson("?limit=1&resumptionToken=" + token2,
+      new HttpClientResponse[1]);
+    assertThat(body3, is(""));
+  }
+
+  @Test
+  public void cannotHarvestOaiPmhViewUpdatedInstanceIdsWithInvalidResumptionToken() throws Exception {
+    HttpClientResponse[] response = new HttpClientResponse[1];
+    requestUpdatedInstanceIdsAsNdjson("?resumptionToken=invalid", response);
+
+    assertThat(response[0].statusCode(), is(400));
+  }
+
+  @Test
+  public void cannotHarvestOaiPmhViewUpdatedInstanceIdsInPagesWithInvalidStartDate() throws Exception {
+    HttpClientResponse[] response = new HttpClientResponse[1];
+    requestUpdatedInstanceIdsAsNdjson("?limit=1&startDate=invalid", response);
+
+    assertThat(response[0].statusCode(), is(400));
+  }
+
+  @Test
+  public void canHarvestOaiPmhViewUpdatedInstanceIdsInShards() throws Exception {
+    createInstanceAndHolding(mainLibraryLocationId);
+    createInstanceAndHolding(mainLibraryLocationId);
+    Set<String> all = instanceIds(requestUpdatedInstanceIdsAsNdjson("", new HttpClientResponse[1]));
+
+    Set<String> shard0 = instanceIds(requestUpdatedInstanceIdsAsNdjson("?shards=2&shard=0", new HttpClientResponse[1]));
+    Set<String> shard1 = instanceIds(requestUpdatedInstanceIdsAsNdjson("?shards=2&shard=1", new HttpClientResponse[1]));
+
+    assertThat(all.size(), is(3));
+    assertThat(shard0.size() + shard1.size(), is(3));
+    Set<String> union = new HashSet<>(shard0);
+    union.addAll(shard1);
+    assertThat(union, is(all));
+    for (String id : shard1) {
+      assertThat(Long.parseLong(id.substring(0, 8), 16) % 2, is(1L));
+    }
+  }
+
+  @Test
+  public void cannotHarvestOaiPmhViewUpdatedInstanceIdsWithShardOutsideShards() throws Exception {
+    HttpClientResponse[] response = new HttpClientResponse[1];
+    requestUpdatedInstanceIdsAsNdjson("?shards=2&shard=2", response);
+
+    assertThat(response[0].statusCode(), is(400));
+  }
+
+  @Test
+  public void canGetHarvestPlan() throws Exception {
+    createInstanceAndHolding(mainLibraryLocationId);
+    CompletableFuture<Response> future = new CompletableFuture<>();
+
+    client.get(oaiPmhViewHarvestPlan("?parts=2&startDate=2000-01-01T00:00:00Z"), TENANT_ID, ResponseHandler.json(future));
+
+    JsonObject plan = future.get(5, TimeUnit.SECONDS).getJson();
+    assertThat(plan.getInteger("totalRecords"), is(2));
+    JsonArray parts = plan.getJsonArray("parts");
+    assertThat(parts.size(), is(2));
+    assertThat(parts.getJsonObject(0).getString("startDate"), is("2000-01-01T00:00Z"));
+    assertThat(parts.getJsonObject(0).getInteger("records"), is(1));
+    assertThat(parts.getJsonObject(1).containsKey("endDate"), is(false));
+    OffsetDateTime firstEnd = OffsetDateTime.parse(parts.getJsonObject(0).getString("endDate"));
+    OffsetDateTime secondStart = OffsetDateTime.parse(parts.getJsonObject(1).getString("startDate"));
+    assertThat(firstEnd.plusNanos(1000), is(secondStart));
+  }
+
+  @Test
+  public void harvestPlanKeepsTiedChangesInOnePart() throws Exception {
+    createInstanceAndHolding(mainLibraryLocationId);
+    createInstanceAndHolding(mainLibraryLocationId);
+    createInstanceAndHolding(mainLibraryLocationId);
+    executeSql("UPDATE instance_change_log SET changed_at = CASE WHEN instance_id = '" + instanceId1
+      + "' THEN timestamptz '2020-01-02T00:00:00Z' ELSE timestamptz '2020-01-01T00:00:00Z' END");
+    CompletableFuture<Response> future = new CompletableFuture<>();
+
+    client.get(oaiPmhViewHarvestPlan("?parts=2&startDate=2000-01-01T00:00:00Z"), TENANT_ID, ResponseHandler.json(future));
+
+    JsonObject plan = future.get(5, TimeUnit.SECONDS).getJson();
+    assertThat(plan.getInteger("totalRecords"), is(4));
+    JsonArray parts = plan.getJsonArray("parts");
+    assertThat(parts.size(), is(2));
+    // a row-based split would put two of the three changes at the same date into different parts
+    assertThat(parts.getJsonObject(0).getInteger("records"), is(3));
+    assertThat(parts.getJsonObject(1).getInteger("records"), is(1));
+    assertThat(OffsetDateTime.parse(parts.getJsonObject(1).getString("startDate")),
+      is(OffsetDateTime.parse("2020-01-02T00:00:00Z")));
+  }
+
+  private Set<String> instanceIds(String ndjson) {
+    return Arrays.stream(ndjson.split("\n"))
+      .filter(StringUtils::isNotBlank)
+      .map(line -> new JsonObject(line).getString("instanceid"))
+      .collect(Collectors.toSet());
+  }
+
+  private String requestUpdatedInstanceIdsAsNdjson(String query, HttpClientResponse[] response)
+    throws Exception {
+
+    CompletableFuture<Buffer> bodyFuture = new CompletableFuture<>();
+
+    client.get(oaiPmhViewUpdatedInstanceIds(query), Map.of("Accept", "application/x-ndjson"),
+      TENANT_ID, r -> {
+        response[0] = r;
+        r.bodyHandler(bodyFuture::complete);
+      });
+
+    return bodyFuture.get(5, TimeUnit.SECONDS).toString();
+  }
+
+  @Test
+  public void instanceChangeLogFollowsInstanceHoldingsAndItemChanges() throws Exception {
+    Row created = selectChangeLog(instanceId1);
+    assertThat(created.getBoolean("deleted"), is(false));
+
+    deleteAll(itemsStorageUrl(""));
+    Row itemsDeleted = selectChangeLog(instanceId1);
+    assertThat(itemsDeleted.getBoolean("deleted"), is(false));
+    assertThat(itemsDeleted.getOffsetDateTime("changed_at")
+      .isBefore(created.getOffsetDateTime("changed_at")), is(false));
+
+    deleteAll(holdingsStorageUrl(""));
+    deleteAll(instancesStorageUrl(""));
+    assertThat(selectChangeLog(instanceId1).getBoolean("deleted"), is(true));
+  }
+
+  private void executeSql(String sql) throws Exception {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    postgresClient.execute(sql, handler -> {
+      if (handler.failed()) {
+        future.completeExceptionally(handler.cause());
+        return;
+      }
+      future.complete(null);
+    });
+    future.get(5, TimeUnit.SECONDS);
+  }
+
+  private Row selectChangeLog(UUID instanceId) throws Exception {
+    CompletableFuture<Row> future = new CompletableFuture<>();
+    postgresClient.selectSingle("SELECT changed_at, deleted FROM instance_change_log"
+      + " WHERE instance_id = '" + instanceId + "'", handler -> {
+        if (handler.failed()) {
+          future.completeExceptionally(handler.cause());
+          return;
+        }
+        future.complete(handler.result());
+      });
+    return future.get(5, TimeUnit.SECONDS);
+  }
+
   private Predicate<Object> instancePredicate() {
     return jo -> StringUtils.equals(((JsonObject) jo).getString("instanceid"), instanceId1.toString());
   }
@@ -8,6 +8,7 @@ import static org.folio.rest.support.http.InterfaceUrls.holdingsStorageUrl;
 import static org.folio.rest.support.http.InterfaceUrls.instanceRelationshipsUrl;
 import static org.folio.rest.support.http.InterfaceUrls.instancesStorageUrl;
 import static org.folio.rest.support.http.InterfaceUrls.itemsStorageUrl;
+import static org.folio.rest.support.http.InterfaceUrls.locationsStorageUrl;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -123,6 +124,25 @@ public class SampleDataTest extends TestBase {
     assertMetadata(item);
   }
 
+  @Test
+  public void itemsHaveEffectiveCallNumberComponents() {
+    JsonObject itemLevel = get(itemsStorageUrl("/7212ba6a-8dcf-45a1-be9a-ffaa847c4423"))
+      .getJsonObject("effectiveCallNumberComponents");
+    assertThat(itemLevel.getString("callNumber"), is("TK5105.88815 . A58 2004 FT MEADE"));
+
+    JsonObject fromHoldings = get(itemsStorageUrl("/bc90a3c9-26c9-4519-96bc-d9d44995afef"))
+      .getJsonObject("effectiveCallNumberComponents");
+    assertThat(fromHoldings.getString("callNumber"), is("K1 .M44"));
+  }
+
+  @Test
+  public void locationAnnex() {
+    JsonObject location = get(locationsStorageUrl("/53cf956f-c1df-410b-8bea-27f712cca7c0"));
+    assertThat(location.getString("name"), is("Annex"));
+    assertThat(location.getString("campusId"), is("62cf76b7-cca5-4d33-9217-edf42ce1a848"));
+    assertMetadata(location);
+  }
+
   private JsonObject getInstanceRelationship(String id) {
     try {
       CompletableFuture<Response> getCompleted = new CompletableFuture<>();
@@ -37,6 +37,7 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
   InstanceStorageTest.class,
   InstanceBulkTest.class,
+  HoldingsAndItemBulkTest.class,
   HoldingsStorageTest.class,
   ItemStorageTest.class,
   HoldingsTypeTest.class,
@@ -66,7 +67,14 @@ import org.junit.runners.Suite;
   ItemCallNumberNormalizedTest.class,
   OaiPmhViewTest.class,
   InventoryHierarchyViewTest.class,
-  HoldingsSourceTest.class
+  DeleteAllTest.class,
+  BulkOperationsTest.class,
+  MigrationTest.class,
+  ConcurrentIndexBuilderTest.class,
+  InventoryStorageAdminTest.class,
+  InstanceCascadeDeleteTest.class,
+  HoldingsSourceTest.class,
+  AuditDeleteTest.class
 })
 public class StorageTestSuite {
   public static final String TENANT_ID = "test_tenant";
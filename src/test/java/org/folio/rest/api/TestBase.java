@@ -1,6 +1,8 @@
 package org.folio.rest.api;
 
 import static org.folio.rest.api.StorageTestSuite.TENANT_ID;
+import static org.folio.rest.support.http.InterfaceUrls.migrationsUrl;
+import static org.folio.rest.support.http.InterfaceUrls.storageJobsUrl;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -19,6 +21,7 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
 
 /**
  * When not run from StorageTestSuite then this class invokes StorageTestSuite.before() and
@@ -109,4 +112,66 @@ public abstract class TestBase {
     assertThat(response.getStatusCode(), is(HttpURLConnection.HTTP_NOT_FOUND));
   }
 
+  /**
+   * Run the data migration as a job of /inventory-storage/migrations/jobs and wait until the job
+   * has completed or failed.
+   *
+   * @return the finished job
+   */
+  static JsonObject runMigration(String migration, int parallelism) {
+    CompletableFuture<Response> postCompleted = new CompletableFuture<>();
+    client.post(migrationsUrl("/jobs"),
+      new JsonObject().put("migration", migration).put("parallelism", parallelism),
+      TENANT_ID, ResponseHandler.any(postCompleted));
+    Response response = get(postCompleted);
+    assertThat(response.getBody(), response.getStatusCode(), is(202));
+    return awaitStorageJob(response.getJson().getString("id"));
+  }
+
+  /**
+   * Wait until the job of /inventory-storage/jobs is no longer in progress.
+   *
+   * @return the finished job, or the job in progress after about 10 seconds
+   */
+  static JsonObject awaitStorageJob(String jobId) {
+    for (int i = 0; i < 100; i++) {
+      JsonObject job = getStorageJob(jobId);
+      if (! "IN_PROGRESS".equals(job.getString("status"))) {
+        return job;
+      }
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      }
+    }
+    return getStorageJob(jobId);
+  }
+
+  private static JsonObject getStorageJob(String jobId) {
+    CompletableFuture<Response> getCompleted = new CompletableFuture<>();
+    client.get(storageJobsUrl("/" + jobId), TENANT_ID, ResponseHandler.json(getCompleted));
+    Response response = get(getCompleted);
+    assertThat(response.getBody(), response.getStatusCode(), is(200));
+    return response.getJson();
+  }
+
+  /**
+   * POST the body to the url and return the response whatever its status code.
+   */
+  static Response post(URL url, JsonObject body) {
+    CompletableFuture<Response> postCompleted = new CompletableFuture<>();
+    client.post(url, body, TENANT_ID, ResponseHandler.any(postCompleted));
+    return get(postCompleted);
+  }
+
+  /**
+   * DELETE the url and return the response whatever its status code.
+   */
+  static Response delete(URL url) {
+    CompletableFuture<Response> deleteCompleted = new CompletableFuture<>();
+    client.delete(url, TENANT_ID, ResponseHandler.any(deleteCompleted));
+    return get(deleteCompleted);
+  }
 }
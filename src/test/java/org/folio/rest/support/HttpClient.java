@@ -9,6 +9,7 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import io.vertx.core.Handler;
@@ -117,6 +118,18 @@ public class HttpClient {
     request.end();
   }
 
+  public void get(
+    URL url,
+    Map<String, String> headers,
+    String tenantId,
+    Handler<HttpClientResponse> responseHandler) {
+
+    HttpClientRequest request = client.getAbs(url.toString(), responseHandler);
+    addDefaultHeaders(request, url, tenantId);
+    headers.forEach(request::putHeader);
+    request.end();
+  }
+
   public CompletableFuture<Response> get(URL url, String tenantId) {
     CompletableFuture<Response> future = new CompletableFuture<>();
     get(url, tenantId, ResponseHandler.any(future));
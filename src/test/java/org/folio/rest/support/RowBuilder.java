@@ -0,0 +1,45 @@
+package org.folio.rest.support;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.vertx.sqlclient.Row;
+
+/**
+ * Builds in-memory {@link Row}s for tests that do not need a database.
+ */
+public class RowBuilder {
+  private final List<String> names = new ArrayList<>();
+  private final List<Object> values = new ArrayList<>();
+
+  public RowBuilder with(String name, Object value) {
+    names.add(name);
+    values.add(value);
+    return this;
+  }
+
+  public Row create() {
+    final String[] columnNames = names.toArray(new String[0]);
+    final Object[] columnValues = values.toArray();
+    final List<String> columnList = List.of(columnNames);
+
+    return (Row) Proxy.newProxyInstance(Row.class.getClassLoader(),
+      new Class<?>[] {Row.class}, (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "size":
+            return columnNames.length;
+          case "getColumnName":
+            return columnNames[(Integer) args[0]];
+          case "getColumnIndex":
+            return columnList.indexOf(args[0]);
+          case "getValue":
+            return args[0] instanceof String
+              ? columnValues[columnList.indexOf(args[0])]
+              : columnValues[(Integer) args[0]];
+          default:
+            throw new UnsupportedOperationException(method.getName());
+        }
+      });
+  }
+}
@@ -0,0 +1,120 @@
+package org.folio.rest.support.benchmark;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.folio.rest.support.JsonStreamFormat;
+import org.folio.rest.support.RowBuilder;
+import org.folio.rest.support.RowJsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+
+/**
+ * Compares the former {@code JsonObject} based row conversion of
+ * {@code RowStreamToBufferAdapter} with {@link RowJsonWriter}.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.folio.rest.support.benchmark.RowJsonWriterBenchmark};
+ * the GC profiler reports the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowJsonWriterBenchmark {
+  private static final int ITEMS = 5;
+
+  private Row jsonbRow;
+  private Row textRow;
+  private RowJsonWriter writer;
+  private RowJsonWriter rawWriter;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    JsonArray items = new JsonArray();
+    for (int i = 0; i < ITEMS; i++) {
+      items.add(new JsonObject()
+        .put("id", UUID.randomUUID().toString())
+        .put("barcode", "barcode-" + i)
+        .put("callNumber", new JsonObject().put("callNumber", "PR 6056 .I4588 B749 2016"))
+        .put("location", new JsonObject().put("name", "Main Library")
+          .put("campusName", "City Campus").put("institutionName", "Primary Institution")));
+    }
+    JsonObject fields = new JsonObject().put("items", items);
+
+    UUID instanceId = UUID.randomUUID();
+    OffsetDateTime updatedDate = OffsetDateTime.now();
+    jsonbRow = new RowBuilder()
+      .with("instanceid", instanceId)
+      .with("updateddate", updatedDate)
+      .with("deleted", false)
+      .with("itemsandholdingsfields", fields)
+      .create();
+    textRow = new RowBuilder()
+      .with("instanceid", instanceId)
+      .with("updateddate", updatedDate)
+      .with("deleted", false)
+      .with("itemsandholdingsfields", fields.encode())
+      .create();
+
+    writer = new RowJsonWriter(JsonStreamFormat.CONCATENATED);
+    rawWriter = new RowJsonWriter(JsonStreamFormat.CONCATENATED, Set.of("itemsandholdingsfields"));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    writer.close();
+    rawWriter.close();
+  }
+
+  @Benchmark
+  public Buffer jsonObjectConversion() {
+    JsonObject json = new JsonObject();
+    for (int i = 0; i < jsonbRow.size(); i++) {
+      Object value = jsonbRow.getValue(i);
+      json.put(jsonbRow.getColumnName(i), value instanceof JsonObject || value instanceof JsonArray
+        ? value : value.toString());
+    }
+    return Buffer.buffer(json.toString());
+  }
+
+  @Benchmark
+  public Buffer rowJsonWriter() {
+    return writer.write(jsonbRow);
+  }
+
+  @Benchmark
+  public Buffer rowJsonWriterWithRawJson() {
+    return rawWriter.write(textRow);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(RowJsonWriterBenchmark.class.getSimpleName())
+      .addProfiler(GCProfiler.class)
+      .build()).run();
+  }
+}
@@ -111,6 +111,14 @@ public class InterfaceUrls {
     return StorageTestSuite.storageUrl("/instance-bulk" + subPath);
   }
 
+  public static URL holdingsBulkUrl(String subPath) {
+    return StorageTestSuite.storageUrl("/holdings-bulk" + subPath);
+  }
+
+  public static URL itemBulkUrl(String subPath) {
+    return StorageTestSuite.storageUrl("/item-bulk" + subPath);
+  }
+
   public static URL instanceFormatsUrl(String subPath) {
     return StorageTestSuite.storageUrl("/instance-formats" + subPath);
   }
@@ -191,6 +199,10 @@ public class InterfaceUrls {
   public static URL oaiPmhViewEnrichedInstances() {
     return StorageTestSuite.storageUrl("/oai-pmh-view/enrichedInstances");
   }
+
+  public static URL oaiPmhViewHarvestPlan(String subPath) {
+    return StorageTestSuite.storageUrl("/oai-pmh-view/harvest-plan" + subPath);
+  }
   /** EoF - these entries will be removed soon */
 
   public static URL inventoryHierarchyUpdatedInstanceIds(String subPath) {
@@ -198,6 +210,22 @@ public class InterfaceUrls {
   }
 
   public static URL inventoryHierarchyItemsAndHoldings() {
-    return StorageTestSuite.storageUrl("/inventory-hierarchy/items-and-holdings");
+    return inventoryHierarchyItemsAndHoldings("");
+  }
+
+  public static URL inventoryHierarchyItemsAndHoldings(String subPath) {
+    return StorageTestSuite.storageUrl("/inventory-hierarchy/items-and-holdings" + subPath);
+  }
+
+  public static URL storageJobsUrl(String subPath) {
+    return StorageTestSuite.storageUrl("/inventory-storage/jobs" + subPath);
+  }
+
+  public static URL migrationsUrl(String subPath) {
+    return StorageTestSuite.storageUrl("/inventory-storage/migrations" + subPath);
+  }
+
+  public static URL inventoryStorageAdminUrl(String subPath) {
+    return StorageTestSuite.storageUrl("/inventory-storage/admin" + subPath);
   }
 }
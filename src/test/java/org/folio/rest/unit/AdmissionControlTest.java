@@ -0,0 +1,128 @@
+package org.folio.rest.unit;
+
+import static org.folio.rest.support.AdmissionControl.WorkClass.BULK;
+import static org.folio.rest.support.AdmissionControl.WorkClass.INTERACTIVE;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.folio.rest.support.AdmissionControl;
+import org.folio.rest.support.AdmissionControl.Permit;
+import org.junit.Test;
+
+public class AdmissionControlTest {
+  private final List<String> started = new ArrayList<>();
+  private final List<Permit> permits = new ArrayList<>();
+
+  private boolean submit(AdmissionControl control, String tenantId, AdmissionControl.WorkClass workClass,
+    String name) {
+
+    return control.submit(tenantId, workClass, permit -> {
+      started.add(name);
+      permits.add(permit);
+    });
+  }
+
+  @Test
+  public void tenantLimitQueuesRequests() {
+    AdmissionControl control = new AdmissionControl(10, 2, 1, 10, 4, tenantId -> 1);
+
+    submit(control, "a", INTERACTIVE, "a1");
+    submit(control, "a", INTERACTIVE, "a2");
+    submit(control, "a", INTERACTIVE, "a3");
+    submit(control, "a", BULK, "b1");
+    submit(control, "a", BULK, "b2");
+
+    assertThat(started, is(Arrays.asList("a1", "a2", "b1")));
+    assertThat(control.waiting("a", INTERACTIVE), is(1));
+    assertThat(control.waiting("a", BULK), is(1));
+
+    permits.get(0).release();
+    assertThat(started, is(Arrays.asList("a1", "a2", "b1", "a3")));
+    assertThat(control.waiting("a", INTERACTIVE), is(0));
+  }
+
+  @Test
+  public void fullQueueRejects() {
+    AdmissionControl control = new AdmissionControl(1, 1, 1, 2, 4, tenantId -> 1);
+
+    assertThat(submit(control, "a", INTERACTIVE, "a1"), is(true));
+    assertThat(submit(control, "a", INTERACTIVE, "a2"), is(true));
+    assertThat(submit(control, "a", INTERACTIVE, "a3"), is(true));
+    assertThat(submit(control, "a", INTERACTIVE, "a4"), is(false));
+    // the queue of another tenant is not full
+    assertThat(submit(control, "b", INTERACTIVE, "b1"), is(true));
+
+    assertThat(started, is(Arrays.asList("a1")));
+  }
+
+  @Test
+  public void releaseIsIdempotent() {
+    AdmissionControl control = new AdmissionControl(1, 1, 1, 10, 4, tenantId -> 1);
+
+    submit(control, "a", INTERACTIVE, "a1");
+    submit(control, "a", INTERACTIVE, "a2");
+    submit(control, "a", INTERACTIVE, "a3");
+    permits.get(0).release();
+    permits.get(0).release();
+
+    assertThat(started, is(Arrays.asList("a1", "a2")));
+  }
+
+  @Test
+  public void tenantsShareFairly() {
+    AdmissionControl control = new AdmissionControl(1, 10, 10, 10, 4, tenantId -> 1);
+
+    submit(control, "a", INTERACTIVE, "a0");
+    for (int i = 1; i <= 3; i++) {
+      submit(control, "a", INTERACTIVE, "a" + i);
+    }
+    for (int i = 1; i <= 3; i++) {
+      submit(control, "b", INTERACTIVE, "b" + i);
+    }
+    for (int i = 0; i < 6; i++) {
+      permits.get(i).release();
+    }
+
+    // b does not wait behind all requests of a that were queued before
+    assertThat(started, is(Arrays.asList("a0", "b1", "a1", "b2", "a2", "b3", "a3")));
+  }
+
+  @Test
+  public void bulkCostsMore() {
+    AdmissionControl control = new AdmissionControl(1, 10, 10, 10, 2.5, tenantId -> 1);
+
+    submit(control, "a", INTERACTIVE, "a0");
+    submit(control, "a", BULK, "bulk1");
+    submit(control, "a", BULK, "bulk2");
+    for (int i = 1; i <= 4; i++) {
+      submit(control, "b", INTERACTIVE, "b" + i);
+    }
+    for (int i = 0; i < 6; i++) {
+      permits.get(i).release();
+    }
+
+    assertThat(started, is(Arrays.asList("a0", "b1", "b2", "b3", "bulk1", "b4", "bulk2")));
+  }
+
+  @Test
+  public void weightedTenantGetsMore() {
+    AdmissionControl control = new AdmissionControl(1, 10, 10, 10, 4, tenantId -> "a".equals(tenantId) ? 2 : 1);
+
+    submit(control, "c", INTERACTIVE, "c0");
+    for (int i = 1; i <= 4; i++) {
+      submit(control, "a", INTERACTIVE, "a" + i);
+    }
+    for (int i = 1; i <= 2; i++) {
+      submit(control, "b", INTERACTIVE, "b" + i);
+    }
+    for (int i = 0; i < 6; i++) {
+      permits.get(i).release();
+    }
+
+    assertThat(started, is(Arrays.asList("c0", "a1", "a2", "b1", "a3", "a4", "b2")));
+  }
+}
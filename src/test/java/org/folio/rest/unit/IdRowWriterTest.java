@@ -0,0 +1,106 @@
+package org.folio.rest.unit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.UUID;
+
+import org.folio.rest.support.IdRowWriter;
+import org.folio.rest.support.IdRowWriter.Format;
+import org.folio.rest.support.RowBuilder;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+
+public class IdRowWriterTest {
+  private static final UUID ID1 = UUID.fromString("30fcc8e7-a019-43f4-b642-2edc389f4501");
+  private static final UUID ID2 = UUID.fromString("5b1eb450-ff9f-412d-a9e7-887f6eaeb5b4");
+
+  private static Row row(UUID id) {
+    return new RowBuilder().with("id", id).create();
+  }
+
+  private static Row row(UUID id, String hrid) {
+    return new RowBuilder().with("id", id).with("hrid", hrid).create();
+  }
+
+  private static String writeAll(IdRowWriter writer, Row... rows) {
+    StringBuilder result = new StringBuilder();
+    for (Row row : rows) {
+      result.append(writer.write(row).toString());
+    }
+    result.append(writer.end().toString());
+    writer.close();
+    return result.toString();
+  }
+
+  @Test
+  public void writesIdsCollection() {
+    String json = writeAll(new IdRowWriter(Format.JSON), row(ID1), row(ID2));
+
+    assertThat(json, is("{\"ids\":[{\"id\":\"" + ID1 + "\"},{\"id\":\"" + ID2 + "\"}],\"totalRecords\":2}"));
+  }
+
+  @Test
+  public void writesEmptyIdsCollectionWhenThereAreNoRows() {
+    assertThat(writeAll(new IdRowWriter(Format.JSON)), is("{\"ids\":[],\"totalRecords\":0}"));
+  }
+
+  @Test
+  public void escapesFieldValuesAndOmitsNulls() {
+    String json = writeAll(new IdRowWriter(Format.JSON), row(ID1, "in\"1\\"), row(ID2, null));
+
+    JsonObject collection = new JsonObject(json);
+    assertThat(collection.getJsonArray("ids").getJsonObject(0).getString("hrid"), is("in\"1\\"));
+    assertThat(collection.getJsonArray("ids").getJsonObject(1).containsKey("hrid"), is(false));
+  }
+
+  @Test
+  public void writesOneIdPerLine() {
+    assertThat(writeAll(new IdRowWriter(Format.TEXT), row(ID1), row(ID2)), is(ID1 + "\n" + ID2 + "\n"));
+  }
+
+  @Test
+  public void writesTabSeparatedField() {
+    assertThat(writeAll(new IdRowWriter(Format.TEXT), row(ID1, "in\t1"), row(ID2, null)),
+      is(ID1 + "\tin 1\n" + ID2 + "\t\n"));
+  }
+
+  @Test
+  public void writesNewlineDelimitedJson() {
+    assertThat(writeAll(new IdRowWriter(Format.NDJSON), row(ID1, "in1")),
+      is("{\"id\":\"" + ID1 + "\",\"hrid\":\"in1\"}\n"));
+  }
+
+  @Test
+  public void writesRowsInChunks() {
+    IdRowWriter writer = new IdRowWriter(Format.NDJSON);
+    StringBuilder result = new StringBuilder();
+    int chunks = 0;
+
+    for (int i = 0; i < 1000; i++) {
+      String chunk = writer.write(row(ID1, "in" + i)).toString();
+      if (! chunk.isEmpty()) {
+        chunks++;
+      }
+      result.append(chunk);
+    }
+    result.append(writer.end().toString());
+    writer.close();
+
+    assertThat(chunks > 0 && chunks < 100, is(true));
+    String[] lines = result.toString().split("\n");
+    assertThat(lines.length, is(1000));
+    assertThat(new JsonObject(lines[999]).getString("hrid"), is("in999"));
+    assertThat(new JsonObject(lines[999]).getString("id"), is(ID1.toString()));
+  }
+
+  @Test
+  public void negotiatesFormat() {
+    assertThat(Format.negotiate(null), is(Format.JSON));
+    assertThat(Format.negotiate("application/json, text/plain"), is(Format.JSON));
+    assertThat(Format.negotiate("text/plain"), is(Format.TEXT));
+    assertThat(Format.negotiate("application/x-ndjson"), is(Format.NDJSON));
+  }
+}
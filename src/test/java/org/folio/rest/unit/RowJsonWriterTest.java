@@ -0,0 +1,106 @@
+package org.folio.rest.unit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import org.folio.rest.support.JsonStreamFormat;
+import org.folio.rest.support.RowBuilder;
+import org.folio.rest.support.RowJsonWriter;
+import org.junit.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Row;
+
+public class RowJsonWriterTest {
+  private static final UUID ID = UUID.fromString("30fcc8e7-a019-43f4-b642-2edc389f4501");
+
+  private static Row row(Object items) {
+    return new RowBuilder()
+      .with("instanceId", ID)
+      .with("deleted", false)
+      .with("source", null)
+      .with("items", items)
+      .create();
+  }
+
+  private static String writeAll(RowJsonWriter writer, Row... rows) {
+    StringBuilder result = new StringBuilder();
+    for (Row row : rows) {
+      result.append(writer.write(row).toString());
+    }
+    result.append(writer.end().toString());
+    writer.close();
+    return result.toString();
+  }
+
+  @Test
+  public void writesSameJsonAsJsonObjectConversion() {
+    JsonArray items = new JsonArray().add(new JsonObject().put("barcode", "a\"b"));
+    String json = writeAll(new RowJsonWriter(JsonStreamFormat.CONCATENATED), row(items));
+
+    JsonObject expected = new JsonObject()
+      .put("instanceId", ID.toString())
+      .put("deleted", "false")
+      .put("source", "")
+      .put("items", items);
+
+    assertThat(new JsonObject(json), is(expected));
+  }
+
+  @Test
+  public void writesRawJsonColumnsWithoutReencoding() {
+    String json = writeAll(new RowJsonWriter(JsonStreamFormat.CONCATENATED, Set.of("items")),
+      row("[{\"barcode\": 1}]"));
+
+    assertThat(json, is("{\"instanceId\":\"" + ID + "\",\"deleted\":\"false\","
+      + "\"source\":\"\",\"items\":[{\"barcode\": 1}]}"));
+  }
+
+  @Test
+  public void writesOtherValuesAsStrings() {
+    OffsetDateTime date = OffsetDateTime.parse("2020-07-01T10:00:00Z");
+    String json = writeAll(new RowJsonWriter(JsonStreamFormat.CONCATENATED),
+      new RowBuilder().with("updatedDate", date).create());
+
+    assertThat(new JsonObject(json).getString("updatedDate"), is(date.toString()));
+  }
+
+  @Test
+  public void concatenatesObjectsWithoutSeparator() {
+    String json = writeAll(new RowJsonWriter(JsonStreamFormat.CONCATENATED),
+      new RowBuilder().with("a", 1).create(), new RowBuilder().with("a", 2).create());
+
+    assertThat(json, is("{\"a\":\"1\"}{\"a\":\"2\"}"));
+  }
+
+  @Test
+  public void writesJsonArray() {
+    String json = writeAll(new RowJsonWriter(JsonStreamFormat.ARRAY),
+      new RowBuilder().with("a", 1).create(), new RowBuilder().with("a", 2).create());
+
+    assertThat(json, is("[{\"a\":\"1\"},{\"a\":\"2\"}]"));
+  }
+
+  @Test
+  public void writesEmptyJsonArrayWhenThereAreNoRows() {
+    assertThat(writeAll(new RowJsonWriter(JsonStreamFormat.ARRAY)), is("[]"));
+  }
+
+  @Test
+  public void writesNewlineDelimitedJson() {
+    String json = writeAll(new RowJsonWriter(JsonStreamFormat.NDJSON),
+      new RowBuilder().with("a", 1).create(), new RowBuilder().with("a", 2).create());
+
+    assertThat(json, is("{\"a\":\"1\"}\n{\"a\":\"2\"}\n"));
+  }
+
+  @Test
+  public void writesNothingForEmptyNewlineDelimitedJson() {
+    assertThat(writeAll(new RowJsonWriter(JsonStreamFormat.NDJSON)), is(""));
+  }
+}
@@ -0,0 +1,125 @@
+package org.folio.rest.unit;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.folio.rest.support.JsonStreamFormat;
+import org.folio.rest.support.RowBuilder;
+import org.folio.rest.support.RowStreamToBufferAdapter;
+import org.folio.rest.support.RowWriter;
+import org.folio.rest.support.StreamOptions;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowStream;
+
+public class RowStreamToBufferAdapterTest {
+  private static Vertx vertx;
+
+  @BeforeClass
+  public static void setUpClass() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    vertx.close();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static RowStream<Row> rowStream() {
+    return mock(RowStream.class);
+  }
+
+  private static RowStreamToBufferAdapter adapter(RowStream<Row> rows, StreamOptions options,
+    CompletableFuture<Throwable> failure) {
+
+    RowStreamToBufferAdapter adapter = new RowStreamToBufferAdapter(rows,
+      JsonStreamFormat.CONCATENATED, Collections.emptySet(), vertx, options);
+    adapter.exceptionHandler(failure::complete);
+    adapter.handler(buffer -> {});
+    return adapter;
+  }
+
+  @Test
+  public void failsWhenPausedTooLong() throws Exception {
+    RowStream<Row> rows = rowStream();
+    CompletableFuture<Throwable> failure = new CompletableFuture<>();
+
+    adapter(rows, new StreamOptions(10, 50, 0), failure).pause();
+
+    assertThat(failure.get(5, TimeUnit.SECONDS), is(instanceOf(TimeoutException.class)));
+    verify(rows).close();
+  }
+
+  @Test
+  public void failsWhenRunningTooLong() throws Exception {
+    RowStream<Row> rows = rowStream();
+    CompletableFuture<Throwable> failure = new CompletableFuture<>();
+
+    adapter(rows, new StreamOptions(10, 0, 50), failure);
+
+    assertThat(failure.get(5, TimeUnit.SECONDS), is(instanceOf(TimeoutException.class)));
+    verify(rows).close();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void countsRowsAndBytesAndStopsTimersAtEnd() throws Exception {
+    RowStream<Row> rows = rowStream();
+    CompletableFuture<Throwable> failure = new CompletableFuture<>();
+    RowStreamToBufferAdapter adapter = adapter(rows, new StreamOptions(10, 50, 50), failure);
+    CompletableFuture<Void> ended = new CompletableFuture<>();
+    adapter.endHandler(ended::complete);
+
+    ArgumentCaptor<Handler<Row>> rowHandler = ArgumentCaptor.forClass(Handler.class);
+    ArgumentCaptor<Handler<Void>> endHandler = ArgumentCaptor.forClass(Handler.class);
+    verify(rows).handler(rowHandler.capture());
+    verify(rows).endHandler(endHandler.capture());
+
+    adapter.pause();
+    adapter.resume();
+    rowHandler.getValue().handle(new RowBuilder().with("a", 1).create());
+    endHandler.getValue().handle(null);
+    ended.get(5, TimeUnit.SECONDS);
+
+    assertThat(adapter.getStatistics().getRows(), is(1L));
+    assertThat(adapter.getStatistics().getBytes(), is((long) "{\"a\":\"1\"}".length()));
+    assertThat(adapter.getStatistics().getPauses(), is(1L));
+
+    Thread.sleep(200);
+    assertThat(failure.isDone(), is(false));
+    verify(rows).close();
+  }
+
+  @Test
+  public void failReleasesWriterAndCursor() throws Exception {
+    RowStream<Row> rows = rowStream();
+    RowWriter writer = mock(RowWriter.class);
+    CompletableFuture<Throwable> failure = new CompletableFuture<>();
+    RowStreamToBufferAdapter adapter = new RowStreamToBufferAdapter(rows, writer, vertx,
+      new StreamOptions(10, 0, 0));
+    adapter.exceptionHandler(failure::complete);
+    adapter.handler(buffer -> {});
+
+    adapter.fail(new IllegalStateException("closed"));
+    adapter.fail(new IllegalStateException("closed again"));
+
+    assertThat(failure.get(5, TimeUnit.SECONDS).getMessage(), is("closed"));
+    verify(writer).close();
+    verify(rows).close();
+  }
+}
@@ -0,0 +1,73 @@
+package org.folio.rest.unit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.folio.rest.jaxrs.model.SlowQuery;
+import org.folio.rest.support.SlowQueryLog;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.vertx.sqlclient.Tuple;
+
+public class SlowQueryLogTest {
+  private static final String TENANT = "slow_query_log_test";
+  private static final String OTHER_TENANT = "slow_query_log_test_other";
+
+  @Before
+  public void clear() {
+    SlowQueryLog.clear(TENANT);
+    SlowQueryLog.clear(OTHER_TENANT);
+  }
+
+  @Test
+  public void fastQueryIsNotRecorded() {
+    SlowQueryLog.start(TENANT, "GET /item-storage/items", "barcode==1", () -> "SELECT 1", null)
+      .finished(1L, null);
+
+    assertThat(SlowQueryLog.get(TENANT).size(), is(0));
+  }
+
+  @Test
+  public void slowQueryIsRecorded() throws InterruptedException {
+    SlowQueryLog.Query query = SlowQueryLog.start(TENANT, "GET /item-storage/items", "barcode==1",
+      () -> "SELECT jsonb FROM item WHERE barcode = $1", Tuple.of("1", null));
+    // default threshold is one second
+    Thread.sleep(1000);
+    query.finished(3L, null);
+
+    List<SlowQuery> records = SlowQueryLog.get(TENANT);
+    assertThat(records.size(), is(1));
+    SlowQuery record = records.get(0);
+    assertThat(record.getTenant(), is(TENANT));
+    assertThat(record.getEndpoint(), is("GET /item-storage/items"));
+    assertThat(record.getCql(), is("barcode==1"));
+    assertThat(record.getSql(), is("SELECT jsonb FROM item WHERE barcode = $1"));
+    assertThat(record.getParameters(), is(Arrays.asList("1", null)));
+    assertThat(record.getRows(), is(3));
+    assertThat(record.getError(), is(nullValue()));
+    assertThat(record.getSampled(), is(false));
+    assertThat(record.getDurationMs() >= 1000, is(true));
+    assertThat(SlowQueryLog.get("other_tenant").size(), is(0));
+  }
+
+  @Test
+  public void tenantsHaveSeparateRecords() throws InterruptedException {
+    SlowQueryLog.Query query = SlowQueryLog.start(TENANT, "GET /item-storage/items", null, () -> "SELECT 1", null);
+    SlowQueryLog.Query otherQuery =
+      SlowQueryLog.start(OTHER_TENANT, "GET /item-storage/items", null, () -> "SELECT 2", null);
+    Thread.sleep(1000);
+    query.finished(1L, null);
+    otherQuery.finished(1L, null);
+
+    assertThat(SlowQueryLog.get(TENANT).size(), is(1));
+    assertThat(SlowQueryLog.get(TENANT).get(0).getSql(), is("SELECT 1"));
+    SlowQueryLog.clear(OTHER_TENANT);
+    assertThat(SlowQueryLog.get(OTHER_TENANT).size(), is(0));
+    assertThat(SlowQueryLog.get(TENANT).size(), is(1));
+  }
+}